@@ -0,0 +1,148 @@
+package dev.sergheev.commandbus.benchmark;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Compares two JMH result files written with {@code -rf csv} and reports the change of every score.
+ *
+ * <p>A score counts as a regression when it got worse by more than the given threshold
+ * (in percent of the baseline score) and the difference does not fit in the sum of both
+ * error margins. Scores whose unit has no better direction (i.e. allocation rates per
+ * second) are reported but never counted as regressions. The process exits with status
+ * {@code 1} when at least one regression was found, so it can gate a build.
+ *
+ * <p>Usage: {@code BaselineComparator <baseline.csv> <current.csv> [thresholdPercent]}
+ */
+public final class BaselineComparator {
+
+    private static final double DEFAULT_THRESHOLD_PERCENT = 5.0;
+
+    public static void main(String[] args) throws IOException {
+        if(args.length < 2 || args.length > 3) {
+            System.err.println("Usage: BaselineComparator <baseline.csv> <current.csv> [thresholdPercent]");
+            System.exit(2);
+        }
+        final Map<String, Result> baseline = read(args[0]);
+        final Map<String, Result> current = read(args[1]);
+        final double threshold = args.length == 3 ? Double.parseDouble(args[2]) : DEFAULT_THRESHOLD_PERCENT;
+        int regressions = 0;
+        for(Map.Entry<String, Result> entry : current.entrySet()) {
+            final Result before = baseline.get(entry.getKey());
+            final Result after = entry.getValue();
+            if(before == null) {
+                System.out.printf(Locale.ROOT, "%-100s %14s %14.3f %10s  new%n", entry.getKey(), "-", after.score, after.unit);
+                continue;
+            }
+            final double change = before.score == 0 ? 0 : (after.score - before.score) / Math.abs(before.score) * 100;
+            final String verdict = verdictOf(before, after, threshold);
+            if("REGRESSION".equals(verdict)) regressions++;
+            System.out.printf(Locale.ROOT, "%-100s %14.3f %14.3f %10s %+8.2f%%  %s%n",
+                    entry.getKey(), before.score, after.score, after.unit, change, verdict);
+        }
+        for(String missing : baseline.keySet()) {
+            if(!current.containsKey(missing)) System.out.printf(Locale.ROOT, "%-100s  removed%n", missing);
+        }
+        System.out.printf(Locale.ROOT, "%d regression(s) above %.2f%%%n", regressions, threshold);
+        if(regressions > 0) System.exit(1);
+    }
+
+    private static String verdictOf(Result before, Result after, double threshold) {
+        final int direction = directionOf(after.unit);
+        if(direction == 0) return "";
+        final double worsening = (before.score - after.score) * direction;
+        final double noise = before.error + after.error;
+        final boolean significant = Math.abs(worsening) > noise
+                && Math.abs(worsening) > Math.abs(before.score) * threshold / 100;
+        if(!significant) return "";
+        return worsening > 0 ? "REGRESSION" : "improvement";
+    }
+
+    /**
+     * Returns {@code 1} if a higher score is better, {@code -1} if a lower score is better and {@code 0} if unknown.
+     */
+    private static int directionOf(String unit) {
+        if(unit.startsWith("ops/")) return 1;
+        if(unit.endsWith("/op")) return -1;
+        return 0;
+    }
+
+    private static Map<String, Result> read(String file) throws IOException {
+        final List<String> lines = Files.readAllLines(Paths.get(file), StandardCharsets.UTF_8);
+        if(lines.isEmpty()) throw new IllegalArgumentException(file + " is empty");
+        final List<String> header = parseLine(lines.get(0));
+        final int benchmark = header.indexOf("Benchmark");
+        final int mode = header.indexOf("Mode");
+        final int threads = header.indexOf("Threads");
+        final int score = header.indexOf("Score");
+        final int error = header.indexOf("Score Error (99.9%)");
+        final int unit = header.indexOf("Unit");
+        if(benchmark < 0 || score < 0 || unit < 0) throw new IllegalArgumentException(file + " is not a JMH csv result file");
+        final Map<String, Result> results = new LinkedHashMap<>();
+        for(String line : lines.subList(1, lines.size())) {
+            if(line.trim().isEmpty()) continue;
+            final List<String> fields = parseLine(line);
+            final StringBuilder key = new StringBuilder(fields.get(benchmark));
+            if(mode >= 0) key.append(' ').append(fields.get(mode));
+            if(threads >= 0) key.append(" t=").append(fields.get(threads));
+            for(int i = 0; i < header.size(); i++) {
+                if(header.get(i).startsWith("Param: ")) key.append(' ').append(header.get(i).substring(7)).append('=').append(fields.get(i));
+            }
+            results.put(key.toString(), new Result(parseDouble(fields.get(score)), error < 0 ? 0 : parseDouble(fields.get(error)), fields.get(unit)));
+        }
+        return results;
+    }
+
+    private static double parseDouble(String value) {
+        final double parsed = Double.parseDouble(value.replace(',', '.'));
+        return Double.isNaN(parsed) ? 0 : parsed;
+    }
+
+    private static List<String> parseLine(String line) {
+        final List<String> fields = new ArrayList<>();
+        final StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for(int i = 0; i < line.length(); i++) {
+            final char c = line.charAt(i);
+            if(c == '"') {
+                if(quoted && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = !quoted;
+                }
+            } else if(c == ',' && !quoted) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static final class Result {
+
+        private final double score;
+
+        private final double error;
+
+        private final String unit;
+
+        private Result(double score, double error, String unit) {
+            this.score = score;
+            this.error = error;
+            this.unit = unit;
+        }
+
+    }
+
+}
@@ -0,0 +1,10 @@
+package dev.sergheev.commandbus.benchmark;
+
+import dev.sergheev.commandbus.Command;
+
+/**
+ * A base class for the command types generated by {@link GeneratedTypes}.
+ */
+public class BenchmarkCommand implements Command {
+
+}
@@ -0,0 +1,119 @@
+package dev.sergheev.commandbus.benchmark;
+
+import dev.sergheev.commandbus.AsyncCommandBus;
+import dev.sergheev.commandbus.Command;
+import dev.sergheev.commandbus.CommandHandler;
+import dev.sergheev.commandbus.SimpleCommandBusBuilder;
+import dev.sergheev.commandbus.mapping.CommandMapping;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of {@code SimpleAsyncCommandBus} with handlers that block,
+ * comparing one virtual thread per command against a fixed pool of platform threads.
+ *
+ * <p>Every invocation submits a burst of commands whose handlers sleep for the given
+ * amount of milliseconds, and waits until all of them complete. The {@code virtual}
+ * executor requires running the benchmarks on Java 21 or later.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BlockingHandlerBenchmark {
+
+    private static final int BURST_SIZE = 1000;
+
+    @Param({ "virtual", "fixed" })
+    public String executor;
+
+    @Param({ "64" })
+    public int poolSize;
+
+    @Param({ "1" })
+    public long blockMillis;
+
+    private ExecutorService fixedPool;
+
+    private AsyncCommandBus bus;
+
+    private BlockingCommand command;
+
+    public static class BlockingCommand implements Command {
+
+        private final long millis;
+
+        public BlockingCommand(long millis) {
+            this.millis = millis;
+        }
+
+    }
+
+    @CommandMapping(BlockingCommand.class)
+    public static class BlockingCommandHandler implements CommandHandler<BlockingCommand, Boolean> {
+
+        @Override
+        public Boolean handle(BlockingCommand command) {
+            try {
+                Thread.sleep(command.millis);
+                return true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        final SimpleCommandBusBuilder builder = SimpleCommandBusBuilder.create()
+                .registerHandler(BlockingCommandHandler.class, new BlockingCommandHandler());
+        switch (executor) {
+            case "virtual":
+                builder.virtualThreads();
+                break;
+            case "fixed":
+                fixedPool = Executors.newFixedThreadPool(poolSize);
+                builder.withExecutor(fixedPool);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown executor " + executor);
+        }
+        bus = builder.buildAsync();
+        command = new BlockingCommand(blockMillis);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if(fixedPool != null) fixedPool.shutdownNow();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BURST_SIZE)
+    public void executeBurst() {
+        final CompletableFuture<?>[] results = new CompletableFuture<?>[BURST_SIZE];
+        for(int i = 0; i < BURST_SIZE; i++) results[i] = bus.executeAsync(command);
+        CompletableFuture.allOf(results).join();
+    }
+
+}
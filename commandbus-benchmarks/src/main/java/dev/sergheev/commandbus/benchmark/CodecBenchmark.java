@@ -0,0 +1,122 @@
+package dev.sergheev.commandbus.benchmark;
+
+import dev.sergheev.commandbus.Command;
+import dev.sergheev.commandbus.codec.BinaryCommandCodecBuilder;
+import dev.sergheev.commandbus.codec.CommandCodec;
+import dev.sergheev.commandbus.codec.SerializationCommandCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the encoding and decoding cost of {@code BinaryCommandCodec} against the
+ * {@code SerializationCommandCodec}, with a command of two {@code int} fields (as the
+ * {@code SumCommand} of the demo) and one that also holds a string, into a direct buffer.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CodecBenchmark {
+
+    @Param({ "BINARY", "SERIALIZATION" })
+    public String codec;
+
+    @Param({ "SUM", "TRANSFER" })
+    public String command;
+
+    private CommandCodec commandCodec;
+
+    private Command commandInstance;
+
+    private ByteBuffer buffer;
+
+    /**
+     * The encoded {@link #commandInstance}, from position {@code 0} up to the limit.
+     */
+    private ByteBuffer encoded;
+
+    public static class SumCommand implements Command, Serializable {
+
+        private final int firstNumber;
+
+        private final int secondNumber;
+
+        private SumCommand() {
+            this(0, 0);
+        }
+
+        public SumCommand(int firstNumber, int secondNumber) {
+            this.firstNumber = firstNumber;
+            this.secondNumber = secondNumber;
+        }
+
+    }
+
+    public static class TransferCommand implements Command, Serializable {
+
+        private final String account;
+
+        private final long amount;
+
+        private final boolean isUrgent;
+
+        private TransferCommand() {
+            this(null, 0, false);
+        }
+
+        public TransferCommand(String account, long amount, boolean isUrgent) {
+            this.account = account;
+            this.amount = amount;
+            this.isUrgent = isUrgent;
+        }
+
+    }
+
+    @Setup
+    public void setUp() {
+        switch (codec) {
+            case "BINARY":
+                commandCodec = BinaryCommandCodecBuilder.create().register(SumCommand.class).register(TransferCommand.class).build();
+                break;
+            case "SERIALIZATION":
+                commandCodec = new SerializationCommandCodec();
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown codec " + codec);
+        }
+        commandInstance = "SUM".equals(command) ? new SumCommand(3, 4) : new TransferCommand("FR76-3000-6000-0112-3456-7890-189", 12_500L, true);
+        buffer = ByteBuffer.allocateDirect(1024);
+        encoded = ByteBuffer.allocateDirect(1024);
+        commandCodec.encode(commandInstance, encoded);
+        encoded.flip();
+    }
+
+    @Benchmark
+    public ByteBuffer encode() {
+        buffer.clear();
+        commandCodec.encode(commandInstance, buffer);
+        return buffer;
+    }
+
+    @Benchmark
+    public Command decode() {
+        encoded.position(0);
+        return commandCodec.decode(encoded);
+    }
+
+}
@@ -0,0 +1,152 @@
+package dev.sergheev.commandbus.benchmark;
+
+import dev.sergheev.commandbus.Command;
+import dev.sergheev.commandbus.CommandBus;
+import dev.sergheev.commandbus.CommandHandler;
+import dev.sergheev.commandbus.CommandHandlerFinder;
+import dev.sergheev.commandbus.SimpleCommandBusBuilder;
+import dev.sergheev.commandbus.SimpleCommandHandlerFinder;
+import dev.sergheev.commandbus.registry.CommandHandlerRegistry;
+import dev.sergheev.commandbus.registry.CommandHandlerRegistryFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the {@code SimpleCommandBus.execute} hot path and the handler lookups behind it.
+ *
+ * <p>Every combination of registry backend and registry size is measured for hit
+ * lookups (the command has a handler) and miss lookups (it does not), both from a
+ * single thread and from as many threads as there are available processors. A miss
+ * is measured at the finder level, because the bus turns it into an exception.
+ *
+ * <p>Run with {@code -prof gc} to get the allocation profile of each case.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class DispatchBenchmark {
+
+    /**
+     * The amount of commands the measured methods rotate through (a power of two).
+     */
+    private static final int SAMPLE_SIZE = 1024;
+
+    private static final int SAMPLE_MASK = SAMPLE_SIZE - 1;
+
+    @Param({ "simple", "concurrent", "frozen" })
+    public String registry;
+
+    @Param({ "10", "1000", "50000" })
+    public int handlers;
+
+    private CommandBus bus;
+
+    private CommandHandlerFinder finder;
+
+    private Command[] hitCommands;
+
+    private String[] hitCommandNames;
+
+    private Class<? extends Command>[] missCommandTypes;
+
+    @Setup(Level.Trial)
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    public void setUp() {
+        final GeneratedTypes mapped = GeneratedTypes.withHandlers("Mapped", handlers);
+        final GeneratedTypes unmapped = GeneratedTypes.withoutHandlers("Unmapped", 64);
+        final Map<Class<? extends CommandHandler>, Object> classToInstance = new HashMap<>();
+        for(int i = 0; i < handlers; i++) classToInstance.put(mapped.handlerTypes().get(i), mapped.newHandler(i));
+        final CommandHandlerRegistry handlerRegistry = newRegistry(registry, classToInstance);
+        bus = SimpleCommandBusBuilder.create().withRegistry(handlerRegistry).build();
+        finder = new SimpleCommandHandlerFinder(handlerRegistry);
+        final Random random = new Random(42);
+        hitCommands = new Command[SAMPLE_SIZE];
+        hitCommandNames = new String[SAMPLE_SIZE];
+        missCommandTypes = new Class[SAMPLE_SIZE];
+        for(int i = 0; i < SAMPLE_SIZE; i++) {
+            final int index = random.nextInt(handlers);
+            hitCommands[i] = mapped.newCommand(index);
+            hitCommandNames[i] = hitCommands[i].getClass().getName();
+            missCommandTypes[i] = unmapped.commandTypes().get(random.nextInt(unmapped.commandTypes().size()));
+        }
+    }
+
+    @SuppressWarnings("rawtypes")
+    static CommandHandlerRegistry newRegistry(String name, Map<Class<? extends CommandHandler>, Object> classToInstance) {
+        final CommandHandlerRegistry handlerRegistry;
+        switch (name) {
+            case "simple": handlerRegistry = CommandHandlerRegistryFactory.newRegistry(); break;
+            case "concurrent": handlerRegistry = CommandHandlerRegistryFactory.newConcurrentRegistry(); break;
+            case "frozen": return CommandHandlerRegistryFactory.newFrozenRegistry(classToInstance);
+            default: throw new IllegalArgumentException("Unknown registry " + name);
+        }
+        handlerRegistry.registerHandlers(classToInstance);
+        return handlerRegistry;
+    }
+
+    /**
+     * A per-thread position in the sampled commands.
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+
+        private int index;
+
+        int next() {
+            return index = (index + 1) & SAMPLE_MASK;
+        }
+
+    }
+
+    @Benchmark
+    public Object executeHit(Cursor cursor) {
+        return bus.execute(hitCommands[cursor.next()]);
+    }
+
+    @Benchmark
+    public CommandHandler<Command, Object> findHit(Cursor cursor) {
+        return finder.findHandlerFor(hitCommands[cursor.next()].getClass());
+    }
+
+    @Benchmark
+    public CommandHandler<Command, Object> findHitByName(Cursor cursor) {
+        return finder.findHandlerFor(hitCommandNames[cursor.next()]);
+    }
+
+    @Benchmark
+    public CommandHandler<Command, Object> findMiss(Cursor cursor) {
+        return finder.findHandlerFor(missCommandTypes[cursor.next()]);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public Object executeHitMultiThreaded(Cursor cursor) {
+        return bus.execute(hitCommands[cursor.next()]);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public CommandHandler<Command, Object> findMissMultiThreaded(Cursor cursor) {
+        return finder.findHandlerFor(missCommandTypes[cursor.next()]);
+    }
+
+}
@@ -0,0 +1,164 @@
+package dev.sergheev.commandbus.benchmark;
+
+import dev.sergheev.commandbus.mapping.CommandMapping;
+import net.bytebuddy.ByteBuddy;
+import net.bytebuddy.description.annotation.AnnotationDescription;
+import net.bytebuddy.dynamic.DynamicType;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Generates distinct command and handler types at runtime, so registries can be
+ * filled with thousands of real {@link CommandMapping} associations without
+ * having to ship thousands of source files.
+ */
+public final class GeneratedTypes {
+
+    /**
+     * The name of the package in which all the generated types are defined.
+     */
+    public static final String GENERATED_PACKAGE_NAME = "dev.sergheev.commandbus.benchmark.generated";
+
+    private static final String GENERATED_PACKAGE = GENERATED_PACKAGE_NAME + ".";
+
+    /**
+     * Generates {@code count} command types with one mapped handler type each.
+     * @param prefix a prefix that keeps the generated type names unique
+     * @param count the amount of command-handler pairs to generate
+     * @return the generated types
+     */
+    public static GeneratedTypes withHandlers(String prefix, int count) {
+        return generate(prefix, count, true);
+    }
+
+    /**
+     * Generates {@code count} command types without any handler mapped to them.
+     * @param prefix a prefix that keeps the generated type names unique
+     * @param count the amount of command types to generate
+     * @return the generated types
+     */
+    public static GeneratedTypes withoutHandlers(String prefix, int count) {
+        return generate(prefix, count, false);
+    }
+
+    /**
+     * Generates {@code count} command types with one mapped handler type each, and writes their
+     * class files into the given directory instead of defining them, so they can be loaded from it.
+     * @param prefix a prefix that keeps the generated type names unique
+     * @param count the amount of command-handler pairs to generate
+     * @param directory the root directory of the written class files
+     * @throws IOException if the class files cannot be written
+     * @return the binary names of the generated handler types
+     */
+    public static List<String> writeHandlers(String prefix, int count, File directory) throws IOException {
+        final ByteBuddy byteBuddy = new ByteBuddy();
+        final List<String> handlerNames = new ArrayList<>(count);
+        for(int i = 0; i < count; i++) {
+            final DynamicType.Unloaded<BenchmarkCommand> command = byteBuddy.subclass(BenchmarkCommand.class)
+                    .name(GENERATED_PACKAGE + prefix + "Command" + i)
+                .make();
+            final String handlerName = GENERATED_PACKAGE + prefix + "CommandHandler" + i;
+            final AnnotationDescription mapping = AnnotationDescription.Builder.ofType(CommandMapping.class)
+                    .define("value", command.getTypeDescription())
+                .build();
+            command.saveIn(directory);
+            byteBuddy.subclass(BenchmarkCommandHandler.class).name(handlerName).annotateType(mapping).make().saveIn(directory);
+            handlerNames.add(handlerName);
+        }
+        return handlerNames;
+    }
+
+    private static GeneratedTypes generate(String prefix, int count, boolean withHandlers) {
+        final ByteBuddy byteBuddy = new ByteBuddy();
+        final DefiningClassLoader loader = new DefiningClassLoader(GeneratedTypes.class.getClassLoader());
+        final List<Class<? extends BenchmarkCommand>> commandTypes = new ArrayList<>(count);
+        final List<Class<? extends BenchmarkCommandHandler>> handlerTypes = new ArrayList<>(withHandlers ? count : 0);
+        for(int i = 0; i < count; i++) {
+            final String commandName = GENERATED_PACKAGE + prefix + "Command" + i;
+            final byte[] commandBytes = byteBuddy.subclass(BenchmarkCommand.class).name(commandName).make().getBytes();
+            final Class<? extends BenchmarkCommand> commandType = loader.define(commandName, commandBytes).asSubclass(BenchmarkCommand.class);
+            commandTypes.add(commandType);
+            if(!withHandlers) continue;
+            final String handlerName = GENERATED_PACKAGE + prefix + "CommandHandler" + i;
+            final AnnotationDescription mapping = AnnotationDescription.Builder.ofType(CommandMapping.class)
+                    .define("value", commandType)
+                .build();
+            final byte[] handlerBytes = byteBuddy.subclass(BenchmarkCommandHandler.class).name(handlerName)
+                    .annotateType(mapping)
+                .make().getBytes();
+            handlerTypes.add(loader.define(handlerName, handlerBytes).asSubclass(BenchmarkCommandHandler.class));
+        }
+        return new GeneratedTypes(commandTypes, handlerTypes);
+    }
+
+    private final List<Class<? extends BenchmarkCommand>> commandTypes;
+
+    private final List<Class<? extends BenchmarkCommandHandler>> handlerTypes;
+
+    private GeneratedTypes(List<Class<? extends BenchmarkCommand>> commandTypes, List<Class<? extends BenchmarkCommandHandler>> handlerTypes) {
+        this.commandTypes = Collections.unmodifiableList(commandTypes);
+        this.handlerTypes = Collections.unmodifiableList(handlerTypes);
+    }
+
+    /**
+     * Returns the generated command types.
+     * @return the generated command types
+     */
+    public List<Class<? extends BenchmarkCommand>> commandTypes() {
+        return commandTypes;
+    }
+
+    /**
+     * Returns the generated handler types, the handler at index {@code i} is mapped to the command at index {@code i}.
+     * @return the generated handler types
+     */
+    public List<Class<? extends BenchmarkCommandHandler>> handlerTypes() {
+        return handlerTypes;
+    }
+
+    /**
+     * Instantiates a new command of the generated type at the given index.
+     * @param index the index of the command type
+     * @return a new command instance
+     */
+    public BenchmarkCommand newCommand(int index) {
+        return instantiate(commandTypes.get(index));
+    }
+
+    /**
+     * Instantiates a new handler of the generated type at the given index.
+     * @param index the index of the handler type
+     * @return a new handler instance
+     */
+    public BenchmarkCommandHandler newHandler(int index) {
+        return instantiate(handlerTypes.get(index));
+    }
+
+    private static <T> T instantiate(Class<T> type) {
+        try {
+            return type.getConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Unable to instantiate " + type.getName(), e);
+        }
+    }
+
+    /**
+     * A class loader that defines the generated classes from their bytes.
+     */
+    private static final class DefiningClassLoader extends ClassLoader {
+
+        private DefiningClassLoader(ClassLoader parent) {
+            super(parent);
+        }
+
+        private Class<?> define(String name, byte[] bytes) {
+            return defineClass(name, bytes, 0, bytes.length);
+        }
+
+    }
+
+}
@@ -0,0 +1,113 @@
+package dev.sergheev.commandbus.benchmark;
+
+import dev.sergheev.commandbus.Command;
+import dev.sergheev.commandbus.codec.SerializationCommandCodec;
+import dev.sergheev.commandbus.journal.CommandJournal;
+import dev.sergheev.commandbus.journal.CommandJournalBuilder;
+import dev.sergheev.commandbus.journal.FsyncPolicy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Measures the sustained append throughput of {@code CommandJournal} from several
+ * threads with every fsync policy, including the segment roll-overs.
+ *
+ * <p>The journal is written to a temporary directory (on the default file system of
+ * the machine), which is deleted after every trial. The {@code EVERY_WRITE} case is
+ * bound by the latency of the storage device, amortized by the group commit.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class JournalBenchmark {
+
+    @Param({ "OS_MANAGED", "INTERVAL", "EVERY_WRITE" })
+    public String fsync;
+
+    @Param({ "67108864" })
+    public int segmentSize;
+
+    private Path directory;
+
+    private CommandJournal journal;
+
+    private TransferCommand command;
+
+    public static class TransferCommand implements Command, Serializable {
+
+        private final long from;
+
+        private final long to;
+
+        private final long amount;
+
+        public TransferCommand(long from, long to, long amount) {
+            this.from = from;
+            this.to = to;
+            this.amount = amount;
+        }
+
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        final FsyncPolicy fsyncPolicy;
+        switch (fsync) {
+            case "OS_MANAGED":
+                fsyncPolicy = FsyncPolicy.osManaged();
+                break;
+            case "INTERVAL":
+                fsyncPolicy = FsyncPolicy.interval(10, TimeUnit.MILLISECONDS);
+                break;
+            case "EVERY_WRITE":
+                fsyncPolicy = FsyncPolicy.everyWrite();
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown fsync policy " + fsync);
+        }
+        directory = Files.createTempDirectory("commandbus-journal");
+        journal = CommandJournalBuilder.create(directory, new SerializationCommandCodec())
+                .withSegmentSize(segmentSize)
+                .withFsyncPolicy(fsyncPolicy)
+            .open();
+        command = new TransferCommand(1L, 2L, 100L);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        journal.close();
+        try(Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public long append() {
+        return journal.append(command);
+    }
+
+}
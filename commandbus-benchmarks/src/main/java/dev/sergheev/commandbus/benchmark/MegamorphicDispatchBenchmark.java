@@ -0,0 +1,522 @@
+package dev.sergheev.commandbus.benchmark;
+
+import dev.sergheev.commandbus.Command;
+import dev.sergheev.commandbus.CommandHandler;
+import dev.sergheev.commandbus.SimpleCommandBus;
+import dev.sergheev.commandbus.SimpleCommandBusBuilder;
+import dev.sergheev.commandbus.mapping.CommandMapping;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of dispatching {@value #TYPES} command types in rotation, each
+ * handled by a handler class of its own (with its own body, so the handlers cannot
+ * share a compiled method).
+ *
+ * <p>Commands are dispatched either through {@link SimpleCommandBus#execute(Command)}
+ * or through the dispatchers returned by {@link SimpleCommandBus#dispatcherFor(Class)},
+ * from a single call site shared by every type ({@code shared}), or from a call site
+ * per type ({@code perType}), as callers that always execute the same command do. Only
+ * a per-type call site of a dispatcher lets the JIT compiler inline the handler.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@SuppressWarnings({ "rawtypes", "unchecked" })
+public class MegamorphicDispatchBenchmark {
+
+    /**
+     * The amount of command types in rotation.
+     */
+    static final int TYPES = 24;
+
+    /**
+     * A command that carries the number its handler computes with.
+     */
+    public abstract static class NumberCommand implements Command {
+
+        final int number;
+
+        NumberCommand(int number) {
+            this.number = number;
+        }
+
+    }
+
+    public static final class Command0 extends NumberCommand {
+        public Command0(int number) {
+            super(number);
+        }
+    }
+
+    @CommandMapping(Command0.class)
+    public static final class Handler0 implements CommandHandler<Command0, Integer> {
+        public Integer handle(Command0 command) {
+            return command.number * 3;
+        }
+    }
+
+    public static final class Command1 extends NumberCommand {
+        public Command1(int number) {
+            super(number);
+        }
+    }
+
+    @CommandMapping(Command1.class)
+    public static final class Handler1 implements CommandHandler<Command1, Integer> {
+        public Integer handle(Command1 command) {
+            return command.number * 5 + 1;
+        }
+    }
+
+    public static final class Command2 extends NumberCommand {
+        public Command2(int number) {
+            super(number);
+        }
+    }
+
+    @CommandMapping(Command2.class)
+    public static final class Handler2 implements CommandHandler<Command2, Integer> {
+        public Integer handle(Command2 command) {
+            return command.number * 7 + 2;
+        }
+    }
+
+    public static final class Command3 extends NumberCommand {
+        public Command3(int number) {
+            super(number);
+        }
+    }
+
+    @CommandMapping(Command3.class)
+    public static final class Handler3 implements CommandHandler<Command3, Integer> {
+        public Integer handle(Command3 command) {
+            return command.number * 9 + 3;
+        }
+    }
+
+    public static final class Command4 extends NumberCommand {
+        public Command4(int number) {
+            super(number);
+        }
+    }
+
+    @CommandMapping(Command4.class)
+    public static final class Handler4 implements CommandHandler<Command4, Integer> {
+        public Integer handle(Command4 command) {
+            return command.number * 11 + 4;
+        }
+    }
+
+    public static final class Command5 extends NumberCommand {
+        public Command5(int number) {
+            super(number);
+        }
+    }
+
+    @CommandMapping(Command5.class)
+    public static final class Handler5 implements CommandHandler<Command5, Integer> {
+        public Integer handle(Command5 command) {
+            return command.number * 13 + 5;
+        }
+    }
+
+    public static final class Command6 extends NumberCommand {
+        public Command6(int number) {
+            super(number);
+        }
+    }
+
+    @CommandMapping(Command6.class)
+    public static final class Handler6 implements CommandHandler<Command6, Integer> {
+        public Integer handle(Command6 command) {
+            return command.number * 15 + 6;
+        }
+    }
+
+    public static final class Command7 extends NumberCommand {
+        public Command7(int number) {
+            super(number);
+        }
+    }
+
+    @CommandMapping(Command7.class)
+    public static final class Handler7 implements CommandHandler<Command7, Integer> {
+        public Integer handle(Command7 command) {
+            return command.number * 17 + 7;
+        }
+    }
+
+    public static final class Command8 extends NumberCommand {
+        public Command8(int number) {
+            super(number);
+        }
+    }
+
+    @CommandMapping(Command8.class)
+    public static final class Handler8 implements CommandHandler<Command8, Integer> {
+        public Integer handle(Command8 command) {
+            return command.number * 19 + 8;
+        }
+    }
+
+    public static final class Command9 extends NumberCommand {
+        public Command9(int number) {
+            super(number);
+        }
+    }
+
+    @CommandMapping(Command9.class)
+    public static final class Handler9 implements CommandHandler<Command9, Integer> {
+        public Integer handle(Command9 command) {
+            return command.number * 21 + 9;
+        }
+    }
+
+    public static final class Command10 extends NumberCommand {
+        public Command10(int number) {
+            super(number);
+        }
+    }
+
+    @CommandMapping(Command10.class)
+    public static final class Handler10 implements CommandHandler<Command10, Integer> {
+        public Integer handle(Command10 command) {
+            return command.number * 23 + 10;
+        }
+    }
+
+    public static final class Command11 extends NumberCommand {
+        public Command11(int number) {
+            super(number);
+        }
+    }
+
+    @CommandMapping(Command11.class)
+    public static final class Handler11 implements CommandHandler<Command11, Integer> {
+        public Integer handle(Command11 command) {
+            return command.number * 25 + 11;
+        }
+    }
+
+    public static final class Command12 extends NumberCommand {
+        public Command12(int number) {
+            super(number);
+        }
+    }
+
+    @CommandMapping(Command12.class)
+    public static final class Handler12 implements CommandHandler<Command12, Integer> {
+        public Integer handle(Command12 command) {
+            return command.number * 27 + 12;
+        }
+    }
+
+    public static final class Command13 extends NumberCommand {
+        public Command13(int number) {
+            super(number);
+        }
+    }
+
+    @CommandMapping(Command13.class)
+    public static final class Handler13 implements CommandHandler<Command13, Integer> {
+        public Integer handle(Command13 command) {
+            return command.number * 29 + 13;
+        }
+    }
+
+    public static final class Command14 extends NumberCommand {
+        public Command14(int number) {
+            super(number);
+        }
+    }
+
+    @CommandMapping(Command14.class)
+    public static final class Handler14 implements CommandHandler<Command14, Integer> {
+        public Integer handle(Command14 command) {
+            return command.number * 31 + 14;
+        }
+    }
+
+    public static final class Command15 extends NumberCommand {
+        public Command15(int number) {
+            super(number);
+        }
+    }
+
+    @CommandMapping(Command15.class)
+    public static final class Handler15 implements CommandHandler<Command15, Integer> {
+        public Integer handle(Command15 command) {
+            return command.number * 33 + 15;
+        }
+    }
+
+    public static final class Command16 extends NumberCommand {
+        public Command16(int number) {
+            super(number);
+        }
+    }
+
+    @CommandMapping(Command16.class)
+    public static final class Handler16 implements CommandHandler<Command16, Integer> {
+        public Integer handle(Command16 command) {
+            return command.number * 35 + 16;
+        }
+    }
+
+    public static final class Command17 extends NumberCommand {
+        public Command17(int number) {
+            super(number);
+        }
+    }
+
+    @CommandMapping(Command17.class)
+    public static final class Handler17 implements CommandHandler<Command17, Integer> {
+        public Integer handle(Command17 command) {
+            return command.number * 37 + 17;
+        }
+    }
+
+    public static final class Command18 extends NumberCommand {
+        public Command18(int number) {
+            super(number);
+        }
+    }
+
+    @CommandMapping(Command18.class)
+    public static final class Handler18 implements CommandHandler<Command18, Integer> {
+        public Integer handle(Command18 command) {
+            return command.number * 39 + 18;
+        }
+    }
+
+    public static final class Command19 extends NumberCommand {
+        public Command19(int number) {
+            super(number);
+        }
+    }
+
+    @CommandMapping(Command19.class)
+    public static final class Handler19 implements CommandHandler<Command19, Integer> {
+        public Integer handle(Command19 command) {
+            return command.number * 41 + 19;
+        }
+    }
+
+    public static final class Command20 extends NumberCommand {
+        public Command20(int number) {
+            super(number);
+        }
+    }
+
+    @CommandMapping(Command20.class)
+    public static final class Handler20 implements CommandHandler<Command20, Integer> {
+        public Integer handle(Command20 command) {
+            return command.number * 43 + 20;
+        }
+    }
+
+    public static final class Command21 extends NumberCommand {
+        public Command21(int number) {
+            super(number);
+        }
+    }
+
+    @CommandMapping(Command21.class)
+    public static final class Handler21 implements CommandHandler<Command21, Integer> {
+        public Integer handle(Command21 command) {
+            return command.number * 45 + 21;
+        }
+    }
+
+    public static final class Command22 extends NumberCommand {
+        public Command22(int number) {
+            super(number);
+        }
+    }
+
+    @CommandMapping(Command22.class)
+    public static final class Handler22 implements CommandHandler<Command22, Integer> {
+        public Integer handle(Command22 command) {
+            return command.number * 47 + 22;
+        }
+    }
+
+    public static final class Command23 extends NumberCommand {
+        public Command23(int number) {
+            super(number);
+        }
+    }
+
+    @CommandMapping(Command23.class)
+    public static final class Handler23 implements CommandHandler<Command23, Integer> {
+        public Integer handle(Command23 command) {
+            return command.number * 49 + 23;
+        }
+    }
+
+    private SimpleCommandBus bus;
+
+    private Command[] commands;
+
+    private CommandHandler[] dispatchers;
+
+    private int index;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        final SimpleCommandBusBuilder builder = SimpleCommandBusBuilder.create();
+        builder.registerHandler(Handler0.class, new Handler0());
+        builder.registerHandler(Handler1.class, new Handler1());
+        builder.registerHandler(Handler2.class, new Handler2());
+        builder.registerHandler(Handler3.class, new Handler3());
+        builder.registerHandler(Handler4.class, new Handler4());
+        builder.registerHandler(Handler5.class, new Handler5());
+        builder.registerHandler(Handler6.class, new Handler6());
+        builder.registerHandler(Handler7.class, new Handler7());
+        builder.registerHandler(Handler8.class, new Handler8());
+        builder.registerHandler(Handler9.class, new Handler9());
+        builder.registerHandler(Handler10.class, new Handler10());
+        builder.registerHandler(Handler11.class, new Handler11());
+        builder.registerHandler(Handler12.class, new Handler12());
+        builder.registerHandler(Handler13.class, new Handler13());
+        builder.registerHandler(Handler14.class, new Handler14());
+        builder.registerHandler(Handler15.class, new Handler15());
+        builder.registerHandler(Handler16.class, new Handler16());
+        builder.registerHandler(Handler17.class, new Handler17());
+        builder.registerHandler(Handler18.class, new Handler18());
+        builder.registerHandler(Handler19.class, new Handler19());
+        builder.registerHandler(Handler20.class, new Handler20());
+        builder.registerHandler(Handler21.class, new Handler21());
+        builder.registerHandler(Handler22.class, new Handler22());
+        builder.registerHandler(Handler23.class, new Handler23());
+        bus = builder.build();
+        commands = new Command[] {
+            new Command0(1),
+            new Command1(2),
+            new Command2(3),
+            new Command3(4),
+            new Command4(5),
+            new Command5(6),
+            new Command6(7),
+            new Command7(8),
+            new Command8(9),
+            new Command9(10),
+            new Command10(11),
+            new Command11(12),
+            new Command12(13),
+            new Command13(14),
+            new Command14(15),
+            new Command15(16),
+            new Command16(17),
+            new Command17(18),
+            new Command18(19),
+            new Command19(20),
+            new Command20(21),
+            new Command21(22),
+            new Command22(23),
+            new Command23(24)
+        };
+        dispatchers = new CommandHandler[TYPES];
+        for(int i = 0; i < TYPES; i++) dispatchers[i] = bus.dispatcherFor(commands[i].getClass());
+        index = 0;
+    }
+
+    private int nextIndex() {
+        final int current = index;
+        index = current + 1 == TYPES ? 0 : current + 1;
+        return current;
+    }
+
+    @Benchmark
+    public Object executeShared() {
+        return bus.execute(commands[nextIndex()]);
+    }
+
+    @Benchmark
+    public Object dispatchShared() {
+        final int current = nextIndex();
+        return dispatchers[current].handle(commands[current]);
+    }
+
+    @Benchmark
+    public Object executePerType() {
+        final int current = nextIndex();
+        final Command command = commands[current];
+        switch(current) {
+            case 0: return bus.execute(command);
+            case 1: return bus.execute(command);
+            case 2: return bus.execute(command);
+            case 3: return bus.execute(command);
+            case 4: return bus.execute(command);
+            case 5: return bus.execute(command);
+            case 6: return bus.execute(command);
+            case 7: return bus.execute(command);
+            case 8: return bus.execute(command);
+            case 9: return bus.execute(command);
+            case 10: return bus.execute(command);
+            case 11: return bus.execute(command);
+            case 12: return bus.execute(command);
+            case 13: return bus.execute(command);
+            case 14: return bus.execute(command);
+            case 15: return bus.execute(command);
+            case 16: return bus.execute(command);
+            case 17: return bus.execute(command);
+            case 18: return bus.execute(command);
+            case 19: return bus.execute(command);
+            case 20: return bus.execute(command);
+            case 21: return bus.execute(command);
+            case 22: return bus.execute(command);
+            case 23: return bus.execute(command);
+            default: throw new IllegalStateException();
+        }
+    }
+
+    @Benchmark
+    public Object dispatchPerType() {
+        final int current = nextIndex();
+        final Command command = commands[current];
+        switch(current) {
+            case 0: return dispatchers[0].handle(command);
+            case 1: return dispatchers[1].handle(command);
+            case 2: return dispatchers[2].handle(command);
+            case 3: return dispatchers[3].handle(command);
+            case 4: return dispatchers[4].handle(command);
+            case 5: return dispatchers[5].handle(command);
+            case 6: return dispatchers[6].handle(command);
+            case 7: return dispatchers[7].handle(command);
+            case 8: return dispatchers[8].handle(command);
+            case 9: return dispatchers[9].handle(command);
+            case 10: return dispatchers[10].handle(command);
+            case 11: return dispatchers[11].handle(command);
+            case 12: return dispatchers[12].handle(command);
+            case 13: return dispatchers[13].handle(command);
+            case 14: return dispatchers[14].handle(command);
+            case 15: return dispatchers[15].handle(command);
+            case 16: return dispatchers[16].handle(command);
+            case 17: return dispatchers[17].handle(command);
+            case 18: return dispatchers[18].handle(command);
+            case 19: return dispatchers[19].handle(command);
+            case 20: return dispatchers[20].handle(command);
+            case 21: return dispatchers[21].handle(command);
+            case 22: return dispatchers[22].handle(command);
+            case 23: return dispatchers[23].handle(command);
+            default: throw new IllegalStateException();
+        }
+    }
+
+}
@@ -0,0 +1,65 @@
+package dev.sergheev.commandbus.benchmark;
+
+import dev.sergheev.commandbus.CommandBus;
+import dev.sergheev.commandbus.SimpleCommandBusBuilder;
+import dev.sergheev.commandbus.metrics.CommandMetrics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the per-dispatch overhead of recording {@link CommandMetrics}, by comparing
+ * the same bus without metrics, with every command timed and with one out of sixteen
+ * commands timed (the default), from one thread and from all available processors.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class MetricsOverheadBenchmark {
+
+    @Param({ "off", "on", "sampled" })
+    public String metrics;
+
+    private CommandBus bus;
+
+    private BenchmarkCommand command;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        final GeneratedTypes types = GeneratedTypes.withHandlers("Metrics", 1);
+        final SimpleCommandBusBuilder builder = SimpleCommandBusBuilder.create()
+                .concurrent()
+                .registerHandler(types.handlerTypes().get(0), types.newHandler(0));
+        if("on".equals(metrics)) builder.withMetrics(new CommandMetrics(1));
+        if("sampled".equals(metrics)) builder.withMetrics(new CommandMetrics());
+        bus = builder.build();
+        command = types.newCommand(0);
+    }
+
+    @Benchmark
+    public Object execute() {
+        return bus.execute(command);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public Object executeMultiThreaded() {
+        return bus.execute(command);
+    }
+
+}
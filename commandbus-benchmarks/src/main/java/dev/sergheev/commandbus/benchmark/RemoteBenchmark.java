@@ -0,0 +1,114 @@
+package dev.sergheev.commandbus.benchmark;
+
+import dev.sergheev.commandbus.Command;
+import dev.sergheev.commandbus.CommandBus;
+import dev.sergheev.commandbus.CommandHandler;
+import dev.sergheev.commandbus.SimpleCommandBusBuilder;
+import dev.sergheev.commandbus.codec.BinaryCommandCodecBuilder;
+import dev.sergheev.commandbus.codec.CommandCodec;
+import dev.sergheev.commandbus.mapping.CommandMapping;
+import dev.sergheev.commandbus.remote.RemoteCommandBus;
+import dev.sergheev.commandbus.remote.RemoteCommandBusServer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@code RemoteCommandBus} against a {@code RemoteCommandBusServer} over the loopback
+ * interface: the round-trip latency of a single command at a time, and the throughput of
+ * pipelined commands with {@value #PIPELINE_DEPTH} of them in flight on the connection.
+ *
+ * <p>The commands are encoded with the {@code BinaryCommandCodec}, and processed on the
+ * I/O thread of the server (through a direct executor) to only measure the transport.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RemoteBenchmark {
+
+    private static final int PIPELINE_DEPTH = 256;
+
+    private RemoteCommandBusServer server;
+
+    private RemoteCommandBus bus;
+
+    private final SumCommand command = new SumCommand(3, 4);
+
+    private final CompletableFuture<?>[] futures = new CompletableFuture<?>[PIPELINE_DEPTH];
+
+    public static class SumCommand implements Command {
+
+        private final int firstNumber;
+
+        private final int secondNumber;
+
+        private SumCommand() {
+            this(0, 0);
+        }
+
+        public SumCommand(int firstNumber, int secondNumber) {
+            this.firstNumber = firstNumber;
+            this.secondNumber = secondNumber;
+        }
+
+    }
+
+    @CommandMapping(SumCommand.class)
+    public static class SumCommandHandler implements CommandHandler<SumCommand, Integer> {
+
+        @Override
+        public Integer handle(SumCommand command) {
+            return command.firstNumber + command.secondNumber;
+        }
+
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        final CommandCodec codec = BinaryCommandCodecBuilder.create().register(SumCommand.class).build();
+        final CommandBus localBus = SimpleCommandBusBuilder.create()
+                .registerHandler(SumCommandHandler.class, new SumCommandHandler())
+            .build();
+        server = RemoteCommandBusServer.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), localBus, codec, Runnable::run);
+        bus = RemoteCommandBus.connect(server.localAddress(), codec);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        bus.close();
+        server.close();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Integer roundTrip() {
+        return bus.execute(command);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @OperationsPerInvocation(PIPELINE_DEPTH)
+    public Object pipelined() {
+        for(int i = 0; i < PIPELINE_DEPTH; i++) futures[i] = bus.executeAsync(command);
+        return CompletableFuture.allOf(futures).join();
+    }
+
+}
@@ -0,0 +1,103 @@
+package dev.sergheev.commandbus.benchmark;
+
+import dev.sergheev.commandbus.AsyncCommandBus;
+import dev.sergheev.commandbus.Command;
+import dev.sergheev.commandbus.CommandHandler;
+import dev.sergheev.commandbus.RingBufferCommandBus;
+import dev.sergheev.commandbus.RingBufferWaitStrategy;
+import dev.sergheev.commandbus.SimpleCommandBusBuilder;
+import dev.sergheev.commandbus.mapping.CommandMapping;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of handing commands over to a single consumer thread,
+ * comparing {@code RingBufferCommandBus} with every wait strategy against a
+ * {@code SimpleAsyncCommandBus} backed by a single-threaded executor.
+ *
+ * <p>Every invocation executes a burst of commands asynchronously and waits until
+ * all of them complete, so both the hand-over and the completion are measured. The
+ * {@code BUSY_SPIN} case needs a spare core for the consumer, the other cases do not.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RingBufferBenchmark {
+
+    private static final int BURST_SIZE = 1000;
+
+    @Param({ "executor", "BUSY_SPIN", "YIELD", "PARK" })
+    public String bus;
+
+    @Param({ "1024" })
+    public int bufferSize;
+
+    private ExecutorService executor;
+
+    private AsyncCommandBus asyncBus;
+
+    private IncrementCommand command;
+
+    public static class IncrementCommand implements Command {}
+
+    @CommandMapping(IncrementCommand.class)
+    public static class IncrementCommandHandler implements CommandHandler<IncrementCommand, Long> {
+
+        private long count;
+
+        @Override
+        public Long handle(IncrementCommand command) {
+            return ++count;
+        }
+
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        final SimpleCommandBusBuilder builder = SimpleCommandBusBuilder.create()
+                .registerHandler(IncrementCommandHandler.class, new IncrementCommandHandler());
+        if("executor".equals(bus)) {
+            executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>());
+            asyncBus = builder.withExecutor(executor).buildAsync();
+        } else {
+            asyncBus = builder.buildRingBuffer(bufferSize, RingBufferWaitStrategy.valueOf(bus));
+        }
+        command = new IncrementCommand();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if(executor != null) executor.shutdownNow();
+        if(asyncBus instanceof RingBufferCommandBus) ((RingBufferCommandBus) asyncBus).close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BURST_SIZE)
+    public void executeBurst() {
+        final CompletableFuture<?>[] results = new CompletableFuture<?>[BURST_SIZE];
+        for(int i = 0; i < BURST_SIZE; i++) results[i] = asyncBus.executeAsync(command);
+        CompletableFuture.allOf(results).join();
+    }
+
+}
@@ -0,0 +1,116 @@
+package dev.sergheev.commandbus.benchmark;
+
+import dev.sergheev.commandbus.CommandBus;
+import dev.sergheev.commandbus.CommandHandler;
+import dev.sergheev.commandbus.SimpleCommandBusBuilder;
+import dev.sergheev.commandbus.discovery.CommandHandlerDiscovery;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the time it takes to build a bus with all its handlers from a cold class loader,
+ * which is what a service pays at startup.
+ *
+ * <p>The handler classes are written to a temporary directory once, and every measured
+ * invocation loads them through a new class loader, so class loading is part of the cost.
+ * Handlers are either registered one by one ({@code manual}), discovered from a handler
+ * index ({@code indexed}), or discovered by scanning their package ({@code scan}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 10)
+@Measurement(iterations = 20)
+@Fork(2)
+@SuppressWarnings({ "rawtypes" })
+public class StartupBenchmark {
+
+    @Param({ "manual", "indexed", "scan" })
+    public String registration;
+
+    @Param({ "100", "1000", "5000" })
+    public int handlers;
+
+    private File classDirectory;
+
+    private File indexDirectory;
+
+    private List<String> handlerNames;
+
+    private URLClassLoader classLoader;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        classDirectory = Files.createTempDirectory("commandbus-startup-classes").toFile();
+        indexDirectory = Files.createTempDirectory("commandbus-startup-index").toFile();
+        handlerNames = GeneratedTypes.writeHandlers("Startup", handlers, classDirectory);
+        final File index = new File(indexDirectory, CommandHandlerDiscovery.INDEX_LOCATION);
+        Files.createDirectories(index.getParentFile().toPath());
+        Files.write(index.toPath(), handlerNames, StandardCharsets.UTF_8);
+    }
+
+    @Setup(Level.Iteration)
+    public void setUpClassLoader() throws IOException {
+        final URL classes = classDirectory.toURI().toURL();
+        final URL[] urls = "indexed".equals(registration) ? new URL[] { classes, indexDirectory.toURI().toURL() } : new URL[] { classes };
+        classLoader = new URLClassLoader(urls, StartupBenchmark.class.getClassLoader());
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDownClassLoader() throws IOException {
+        classLoader.close();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        deleteRecursively(classDirectory);
+        deleteRecursively(indexDirectory);
+    }
+
+    @Benchmark
+    public CommandBus startUp() throws ReflectiveOperationException {
+        final SimpleCommandBusBuilder builder = SimpleCommandBusBuilder.create();
+        switch(registration) {
+            case "manual":
+                for(String handlerName : handlerNames) {
+                    final Class<? extends CommandHandler> type = Class.forName(handlerName, false, classLoader).asSubclass(CommandHandler.class);
+                    builder.registerHandler(type, type.getConstructor().newInstance());
+                }
+                break;
+            case "indexed":
+                builder.discoverHandlers(CommandHandlerDiscovery.create().withClassLoader(classLoader));
+                break;
+            default:
+                builder.discoverHandlers(CommandHandlerDiscovery.create().withClassLoader(classLoader).withScanFallback(GeneratedTypes.GENERATED_PACKAGE_NAME));
+                break;
+        }
+        return builder.build();
+    }
+
+    private static void deleteRecursively(File file) {
+        final File[] children = file.listFiles();
+        if(children != null) for(File child : children) deleteRecursively(child);
+        file.delete();
+    }
+
+}
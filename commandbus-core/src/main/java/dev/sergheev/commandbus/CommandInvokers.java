@@ -0,0 +1,71 @@
+package dev.sergheev.commandbus;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/**
+ * Spins a new invoker class for every handler it is given, with {@link LambdaMetafactory}.
+ *
+ * <p>An invoker simply hands the command over to its handler, but because every
+ * invoker has its own class, the {@code handle} call inside of it is a distinct call
+ * site that only ever sees one handler class. The JIT compiler can therefore inline
+ * the handler into the invoker, and the invoker into a caller that always uses it,
+ * which is not possible through a call site shared by several handler classes.
+ */
+@SuppressWarnings({ "rawtypes", "unchecked" })
+final class CommandInvokers {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    /**
+     * The erased type of {@link CommandHandler#handle(Command)}.
+     */
+    private static final MethodType HANDLE_TYPE = MethodType.methodType(Object.class, Command.class);
+
+    /**
+     * The type of the factory of invokers, that captures the handler.
+     */
+    private static final MethodType FACTORY_TYPE = MethodType.methodType(CommandHandler.class, CommandHandler.class);
+
+    /**
+     * The {@link CommandHandler#handle(Command)} method, that every invoker calls.
+     */
+    private static final MethodHandle HANDLE = findHandle();
+
+    /**
+     * @throws AssertionError if an attempt to instantiate {@code CommandInvokers} is made (ensures non-instantiability)
+     */
+    private CommandInvokers() {
+        throw new AssertionError();
+    }
+
+    private static MethodHandle findHandle() {
+        try {
+            return LOOKUP.findVirtual(CommandHandler.class, "handle", HANDLE_TYPE);
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /**
+     * Creates an invoker of its own class that hands the commands over to the given handler.
+     * @param handler the handler that is to be invoked
+     * @param <C> the type of the command
+     * @param <R> the type of the command computation result
+     * @throws IllegalStateException if the invoker class cannot be spun
+     * @return a new invoker of the given handler
+     */
+    static <C extends Command, R> CommandHandler<C, R> newInvoker(CommandHandler<C, R> handler) throws IllegalStateException {
+        try {
+            // Every metafactory linkage spins a new class, unlike a lambda expression that is linked once
+            final CallSite callSite = LambdaMetafactory.metafactory(LOOKUP, "handle", FACTORY_TYPE, HANDLE_TYPE, HANDLE, HANDLE_TYPE);
+            return (CommandHandler<C, R>) callSite.getTarget().invoke(handler);
+        } catch (Throwable t) {
+            throw new IllegalStateException("Unable to spin an invoker for " + handler.getClass().getName(), t);
+        }
+    }
+
+}
@@ -0,0 +1,25 @@
+package dev.sergheev.commandbus;
+
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Defines what happens to a {@link PartitionedCommand} executed asynchronously when
+ * the lane of its partition already holds as many pending commands as it can.
+ */
+public enum LaneOverflowPolicy {
+
+    /**
+     * The executing thread waits until the lane has room for the command.
+     *
+     * <p>A handler must not wait for a full lane that only its own lane makes room in: a handler that executes
+     * asynchronously a command of its own full lane is rejected rather than left waiting for itself, but handlers
+     * of two lanes waiting for each other's full lane deadlock both lanes.
+     */
+    BLOCK,
+
+    /**
+     * The command is not executed, and its future completes exceptionally with a {@link RejectedExecutionException}.
+     */
+    REJECT
+
+}
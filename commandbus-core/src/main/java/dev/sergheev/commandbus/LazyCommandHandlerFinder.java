@@ -0,0 +1,169 @@
+package dev.sergheev.commandbus;
+
+import dev.sergheev.commandbus.mapping.CommandTypeExtractor;
+import dev.sergheev.commandbus.registry.CommandHandlerRegistry;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * A {@link CommandHandlerFinder} that creates the lazily registered handlers the first
+ * time one of their commands is looked up, and registers them into the registry.
+ *
+ * <p>The lazy handlers are only consulted when the registry has no handler for a command,
+ * so once a lazy handler is registered its commands are found by the registry lookup alone,
+ * without any further cost. The registry must be thread-safe if the bus is used from several
+ * threads, because the lazy handlers are registered by the threads dispatching the commands.
+ *
+ * <p>A command type without a lazy handler of its own creates the lazy handler of its closest
+ * superclass or interface, looked up in the same order as the registries do.
+ */
+@SuppressWarnings({ "rawtypes" })
+final class LazyCommandHandlerFinder extends SimpleCommandHandlerFinder {
+
+    /**
+     * The registry into which the lazy handlers are registered once created.
+     */
+    private final CommandHandlerRegistry commandHandlerRegistry;
+
+    /**
+     * Associates a command type to the lazy handler that processes it.
+     */
+    private final Map<Class<? extends Command>, LazyHandler> commandTypeToLazyHandler;
+
+    /**
+     * Associates a command name to the lazy handler that processes it.
+     */
+    private final Map<String, LazyHandler> commandNameToLazyHandler;
+
+    /**
+     * Constructs a new {@link LazyCommandHandlerFinder} instance.
+     * @param commandHandlerRegistry the registry that holds the handlers
+     * @param classToSupplier the handler type to instance supplier associations of the lazy handlers
+     * @throws NullPointerException if the {@code commandHandlerRegistry} is {@code null}
+     */
+    LazyCommandHandlerFinder(CommandHandlerRegistry commandHandlerRegistry,
+                             Map<Class<? extends CommandHandler>, Supplier<?>> classToSupplier) throws NullPointerException {
+        super(commandHandlerRegistry);
+        this.commandHandlerRegistry = commandHandlerRegistry;
+        this.commandTypeToLazyHandler = new HashMap<>();
+        this.commandNameToLazyHandler = new HashMap<>();
+        final CommandTypeExtractor commandTypeExtractor = new CommandTypeExtractor();
+        classToSupplier.forEach((type, supplier) -> {
+            final LazyHandler lazyHandler = new LazyHandler(type, supplier);
+            for(Class<? extends Command> commandType : commandTypeExtractor.extractCommandTypesFor(type)) {
+                commandTypeToLazyHandler.put(commandType, lazyHandler);
+                commandNameToLazyHandler.put(commandType.getName(), lazyHandler);
+            }
+        });
+    }
+
+    /**
+     * Returns a concrete handler implementation that is able to process the command associated to the given
+     * command name, creating and registering it first if it is a lazy handler that has not been created yet.
+     * @param commandName the name of the command whose handler is to be found (fully qualified {@link Command} class name)
+     * @param <C> the type of the concrete command
+     * @param <R> the type of the command computation result
+     * @throws NullPointerException if {@code commandName} is {@code null}
+     * @throws IllegalArgumentException if {@code commandName} is empty (the length of the string is zero)
+     * @throws IllegalStateException if the supplier of the lazy handler does not supply an instance of it
+     * @return a concrete {@link CommandHandler} implementation able to handle the given command
+     */
+    @Override
+    public <C extends Command, R> CommandHandler<C, R> findHandlerFor(String commandName) throws NullPointerException, IllegalArgumentException, IllegalStateException {
+        final CommandHandler<C, R> handler = super.findHandlerFor(commandName);
+        if(handler != null) return handler;
+        final LazyHandler lazyHandler = commandNameToLazyHandler.get(commandName);
+        if(lazyHandler == null) return null;
+        lazyHandler.registerInto(commandHandlerRegistry);
+        return commandHandlerRegistry.getHandlerFor(commandName);
+    }
+
+    /**
+     * Returns a concrete handler implementation that is able to process the commands of the given type,
+     * creating and registering it first if it is a lazy handler (of the given type, or else of its closest
+     * superclass or interface) that has not been created yet.
+     * @param commandType the type of the command whose handler is to be found
+     * @param <C> the type of the concrete command
+     * @param <R> the type of the command computation result
+     * @throws NullPointerException if {@code commandType} is {@code null}
+     * @throws IllegalStateException if the supplier of the lazy handler does not supply an instance of it
+     * @return a concrete {@link CommandHandler} implementation able to handle the given command,
+     *         or {@code null} if there is no handler associated to {@code commandType}
+     */
+    @Override
+    public <C extends Command, R> CommandHandler<C, R> findHandlerFor(Class<? extends Command> commandType) throws NullPointerException, IllegalStateException {
+        final CommandHandler<C, R> handler = super.findHandlerFor(commandType);
+        if(handler != null) return handler;
+        final LazyHandler lazyHandler = lazyHandlerOf(commandType);
+        if(lazyHandler == null) return null;
+        lazyHandler.registerInto(commandHandlerRegistry);
+        return commandHandlerRegistry.getHandlerFor(commandType);
+    }
+
+    /**
+     * Returns the lazy handler of the given command type or else of its closest superclass, and then of its
+     * interfaces breadth-first in declaration order, or {@code null} if there is none.
+     */
+    private LazyHandler lazyHandlerOf(Class<?> commandType) {
+        for(Class<?> type = commandType; type != null; type = type.getSuperclass()) {
+            final LazyHandler lazyHandler = commandTypeToLazyHandler.get(type);
+            if(lazyHandler != null) return lazyHandler;
+        }
+        final Deque<Class<?>> interfaces = new ArrayDeque<>();
+        for(Class<?> type = commandType; type != null; type = type.getSuperclass()) {
+            Collections.addAll(interfaces, type.getInterfaces());
+        }
+        final Set<Class<?>> visited = new HashSet<>();
+        while(!interfaces.isEmpty()) {
+            final Class<?> type = interfaces.poll();
+            if(!visited.add(type)) continue;
+            final LazyHandler lazyHandler = commandTypeToLazyHandler.get(type);
+            if(lazyHandler != null) return lazyHandler;
+            Collections.addAll(interfaces, type.getInterfaces());
+        }
+        return null;
+    }
+
+    /**
+     * A handler whose instance is created and registered at most once.
+     */
+    private static final class LazyHandler {
+
+        private final Class<? extends CommandHandler> type;
+
+        private final Supplier<?> supplier;
+
+        /**
+         * Indicates if the instance has been created and registered, guarded by this lazy handler.
+         */
+        private boolean isRegistered;
+
+        private LazyHandler(Class<? extends CommandHandler> type, Supplier<?> supplier) {
+            this.type = type;
+            this.supplier = supplier;
+            this.isRegistered = false;
+        }
+
+        /**
+         * Creates the instance and registers it into the given registry, unless it has already been done.
+         * Concurrent callers wait for the first one, so a single instance is ever created.
+         * @throws IllegalStateException if the supplier does not supply an instance of the handler type
+         */
+        private synchronized void registerInto(CommandHandlerRegistry registry) throws IllegalStateException {
+            if(isRegistered) return;
+            final Object instance = supplier.get();
+            if(!type.isInstance(instance)) throw new IllegalStateException("The supplier of the lazy handler " + type.getName() + " must supply an instance of it");
+            registry.registerHandler(type, instance);
+            isRegistered = true;
+        }
+
+    }
+
+}
@@ -0,0 +1,146 @@
+package dev.sergheev.commandbus;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs tasks in order per partition key, and in parallel across partitions.
+ *
+ * <p>Every key is routed by its hash to one of a fixed number of lanes. A lane is a bounded
+ * queue drained by at most one task of the executor at a time (a single writer), so the tasks
+ * of a lane run one after the other in submission order, while the lanes themselves run in
+ * parallel. Lanes do not share any lock: submitting a task only contends with the submitters
+ * of the same lane.
+ */
+final class PartitionedLanes {
+
+    /**
+     * The maximum amount of tasks a lane runs before giving its thread back to the executor,
+     * so a busy lane does not starve the other tasks of the executor.
+     */
+    private static final int DRAIN_LIMIT = 64;
+
+    private final Lane[] lanes;
+
+    private final LaneOverflowPolicy overflowPolicy;
+
+    /**
+     * Constructs a new {@link PartitionedLanes} instance.
+     * @param executor the executor that runs the lanes
+     * @param laneCount the amount of lanes
+     * @param laneCapacity the maximum amount of pending tasks of every lane
+     * @param overflowPolicy what happens to a task submitted to a full lane
+     */
+    PartitionedLanes(Executor executor, int laneCount, int laneCapacity, LaneOverflowPolicy overflowPolicy) {
+        this.lanes = new Lane[laneCount];
+        for(int i = 0; i < laneCount; i++) lanes[i] = new Lane(executor, laneCapacity);
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    /**
+     * Runs the given task after all the tasks previously submitted with the same partition key.
+     * @throws RejectedExecutionException if the lane of the key is full and the overflow policy rejects the task (or the
+     * task belongs to that lane, which it would wait for forever), or if the executor rejects the lane, in which case
+     * the task is not run
+     */
+    void execute(Object partitionKey, Runnable task) throws RejectedExecutionException {
+        final int hash = partitionKey.hashCode();
+        lanes[Math.floorMod(hash ^ (hash >>> 16), lanes.length)].submit(task, overflowPolicy);
+    }
+
+    /**
+     * A queue of tasks that are run one at a time.
+     */
+    private static final class Lane implements Runnable {
+
+        private final Executor executor;
+
+        private final Queue<Runnable> tasks;
+
+        /**
+         * The free room of the queue, a permit is taken by every pending task.
+         */
+        private final Semaphore room;
+
+        /**
+         * Indicates if a task of the executor is draining this lane, which only one may do at a time.
+         */
+        private final AtomicBoolean isScheduled;
+
+        /**
+         * The thread draining this lane, if any.
+         */
+        private volatile Thread drainingThread;
+
+        private Lane(Executor executor, int capacity) {
+            this.executor = executor;
+            this.tasks = new ConcurrentLinkedQueue<>();
+            this.room = new Semaphore(capacity);
+            this.isScheduled = new AtomicBoolean(false);
+        }
+
+        private void submit(Runnable task, LaneOverflowPolicy overflowPolicy) throws RejectedExecutionException {
+            if(!room.tryAcquire()) {
+                if(overflowPolicy == LaneOverflowPolicy.REJECT) throw new RejectedExecutionException("The lane of the partition is full");
+                // The room is only made by the draining thread, which would wait for itself forever
+                if(drainingThread == Thread.currentThread()) throw new RejectedExecutionException("The lane of the partition is full, and a task of the lane cannot wait for room in it");
+                room.acquireUninterruptibly();
+            }
+            tasks.add(task);
+            try {
+                schedule();
+            } catch (RejectedExecutionException e) {
+                // The task was already taken by the thread draining the lane, which runs it
+                if(!tasks.remove(task)) return;
+                room.release();
+                throw e;
+            }
+        }
+
+        private void schedule() throws RejectedExecutionException {
+            if(!isScheduled.compareAndSet(false, true)) return;
+            try {
+                executor.execute(this);
+            } catch (RejectedExecutionException e) {
+                isScheduled.set(false);
+                throw e;
+            }
+        }
+
+        @Override
+        public void run() {
+            do {
+                drainingThread = Thread.currentThread();
+                Runnable task;
+                int drained = 0;
+                while(drained++ < DRAIN_LIMIT && (task = tasks.poll()) != null) {
+                    room.release();
+                    task.run();
+                }
+                drainingThread = null;
+                isScheduled.set(false);
+                // A task added after the last poll but before the flag was cleared would not be scheduled otherwise
+            } while(!tasks.isEmpty() && !reschedule());
+        }
+
+        /**
+         * Gives the lane back to the executor.
+         * @return {@code false} if the executor rejected it, in which case the current thread must keep draining it
+         */
+        private boolean reschedule() {
+            if(!isScheduled.compareAndSet(false, true)) return true;
+            try {
+                executor.execute(this);
+                return true;
+            } catch (RejectedExecutionException e) {
+                return false;
+            }
+        }
+
+    }
+
+}
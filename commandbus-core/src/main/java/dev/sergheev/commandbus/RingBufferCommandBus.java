@@ -0,0 +1,316 @@
+package dev.sergheev.commandbus;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * An {@link AsyncCommandBus} that hands the asynchronously executed commands over to a
+ * consumer thread through a preallocated ring buffer, in the manner of the LMAX Disruptor.
+ *
+ * <p>Publishing a command claims the next sequence with a single atomic increment, writes
+ * the command into the preallocated slot of that sequence and marks the slot as available,
+ * so no node is allocated per command and the publishers never take a lock. The consumer
+ * processes all the available commands at once, and only then publishes how far it got,
+ * which amortizes the cost of the coordination over whole batches of commands.
+ *
+ * <p>The {@link RingBufferWaitStrategy} defines how the consumer waits for commands, and how
+ * the publishers wait for room when the ring buffer is full. Commands executed synchronously
+ * are processed by the calling thread, exactly as a {@link SimpleCommandBus} does.
+ *
+ * <p>The consumer thread is started when the bus is constructed, and stops once the commands
+ * published before {@link #close()} are processed.
+ */
+@SuppressWarnings({ "rawtypes", "unchecked" })
+public class RingBufferCommandBus extends SimpleCommandBus implements AsyncCommandBus, AutoCloseable {
+
+    /**
+     * Numbers the consumer threads created by default.
+     */
+    private static final AtomicInteger CONSUMER_COUNTER = new AtomicInteger();
+
+    /**
+     * The closing sequence of a bus that is not closed.
+     */
+    private static final long NOT_CLOSED = Long.MAX_VALUE;
+
+    /**
+     * The slots of the ring buffer, preallocated and reused.
+     */
+    private final Slot[] slots;
+
+    /**
+     * The mask that turns a sequence into the index of its slot, the ring buffer size minus one.
+     */
+    private final int mask;
+
+    /**
+     * The amount of bits of the index of a slot, used to compute the lap of a sequence.
+     */
+    private final int indexShift;
+
+    /**
+     * The lap of the sequence whose command is available in every slot, or {@code -1} if none is yet.
+     */
+    private final AtomicIntegerArray availableLaps;
+
+    /**
+     * The last sequence claimed by a publisher.
+     */
+    private final Sequence claimedSequence;
+
+    /**
+     * The last sequence processed by the consumer.
+     */
+    private final Sequence consumedSequence;
+
+    private final RingBufferWaitStrategy waitStrategy;
+
+    private final Thread consumer;
+
+    private volatile boolean isRunning;
+
+    /**
+     * The sequence claimed by {@link #close()}, or {@link #NOT_CLOSED}: the commands of the sequences
+     * before it are processed, while the ones claimed after it are rejected.
+     */
+    private volatile long closingSequence;
+
+    /**
+     * Constructs a new {@link RingBufferCommandBus} instance, and starts its consumer thread,
+     * a daemon thread named {@code commandbus-ring-<number>}.
+     * @param commandHandlerFinder the finder of the handlers of the commands
+     * @param bufferSize the amount of slots of the ring buffer, a power of two
+     * @param waitStrategy defines how the consumer and the publishers wait
+     * @throws NullPointerException if the {@code commandHandlerFinder} or {@code waitStrategy} are {@code null}
+     * @throws IllegalArgumentException if the {@code bufferSize} is not a positive power of two
+     */
+    public RingBufferCommandBus(CommandHandlerFinder commandHandlerFinder, int bufferSize, RingBufferWaitStrategy waitStrategy)
+            throws NullPointerException, IllegalArgumentException {
+        this(commandHandlerFinder, bufferSize, waitStrategy, runnable -> {
+            final Thread thread = new Thread(runnable, "commandbus-ring-" + CONSUMER_COUNTER.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Constructs a new {@link RingBufferCommandBus} instance, and starts its consumer thread.
+     * @param commandHandlerFinder the finder of the handlers of the commands
+     * @param bufferSize the amount of slots of the ring buffer, a power of two
+     * @param waitStrategy defines how the consumer and the publishers wait
+     * @param threadFactory creates the consumer thread
+     * @throws NullPointerException if the {@code commandHandlerFinder}, {@code waitStrategy} or {@code threadFactory} are {@code null}
+     * @throws IllegalArgumentException if the {@code bufferSize} is not a positive power of two
+     */
+    public RingBufferCommandBus(CommandHandlerFinder commandHandlerFinder, int bufferSize, RingBufferWaitStrategy waitStrategy,
+                                ThreadFactory threadFactory) throws NullPointerException, IllegalArgumentException {
+        super(commandHandlerFinder);
+        requireNonNull(waitStrategy, "waitStrategy must not be null");
+        requireNonNull(threadFactory, "threadFactory must not be null");
+        if(bufferSize <= 0 || Integer.bitCount(bufferSize) != 1) throw new IllegalArgumentException("bufferSize must be a positive power of two");
+        this.slots = new Slot[bufferSize];
+        for(int i = 0; i < bufferSize; i++) slots[i] = new Slot();
+        this.mask = bufferSize - 1;
+        this.indexShift = Integer.numberOfTrailingZeros(bufferSize);
+        this.availableLaps = new AtomicIntegerArray(bufferSize);
+        for(int i = 0; i < bufferSize; i++) availableLaps.set(i, -1);
+        this.claimedSequence = new Sequence(-1L);
+        this.consumedSequence = new Sequence(-1L);
+        this.waitStrategy = waitStrategy;
+        this.isRunning = true;
+        this.closingSequence = NOT_CLOSED;
+        this.consumer = requireNonNull(threadFactory.newThread(this::consume), "threadFactory must not supply null");
+        consumer.start();
+    }
+
+    /**
+     * Returns a future that completes with the resulting object from processing the
+     * given command on the consumer thread. If the command processing fails (i.e. there
+     * is no handler able to process the given command, or the handler throws) the returned
+     * future will be completed exceptionally with the failure cause. The calling thread
+     * waits for room if the ring buffer is full.
+     * @param command the command that is to be processed
+     * @param <R> the type of the returned result
+     * @throws NullPointerException if the given {@code command} is {@code null}
+     * @throws IllegalStateException if the bus is closed
+     * @return a future that completes with the resulting object from processing the given command
+     */
+    @Override
+    public <R> CompletableFuture<R> executeAsync(Command command) throws NullPointerException, IllegalStateException {
+        requireNonNull(command, "command must not be null");
+        final CompletableFuture<R> future = new CompletableFuture<>();
+        publish(command, future);
+        return future;
+    }
+
+    /**
+     * Hands the given command over to the consumer thread without tracking its result, which
+     * does not allocate anything. If the command processing fails, the failure is reported to
+     * the uncaught exception handler of the consumer thread, which keeps running. The calling
+     * thread waits for room if the ring buffer is full.
+     * @param command the command that is to be processed
+     * @throws NullPointerException if the given {@code command} is {@code null}
+     * @throws IllegalStateException if the bus is closed
+     */
+    public void publish(Command command) throws NullPointerException, IllegalStateException {
+        requireNonNull(command, "command must not be null");
+        publish(command, null);
+    }
+
+    private void publish(Command command, CompletableFuture future) throws IllegalStateException {
+        if(!isRunning) throw new IllegalStateException("The bus is closed");
+        final long sequence = claimedSequence.incrementAndGet();
+        // The bus may have been closed meanwhile, in which case only the sequences claimed before closing are processed
+        if(!isRunning && sequence > awaitClosingSequence()) throw new IllegalStateException("The bus is closed");
+        final long wrapPoint = sequence - slots.length;
+        for(int attempt = 1; wrapPoint > consumedSequence.get(); attempt++) waitStrategy.idle(attempt);
+        final int index = (int) sequence & mask;
+        final Slot slot = slots[index];
+        slot.command = command;
+        slot.future = future;
+        availableLaps.lazySet(index, (int) (sequence >>> indexShift));
+    }
+
+    /**
+     * Returns the closing sequence, waiting for {@link #close()} to claim it if needed.
+     */
+    private long awaitClosingSequence() {
+        long sequence;
+        for(int attempt = 1; (sequence = closingSequence) == NOT_CLOSED; attempt++) waitStrategy.idle(attempt);
+        return sequence;
+    }
+
+    /**
+     * Stops accepting commands, and waits for the consumer thread to process the already published ones.
+     * @throws IllegalStateException if the current thread is interrupted while waiting
+     */
+    @Override
+    public void close() throws IllegalStateException {
+        synchronized(claimedSequence) {
+            if(isRunning) {
+                isRunning = false;
+                // Claiming a sequence orders the close with every publisher: the ones that claimed before are processed
+                closingSequence = claimedSequence.incrementAndGet();
+            }
+        }
+        if(Thread.currentThread() == consumer) return;
+        try {
+            consumer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the consumer to stop", e);
+        }
+    }
+
+    /**
+     * Processes the published commands in batches until the bus is closed and all the published commands are processed.
+     */
+    private void consume() {
+        long nextSequence = consumedSequence.get() + 1;
+        int attempt = 0;
+        while(true) {
+            final long lastSequence = lastAvailableSequence(nextSequence);
+            if(lastSequence < nextSequence) {
+                if(nextSequence >= closingSequence) return;
+                waitStrategy.idle(++attempt);
+                continue;
+            }
+            attempt = 0;
+            for(long sequence = nextSequence; sequence <= lastSequence; sequence++) process(slots[(int) sequence & mask]);
+            consumedSequence.lazySet(lastSequence);
+            nextSequence = lastSequence + 1;
+        }
+    }
+
+    /**
+     * Returns the last sequence of the batch of consecutive available sequences that starts at the given one.
+     */
+    private long lastAvailableSequence(long firstSequence) {
+        final long limit = firstSequence + mask;
+        long sequence = firstSequence;
+        while(sequence <= limit && availableLaps.get((int) sequence & mask) == (int) (sequence >>> indexShift)) sequence++;
+        return sequence - 1;
+    }
+
+    private void process(Slot slot) {
+        final Command command = slot.command;
+        final CompletableFuture future = slot.future;
+        slot.command = null;
+        slot.future = null;
+        try {
+            final Object result = execute(command);
+            if(future != null) future.complete(result);
+        } catch (Throwable t) {
+            if(future != null) {
+                future.completeExceptionally(t);
+            } else {
+                consumer.getUncaughtExceptionHandler().uncaughtException(consumer, t);
+            }
+        }
+    }
+
+    /**
+     * A slot of the ring buffer. Its fields are written by the publisher that claimed it before marking
+     * it available, and read by the consumer after seeing it available, so they do not need to be volatile.
+     */
+    private static final class Slot {
+
+        private Command command;
+
+        private CompletableFuture future;
+
+    }
+
+    /**
+     * Padding that keeps the value of a {@link Sequence} off the cache lines of the fields declared before it.
+     */
+    private static class LeftPadding {
+
+        protected long p1, p2, p3, p4, p5, p6, p7;
+
+    }
+
+    /**
+     * The value of a {@link Sequence}, declared in a class of its own so it is laid out between the paddings.
+     */
+    private static class SequenceValue extends LeftPadding {
+
+        protected volatile long value;
+
+    }
+
+    /**
+     * A sequence counter padded on both sides, so the publishers and the consumer updating their own
+     * counter do not invalidate each other's cache lines (false sharing). The value is held inline and
+     * updated through a field updater, as an {@code AtomicLong} would be a separate unpadded object.
+     */
+    private static final class Sequence extends SequenceValue {
+
+        private static final AtomicLongFieldUpdater<SequenceValue> VALUE = AtomicLongFieldUpdater.newUpdater(SequenceValue.class, "value");
+
+        protected long p9, p10, p11, p12, p13, p14, p15;
+
+        private Sequence(long initialValue) {
+            this.value = initialValue;
+        }
+
+        private long get() {
+            return value;
+        }
+
+        private long incrementAndGet() {
+            return VALUE.incrementAndGet(this);
+        }
+
+        private void lazySet(long newValue) {
+            VALUE.lazySet(this, newValue);
+        }
+
+    }
+
+}
@@ -0,0 +1,60 @@
+package dev.sergheev.commandbus;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Defines how the consumer of a {@link RingBufferCommandBus} waits for commands to be published,
+ * and how the publishers wait for room when the ring buffer is full, trading latency for CPU usage.
+ */
+public enum RingBufferWaitStrategy {
+
+    /**
+     * Keeps spinning on the CPU: the lowest latency, but a whole core is used by the waiting thread.
+     * It is only suitable when there are more available cores than busy threads.
+     */
+    BUSY_SPIN {
+        @Override
+        void idle(int attempt) {
+            // Spin
+        }
+    },
+
+    /**
+     * Spins for a while and then yields the CPU to the other threads between attempts: a low latency
+     * that does not starve the other threads, but still keeps a core busy while waiting.
+     */
+    YIELD {
+        @Override
+        void idle(int attempt) {
+            if(attempt > SPIN_ATTEMPTS) Thread.yield();
+        }
+    },
+
+    /**
+     * Spins, then yields, and then parks the thread for a short while between attempts: the waiting
+     * thread barely uses the CPU, at the cost of up to the parking time of extra latency.
+     */
+    PARK {
+        @Override
+        void idle(int attempt) {
+            if(attempt > SPIN_ATTEMPTS + YIELD_ATTEMPTS) {
+                LockSupport.parkNanos(PARK_NANOS);
+            } else if(attempt > SPIN_ATTEMPTS) {
+                Thread.yield();
+            }
+        }
+    };
+
+    private static final int SPIN_ATTEMPTS = 100;
+
+    private static final int YIELD_ATTEMPTS = 100;
+
+    private static final long PARK_NANOS = 50_000L;
+
+    /**
+     * Waits after the given amount of consecutive attempts that found nothing to do.
+     * @param attempt the amount of consecutive attempts, starting at {@code 1}
+     */
+    abstract void idle(int attempt);
+
+}
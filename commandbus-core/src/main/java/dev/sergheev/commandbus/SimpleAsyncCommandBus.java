@@ -0,0 +1,127 @@
+package dev.sergheev.commandbus;
+
+import dev.sergheev.commandbus.coalescing.CoalescingCommandHandler;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A simple implementation for an {@link AsyncCommandBus}.
+ *
+ * <p>This object behaves exactly as a {@link SimpleCommandBus} when commands are
+ * executed synchronously, but it is also able to hand over the command processing
+ * to an {@link Executor}, returning a {@link CompletableFuture} that completes with
+ * the command execution result once the handler is done.
+ *
+ * <p>When built with partitioned lanes, the {@link PartitionedCommand}s executed
+ * asynchronously are processed in order per partition key, one at a time, while
+ * different partitions are processed in parallel.
+ */
+public class SimpleAsyncCommandBus extends SimpleCommandBus implements AsyncCommandBus {
+
+    /**
+     * Runs the asynchronously executed commands.
+     */
+    private final Executor executor;
+
+    /**
+     * Runs the asynchronously executed partitioned commands in order per partition, or {@code null} if they are not ordered.
+     */
+    private final PartitionedLanes partitionedLanes;
+
+    /**
+     * Constructs a new {@link SimpleAsyncCommandBus} instance.
+     * @throws NullPointerException if the {@code commandHandlerFinder} is {@code null}
+     * @throws NullPointerException if the {@code executor} is {@code null}
+     */
+    public SimpleAsyncCommandBus(CommandHandlerFinder commandHandlerFinder, Executor executor) throws NullPointerException {
+        super(commandHandlerFinder);
+        requireNonNull(executor, "executor must not be null");
+        this.executor = executor;
+        this.partitionedLanes = null;
+    }
+
+    /**
+     * Constructs a new {@link SimpleAsyncCommandBus} instance that executes the command groups of a batch in parallel.
+     * @throws NullPointerException if the {@code commandHandlerFinder} is {@code null}
+     * @throws NullPointerException if the {@code executor} is {@code null}
+     * @throws NullPointerException if the {@code batchExecutor} is {@code null}
+     */
+    public SimpleAsyncCommandBus(CommandHandlerFinder commandHandlerFinder, Executor executor, Executor batchExecutor) throws NullPointerException {
+        super(commandHandlerFinder, batchExecutor);
+        requireNonNull(executor, "executor must not be null");
+        this.executor = executor;
+        this.partitionedLanes = null;
+    }
+
+    /**
+     * Constructs a new {@link SimpleAsyncCommandBus} instance that processes the partitioned commands in the given lanes.
+     */
+    SimpleAsyncCommandBus(CommandHandlerFinder commandHandlerFinder, Executor executor, PartitionedLanes partitionedLanes) {
+        super(commandHandlerFinder);
+        this.executor = executor;
+        this.partitionedLanes = partitionedLanes;
+    }
+
+    /**
+     * Constructs a new {@link SimpleAsyncCommandBus} instance that executes the command groups of a batch in parallel,
+     * and processes the partitioned commands in the given lanes.
+     */
+    SimpleAsyncCommandBus(CommandHandlerFinder commandHandlerFinder, Executor executor, Executor batchExecutor, PartitionedLanes partitionedLanes) {
+        super(commandHandlerFinder, batchExecutor);
+        this.executor = executor;
+        this.partitionedLanes = partitionedLanes;
+    }
+
+    /**
+     * Returns a future that completes with the resulting object from processing the
+     * given command. If the command processing fails (i.e. there is no handler able
+     * to process the given command, or the handler throws) the returned future will
+     * be completed exceptionally with the failure cause. If the bus has partitioned
+     * lanes and the command is a {@link PartitionedCommand}, it is processed after
+     * the previously executed commands of its partition, and the future completes
+     * exceptionally with a {@link RejectedExecutionException} if the lane of the
+     * partition is full and rejects it. If the command type is coalesced, the returned
+     * future completes with the outcome of the equal command already in flight, if any.
+     * @param command the command that is to be processed
+     * @param <R> the type of the returned result
+     * @throws NullPointerException if the given {@code command} is {@code null}
+     * @return a future that completes with the resulting object from processing the given command
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <R> CompletableFuture<R> executeAsync(Command command) throws NullPointerException {
+        requireNonNull(command, "command must not be null");
+        if(partitionedLanes == null || !(command instanceof PartitionedCommand)) {
+            try {
+                final CommandHandler<Command, R> handler = handlerFor(command);
+                // Equal in-flight commands share the future of the first one, without blocking the executor
+                if(handler instanceof CoalescingCommandHandler) return ((CoalescingCommandHandler<Command, R>) handler).handleAsync(command, executor);
+                return CompletableFuture.supplyAsync(() -> handler.handle(command), executor);
+            } catch (RuntimeException e) {
+                // The handler is not found, or the executor rejects the command
+                final CompletableFuture<R> future = new CompletableFuture<>();
+                future.completeExceptionally(e);
+                return future;
+            }
+        }
+        final CompletableFuture<R> future = new CompletableFuture<>();
+        try {
+            final Object partitionKey = requireNonNull(((PartitionedCommand) command).partitionKey(), "partitionKey must not be null");
+            partitionedLanes.execute(partitionKey, () -> {
+                try {
+                    future.complete(execute(command));
+                } catch (Throwable t) {
+                    future.completeExceptionally(t);
+                }
+            });
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+}
@@ -1,5 +1,16 @@
 package dev.sergheev.commandbus;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
 import static java.util.Objects.requireNonNull;
 
 /**
@@ -8,6 +19,16 @@ import static java.util.Objects.requireNonNull;
  * <p>This object is responsible for taking in a {@link Command}, associating
  * it to its handler, and using that handler to perform the desired action,
  * finally returning the command execution result.
+ *
+ * <p>When executing a batch of commands, the commands are grouped by type and
+ * the handler of each group is resolved only once. Groups whose handler is a
+ * {@link BatchCommandHandler} are handed over as a whole, and groups may be
+ * executed in parallel if the bus was given an executor for batches.
+ *
+ * <p>Every handler is invoked from the same call site of {@link #execute(Command)},
+ * which prevents the JIT compiler from inlining any of them. Callers that always
+ * execute the same command type can instead obtain its dispatcher once, through
+ * {@link #dispatcherFor(Class)}, and invoke it from their own call site.
  */
 public class SimpleCommandBus implements CommandBus {
 
@@ -16,6 +37,16 @@ public class SimpleCommandBus implements CommandBus {
      */
     private final CommandHandlerFinder commandHandlerFinder;
 
+    /**
+     * Runs the command groups of a batch in parallel, or {@code null} if groups are executed sequentially.
+     */
+    private final Executor batchExecutor;
+
+    /**
+     * Associates a command type to the dispatcher of its current handler.
+     */
+    private final Map<Class<? extends Command>, CommandDispatcher> typeToDispatcher;
+
     /**
      * Constructs a new {@link SimpleCommandBus} instance.
      * @throws NullPointerException if the {@code commandHandlerFinder} is {@code null}
@@ -23,6 +54,21 @@ public class SimpleCommandBus implements CommandBus {
     public SimpleCommandBus(CommandHandlerFinder commandHandlerFinder) throws NullPointerException {
         requireNonNull(commandHandlerFinder, "commandHandlerFinder must not be null");
         this.commandHandlerFinder = commandHandlerFinder;
+        this.batchExecutor = null;
+        this.typeToDispatcher = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Constructs a new {@link SimpleCommandBus} instance that executes the command groups of a batch in parallel.
+     * @throws NullPointerException if the {@code commandHandlerFinder} is {@code null}
+     * @throws NullPointerException if the {@code batchExecutor} is {@code null}
+     */
+    public SimpleCommandBus(CommandHandlerFinder commandHandlerFinder, Executor batchExecutor) throws NullPointerException {
+        requireNonNull(commandHandlerFinder, "commandHandlerFinder must not be null");
+        requireNonNull(batchExecutor, "batchExecutor must not be null");
+        this.commandHandlerFinder = commandHandlerFinder;
+        this.batchExecutor = batchExecutor;
+        this.typeToDispatcher = new ConcurrentHashMap<>();
     }
 
     /**
@@ -30,13 +76,169 @@ public class SimpleCommandBus implements CommandBus {
      * @param command the command that is to be processed
      * @param <R> the type of the returned result
      * @throws NullPointerException if the given {@code command} is {@code null}
+     * @throws IllegalArgumentException if there is no handler able to process the given {@code command}
      * @return the resulting object from processing the given command
      */
     @Override
-    public <R> R execute(Command command) throws NullPointerException {
+    public <R> R execute(Command command) throws NullPointerException, IllegalArgumentException {
         requireNonNull(command, "command must not be null");
-        final CommandHandler<Command, R> handler = commandHandlerFinder.findHandlerFor(command.getClass().getName());
-        return handler.handle(command);
+        return this.<R>handlerFor(command).handle(command);
+    }
+
+    /**
+     * Returns the handler able to process the given command.
+     * @throws IllegalArgumentException if there is no handler able to process the given {@code command}
+     */
+    <R> CommandHandler<Command, R> handlerFor(Command command) throws IllegalArgumentException {
+        final CommandHandler<Command, R> handler = commandHandlerFinder.findHandlerFor(command.getClass());
+        if(handler == null) throw new IllegalArgumentException("No handler registered for " + command.getClass().getName());
+        return handler;
+    }
+
+    /**
+     * Returns a dispatcher that hands the commands of the given type over to their current handler,
+     * without looking the handler up again. Every command type has a dispatcher of its own class, so
+     * a call site that always invokes the same dispatcher only ever sees one handler, which allows the
+     * JIT compiler to inline it. The dispatcher is bound to the handler registered when it is obtained,
+     * it must be obtained again after the handler of the command type is replaced.
+     * @param commandType the type of the commands that are to be dispatched
+     * @param <C> the type of the commands
+     * @param <R> the type of the command computation results
+     * @throws NullPointerException if the given {@code commandType} is {@code null}
+     * @throws IllegalArgumentException if there is no handler able to process the commands of the given type
+     * @return the dispatcher of the commands of the given type
+     */
+    @SuppressWarnings("unchecked")
+    public <C extends Command, R> CommandHandler<C, R> dispatcherFor(Class<C> commandType) throws NullPointerException, IllegalArgumentException {
+        requireNonNull(commandType, "commandType must not be null");
+        final CommandHandler<C, R> handler = commandHandlerFinder.findHandlerFor(commandType);
+        if(handler == null) throw new IllegalArgumentException("No handler registered for " + commandType.getName());
+        CommandDispatcher dispatcher = typeToDispatcher.get(commandType);
+        if(dispatcher == null || dispatcher.handler != handler) {
+            dispatcher = new CommandDispatcher(handler, CommandInvokers.newInvoker(handler));
+            typeToDispatcher.put(commandType, dispatcher);
+        }
+        return dispatcher.invoker;
+    }
+
+    /**
+     * Returns the resulting objects from processing all the given commands, in the same order.
+     * All the handlers are resolved before any command is processed.
+     * @param commands the commands that are to be processed
+     * @param <R> the type of the returned results
+     * @throws NullPointerException if the given {@code commands} list or any of its commands is {@code null}
+     * @throws IllegalArgumentException if there is no handler able to process any of the given {@code commands}
+     * @throws IllegalStateException if a {@link BatchCommandHandler} returns a different amount of results than commands
+     * @return an unmodifiable list of the resulting objects from processing the given commands,
+     *         the result at index {@code i} is the result of the command at index {@code i}
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <R> List<R> executeAll(List<? extends Command> commands) throws NullPointerException, IllegalArgumentException {
+        requireNonNull(commands, "commands must not be null");
+        final List<CommandGroup> groups = groupByType(commands);
+        final Object[] results = new Object[commands.size()];
+        if(batchExecutor == null || groups.size() < 2) {
+            for(CommandGroup group : groups) group.executeInto(results);
+        } else {
+            executeInParallel(groups, results);
+        }
+        return (List<R>) Collections.unmodifiableList(Arrays.asList(results));
+    }
+
+    /**
+     * Groups the given commands by their type, resolving the handler of each group.
+     */
+    private List<CommandGroup> groupByType(List<? extends Command> commands) throws NullPointerException, IllegalArgumentException {
+        final Map<Class<? extends Command>, CommandGroup> typeToGroup = new HashMap<>();
+        final List<CommandGroup> groups = new ArrayList<>();
+        for(int position = 0; position < commands.size(); position++) {
+            final Command command = commands.get(position);
+            requireNonNull(command, "commands must not contain null commands");
+            CommandGroup group = typeToGroup.get(command.getClass());
+            if(group == null) {
+                final CommandHandler<Command, Object> handler = commandHandlerFinder.findHandlerFor(command.getClass());
+                if(handler == null) throw new IllegalArgumentException("No handler registered for " + command.getClass().getName());
+                group = new CommandGroup(handler);
+                typeToGroup.put(command.getClass(), group);
+                groups.add(group);
+            }
+            group.add(command, position);
+        }
+        return groups;
+    }
+
+    /**
+     * Executes every group as a separate task of the batch executor, waiting for all of them to complete.
+     */
+    private void executeInParallel(List<CommandGroup> groups, Object[] results) {
+        final CompletableFuture<?>[] executions = new CompletableFuture<?>[groups.size()];
+        for(int i = 0; i < executions.length; i++) {
+            final CommandGroup group = groups.get(i);
+            executions[i] = CompletableFuture.runAsync(() -> group.executeInto(results), batchExecutor);
+        }
+        try {
+            CompletableFuture.allOf(executions).join();
+        } catch (CompletionException e) {
+            if(e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            if(e.getCause() instanceof Error) throw (Error) e.getCause();
+            throw e;
+        }
+    }
+
+    /**
+     * The invoker spun for a given handler.
+     */
+    @SuppressWarnings({ "rawtypes" })
+    private static final class CommandDispatcher {
+
+        private final CommandHandler handler;
+
+        private final CommandHandler invoker;
+
+        private CommandDispatcher(CommandHandler handler, CommandHandler invoker) {
+            this.handler = handler;
+            this.invoker = invoker;
+        }
+
+    }
+
+    /**
+     * A group of commands of the same type that share a handler, with their positions in the batch.
+     */
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    private static final class CommandGroup {
+
+        private final CommandHandler<Command, Object> handler;
+
+        private final List<Command> commands;
+
+        private int[] positions;
+
+        private CommandGroup(CommandHandler<Command, Object> handler) {
+            this.handler = handler;
+            this.commands = new ArrayList<>();
+            this.positions = new int[8];
+        }
+
+        private void add(Command command, int position) {
+            if(commands.size() == positions.length) positions = Arrays.copyOf(positions, positions.length * 2);
+            positions[commands.size()] = position;
+            commands.add(command);
+        }
+
+        private void executeInto(Object[] results) throws IllegalStateException {
+            if(handler instanceof BatchCommandHandler) {
+                final List<Object> groupResults = ((BatchCommandHandler) handler).handleAll(commands);
+                if(groupResults == null || groupResults.size() != commands.size()) {
+                    throw new IllegalStateException(handler.getClass().getName() + " must return one result per command");
+                }
+                for(int i = 0; i < commands.size(); i++) results[positions[i]] = groupResults.get(i);
+            } else {
+                for(int i = 0; i < commands.size(); i++) results[positions[i]] = handler.handle(commands.get(i));
+            }
+        }
+
     }
 
 }
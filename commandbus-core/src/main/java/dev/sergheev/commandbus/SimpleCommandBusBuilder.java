@@ -1,13 +1,28 @@
 package dev.sergheev.commandbus;
 
+import dev.sergheev.commandbus.bulkhead.CommandBulkheads;
+import dev.sergheev.commandbus.cache.CommandMemoizer;
+import dev.sergheev.commandbus.coalescing.CommandCoalescer;
+import dev.sergheev.commandbus.discovery.CommandHandlerDiscovery;
+import dev.sergheev.commandbus.interceptor.InterceptorChainDecorator;
+import dev.sergheev.commandbus.journal.CommandJournal;
+import dev.sergheev.commandbus.metrics.CommandMetrics;
+import dev.sergheev.commandbus.registry.CommandHandlerDecorator;
 import dev.sergheev.commandbus.registry.CommandHandlerRegistry;
 import dev.sergheev.commandbus.registry.CommandHandlerRegistryFactory;
+import dev.sergheev.commandbus.scope.HandlerLifecycle;
+import dev.sergheev.commandbus.scope.HandlerScope;
+import dev.sergheev.commandbus.scope.ScopedHandlerDecorator;
 
 import java.util.ConcurrentModificationException;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 import static java.util.Objects.requireNonNull;
 
@@ -26,6 +41,11 @@ import static java.util.Objects.requireNonNull;
 @SuppressWarnings({ "rawtypes" })
 public class SimpleCommandBusBuilder {
 
+    /**
+     * The maximum amount of pending commands of every partitioned lane if none is specified.
+     */
+    public static final int DEFAULT_LANE_CAPACITY = 1024;
+
     /**
      * A static factory method for the creation of a new {@code SimpleCommandBusBuilder} instance.
      * @return a new {@link SimpleCommandBusBuilder} instance
@@ -39,20 +59,116 @@ public class SimpleCommandBusBuilder {
      */
     private boolean isConcurrent;
 
+    /**
+     * Indicates if the handlers of the bus being built must be compiled into an immutable registry.
+     */
+    private boolean isFrozen;
+
     /**
      * Stores a custom or client-managed registry that is to be provided by the client.
      */
     private CommandHandlerRegistry customRegistry;
 
+    /**
+     * Stores a factory of registries that decorate the dispatched handlers, provided by the client.
+     */
+    private Function<CommandHandlerDecorator, ? extends CommandHandlerRegistry> customRegistryFactory;
+
     /**
      * Contains all the handler class to instance associations that are to be stored in the registry.
      */
     private final Map<Class<? extends CommandHandler>, Object> classToInstance;
 
+    /**
+     * Contains all the handler class to instance supplier associations of the handlers that are to be created lazily.
+     */
+    private final Map<Class<? extends CommandHandler>, Supplier<?>> classToSupplier;
+
+    /**
+     * Contains all the handlers whose instances are scoped, and replaces their prototypes when they are registered.
+     */
+    private final ScopedHandlerDecorator scopedHandlers;
+
+    /**
+     * Stores the executor that runs the asynchronously executed commands.
+     */
+    private Executor executor;
+
+    /**
+     * Indicates if every asynchronously executed command is to run on its own virtual thread.
+     */
+    private boolean isVirtualThreads;
+
+    /**
+     * The amount of lanes in which the partitioned commands are executed asynchronously, or {@code 0} if they are not ordered.
+     */
+    private int laneCount;
+
+    /**
+     * The maximum amount of pending commands of every lane.
+     */
+    private int laneCapacity;
+
+    /**
+     * Defines what happens to a command executed when the lane of its partition is full.
+     */
+    private LaneOverflowPolicy laneOverflowPolicy;
+
+    /**
+     * Indicates if the command groups of a batch must be executed in parallel or not.
+     */
+    private boolean isParallelBatches;
+
+    /**
+     * Contains all the interceptors that are to be chained around the handlers.
+     */
+    private final InterceptorChainDecorator interceptors;
+
+    /**
+     * Stores the metrics that are to be recorded for every command type, or {@code null} if metrics are disabled.
+     */
+    private CommandMetrics metrics;
+
+    /**
+     * Stores the memoizer of the results of the pure command types, or {@code null} if memoization is disabled.
+     */
+    private CommandMemoizer memoizer;
+
+    /**
+     * Stores the coalescer of the equal in-flight commands, or {@code null} if coalescing is disabled.
+     */
+    private CommandCoalescer coalescer;
+
+    /**
+     * Stores the concurrency limits of the command types, or {@code null} if they are not limited.
+     */
+    private CommandBulkheads bulkheads;
+
+    /**
+     * Stores the journal every handled command is appended to, or {@code null} if journaling is disabled.
+     */
+    private CommandJournal journal;
+
     public SimpleCommandBusBuilder() {
         this.isConcurrent = false;
+        this.isFrozen = false;
         this.customRegistry = null;
+        this.customRegistryFactory = null;
         this.classToInstance = new ConcurrentHashMap<>();
+        this.classToSupplier = new ConcurrentHashMap<>();
+        this.scopedHandlers = new ScopedHandlerDecorator();
+        this.executor = null;
+        this.isVirtualThreads = false;
+        this.laneCount = 0;
+        this.laneCapacity = 0;
+        this.laneOverflowPolicy = null;
+        this.isParallelBatches = false;
+        this.interceptors = new InterceptorChainDecorator();
+        this.metrics = null;
+        this.memoizer = null;
+        this.coalescer = null;
+        this.bulkheads = null;
+        this.journal = null;
     }
 
     /**
@@ -64,6 +180,18 @@ public class SimpleCommandBusBuilder {
         return this;
     }
 
+    /**
+     * Compiles the handlers of the bus being built into an immutable registry, whose lookups do not
+     * involve any synchronization. Handlers can no longer be registered nor unregistered once the
+     * bus is built, the modifying methods of the registry throw an {@link UnsupportedOperationException}.
+     * Because it is immutable, the registry is also thread-safe, but it cannot hold lazy handlers.
+     * @return the current {@link SimpleCommandBusBuilder} instance
+     */
+    public SimpleCommandBusBuilder frozen() {
+        isFrozen = true;
+        return this;
+    }
+
     /**
      * Registers all the type-instance handler associations for the bus being built.
      * @param classToHandler the map containing all the type-instance handler associations
@@ -90,14 +218,206 @@ public class SimpleCommandBusBuilder {
         requireNonNull(type, "type must not be null");
         requireNonNull(instance, "instance must not be null");
         if(!type.isInstance(instance)) throw new IllegalArgumentException("The given instance must match the type");
+        classToSupplier.remove(type);
         classToInstance.put(type, instance);
         return this;
     }
 
+    /**
+     * Registers a handler type whose instance is only created, by the given supplier, when the first command
+     * it processes is dispatched, so handlers that are expensive to create do not delay the startup nor hold
+     * resources until they are needed. Concurrent first commands wait for a single instance to be created,
+     * which is then registered into the registry like any other handler, so the later commands are dispatched
+     * straight to it. A bus with lazy handlers that is used from several threads must be {@link #concurrent()}.
+     * @param type the type of the handler class
+     * @param supplier the supplier of the instance of the previously mentioned type
+     * @param <T> the type of the handler
+     * @throws NullPointerException if the {@code type} or the {@code supplier} are {@code null}
+     * @return the current {@link SimpleCommandBusBuilder} instance
+     */
+    public <T extends CommandHandler> SimpleCommandBusBuilder registerLazyHandler(Class<T> type, Supplier<? extends T> supplier) throws NullPointerException {
+        requireNonNull(type, "type must not be null");
+        requireNonNull(supplier, "supplier must not be null");
+        classToInstance.remove(type);
+        classToSupplier.put(type, supplier);
+        return this;
+    }
+
+    /**
+     * Registers a handler type whose commands are processed by instances of the given scope, created by the
+     * given supplier, instead of a single shared instance: every thread can have its own instance
+     * ({@link HandlerScope#threadConfined()}) or take one from a bounded pool ({@link HandlerScope#pooled(int)}),
+     * so handlers with mutable scratch state do not have to synchronize it. A first instance is created right away,
+     * which is the one the registry returns for the handler type.
+     * @param type the type of the handler class
+     * @param supplier the supplier of the instances of the previously mentioned type
+     * @param scope the scope that decides which instance processes every command
+     * @param <T> the type of the handler
+     * @throws NullPointerException if the {@code type}, {@code supplier} or {@code scope} are {@code null}
+     * @throws IllegalStateException if the {@code scope} is closed
+     * @throws IllegalStateException if the {@code supplier} does not supply an instance of the {@code type}
+     * @return the current {@link SimpleCommandBusBuilder} instance
+     */
+    public <T extends CommandHandler> SimpleCommandBusBuilder registerScopedHandler(Class<T> type, Supplier<? extends T> supplier,
+                                                                                    HandlerScope scope) throws NullPointerException, IllegalStateException {
+        return registerScopedHandler(type, supplier, scope, HandlerLifecycle.none());
+    }
+
+    /**
+     * Registers a handler type whose commands are processed by instances of the given scope, created by the
+     * given supplier, and notifies the given lifecycle when each instance is created, has processed a command,
+     * and is destroyed (when the scope is closed, or when the thread of a thread-confined instance has terminated).
+     * @param type the type of the handler class
+     * @param supplier the supplier of the instances of the previously mentioned type
+     * @param scope the scope that decides which instance processes every command
+     * @param lifecycle the callbacks notified of the lifecycle of the instances
+     * @param <T> the type of the handler
+     * @throws NullPointerException if the {@code type}, {@code supplier}, {@code scope} or {@code lifecycle} are {@code null}
+     * @throws IllegalStateException if the {@code scope} is closed
+     * @throws IllegalStateException if the {@code supplier} does not supply an instance of the {@code type}
+     * @return the current {@link SimpleCommandBusBuilder} instance
+     * @see #registerScopedHandler(Class, Supplier, HandlerScope)
+     */
+    public <T extends CommandHandler> SimpleCommandBusBuilder registerScopedHandler(Class<T> type, Supplier<? extends T> supplier, HandlerScope scope,
+                                                                                    HandlerLifecycle<? super T> lifecycle) throws NullPointerException, IllegalStateException {
+        return registerHandler(type, scopedHandlers.add(type, supplier, scope, lifecycle));
+    }
+
+    /**
+     * Registers all the handlers listed by the handler indexes generated at build time by the
+     * {@code commandbus-processor} annotation processor, instantiated with their public no-argument
+     * constructor, for the bus being built.
+     * @throws IllegalStateException if a handler cannot be discovered or instantiated
+     * @return the current {@link SimpleCommandBusBuilder} instance
+     */
+    public SimpleCommandBusBuilder discoverHandlers() throws IllegalStateException {
+        return discoverHandlers(CommandHandlerDiscovery.create());
+    }
+
+    /**
+     * Registers all the handlers found by the given discovery, instantiated with their public no-argument
+     * constructor, for the bus being built.
+     * @param discovery the discovery that finds the handler classes
+     * @throws NullPointerException if the given {@code discovery} is {@code null}
+     * @throws IllegalStateException if a handler cannot be discovered or instantiated
+     * @return the current {@link SimpleCommandBusBuilder} instance
+     */
+    public SimpleCommandBusBuilder discoverHandlers(CommandHandlerDiscovery discovery) throws NullPointerException, IllegalStateException {
+        requireNonNull(discovery, "discovery must not be null");
+        for(Class<? extends CommandHandler> type : discovery.discover()) {
+            try {
+                registerHandler(type, type.getConstructor().newInstance());
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("Unable to instantiate the discovered handler " + type.getName(), e);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Adds an interceptor that wraps the processing of every command by its handler. Interceptors
+     * are chained in the order they are added, the first added interceptor being the outermost one.
+     * @param interceptor the interceptor that is to be added
+     * @throws NullPointerException if the given {@code interceptor} is {@code null}
+     * @return the current {@link SimpleCommandBusBuilder} instance
+     */
+    public SimpleCommandBusBuilder addInterceptor(CommandInterceptor<Command, Object> interceptor) throws NullPointerException {
+        interceptors.add(Command.class, interceptor);
+        return this;
+    }
+
+    /**
+     * Adds an interceptor that wraps the processing of the commands of the given type (or any of its subtypes)
+     * by their handler. Interceptors are chained in the order they are added, the first added interceptor being
+     * the outermost one. The chain of each command type is compiled once, when its handler is registered, and
+     * command types without interceptors are dispatched straight to their handler.
+     * @param commandType the type of the commands to intercept
+     * @param interceptor the interceptor that is to be added
+     * @param <C> the type of the intercepted commands
+     * @throws NullPointerException if the given {@code commandType} or {@code interceptor} are {@code null}
+     * @return the current {@link SimpleCommandBusBuilder} instance
+     */
+    public <C extends Command> SimpleCommandBusBuilder addInterceptor(Class<C> commandType, CommandInterceptor<C, ?> interceptor) throws NullPointerException {
+        interceptors.add(commandType, interceptor);
+        return this;
+    }
+
+    /**
+     * Records the invocation count, error count, in-flight commands and latencies of every command type
+     * into the given metrics, which can be read at any time through {@link CommandMetrics#snapshot()}.
+     * The recorded latency includes the interceptors of the command type.
+     * @param metrics the metrics that are to be recorded
+     * @throws NullPointerException if the given {@code metrics} is {@code null}
+     * @return the current {@link SimpleCommandBusBuilder} instance
+     */
+    public SimpleCommandBusBuilder withMetrics(CommandMetrics metrics) throws NullPointerException {
+        requireNonNull(metrics, "metrics must not be null");
+        this.metrics = metrics;
+        return this;
+    }
+
+    /**
+     * Reuses the results of the command types memoized by the given memoizer (i.e. annotated with
+     * {@link dev.sergheev.commandbus.cache.Memoized}) instead of calling their handler again for equal
+     * commands. The interceptors and metrics still apply to the commands whose result is reused.
+     * @param memoizer the memoizer of the results
+     * @throws NullPointerException if the given {@code memoizer} is {@code null}
+     * @return the current {@link SimpleCommandBusBuilder} instance
+     */
+    public SimpleCommandBusBuilder withMemoization(CommandMemoizer memoizer) throws NullPointerException {
+        requireNonNull(memoizer, "memoizer must not be null");
+        this.memoizer = memoizer;
+        return this;
+    }
+
+    /**
+     * Shares a single handler invocation between the equal commands of the types coalesced by the given
+     * coalescer that are executed concurrently, synchronously or asynchronously. The interceptors and
+     * metrics apply once per shared invocation.
+     * @param coalescer the coalescer of the equal in-flight commands
+     * @throws NullPointerException if the given {@code coalescer} is {@code null}
+     * @return the current {@link SimpleCommandBusBuilder} instance
+     */
+    public SimpleCommandBusBuilder withCoalescing(CommandCoalescer coalescer) throws NullPointerException {
+        requireNonNull(coalescer, "coalescer must not be null");
+        this.coalescer = coalescer;
+        return this;
+    }
+
+    /**
+     * Limits the amount of commands processed at once for every command type limited by the given bulkheads,
+     * rejecting or queueing the commands over the limit. The commands whose memoized result is reused do
+     * not take a permit, while the interceptors and metrics apply to the rejected commands as well.
+     * @param bulkheads the concurrency limits of the command types
+     * @throws NullPointerException if the given {@code bulkheads} is {@code null}
+     * @return the current {@link SimpleCommandBusBuilder} instance
+     */
+    public SimpleCommandBusBuilder withBulkheads(CommandBulkheads bulkheads) throws NullPointerException {
+        requireNonNull(bulkheads, "bulkheads must not be null");
+        this.bulkheads = bulkheads;
+        return this;
+    }
+
+    /**
+     * Appends every command to the given journal right before handing it over to its handler, so the
+     * journal holds every handled command (the commands rejected by a bulkhead, or whose memoized result
+     * is reused, are not appended). The journal is not closed by the bus.
+     * @param journal the journal the commands are to be appended to
+     * @throws NullPointerException if the given {@code journal} is {@code null}
+     * @return the current {@link SimpleCommandBusBuilder} instance
+     */
+    public SimpleCommandBusBuilder withJournal(CommandJournal journal) throws NullPointerException {
+        requireNonNull(journal, "journal must not be null");
+        this.journal = journal;
+        return this;
+    }
+
     /**
      * Use a client-managed or custom-provided registry instance for the bus being built.
      * It is useful to provide a client self-managed registry when commands and handlers
      * will be modified at runtime, to prevent a {@link ConcurrentModificationException}.
+     * A custom registry cannot be combined with interceptors, metrics or other handler decorators,
+     * because they are compiled into the registries created by this builder.
      * @param customRegistry the custom registry that is to be used
      * @throws NullPointerException if the given {@code customRegistry} is {@code null}
      * @return the current {@link SimpleCommandBusBuilder} instance
@@ -105,6 +425,101 @@ public class SimpleCommandBusBuilder {
     public SimpleCommandBusBuilder withRegistry(CommandHandlerRegistry customRegistry) throws NullPointerException {
         requireNonNull(customRegistry, "customRegistry must not be null");
         this.customRegistry = customRegistry;
+        this.customRegistryFactory = null;
+        return this;
+    }
+
+    /**
+     * Use a registry created by the given factory for the bus being built. Unlike a registry given to
+     * {@link #withRegistry(CommandHandlerRegistry)}, the factory receives the decorator that compiles the
+     * interceptors and the metrics into the dispatched handlers, so they can be combined. It is typically
+     * the constructor of the registry generated by the {@code commandbus-processor} annotation processor
+     * (i.e., {@code GeneratedCommandHandlerRegistry::new}), which registers handlers without reflection.
+     * @param customRegistryFactory the factory of the custom registry that is to be used
+     * @throws NullPointerException if the given {@code customRegistryFactory} is {@code null}
+     * @return the current {@link SimpleCommandBusBuilder} instance
+     */
+    public SimpleCommandBusBuilder withRegistryFactory(Function<CommandHandlerDecorator, ? extends CommandHandlerRegistry> customRegistryFactory) throws NullPointerException {
+        requireNonNull(customRegistryFactory, "customRegistryFactory must not be null");
+        this.customRegistryFactory = customRegistryFactory;
+        this.customRegistry = null;
+        return this;
+    }
+
+    /**
+     * Use the given executor to run the asynchronously executed commands of the bus being built.
+     * The executor only takes effect when building an asynchronous bus with {@link #buildAsync()}.
+     * @param executor the executor that is to be used
+     * @throws NullPointerException if the given {@code executor} is {@code null}
+     * @return the current {@link SimpleCommandBusBuilder} instance
+     */
+    public SimpleCommandBusBuilder withExecutor(Executor executor) throws NullPointerException {
+        requireNonNull(executor, "executor must not be null");
+        this.executor = executor;
+        this.isVirtualThreads = false;
+        return this;
+    }
+
+    /**
+     * Runs every asynchronously executed command of the bus being built on its own virtual thread,
+     * so blocking handlers do not require sizing a thread pool. The virtual threads only take effect
+     * when building an asynchronous bus with {@link #buildAsync()}. The threads are started by the bus
+     * itself, so there is no executor to shut down.
+     * @throws UnsupportedOperationException if the running JVM does not support virtual threads (Java 21+)
+     * @return the current {@link SimpleCommandBusBuilder} instance
+     */
+    public SimpleCommandBusBuilder virtualThreads() throws UnsupportedOperationException {
+        if(!VirtualThreads.isSupported()) throw new UnsupportedOperationException("Virtual threads require Java 21 or later");
+        this.executor = null;
+        this.isVirtualThreads = true;
+        return this;
+    }
+
+    /**
+     * Executes the asynchronously executed {@link PartitionedCommand}s of the bus being built in order per partition
+     * key, while different partitions are executed in parallel: every key is routed by its hash to one of the given
+     * amount of lanes, whose commands are executed one at a time, in order, on the executor of the bus. Every lane holds
+     * up to {@value #DEFAULT_LANE_CAPACITY} pending commands, and the executing threads wait for room when it is full.
+     * The lanes only take effect when building an asynchronous bus with {@link #buildAsync()}.
+     * @param laneCount the amount of lanes (typically the amount of available processors)
+     * @throws IllegalArgumentException if the {@code laneCount} is not positive
+     * @return the current {@link SimpleCommandBusBuilder} instance
+     */
+    public SimpleCommandBusBuilder partitionedLanes(int laneCount) throws IllegalArgumentException {
+        return partitionedLanes(laneCount, DEFAULT_LANE_CAPACITY, LaneOverflowPolicy.BLOCK);
+    }
+
+    /**
+     * Executes the asynchronously executed {@link PartitionedCommand}s of the bus being built in order per partition
+     * key, while different partitions are executed in parallel, in the given amount of lanes that hold up to the given
+     * amount of pending commands each. The lanes only take effect when building an asynchronous bus with {@link #buildAsync()}.
+     * @param laneCount the amount of lanes (typically the amount of available processors)
+     * @param laneCapacity the maximum amount of pending commands of every lane
+     * @param overflowPolicy defines what happens to a command executed when the lane of its partition is full
+     * @throws IllegalArgumentException if the {@code laneCount} or the {@code laneCapacity} are not positive
+     * @throws NullPointerException if the given {@code overflowPolicy} is {@code null}
+     * @return the current {@link SimpleCommandBusBuilder} instance
+     * @see #partitionedLanes(int)
+     */
+    public SimpleCommandBusBuilder partitionedLanes(int laneCount, int laneCapacity, LaneOverflowPolicy overflowPolicy) throws IllegalArgumentException, NullPointerException {
+        if(laneCount <= 0) throw new IllegalArgumentException("laneCount must be positive");
+        if(laneCapacity <= 0) throw new IllegalArgumentException("laneCapacity must be positive");
+        requireNonNull(overflowPolicy, "overflowPolicy must not be null");
+        this.laneCount = laneCount;
+        this.laneCapacity = laneCapacity;
+        this.laneOverflowPolicy = overflowPolicy;
+        return this;
+    }
+
+    /**
+     * Executes the command groups of the batches given to {@link CommandBus#executeAll(java.util.List)}
+     * in parallel, one task per command type. The groups run on the executor specified with
+     * {@link #withExecutor(Executor)} or {@link #virtualThreads()}, or on the {@link ForkJoinPool#commonPool()}
+     * if none is specified.
+     * @return the current {@link SimpleCommandBusBuilder} instance
+     */
+    public SimpleCommandBusBuilder parallelBatches() {
+        isParallelBatches = true;
         return this;
     }
 
@@ -112,21 +527,112 @@ public class SimpleCommandBusBuilder {
      * Constructs a new {@link SimpleCommandBus} instance configured accordingly. If a custom or
      * client-managed {@link CommandHandlerRegistry} is not specified, a default non thread-safe
      * implementation of the registry will be used instead.
+     * @throws IllegalStateException if a custom registry is combined with interceptors, metrics or other handler decorators
+     * @throws IllegalStateException if a custom registry is combined with the frozen mode
+     * @throws IllegalStateException if lazy handlers are combined with the frozen mode
      * @return a new {@link SimpleCommandBus} instance configured accordingly.
      */
-    public SimpleCommandBus build() {
+    public SimpleCommandBus build() throws IllegalStateException {
+        // Lazy handlers are registered by the threads that execute the parallel batch groups
+        final CommandHandlerFinder commandHandlerFinder = buildHandlerFinder(isConcurrent || (isParallelBatches && !classToSupplier.isEmpty()));
+        if(isParallelBatches) return new SimpleCommandBus(commandHandlerFinder, resolveExecutor());
+        return new SimpleCommandBus(commandHandlerFinder);
+    }
+
+    /**
+     * Constructs a new {@link SimpleAsyncCommandBus} instance configured accordingly. If an
+     * executor is not specified, the {@link ForkJoinPool#commonPool()} will be used instead.
+     * Because asynchronously executed commands are processed from other threads, the built
+     * bus uses a thread-safe registry unless a custom one is specified.
+     * @throws IllegalStateException if a custom registry is combined with interceptors, metrics or other handler decorators
+     * @throws IllegalStateException if a custom registry is combined with the frozen mode
+     * @throws IllegalStateException if lazy handlers are combined with the frozen mode
+     * @return a new {@link SimpleAsyncCommandBus} instance configured accordingly.
+     */
+    public SimpleAsyncCommandBus buildAsync() throws IllegalStateException {
+        final Executor busExecutor = resolveExecutor();
+        final CommandHandlerFinder commandHandlerFinder = buildHandlerFinder(true);
+        if(laneCount > 0) {
+            final PartitionedLanes partitionedLanes = new PartitionedLanes(busExecutor, laneCount, laneCapacity, laneOverflowPolicy);
+            if(isParallelBatches) return new SimpleAsyncCommandBus(commandHandlerFinder, busExecutor, busExecutor, partitionedLanes);
+            return new SimpleAsyncCommandBus(commandHandlerFinder, busExecutor, partitionedLanes);
+        }
+        if(isParallelBatches) return new SimpleAsyncCommandBus(commandHandlerFinder, busExecutor, busExecutor);
+        return new SimpleAsyncCommandBus(commandHandlerFinder, busExecutor);
+    }
+
+    /**
+     * Constructs a new {@link RingBufferCommandBus} instance configured accordingly, whose asynchronously
+     * executed commands are handed over to its consumer thread through a preallocated ring buffer of the
+     * given size. The executor, partitioned lanes and parallel batches do not apply to this bus, and it
+     * uses a thread-safe registry unless a custom one is specified.
+     * @param bufferSize the amount of slots of the ring buffer, a power of two
+     * @param waitStrategy defines how the consumer and the publishers wait
+     * @throws IllegalArgumentException if the {@code bufferSize} is not a positive power of two
+     * @throws NullPointerException if the given {@code waitStrategy} is {@code null}
+     * @throws IllegalStateException if a custom registry is combined with interceptors, metrics or other handler decorators
+     * @throws IllegalStateException if a custom registry is combined with the frozen mode
+     * @throws IllegalStateException if lazy handlers are combined with the frozen mode
+     * @return a new {@link RingBufferCommandBus} instance configured accordingly.
+     */
+    public RingBufferCommandBus buildRingBuffer(int bufferSize, RingBufferWaitStrategy waitStrategy) throws IllegalArgumentException, NullPointerException, IllegalStateException {
+        if(bufferSize <= 0 || Integer.bitCount(bufferSize) != 1) throw new IllegalArgumentException("bufferSize must be a positive power of two");
+        requireNonNull(waitStrategy, "waitStrategy must not be null");
+        return new RingBufferCommandBus(buildHandlerFinder(true), bufferSize, waitStrategy);
+    }
+
+    /**
+     * Returns the executor specified by the client, a virtual thread per task one if requested, or the common pool otherwise.
+     */
+    private Executor resolveExecutor() {
+        if(isVirtualThreads) return VirtualThreads.newVirtualThreadPerTaskExecutor();
+        return Objects.isNull(executor) ? ForkJoinPool.commonPool() : executor;
+    }
+
+    /**
+     * Creates the registry configured accordingly, fills it with all the handlers and wraps it into a finder.
+     * @throws IllegalStateException if a custom registry is combined with interceptors, metrics or other handler decorators
+     * @throws IllegalStateException if a custom registry is combined with the frozen mode
+     * @throws IllegalStateException if lazy handlers are combined with the frozen mode
+     */
+    private CommandHandlerFinder buildHandlerFinder(boolean concurrent) throws IllegalStateException {
         final CommandHandlerRegistry handlerRegistry;
         final boolean hasCustomRegistry = !Objects.isNull(customRegistry);
+        final CommandHandlerDecorator handlerDecorator = buildHandlerDecorator();
+        if(isFrozen) {
+            if(hasCustomRegistry || !Objects.isNull(customRegistryFactory)) throw new IllegalStateException("A custom registry cannot be frozen");
+            if(!classToSupplier.isEmpty()) throw new IllegalStateException("Lazy handlers cannot be frozen, because they are registered on their first command");
+            return new SimpleCommandHandlerFinder(CommandHandlerRegistryFactory.newFrozenRegistry(classToInstance, handlerDecorator));
+        }
         if(hasCustomRegistry) {
+            if(handlerDecorator != CommandHandlerDecorator.NONE) throw new IllegalStateException("A custom registry cannot be combined with interceptors, metrics or other handler decorators");
             handlerRegistry = customRegistry;
-        } else if(isConcurrent) {
-            handlerRegistry = CommandHandlerRegistryFactory.newConcurrentRegistry();
+        } else if(!Objects.isNull(customRegistryFactory)) {
+            handlerRegistry = requireNonNull(customRegistryFactory.apply(handlerDecorator), "customRegistryFactory must not supply null");
+        } else if(concurrent) {
+            handlerRegistry = CommandHandlerRegistryFactory.newConcurrentRegistry(handlerDecorator);
         } else {
-            handlerRegistry = CommandHandlerRegistryFactory.newRegistry();
+            handlerRegistry = CommandHandlerRegistryFactory.newRegistry(handlerDecorator);
         }
-        classToInstance.forEach(handlerRegistry::registerHandler);
-        final CommandHandlerFinder commandHandlerFinder = new SimpleCommandHandlerFinder(handlerRegistry);
-        return new SimpleCommandBus(commandHandlerFinder);
+        handlerRegistry.registerHandlers(classToInstance);
+        if(classToSupplier.isEmpty()) return new SimpleCommandHandlerFinder(handlerRegistry);
+        return new LazyCommandHandlerFinder(handlerRegistry, new HashMap<>(classToSupplier));
+    }
+
+    /**
+     * Combines the scoped handlers, the interceptors and the metrics into the decorator of the dispatched handlers, which
+     * keeps the scoped handlers and the interceptors registered so far: the built bus is not affected by later registrations.
+     */
+    private CommandHandlerDecorator buildHandlerDecorator() {
+        CommandHandlerDecorator handlerDecorator = CommandHandlerDecorator.NONE;
+        if(!scopedHandlers.isEmpty()) handlerDecorator = handlerDecorator.andThen(scopedHandlers.snapshot());
+        if(!Objects.isNull(journal)) handlerDecorator = handlerDecorator.andThen(journal);
+        if(!Objects.isNull(bulkheads)) handlerDecorator = handlerDecorator.andThen(bulkheads);
+        if(!Objects.isNull(memoizer)) handlerDecorator = handlerDecorator.andThen(memoizer);
+        if(!interceptors.isEmpty()) handlerDecorator = handlerDecorator.andThen(interceptors.snapshot());
+        if(!Objects.isNull(metrics)) handlerDecorator = handlerDecorator.andThen(metrics);
+        if(!Objects.isNull(coalescer)) handlerDecorator = handlerDecorator.andThen(coalescer);
+        return handlerDecorator;
     }
 
 }
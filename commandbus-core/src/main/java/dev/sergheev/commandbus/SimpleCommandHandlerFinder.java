@@ -42,4 +42,18 @@ public class SimpleCommandHandlerFinder implements CommandHandlerFinder {
         return commandHandlerRegistry.getHandlerFor(commandName);
     }
 
+    /**
+     * Returns a concrete handler implementation that is able to process the commands of the given type.
+     * @param commandType the type of the command whose handler is to be found
+     * @param <C> the type of the concrete command
+     * @param <R> the type of the command computation result
+     * @throws NullPointerException if {@code commandType} is {@code null}
+     * @return a concrete {@link CommandHandler} implementation able to handle the given command,
+     *         or {@code null} if there is no handler associated to {@code commandType}
+     */
+    public <C extends Command, R> CommandHandler<C, R> findHandlerFor(Class<? extends Command> commandType) throws NullPointerException {
+        requireNonNull(commandType, "commandType must not be null");
+        return commandHandlerRegistry.getHandlerFor(commandType);
+    }
+
 }
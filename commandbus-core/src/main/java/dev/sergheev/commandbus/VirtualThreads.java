@@ -0,0 +1,79 @@
+package dev.sergheev.commandbus;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Provides access to the virtual threads of the running JVM (available since Java 21).
+ *
+ * <p>The library is compiled for Java 8, so the virtual threads API is resolved
+ * reflectively once, when this class is initialized. No reflection is involved
+ * when commands are executed, because the resolved thread factory is used directly.
+ */
+final class VirtualThreads {
+
+    /**
+     * The {@code Thread.ofVirtual()} method, or {@code null} if it is not available.
+     */
+    private static final Method OF_VIRTUAL = findMethod(Thread.class, "ofVirtual");
+
+    /**
+     * The {@code Thread.Builder.factory()} method, or {@code null} if it is not available.
+     */
+    private static final Method FACTORY = findMethod(findClass("java.lang.Thread$Builder"), "factory");
+
+    /**
+     * @throws AssertionError if an attempt to instantiate {@code VirtualThreads} is made (ensures non-instantiability)
+     */
+    private VirtualThreads() {
+        throw new AssertionError();
+    }
+
+    private static Class<?> findClass(String name) {
+        try {
+            return Class.forName(name);
+        } catch (ClassNotFoundException e) {
+            return null;
+        }
+    }
+
+    private static Method findMethod(Class<?> type, String name) {
+        if(type == null) return null;
+        try {
+            return type.getMethod(name);
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns {@code true} if the running JVM supports virtual threads.
+     * @return {@code true} if the running JVM supports virtual threads, {@code false} otherwise
+     */
+    static boolean isSupported() {
+        return OF_VIRTUAL != null && FACTORY != null;
+    }
+
+    /**
+     * Creates an executor that starts a new virtual thread for each task. Unlike
+     * {@code Executors.newVirtualThreadPerTaskExecutor()} it does not keep track of its threads,
+     * so it holds no resources and never needs to be shut down.
+     * @throws UnsupportedOperationException if the running JVM does not support virtual threads
+     * @return an executor that starts a new virtual thread for each task
+     */
+    static Executor newVirtualThreadPerTaskExecutor() throws UnsupportedOperationException {
+        if(!isSupported()) throw new UnsupportedOperationException("Virtual threads require Java 21 or later");
+        final ThreadFactory threadFactory;
+        try {
+            threadFactory = (ThreadFactory) FACTORY.invoke(OF_VIRTUAL.invoke(null));
+        } catch (IllegalAccessException e) {
+            throw new UnsupportedOperationException("Virtual threads are not accessible", e);
+        } catch (InvocationTargetException e) {
+            throw new UnsupportedOperationException("Virtual threads are not available", e.getCause());
+        }
+        return task -> threadFactory.newThread(task).start();
+    }
+
+}
@@ -0,0 +1,78 @@
+package dev.sergheev.commandbus.bulkhead;
+
+import dev.sergheev.commandbus.Command;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The permits of a single command type.
+ *
+ * <p>A permit is taken with a single compare-and-set while there are free permits, so
+ * the commands within the limit never block nor take a lock. Only the commands over the
+ * limit of a queueing policy wait, on the (non-fair) semaphore of the command type.
+ */
+final class Bulkhead {
+
+    private final Class<? extends Command> commandType;
+
+    private final BulkheadPolicy policy;
+
+    private final Semaphore permits;
+
+    /**
+     * The amount of commands waiting for a permit.
+     */
+    private final AtomicInteger queued;
+
+    private final LongAdder rejected;
+
+    Bulkhead(Class<? extends Command> commandType, BulkheadPolicy policy) {
+        this.commandType = commandType;
+        this.policy = policy;
+        this.permits = new Semaphore(policy.maxConcurrent());
+        this.queued = new AtomicInteger();
+        this.rejected = new LongAdder();
+    }
+
+    /**
+     * Takes a permit, waiting for it according to the policy.
+     * @throws RejectedExecutionException if the command is over the limit and cannot wait, or its turn does not come in time
+     */
+    void acquire() throws RejectedExecutionException {
+        if(permits.tryAcquire()) return;
+        if(policy.maxQueued() == 0) throw reject("is full");
+        if(queued.incrementAndGet() > policy.maxQueued()) {
+            queued.decrementAndGet();
+            throw reject("queue is full");
+        }
+        try {
+            if(!permits.tryAcquire(policy.maxWaitNanos(), TimeUnit.NANOSECONDS)) throw reject("permit was not granted in time");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            final RejectedExecutionException exception = reject("wait was interrupted");
+            exception.initCause(e);
+            throw exception;
+        } finally {
+            queued.decrementAndGet();
+        }
+    }
+
+    void release() {
+        permits.release();
+    }
+
+    private RejectedExecutionException reject(String reason) {
+        rejected.increment();
+        return new RejectedExecutionException("The bulkhead of " + commandType.getName() + " " + reason);
+    }
+
+    BulkheadStats stats() {
+        final int maxConcurrent = policy.maxConcurrent();
+        return new BulkheadStats(commandType, maxConcurrent, maxConcurrent - permits.availablePermits(), queued.get(), rejected.sum());
+    }
+
+}
@@ -0,0 +1,67 @@
+package dev.sergheev.commandbus.bulkhead;
+
+import dev.sergheev.commandbus.BatchCommandHandler;
+import dev.sergheev.commandbus.Command;
+import dev.sergheev.commandbus.CommandHandler;
+
+import java.util.List;
+
+/**
+ * A handler that only hands a command over to the decorated handler once it holds a permit of the bulkhead of its type.
+ */
+class BulkheadCommandHandler<C extends Command, R> implements CommandHandler<C, R> {
+
+    final CommandHandler<C, R> handler;
+
+    final Bulkhead bulkhead;
+
+    BulkheadCommandHandler(CommandHandler<C, R> handler, Bulkhead bulkhead) {
+        this.handler = handler;
+        this.bulkhead = bulkhead;
+    }
+
+    /**
+     * Returns a handler that guards the given handler with the given bulkhead, which keeps processing
+     * groups of commands at once if the handler is a {@link BatchCommandHandler}.
+     */
+    static <C extends Command, R> CommandHandler<C, R> guard(CommandHandler<C, R> handler, Bulkhead bulkhead) {
+        if(handler instanceof BatchCommandHandler) {
+            return new BulkheadBatchCommandHandler<>((BatchCommandHandler<C, R>) handler, bulkhead);
+        }
+        return new BulkheadCommandHandler<>(handler, bulkhead);
+    }
+
+    @Override
+    public R handle(C command) {
+        bulkhead.acquire();
+        try {
+            return handler.handle(command);
+        } finally {
+            bulkhead.release();
+        }
+    }
+
+    /**
+     * A handler in front of a {@link BatchCommandHandler}, that hands a group of commands over to the
+     * decorated handler at once while holding a single permit, as it is a single invocation.
+     */
+    private static final class BulkheadBatchCommandHandler<C extends Command, R>
+            extends BulkheadCommandHandler<C, R> implements BatchCommandHandler<C, R> {
+
+        private BulkheadBatchCommandHandler(BatchCommandHandler<C, R> handler, Bulkhead bulkhead) {
+            super(handler, bulkhead);
+        }
+
+        @Override
+        public List<R> handleAll(List<C> commands) {
+            bulkhead.acquire();
+            try {
+                return ((BatchCommandHandler<C, R>) handler).handleAll(commands);
+            } finally {
+                bulkhead.release();
+            }
+        }
+
+    }
+
+}
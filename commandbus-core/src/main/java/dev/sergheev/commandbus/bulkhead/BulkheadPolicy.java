@@ -0,0 +1,71 @@
+package dev.sergheev.commandbus.bulkhead;
+
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Defines how many commands of a type may be processed at once, and what happens to the
+ * commands executed while that many are already being processed.
+ */
+public final class BulkheadPolicy {
+
+    private final int maxConcurrent;
+
+    /**
+     * The maximum amount of commands waiting for a permit, {@code 0} to reject them right away.
+     */
+    private final int maxQueued;
+
+    private final long maxWaitNanos;
+
+    private BulkheadPolicy(int maxConcurrent, int maxQueued, long maxWaitNanos) {
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueued = maxQueued;
+        this.maxWaitNanos = maxWaitNanos;
+    }
+
+    /**
+     * Returns a policy that processes up to the given amount of commands at once, and rejects the commands over the limit.
+     * @param maxConcurrent the maximum amount of commands processed at once
+     * @throws IllegalArgumentException if the {@code maxConcurrent} is not positive
+     * @return a policy that rejects the commands over the limit
+     */
+    public static BulkheadPolicy rejecting(int maxConcurrent) throws IllegalArgumentException {
+        if(maxConcurrent <= 0) throw new IllegalArgumentException("maxConcurrent must be positive");
+        return new BulkheadPolicy(maxConcurrent, 0, 0L);
+    }
+
+    /**
+     * Returns a policy that processes up to the given amount of commands at once, and makes up to the given amount
+     * of commands over the limit wait for their turn, for up to the given time. The commands that do not fit in the
+     * queue, or whose turn does not come in time, are rejected.
+     * @param maxConcurrent the maximum amount of commands processed at once
+     * @param maxQueued the maximum amount of commands waiting for their turn
+     * @param maxWait the maximum amount of time a command waits for its turn
+     * @param unit the unit of the {@code maxWait}
+     * @throws IllegalArgumentException if the {@code maxConcurrent}, {@code maxQueued} or {@code maxWait} are not positive
+     * @throws NullPointerException if the given {@code unit} is {@code null}
+     * @return a policy that makes the commands over the limit wait
+     */
+    public static BulkheadPolicy queueing(int maxConcurrent, int maxQueued, long maxWait, TimeUnit unit) throws IllegalArgumentException, NullPointerException {
+        if(maxConcurrent <= 0) throw new IllegalArgumentException("maxConcurrent must be positive");
+        if(maxQueued <= 0) throw new IllegalArgumentException("maxQueued must be positive");
+        if(maxWait <= 0) throw new IllegalArgumentException("maxWait must be positive");
+        requireNonNull(unit, "unit must not be null");
+        return new BulkheadPolicy(maxConcurrent, maxQueued, unit.toNanos(maxWait));
+    }
+
+    int maxConcurrent() {
+        return maxConcurrent;
+    }
+
+    int maxQueued() {
+        return maxQueued;
+    }
+
+    long maxWaitNanos() {
+        return maxWaitNanos;
+    }
+
+}
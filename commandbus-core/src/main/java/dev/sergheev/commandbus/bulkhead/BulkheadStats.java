@@ -0,0 +1,81 @@
+package dev.sergheev.commandbus.bulkhead;
+
+import dev.sergheev.commandbus.Command;
+
+/**
+ * An immutable point-in-time view of the utilization of the bulkhead of a single command type.
+ */
+public final class BulkheadStats {
+
+    private final Class<? extends Command> commandType;
+
+    private final int maxConcurrent;
+
+    private final int activeCount;
+
+    private final int queuedCount;
+
+    private final long rejectedCount;
+
+    BulkheadStats(Class<? extends Command> commandType, int maxConcurrent, int activeCount, int queuedCount, long rejectedCount) {
+        this.commandType = commandType;
+        this.maxConcurrent = maxConcurrent;
+        this.activeCount = activeCount;
+        this.queuedCount = queuedCount;
+        this.rejectedCount = rejectedCount;
+    }
+
+    /**
+     * Returns the command type whose concurrency is limited.
+     * @return the command type whose concurrency is limited
+     */
+    public Class<? extends Command> commandType() {
+        return commandType;
+    }
+
+    /**
+     * Returns the maximum amount of commands processed at once.
+     * @return the maximum amount of commands processed at once
+     */
+    public int maxConcurrent() {
+        return maxConcurrent;
+    }
+
+    /**
+     * Returns the amount of commands that were being processed when the statistics were taken.
+     * @return the amount of commands that were being processed
+     */
+    public int activeCount() {
+        return activeCount;
+    }
+
+    /**
+     * Returns the amount of commands that were waiting for their turn when the statistics were taken.
+     * @return the amount of commands that were waiting for their turn
+     */
+    public int queuedCount() {
+        return queuedCount;
+    }
+
+    /**
+     * Returns the amount of commands rejected so far.
+     * @return the amount of commands rejected so far
+     */
+    public long rejectedCount() {
+        return rejectedCount;
+    }
+
+    /**
+     * Returns the fraction of the permits in use when the statistics were taken.
+     * @return the fraction of the permits in use, between {@code 0} and {@code 1}
+     */
+    public double utilization() {
+        return (double) activeCount / maxConcurrent;
+    }
+
+    @Override
+    public String toString() {
+        return commandType.getName() + "{active=" + activeCount + "/" + maxConcurrent + ", queued=" + queuedCount + ", rejected=" + rejectedCount + "}";
+    }
+
+}
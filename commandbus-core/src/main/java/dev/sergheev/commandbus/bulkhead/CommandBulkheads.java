@@ -0,0 +1,86 @@
+package dev.sergheev.commandbus.bulkhead;
+
+import dev.sergheev.commandbus.Command;
+import dev.sergheev.commandbus.CommandHandler;
+import dev.sergheev.commandbus.registry.CommandHandlerDecorator;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Limits the amount of commands of every configured type that are processed at once
+ * (bulkheads), so a slow command type cannot take up every calling thread and starve
+ * the other command types.
+ *
+ * <p>The commands within the limit take a permit without blocking, and the ones over
+ * the limit are rejected with a {@link java.util.concurrent.RejectedExecutionException},
+ * or wait for their turn, according to the {@link BulkheadPolicy} of their type.
+ *
+ * <p>As a {@link CommandHandlerDecorator}, the bulkhead of each command type is bound to
+ * its handler when the handler is registered, and kept when the handler is replaced, so
+ * the limit holds across registrations. The utilization is read through {@link #stats()}.
+ */
+@SuppressWarnings({ "rawtypes", "unchecked" })
+public class CommandBulkheads implements CommandHandlerDecorator {
+
+    /**
+     * Associates every limited command type to its policy.
+     */
+    private final ConcurrentMap<Class<? extends Command>, BulkheadPolicy> commandTypeToPolicy;
+
+    /**
+     * Associates every limited command type with a registered handler to its bulkhead.
+     */
+    private final ConcurrentMap<Class<? extends Command>, Bulkhead> commandTypeToBulkhead;
+
+    public CommandBulkheads() {
+        this.commandTypeToPolicy = new ConcurrentHashMap<>();
+        this.commandTypeToBulkhead = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Limits the amount of commands of the given type processed at once according to the given policy.
+     * Only the handlers registered afterwards are affected.
+     * @param commandType the type of the commands that are to be limited
+     * @param policy defines the limit, and what happens to the commands over it
+     * @throws NullPointerException if the {@code commandType} or {@code policy} are {@code null}
+     * @return the current {@link CommandBulkheads} instance
+     */
+    public CommandBulkheads limit(Class<? extends Command> commandType, BulkheadPolicy policy) throws NullPointerException {
+        requireNonNull(commandType, "commandType must not be null");
+        requireNonNull(policy, "policy must not be null");
+        commandTypeToPolicy.put(commandType, policy);
+        return this;
+    }
+
+    /**
+     * Returns the given handler wrapped into a handler that holds a permit of the bulkhead of the given command type
+     * while processing a command, if the given command type is limited.
+     * @param commandType the type of the command the handler is registered for
+     * @param handler the registered handler instance
+     * @return a handler limited by the bulkhead of the given command type, or the given handler
+     */
+    @Override
+    public CommandHandler decorate(Class<? extends Command> commandType, CommandHandler handler) {
+        final BulkheadPolicy policy = commandTypeToPolicy.get(commandType);
+        if(policy == null) return handler;
+        final Bulkhead bulkhead = commandTypeToBulkhead.computeIfAbsent(commandType, type -> new Bulkhead(type, policy));
+        return BulkheadCommandHandler.guard(handler, bulkhead);
+    }
+
+    /**
+     * Returns the utilization of the bulkheads of all the limited command types.
+     * @return the utilization of the bulkheads of all the limited command types
+     */
+    public Map<Class<? extends Command>, BulkheadStats> stats() {
+        final Map<Class<? extends Command>, BulkheadStats> commandTypeToStats = new LinkedHashMap<>();
+        commandTypeToBulkhead.forEach((commandType, bulkhead) -> commandTypeToStats.put(commandType, bulkhead.stats()));
+        return Collections.unmodifiableMap(commandTypeToStats);
+    }
+
+}
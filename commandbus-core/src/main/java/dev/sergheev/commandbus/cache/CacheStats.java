@@ -0,0 +1,94 @@
+package dev.sergheev.commandbus.cache;
+
+import dev.sergheev.commandbus.Command;
+
+/**
+ * An immutable point-in-time view of the statistics of the results cache of a single command type.
+ */
+public final class CacheStats {
+
+    private final Class<? extends Command> commandType;
+
+    private final long hitCount;
+
+    private final long missCount;
+
+    private final long evictionCount;
+
+    private final long expirationCount;
+
+    private final int size;
+
+    CacheStats(Class<? extends Command> commandType, long hitCount, long missCount, long evictionCount, long expirationCount, int size) {
+        this.commandType = commandType;
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.evictionCount = evictionCount;
+        this.expirationCount = expirationCount;
+        this.size = size;
+    }
+
+    /**
+     * Returns the command type whose results are cached.
+     * @return the command type whose results are cached
+     */
+    public Class<? extends Command> commandType() {
+        return commandType;
+    }
+
+    /**
+     * Returns the amount of commands whose result was reused, without calling the handler.
+     * @return the amount of commands whose result was reused
+     */
+    public long hitCount() {
+        return hitCount;
+    }
+
+    /**
+     * Returns the amount of commands that were handed over to the handler.
+     * @return the amount of commands that were handed over to the handler
+     */
+    public long missCount() {
+        return missCount;
+    }
+
+    /**
+     * Returns the fraction of the commands whose result was reused.
+     * @return the fraction of the commands whose result was reused, or {@code 0} if there was no command yet
+     */
+    public double hitRate() {
+        final long requestCount = hitCount + missCount;
+        return requestCount == 0 ? 0.0 : (double) hitCount / requestCount;
+    }
+
+    /**
+     * Returns the amount of results discarded to keep the cache within its maximum size.
+     * @return the amount of results discarded to keep the cache within its maximum size
+     */
+    public long evictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * Returns the amount of results discarded because they expired.
+     * @return the amount of results discarded because they expired
+     */
+    public long expirationCount() {
+        return expirationCount;
+    }
+
+    /**
+     * Returns the amount of results kept when the statistics were taken.
+     * @return the amount of results kept when the statistics were taken
+     */
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public String toString() {
+        return commandType.getName() + "{hits=" + hitCount + ", misses=" + missCount + ", evictions=" + evictionCount
+                + ", expirations=" + expirationCount + ", size=" + size + "}";
+    }
+
+}
@@ -0,0 +1,114 @@
+package dev.sergheev.commandbus.cache;
+
+import dev.sergheev.commandbus.Command;
+import dev.sergheev.commandbus.CommandHandler;
+import dev.sergheev.commandbus.mapping.CommandTypeExtractor;
+import dev.sergheev.commandbus.registry.CommandHandlerDecorator;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Reuses the results of the commands that are pure functions of their fields: the result
+ * of a command is kept in a bounded cache of its command type, and returned for every equal
+ * command without calling the handler, until it is evicted or expires.
+ *
+ * <p>The memoized command types are either annotated with {@link Memoized}, or specified
+ * through {@link #memoize(Class, MemoizationPolicy)} or {@link #memoizeHandler(Class, MemoizationPolicy)},
+ * which take precedence over the annotation. The memoized command types must implement
+ * {@code equals} and {@code hashCode}, as equal commands share their result.
+ *
+ * <p>As a {@link CommandHandlerDecorator}, the cache of each command type is bound to its
+ * handler when the handler is registered (a new cache for every registration), so a hit
+ * costs a single hash lookup. The statistics of the caches are read through {@link #stats()}.
+ */
+@SuppressWarnings({ "rawtypes", "unchecked" })
+public class CommandMemoizer implements CommandHandlerDecorator {
+
+    /**
+     * Associates the command types specified by the client to their policy.
+     */
+    private final ConcurrentMap<Class<? extends Command>, MemoizationPolicy> commandTypeToPolicy;
+
+    /**
+     * Associates every memoized command type to the cache of its current handler.
+     */
+    private final ConcurrentMap<Class<? extends Command>, ResultCache> commandTypeToCache;
+
+    private final CommandTypeExtractor commandTypeExtractor;
+
+    public CommandMemoizer() {
+        this.commandTypeToPolicy = new ConcurrentHashMap<>();
+        this.commandTypeToCache = new ConcurrentHashMap<>();
+        this.commandTypeExtractor = new CommandTypeExtractor();
+    }
+
+    /**
+     * Memoizes the results of the commands of the given type according to the given policy.
+     * Only the handlers registered afterwards are affected.
+     * @param commandType the type of the commands whose results are to be memoized
+     * @param policy defines how many results are kept, and for how long
+     * @throws NullPointerException if the {@code commandType} or {@code policy} are {@code null}
+     * @return the current {@link CommandMemoizer} instance
+     */
+    public CommandMemoizer memoize(Class<? extends Command> commandType, MemoizationPolicy policy) throws NullPointerException {
+        requireNonNull(commandType, "commandType must not be null");
+        requireNonNull(policy, "policy must not be null");
+        commandTypeToPolicy.put(commandType, policy);
+        return this;
+    }
+
+    /**
+     * Memoizes the results of all the command types mapped to the given handler type, with a cache
+     * per command type according to the given policy. Only the handlers registered afterwards are affected.
+     * @param handlerType the type of the handler whose results are to be memoized
+     * @param policy defines how many results are kept, and for how long
+     * @throws NullPointerException if the {@code handlerType} or {@code policy} are {@code null}
+     * @return the current {@link CommandMemoizer} instance
+     */
+    public CommandMemoizer memoizeHandler(Class<? extends CommandHandler> handlerType, MemoizationPolicy policy) throws NullPointerException {
+        requireNonNull(handlerType, "handlerType must not be null");
+        requireNonNull(policy, "policy must not be null");
+        for(Class<? extends Command> commandType : commandTypeExtractor.extractCommandTypesFor(handlerType)) commandTypeToPolicy.put(commandType, policy);
+        return this;
+    }
+
+    /**
+     * Returns the given handler wrapped into a handler that memoizes its results, if the given command type is memoized.
+     * The handlers of a command type share its cache, so decorating one again keeps the results and the statistics.
+     * @param commandType the type of the command the handler is registered for
+     * @param handler the registered handler instance
+     * @throws IllegalArgumentException if the {@link Memoized} annotation of the command type is not valid
+     * @return a handler that memoizes the results of the given handler, or the given handler
+     */
+    @Override
+    public CommandHandler decorate(Class<? extends Command> commandType, CommandHandler handler) throws IllegalArgumentException {
+        final MemoizationPolicy policy = policyOf(commandType);
+        if(policy == null) return handler;
+        final ResultCache cache = commandTypeToCache.computeIfAbsent(commandType, type -> new ResultCache(type, policy));
+        return MemoizingCommandHandler.memoize(handler, cache);
+    }
+
+    /**
+     * Returns the statistics of the caches of all the memoized command types.
+     * @return the statistics of the caches of all the memoized command types
+     */
+    public Map<Class<? extends Command>, CacheStats> stats() {
+        final Map<Class<? extends Command>, CacheStats> commandTypeToStats = new LinkedHashMap<>();
+        commandTypeToCache.forEach((commandType, cache) -> commandTypeToStats.put(commandType, cache.stats()));
+        return Collections.unmodifiableMap(commandTypeToStats);
+    }
+
+    private MemoizationPolicy policyOf(Class<? extends Command> commandType) throws IllegalArgumentException {
+        final MemoizationPolicy policy = commandTypeToPolicy.get(commandType);
+        if(policy != null) return policy;
+        final Memoized memoized = commandType.getAnnotation(Memoized.class);
+        return memoized == null ? null : MemoizationPolicy.of(memoized);
+    }
+
+}
@@ -0,0 +1,68 @@
+package dev.sergheev.commandbus.cache;
+
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Defines how many results of a memoized command type are kept, and for how long.
+ *
+ * <p>Instances are immutable: {@link #expireAfterWrite(long, TimeUnit)} returns a new policy.
+ */
+public final class MemoizationPolicy {
+
+    private final int maximumSize;
+
+    /**
+     * The amount of nanoseconds a result is kept for, or {@code 0} to keep it until evicted.
+     */
+    private final long expireAfterWriteNanos;
+
+    private MemoizationPolicy(int maximumSize, long expireAfterWriteNanos) {
+        this.maximumSize = maximumSize;
+        this.expireAfterWriteNanos = expireAfterWriteNanos;
+    }
+
+    /**
+     * Returns a policy that keeps up to the given amount of results, evicting the least recently used ones first.
+     * @param maximumSize the maximum amount of results kept
+     * @throws IllegalArgumentException if the {@code maximumSize} is not positive
+     * @return a policy that keeps up to the given amount of results
+     */
+    public static MemoizationPolicy maximumSize(int maximumSize) throws IllegalArgumentException {
+        if(maximumSize <= 0) throw new IllegalArgumentException("maximumSize must be positive");
+        return new MemoizationPolicy(maximumSize, 0L);
+    }
+
+    /**
+     * Returns the policy described by the given annotation.
+     * @throws IllegalArgumentException if the maximum size is not positive or the expiration is negative
+     */
+    static MemoizationPolicy of(Memoized memoized) throws IllegalArgumentException {
+        final MemoizationPolicy policy = maximumSize(memoized.maximumSize());
+        return memoized.expireAfterWriteMillis() == 0 ? policy : policy.expireAfterWrite(memoized.expireAfterWriteMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Returns a copy of this policy that also discards every result once the given duration has passed since it was computed.
+     * @param duration the amount of time a result is kept for
+     * @param unit the unit of the {@code duration}
+     * @throws IllegalArgumentException if the {@code duration} is not positive
+     * @throws NullPointerException if the given {@code unit} is {@code null}
+     * @return a copy of this policy with the given expiration
+     */
+    public MemoizationPolicy expireAfterWrite(long duration, TimeUnit unit) throws IllegalArgumentException, NullPointerException {
+        if(duration <= 0) throw new IllegalArgumentException("duration must be positive");
+        requireNonNull(unit, "unit must not be null");
+        return new MemoizationPolicy(maximumSize, unit.toNanos(duration));
+    }
+
+    int maximumSize() {
+        return maximumSize;
+    }
+
+    long expireAfterWriteNanos() {
+        return expireAfterWriteNanos;
+    }
+
+}
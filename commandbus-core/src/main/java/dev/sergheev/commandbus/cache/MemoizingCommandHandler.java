@@ -0,0 +1,88 @@
+package dev.sergheev.commandbus.cache;
+
+import dev.sergheev.commandbus.BatchCommandHandler;
+import dev.sergheev.commandbus.Command;
+import dev.sergheev.commandbus.CommandHandler;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A handler that reuses the result of an equal command when there is one, and
+ * otherwise hands the command over to the decorated handler and keeps its result.
+ * Failures are not kept, so a failed command is handled again the next time.
+ */
+@SuppressWarnings({ "unchecked" })
+class MemoizingCommandHandler<C extends Command, R> implements CommandHandler<C, R> {
+
+    final CommandHandler<C, R> handler;
+
+    final ResultCache cache;
+
+    MemoizingCommandHandler(CommandHandler<C, R> handler, ResultCache cache) {
+        this.handler = handler;
+        this.cache = cache;
+    }
+
+    /**
+     * Returns a handler that memoizes the results of the given handler, which keeps processing
+     * groups of commands at once if the handler is a {@link BatchCommandHandler}.
+     */
+    static <C extends Command, R> CommandHandler<C, R> memoize(CommandHandler<C, R> handler, ResultCache cache) {
+        if(handler instanceof BatchCommandHandler) {
+            return new MemoizingBatchCommandHandler<>((BatchCommandHandler<C, R>) handler, cache);
+        }
+        return new MemoizingCommandHandler<>(handler, cache);
+    }
+
+    @Override
+    public R handle(C command) {
+        final Object result = cache.get(command);
+        if(result != ResultCache.ABSENT) return (R) result;
+        final R computed = handler.handle(command);
+        cache.put(command, computed);
+        return computed;
+    }
+
+    /**
+     * A handler in front of a {@link BatchCommandHandler}, that hands the commands of a group
+     * without a kept result over to the decorated handler at once.
+     */
+    private static final class MemoizingBatchCommandHandler<C extends Command, R>
+            extends MemoizingCommandHandler<C, R> implements BatchCommandHandler<C, R> {
+
+        private MemoizingBatchCommandHandler(BatchCommandHandler<C, R> handler, ResultCache cache) {
+            super(handler, cache);
+        }
+
+        @Override
+        public List<R> handleAll(List<C> commands) throws IllegalStateException {
+            final List<R> results = new ArrayList<>(commands.size());
+            final List<C> misses = new ArrayList<>();
+            final int[] missPositions = new int[commands.size()];
+            for(C command : commands) {
+                final Object result = cache.get(command);
+                if(result == ResultCache.ABSENT) {
+                    missPositions[misses.size()] = results.size();
+                    misses.add(command);
+                    results.add(null);
+                } else {
+                    results.add((R) result);
+                }
+            }
+            if(misses.isEmpty()) return results;
+            final List<R> computed = ((BatchCommandHandler<C, R>) handler).handleAll(misses);
+            if(computed == null || computed.size() != misses.size()) {
+                throw new IllegalStateException(handler.getClass().getName() + " must return one result per command");
+            }
+            for(int i = 0; i < misses.size(); i++) {
+                final R result = computed.get(i);
+                cache.put(misses.get(i), result);
+                results.set(missPositions[i], result);
+            }
+            return results;
+        }
+
+    }
+
+}
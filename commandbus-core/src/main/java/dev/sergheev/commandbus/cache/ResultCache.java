@@ -0,0 +1,149 @@
+package dev.sergheev.commandbus.cache;
+
+import dev.sergheev.commandbus.Command;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A bounded cache of the results of a single command type, keyed by command equality.
+ *
+ * <p>Eviction approximates LRU with the CLOCK (second chance) algorithm: a hit only marks
+ * its entry as referenced, so it costs a single hash lookup and never takes a lock, and
+ * the evicting thread skips (and unmarks) the referenced entries in insertion order. The
+ * maximum size may be exceeded by the insertions racing with an eviction.
+ *
+ * <p>Expired entries are discarded when they are looked up, or evicted as any other entry.
+ */
+final class ResultCache {
+
+    /**
+     * Returned by {@link #get(Command)} when there is no result, as {@code null} is a valid result.
+     */
+    static final Object ABSENT = new Object();
+
+    private final Class<? extends Command> commandType;
+
+    private final ConcurrentHashMap<Command, Entry> commandToEntry;
+
+    /**
+     * The entries in insertion order, including the replaced and expired ones that are yet to be swept.
+     */
+    private final ConcurrentLinkedQueue<Entry> clock;
+
+    /**
+     * The amount of entries in the {@link #clock}.
+     */
+    private final AtomicInteger clockSize;
+
+    private final ReentrantLock evictionLock;
+
+    private final int maximumSize;
+
+    private final long expireAfterWriteNanos;
+
+    private final LongAdder hits;
+
+    private final LongAdder misses;
+
+    private final LongAdder evictions;
+
+    private final LongAdder expirations;
+
+    ResultCache(Class<? extends Command> commandType, MemoizationPolicy policy) {
+        this.commandType = commandType;
+        this.commandToEntry = new ConcurrentHashMap<>();
+        this.clock = new ConcurrentLinkedQueue<>();
+        this.clockSize = new AtomicInteger();
+        this.evictionLock = new ReentrantLock();
+        this.maximumSize = policy.maximumSize();
+        this.expireAfterWriteNanos = policy.expireAfterWriteNanos();
+        this.hits = new LongAdder();
+        this.misses = new LongAdder();
+        this.evictions = new LongAdder();
+        this.expirations = new LongAdder();
+    }
+
+    /**
+     * Returns the result of the given command, or {@link #ABSENT} if there is none.
+     */
+    Object get(Command command) {
+        final Entry entry = commandToEntry.get(command);
+        if(entry == null) {
+            misses.increment();
+            return ABSENT;
+        }
+        if(expireAfterWriteNanos != 0 && System.nanoTime() - entry.writeNanos >= expireAfterWriteNanos) {
+            if(commandToEntry.remove(command, entry)) expirations.increment();
+            misses.increment();
+            return ABSENT;
+        }
+        if(!entry.isReferenced) entry.isReferenced = true;
+        hits.increment();
+        return entry.result;
+    }
+
+    /**
+     * Keeps the result of the given command, evicting other results if the cache is full.
+     */
+    void put(Command command, Object result) {
+        final Entry entry = new Entry(command, result, expireAfterWriteNanos == 0 ? 0L : System.nanoTime());
+        commandToEntry.put(command, entry);
+        clock.offer(entry);
+        if(clockSize.incrementAndGet() > maximumSize) evict();
+    }
+
+    /**
+     * Sweeps the clock until it fits the maximum size, unless another thread is already doing so.
+     */
+    private void evict() {
+        if(!evictionLock.tryLock()) return;
+        try {
+            while(clockSize.get() > maximumSize) {
+                final Entry entry = clock.poll();
+                if(entry == null) return;
+                if(commandToEntry.get(entry.command) == entry) {
+                    if(entry.isReferenced) {
+                        // Second chance
+                        entry.isReferenced = false;
+                        clock.offer(entry);
+                        continue;
+                    }
+                    if(commandToEntry.remove(entry.command, entry)) evictions.increment();
+                }
+                clockSize.decrementAndGet();
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    CacheStats stats() {
+        return new CacheStats(commandType, hits.sum(), misses.sum(), evictions.sum(), expirations.sum(), commandToEntry.size());
+    }
+
+    private static final class Entry {
+
+        private final Command command;
+
+        private final Object result;
+
+        private final long writeNanos;
+
+        /**
+         * Indicates if the entry was hit since the clock last swept it, racy by design.
+         */
+        private volatile boolean isReferenced;
+
+        private Entry(Command command, Object result, long writeNanos) {
+            this.command = command;
+            this.result = result;
+            this.writeNanos = writeNanos;
+        }
+
+    }
+
+}
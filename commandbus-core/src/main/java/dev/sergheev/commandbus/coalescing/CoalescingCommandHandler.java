@@ -0,0 +1,212 @@
+package dev.sergheev.commandbus.coalescing;
+
+import dev.sergheev.commandbus.BatchCommandHandler;
+import dev.sergheev.commandbus.Command;
+import dev.sergheev.commandbus.CommandHandler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A handler that shares a single invocation of the decorated handler between the
+ * equal commands executed concurrently (single-flight): the first command of a key
+ * is handed over to the decorated handler, and the commands of the same key that
+ * arrive while it is in flight wait for its result or failure instead.
+ *
+ * <p>The key of a command is only kept while its invocation is in flight, so a command
+ * that arrives once the invocation completed starts a new one.
+ *
+ * <p>A group of commands joins the invocations in flight as well, and the commands
+ * that lead a new invocation are handed over at once if the decorated handler is a
+ * {@link BatchCommandHandler}, or one by one otherwise.
+ */
+@SuppressWarnings({ "unchecked" })
+public final class CoalescingCommandHandler<C extends Command, R> implements BatchCommandHandler<C, R> {
+
+    private final CommandHandler<C, R> handler;
+
+    private final Function<? super C, ?> keyExtractor;
+
+    /**
+     * Associates the key of every in-flight command to the future of its invocation.
+     */
+    private final ConcurrentMap<Object, CompletableFuture<R>> keyToFlight;
+
+    CoalescingCommandHandler(CommandHandler<C, R> handler, Function<? super C, ?> keyExtractor) {
+        this(handler, keyExtractor, new ConcurrentHashMap<>());
+    }
+
+    private CoalescingCommandHandler(CommandHandler<C, R> handler, Function<? super C, ?> keyExtractor, ConcurrentMap<Object, CompletableFuture<R>> keyToFlight) {
+        this.handler = handler;
+        this.keyExtractor = keyExtractor;
+        this.keyToFlight = keyToFlight;
+    }
+
+    /**
+     * Returns a handler that coalesces the commands into invocations of the given handler, and that shares the
+     * invocations in flight with this one if the commands are keyed by the same extractor.
+     */
+    CoalescingCommandHandler<C, R> decorating(CommandHandler<C, R> handler, Function<? super C, ?> keyExtractor) {
+        if(keyExtractor != this.keyExtractor) return new CoalescingCommandHandler<>(handler, keyExtractor);
+        return handler == this.handler ? this : new CoalescingCommandHandler<>(handler, keyExtractor, keyToFlight);
+    }
+
+    /**
+     * Returns the result of the in-flight invocation of an equal command, or of handing the given command over to the
+     * decorated handler if there is none. The failure of the shared invocation is thrown to all the commands that share it.
+     * @param command the command that is to be processed
+     * @throws NullPointerException if the key of the given command is {@code null}
+     * @return the result of the shared invocation
+     */
+    @Override
+    public R handle(C command) throws NullPointerException {
+        final Object key = keyOf(command);
+        final CompletableFuture<R> flight = new CompletableFuture<>();
+        final CompletableFuture<R> inFlight = keyToFlight.putIfAbsent(key, flight);
+        if(inFlight == null) return lead(key, command, flight);
+        return await(inFlight);
+    }
+
+    /**
+     * Returns the results of the given commands, each one being the result of the in-flight invocation of an equal command,
+     * or of handing it over to the decorated handler along with the other commands of the group that lead an invocation.
+     * The commands of the group are led before waiting for the invocations of other callers, so groups never wait for
+     * each other, and the failure of any invocation the group takes part in is thrown.
+     * @param commands the commands that are to be processed
+     * @throws NullPointerException if the key of any of the given commands is {@code null}
+     * @throws IllegalStateException if the decorated handler does not return one result per command
+     * @return the results of the shared invocations
+     */
+    @Override
+    public List<R> handleAll(List<C> commands) throws NullPointerException, IllegalStateException {
+        if(!(handler instanceof BatchCommandHandler)) {
+            final List<R> results = new ArrayList<>(commands.size());
+            for(C command : commands) results.add(handle(command));
+            return results;
+        }
+        final List<CompletableFuture<R>> flights = new ArrayList<>(commands.size());
+        final List<Object> leaderKeys = new ArrayList<>();
+        final List<C> leaders = new ArrayList<>();
+        final List<CompletableFuture<R>> leaderFlights = new ArrayList<>();
+        try {
+            for(C command : commands) {
+                final Object key = keyOf(command);
+                final CompletableFuture<R> flight = new CompletableFuture<>();
+                final CompletableFuture<R> inFlight = keyToFlight.putIfAbsent(key, flight);
+                if(inFlight == null) {
+                    leaderKeys.add(key);
+                    leaders.add(command);
+                    leaderFlights.add(flight);
+                    flights.add(flight);
+                } else {
+                    flights.add(inFlight);
+                }
+            }
+            if(!leaders.isEmpty()) leadAll(leaderKeys, leaders, leaderFlights);
+        } catch (Throwable t) {
+            for(int i = 0; i < leaderFlights.size(); i++) {
+                keyToFlight.remove(leaderKeys.get(i), leaderFlights.get(i));
+                leaderFlights.get(i).completeExceptionally(t);
+            }
+            throw t;
+        }
+        final List<R> results = new ArrayList<>(commands.size());
+        for(CompletableFuture<R> flight : flights) results.add(await(flight));
+        return results;
+    }
+
+    /**
+     * Returns a future that completes with the outcome of the in-flight invocation of an equal command, or of handing the
+     * given command over to the decorated handler on the given executor if there is none. Waiting for the shared invocation
+     * does not block any thread, and every caller gets a future of its own, so cancelling it does not affect the others.
+     * @param command the command that is to be processed
+     * @param executor the executor that runs the invocation if there is none in flight
+     * @return a future that completes with the outcome of the shared invocation
+     */
+    public CompletableFuture<R> handleAsync(C command, Executor executor) {
+        final CompletableFuture<R> flight = new CompletableFuture<>();
+        try {
+            final Object key = keyOf(command);
+            final CompletableFuture<R> inFlight = keyToFlight.putIfAbsent(key, flight);
+            if(inFlight != null) return inFlight.thenApply(Function.identity());
+            try {
+                executor.execute(() -> {
+                    try {
+                        lead(key, command, flight);
+                    } catch (Throwable ignored) {
+                        // The failure is reported through the future
+                    }
+                });
+            } catch (RuntimeException e) {
+                keyToFlight.remove(key, flight);
+                throw e;
+            }
+        } catch (RuntimeException e) {
+            flight.completeExceptionally(e);
+        }
+        return flight.thenApply(Function.identity());
+    }
+
+    /**
+     * Hands the given command over to the decorated handler, and completes its flight with the outcome.
+     * The flight is removed first, so the commands arriving from then on start a new invocation.
+     */
+    private R lead(Object key, C command, CompletableFuture<R> flight) {
+        final R result;
+        try {
+            result = handler.handle(command);
+        } catch (Throwable t) {
+            keyToFlight.remove(key, flight);
+            flight.completeExceptionally(t);
+            throw t;
+        }
+        keyToFlight.remove(key, flight);
+        flight.complete(result);
+        return result;
+    }
+
+    /**
+     * Hands the given commands over to the decorated batch handler at once, and completes their flights with the results.
+     */
+    private void leadAll(List<Object> keys, List<C> commands, List<CompletableFuture<R>> flights) throws IllegalStateException {
+        final List<R> results = ((BatchCommandHandler<C, R>) handler).handleAll(commands);
+        if(results == null || results.size() != commands.size()) {
+            throw new IllegalStateException(handler.getClass().getName() + " must return one result per command");
+        }
+        for(int i = 0; i < commands.size(); i++) {
+            keyToFlight.remove(keys.get(i), flights.get(i));
+            flights.get(i).complete(results.get(i));
+        }
+    }
+
+    private R await(CompletableFuture<R> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            final Throwable cause = e.getCause();
+            if(cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if(cause instanceof Error) throw (Error) cause;
+            throw e;
+        }
+    }
+
+    private Object keyOf(C command) throws NullPointerException {
+        return requireNonNull(keyExtractor.apply(command), "The coalescing key of the command must not be null");
+    }
+
+    /**
+     * Returns the amount of invocations in flight.
+     */
+    int inFlightCount() {
+        return keyToFlight.size();
+    }
+
+}
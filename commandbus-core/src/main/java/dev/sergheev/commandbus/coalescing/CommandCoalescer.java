@@ -0,0 +1,128 @@
+package dev.sergheev.commandbus.coalescing;
+
+import dev.sergheev.commandbus.Command;
+import dev.sergheev.commandbus.CommandHandler;
+import dev.sergheev.commandbus.registry.CommandHandlerDecorator;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Coalesces the equal commands executed concurrently into a single handler invocation
+ * (single-flight), whose result or failure is shared by all of them. It is meant for the
+ * expensive commands that are executed many times at once with the same arguments.
+ *
+ * <p>Commands are equal if their keys are equal: by default the key is the command itself,
+ * so the coalesced command types must implement {@code equals} and {@code hashCode}, unless
+ * a key extractor is specified. Both the synchronously and the asynchronously executed
+ * commands are coalesced, and the asynchronously executed ones wait without blocking a thread.
+ *
+ * <p>As a {@link CommandHandlerDecorator}, it wraps the whole handler chain of the command
+ * type (including the interceptors and metrics), so these apply once per shared invocation.
+ */
+@SuppressWarnings({ "rawtypes", "unchecked" })
+public class CommandCoalescer implements CommandHandlerDecorator {
+
+    /**
+     * Associates every coalesced command type to the extractor of its keys.
+     */
+    private final ConcurrentMap<Class<? extends Command>, Function<?, ?>> commandTypeToKeyExtractor;
+
+    /**
+     * Associates every coalesced command type to its current handler, whose invocations in flight its next handlers share.
+     */
+    private final ConcurrentMap<Class<? extends Command>, CoalescingCommandHandler> commandTypeToHandler;
+
+    public CommandCoalescer() {
+        this.commandTypeToKeyExtractor = new ConcurrentHashMap<>();
+        this.commandTypeToHandler = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Coalesces the equal (by {@code equals} and {@code hashCode}) commands of the given type and its subtypes.
+     * Only the handlers registered afterwards are affected.
+     * @param commandType the type of the commands that are to be coalesced
+     * @throws NullPointerException if the given {@code commandType} is {@code null}
+     * @return the current {@link CommandCoalescer} instance
+     */
+    public CommandCoalescer coalesce(Class<? extends Command> commandType) throws NullPointerException {
+        return coalesce((Class) commandType, Function.identity());
+    }
+
+    /**
+     * Coalesces the commands of the given type and its subtypes whose keys, as returned by the given extractor, are equal.
+     * Only the handlers registered afterwards are affected.
+     * @param commandType the type of the commands that are to be coalesced
+     * @param keyExtractor returns the key of a command, which must not be {@code null}
+     * @param <C> the type of the commands
+     * @throws NullPointerException if the {@code commandType} or {@code keyExtractor} are {@code null}
+     * @return the current {@link CommandCoalescer} instance
+     */
+    public <C extends Command> CommandCoalescer coalesce(Class<C> commandType, Function<? super C, ?> keyExtractor) throws NullPointerException {
+        requireNonNull(commandType, "commandType must not be null");
+        requireNonNull(keyExtractor, "keyExtractor must not be null");
+        commandTypeToKeyExtractor.put(commandType, keyExtractor);
+        return this;
+    }
+
+    /**
+     * Returns the given handler wrapped into a handler that coalesces the equal commands, if the given command type or one of
+     * its supertypes is coalesced. The handlers of a command type share its invocations in flight, so decorating one again
+     * keeps coalescing the commands that arrive meanwhile.
+     * @param commandType the type of the command the handler is registered for
+     * @param handler the registered handler instance
+     * @return a handler that coalesces the equal commands, or the given handler
+     */
+    @Override
+    public CommandHandler decorate(Class<? extends Command> commandType, CommandHandler handler) {
+        final Function keyExtractor = keyExtractorOf(commandType);
+        if(keyExtractor == null) return handler;
+        return commandTypeToHandler.compute(commandType, (type, current) ->
+                current == null ? new CoalescingCommandHandler(handler, keyExtractor) : current.decorating(handler, keyExtractor));
+    }
+
+    /**
+     * Returns the amount of handler invocations of the given command type currently in flight.
+     * @param commandType the coalesced command type
+     * @throws NullPointerException if the given {@code commandType} is {@code null}
+     * @return the amount of invocations in flight, or {@code 0} if the command type is not coalesced
+     */
+    public int inFlightCount(Class<? extends Command> commandType) throws NullPointerException {
+        requireNonNull(commandType, "commandType must not be null");
+        final CoalescingCommandHandler handler = commandTypeToHandler.get(commandType);
+        return handler == null ? 0 : handler.inFlightCount();
+    }
+
+    /**
+     * Returns the key extractor of the given command type or else of its closest superclass, and then of its
+     * interfaces breadth-first in declaration order, or {@code null} if none of them is coalesced.
+     */
+    private Function keyExtractorOf(Class<?> commandType) {
+        for(Class<?> type = commandType; type != null; type = type.getSuperclass()) {
+            final Function keyExtractor = commandTypeToKeyExtractor.get(type);
+            if(keyExtractor != null) return keyExtractor;
+        }
+        final Deque<Class<?>> interfaces = new ArrayDeque<>();
+        for(Class<?> type = commandType; type != null; type = type.getSuperclass()) {
+            Collections.addAll(interfaces, type.getInterfaces());
+        }
+        final Set<Class<?>> visited = new HashSet<>();
+        while(!interfaces.isEmpty()) {
+            final Class<?> type = interfaces.poll();
+            if(!visited.add(type)) continue;
+            final Function keyExtractor = commandTypeToKeyExtractor.get(type);
+            if(keyExtractor != null) return keyExtractor;
+            Collections.addAll(interfaces, type.getInterfaces());
+        }
+        return null;
+    }
+
+}
@@ -0,0 +1,72 @@
+package dev.sergheev.commandbus.codec;
+
+import dev.sergheev.commandbus.Command;
+
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A {@link CommandCodec} that writes the fields of the registered command types one after
+ * the other, following a schema built once per type, so it is much faster and more compact
+ * than the Java serialization.
+ *
+ * <p>An encoded command is the {@code int} id of its type, followed by its non-static,
+ * non-transient fields (those of the superclasses first, and then by name), with:
+ * <ul>
+ *     <li>the primitive types in their {@link ByteBuffer} representation, read and written without boxing</li>
+ *     <li>their wrapper types, {@link String}s (as UTF-8), enums (as their ordinal) and {@code byte[]},
+ *     preceded by a byte that tells if they are {@code null}</li>
+ * </ul>
+ * The fields are read and written directly from and to the buffers, without intermediate arrays.
+ * The commands are decoded by creating them with their constructor without parameters (which may
+ * be private) and then setting their fields, so every command type must declare one. Any other
+ * field type is rejected when the command type is registered, as well as abstract and inner classes
+ * and the classes without a constructor without parameters.
+ */
+public final class BinaryCommandCodec implements CommandCodec {
+
+    private final Map<Integer, CommandSchema> typeIdToSchema;
+
+    private final Map<Class<?>, CommandSchema> typeToSchema;
+
+    BinaryCommandCodec(Map<Integer, CommandSchema> typeIdToSchema, Map<Class<?>, CommandSchema> typeToSchema) {
+        this.typeIdToSchema = new HashMap<>(typeIdToSchema);
+        this.typeToSchema = new HashMap<>(typeToSchema);
+    }
+
+    /**
+     * Writes the type id and the fields of the given command into the given buffer.
+     * @param command the command that is to be encoded
+     * @param buffer the buffer that is to receive the encoded command
+     * @throws BufferOverflowException if the command does not fit in the remaining bytes of the buffer
+     * @throws IllegalArgumentException if the type of the command is not registered
+     */
+    @Override
+    public void encode(Command command, ByteBuffer buffer) throws BufferOverflowException, IllegalArgumentException {
+        final CommandSchema schema = typeToSchema.get(command.getClass());
+        if(schema == null) throw new IllegalArgumentException("The command type " + command.getClass().getName() + " is not registered");
+        schema.encode(command, buffer);
+    }
+
+    /**
+     * Reads a command from the given buffer.
+     * @param buffer the buffer that holds the encoded command
+     * @throws IllegalArgumentException if the type id is not registered, or the bytes are truncated or malformed
+     * @return the decoded command
+     */
+    @Override
+    public Command decode(ByteBuffer buffer) throws IllegalArgumentException {
+        try {
+            final int typeId = buffer.getInt();
+            final CommandSchema schema = typeIdToSchema.get(typeId);
+            if(schema == null) throw new IllegalArgumentException("The type id " + typeId + " is not registered");
+            return schema.decode(buffer);
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("The encoded command is truncated", e);
+        }
+    }
+
+}
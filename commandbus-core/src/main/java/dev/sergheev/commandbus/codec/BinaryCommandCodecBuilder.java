@@ -0,0 +1,83 @@
+package dev.sergheev.commandbus.codec;
+
+import dev.sergheev.commandbus.Command;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Builds a {@link BinaryCommandCodec} from the command types it is able to encode.
+ *
+ * <p>Every command type is identified on the wire by a type id, which must be the same
+ * on both ends: either register the types in the same order, or give their ids explicitly.
+ * The schema of every type is built once at registration, so an unsupported field is
+ * reported by the builder rather than when the first command is encoded.
+ */
+public final class BinaryCommandCodecBuilder {
+
+    /**
+     * A static factory method for the creation of a new {@code BinaryCommandCodecBuilder} instance.
+     * @return a new {@link BinaryCommandCodecBuilder} instance
+     */
+    public static BinaryCommandCodecBuilder create() {
+        return new BinaryCommandCodecBuilder();
+    }
+
+    private final Map<Integer, CommandSchema> typeIdToSchema;
+
+    private final Map<Class<?>, CommandSchema> typeToSchema;
+
+    /**
+     * The id given to the next command type registered without an explicit one.
+     */
+    private int nextTypeId;
+
+    private BinaryCommandCodecBuilder() {
+        this.typeIdToSchema = new HashMap<>();
+        this.typeToSchema = new HashMap<>();
+        this.nextTypeId = 0;
+    }
+
+    /**
+     * Registers the given command type with the id following the highest one registered so far ({@code 0} for the first one).
+     * @param commandType the command type that is to be encoded
+     * @throws NullPointerException if the given {@code commandType} is {@code null}
+     * @throws IllegalArgumentException if the {@code commandType} is already registered, or cannot be encoded (see {@link BinaryCommandCodec})
+     * @return the current {@link BinaryCommandCodecBuilder} instance
+     */
+    public BinaryCommandCodecBuilder register(Class<? extends Command> commandType) throws NullPointerException, IllegalArgumentException {
+        return register(nextTypeId, commandType);
+    }
+
+    /**
+     * Registers the given command type with the given id.
+     * @param typeId the id of the command type on the wire
+     * @param commandType the command type that is to be encoded
+     * @throws NullPointerException if the given {@code commandType} is {@code null}
+     * @throws IllegalArgumentException if the {@code typeId} is negative or already registered
+     * @throws IllegalArgumentException if the {@code commandType} is already registered, or cannot be encoded (see {@link BinaryCommandCodec})
+     * @return the current {@link BinaryCommandCodecBuilder} instance
+     */
+    public BinaryCommandCodecBuilder register(int typeId, Class<? extends Command> commandType) throws NullPointerException, IllegalArgumentException {
+        requireNonNull(commandType, "commandType must not be null");
+        if(typeId < 0) throw new IllegalArgumentException("typeId must not be negative");
+        if(typeIdToSchema.containsKey(typeId)) throw new IllegalArgumentException("The type id " + typeId + " is already registered for " + typeIdToSchema.get(typeId).commandType().getName());
+        if(typeToSchema.containsKey(commandType)) throw new IllegalArgumentException("The command type " + commandType.getName() + " is already registered");
+        final CommandSchema schema = CommandSchema.of(typeId, commandType);
+        typeIdToSchema.put(typeId, schema);
+        typeToSchema.put(commandType, schema);
+        nextTypeId = Math.max(nextTypeId, typeId + 1);
+        return this;
+    }
+
+    /**
+     * Builds a codec of the registered command types.
+     * @return a new {@link BinaryCommandCodec} instance
+     */
+    public BinaryCommandCodec build() {
+        return new BinaryCommandCodec(typeIdToSchema, typeToSchema);
+    }
+
+}
@@ -0,0 +1,105 @@
+package dev.sergheev.commandbus.codec;
+
+import dev.sergheev.commandbus.Command;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * The layout of a command type on the wire, built once at registration by the {@link BinaryCommandCodecBuilder}.
+ */
+final class CommandSchema {
+
+    private final int typeId;
+
+    private final Class<?> commandType;
+
+    /**
+     * Creates the instances of the decoded commands.
+     */
+    private final Constructor<?> constructor;
+
+    private final FieldCodec[] fieldCodecs;
+
+    private CommandSchema(int typeId, Class<?> commandType, Constructor<?> constructor, FieldCodec[] fieldCodecs) {
+        this.typeId = typeId;
+        this.commandType = commandType;
+        this.constructor = constructor;
+        this.fieldCodecs = fieldCodecs;
+    }
+
+    /**
+     * Builds the schema of the given command type.
+     * @throws IllegalArgumentException if the command type cannot be encoded
+     */
+    static CommandSchema of(int typeId, Class<?> commandType) throws IllegalArgumentException {
+        if(commandType.isInterface() || Modifier.isAbstract(commandType.getModifiers())) throw new IllegalArgumentException("The command type " + commandType.getName() + " must be concrete");
+        if(commandType.getEnclosingClass() != null && !Modifier.isStatic(commandType.getModifiers())) throw new IllegalArgumentException("The command type " + commandType.getName() + " must not be an inner class");
+        final Deque<Class<?>> hierarchy = new ArrayDeque<>();
+        for(Class<?> type = commandType; type != Object.class; type = type.getSuperclass()) hierarchy.push(type);
+        final List<FieldCodec> fieldCodecs = new ArrayList<>();
+        for(Class<?> type : hierarchy) {
+            final Field[] fields = type.getDeclaredFields();
+            Arrays.sort(fields, Comparator.comparing(Field::getName));
+            for(Field field : fields) {
+                final int modifiers = field.getModifiers();
+                if(Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers) || field.isSynthetic()) continue;
+                field.setAccessible(true);
+                fieldCodecs.add(FieldCodec.of(field));
+            }
+        }
+        return new CommandSchema(typeId, commandType, constructorOf(commandType), fieldCodecs.toArray(new FieldCodec[0]));
+    }
+
+    /**
+     * Returns the constructor without parameters declared by the given type, whatever its visibility.
+     * @throws IllegalArgumentException if the type does not declare one
+     */
+    private static Constructor<?> constructorOf(Class<?> commandType) throws IllegalArgumentException {
+        final Constructor<?> constructor;
+        try {
+            constructor = commandType.getDeclaredConstructor();
+        } catch (NoSuchMethodException e) {
+            throw new IllegalArgumentException("The command type " + commandType.getName() + " must declare a constructor without parameters", e);
+        }
+        constructor.setAccessible(true);
+        return constructor;
+    }
+
+    void encode(Command command, ByteBuffer buffer) throws BufferOverflowException {
+        buffer.putInt(typeId);
+        try {
+            for(FieldCodec fieldCodec : fieldCodecs) fieldCodec.write(command, buffer);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Unable to read the fields of " + commandType.getName(), e);
+        }
+    }
+
+    /**
+     * Reads the fields of a command, whose type id has already been read.
+     * @throws IllegalArgumentException if the bytes are malformed
+     */
+    Command decode(ByteBuffer buffer) throws IllegalArgumentException {
+        try {
+            final Command command = (Command) constructor.newInstance();
+            for(FieldCodec fieldCodec : fieldCodecs) fieldCodec.read(command, buffer);
+            return command;
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Unable to create an instance of " + commandType.getName(), e);
+        }
+    }
+
+    Class<?> commandType() {
+        return commandType;
+    }
+
+}
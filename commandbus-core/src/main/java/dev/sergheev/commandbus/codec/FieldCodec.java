@@ -0,0 +1,346 @@
+package dev.sergheev.commandbus.codec;
+
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+
+/**
+ * Reads and writes a field of a command, through the accessor of its exact type, so the
+ * primitive fields are never boxed.
+ */
+abstract class FieldCodec {
+
+    protected final Field field;
+
+    private FieldCodec(Field field) {
+        this.field = field;
+    }
+
+    abstract void write(Object command, ByteBuffer buffer) throws IllegalAccessException;
+
+    /**
+     * @throws IllegalArgumentException if the bytes are malformed
+     */
+    abstract void read(Object command, ByteBuffer buffer) throws IllegalAccessException, IllegalArgumentException;
+
+    /**
+     * Returns the codec of the given accessible field.
+     * @throws IllegalArgumentException if the type of the field is not supported
+     */
+    static FieldCodec of(Field field) throws IllegalArgumentException {
+        final Class<?> type = field.getType();
+        if(type == int.class) return new IntFieldCodec(field);
+        if(type == long.class) return new LongFieldCodec(field);
+        if(type == double.class) return new DoubleFieldCodec(field);
+        if(type == float.class) return new FloatFieldCodec(field);
+        if(type == short.class) return new ShortFieldCodec(field);
+        if(type == byte.class) return new ByteFieldCodec(field);
+        if(type == char.class) return new CharFieldCodec(field);
+        if(type == boolean.class) return new BooleanFieldCodec(field);
+        if(type == String.class) return new StringFieldCodec(field);
+        if(type == byte[].class) return new BytesFieldCodec(field);
+        if(type.isEnum()) return new EnumFieldCodec(field);
+        if(type == Integer.class || type == Long.class || type == Double.class || type == Float.class
+                || type == Short.class || type == Byte.class || type == Character.class || type == Boolean.class) {
+            return new WrapperFieldCodec(field);
+        }
+        throw new IllegalArgumentException("The field " + field.getDeclaringClass().getName() + "." + field.getName() + " of type " + type.getName() + " cannot be encoded");
+    }
+
+    private static final class IntFieldCodec extends FieldCodec {
+        private IntFieldCodec(Field field) {
+            super(field);
+        }
+        @Override
+        void write(Object command, ByteBuffer buffer) throws IllegalAccessException {
+            buffer.putInt(field.getInt(command));
+        }
+        @Override
+        void read(Object command, ByteBuffer buffer) throws IllegalAccessException {
+            field.setInt(command, buffer.getInt());
+        }
+    }
+
+    private static final class LongFieldCodec extends FieldCodec {
+        private LongFieldCodec(Field field) {
+            super(field);
+        }
+        @Override
+        void write(Object command, ByteBuffer buffer) throws IllegalAccessException {
+            buffer.putLong(field.getLong(command));
+        }
+        @Override
+        void read(Object command, ByteBuffer buffer) throws IllegalAccessException {
+            field.setLong(command, buffer.getLong());
+        }
+    }
+
+    private static final class DoubleFieldCodec extends FieldCodec {
+        private DoubleFieldCodec(Field field) {
+            super(field);
+        }
+        @Override
+        void write(Object command, ByteBuffer buffer) throws IllegalAccessException {
+            buffer.putDouble(field.getDouble(command));
+        }
+        @Override
+        void read(Object command, ByteBuffer buffer) throws IllegalAccessException {
+            field.setDouble(command, buffer.getDouble());
+        }
+    }
+
+    private static final class FloatFieldCodec extends FieldCodec {
+        private FloatFieldCodec(Field field) {
+            super(field);
+        }
+        @Override
+        void write(Object command, ByteBuffer buffer) throws IllegalAccessException {
+            buffer.putFloat(field.getFloat(command));
+        }
+        @Override
+        void read(Object command, ByteBuffer buffer) throws IllegalAccessException {
+            field.setFloat(command, buffer.getFloat());
+        }
+    }
+
+    private static final class ShortFieldCodec extends FieldCodec {
+        private ShortFieldCodec(Field field) {
+            super(field);
+        }
+        @Override
+        void write(Object command, ByteBuffer buffer) throws IllegalAccessException {
+            buffer.putShort(field.getShort(command));
+        }
+        @Override
+        void read(Object command, ByteBuffer buffer) throws IllegalAccessException {
+            field.setShort(command, buffer.getShort());
+        }
+    }
+
+    private static final class ByteFieldCodec extends FieldCodec {
+        private ByteFieldCodec(Field field) {
+            super(field);
+        }
+        @Override
+        void write(Object command, ByteBuffer buffer) throws IllegalAccessException {
+            buffer.put(field.getByte(command));
+        }
+        @Override
+        void read(Object command, ByteBuffer buffer) throws IllegalAccessException {
+            field.setByte(command, buffer.get());
+        }
+    }
+
+    private static final class CharFieldCodec extends FieldCodec {
+        private CharFieldCodec(Field field) {
+            super(field);
+        }
+        @Override
+        void write(Object command, ByteBuffer buffer) throws IllegalAccessException {
+            buffer.putChar(field.getChar(command));
+        }
+        @Override
+        void read(Object command, ByteBuffer buffer) throws IllegalAccessException {
+            field.setChar(command, buffer.getChar());
+        }
+    }
+
+    private static final class BooleanFieldCodec extends FieldCodec {
+        private BooleanFieldCodec(Field field) {
+            super(field);
+        }
+        @Override
+        void write(Object command, ByteBuffer buffer) throws IllegalAccessException {
+            buffer.put(field.getBoolean(command) ? (byte) 1 : (byte) 0);
+        }
+        @Override
+        void read(Object command, ByteBuffer buffer) throws IllegalAccessException {
+            field.setBoolean(command, buffer.get() != 0);
+        }
+    }
+
+    /**
+     * Writes a presence byte before the value of the reference fields.
+     */
+    private abstract static class ReferenceFieldCodec extends FieldCodec {
+
+        private ReferenceFieldCodec(Field field) {
+            super(field);
+        }
+
+        @Override
+        final void write(Object command, ByteBuffer buffer) throws IllegalAccessException {
+            final Object value = field.get(command);
+            if(value == null) {
+                buffer.put((byte) 0);
+            } else {
+                buffer.put((byte) 1);
+                writeValue(value, buffer);
+            }
+        }
+
+        @Override
+        final void read(Object command, ByteBuffer buffer) throws IllegalAccessException, IllegalArgumentException {
+            field.set(command, buffer.get() == 0 ? null : readValue(buffer));
+        }
+
+        abstract void writeValue(Object value, ByteBuffer buffer);
+
+        abstract Object readValue(ByteBuffer buffer) throws IllegalArgumentException;
+
+    }
+
+    /**
+     * Writes the length of the UTF-8 representation of the string, followed by the encoded characters.
+     */
+    private static final class StringFieldCodec extends ReferenceFieldCodec {
+
+        private StringFieldCodec(Field field) {
+            super(field);
+        }
+
+        @Override
+        void writeValue(Object value, ByteBuffer buffer) {
+            final String string = (String) value;
+            final int lengthPosition = buffer.position();
+            buffer.putInt(0);
+            for(int i = 0; i < string.length(); i++) {
+                final char c = string.charAt(i);
+                if(c < 0x80) {
+                    buffer.put((byte) c);
+                } else if(c < 0x800) {
+                    buffer.put((byte) (0xC0 | c >> 6)).put((byte) (0x80 | c & 0x3F));
+                } else if(Character.isHighSurrogate(c) && i + 1 < string.length() && Character.isLowSurrogate(string.charAt(i + 1))) {
+                    final int codePoint = Character.toCodePoint(c, string.charAt(++i));
+                    buffer.put((byte) (0xF0 | codePoint >> 18)).put((byte) (0x80 | codePoint >> 12 & 0x3F))
+                            .put((byte) (0x80 | codePoint >> 6 & 0x3F)).put((byte) (0x80 | codePoint & 0x3F));
+                } else if(Character.isSurrogate(c)) {
+                    buffer.put((byte) '?');
+                } else {
+                    buffer.put((byte) (0xE0 | c >> 12)).put((byte) (0x80 | c >> 6 & 0x3F)).put((byte) (0x80 | c & 0x3F));
+                }
+            }
+            buffer.putInt(lengthPosition, buffer.position() - lengthPosition - 4);
+        }
+
+        @Override
+        Object readValue(ByteBuffer buffer) throws IllegalArgumentException {
+            final int length = buffer.getInt();
+            if(length < 0 || length > buffer.remaining()) throw new IllegalArgumentException("Invalid string length " + length);
+            // Every encoded char takes at least a byte, and a surrogate pair takes 4 of them
+            final char[] chars = new char[length];
+            int count = 0;
+            final int end = buffer.position() + length;
+            while(buffer.position() < end) {
+                final int b = buffer.get() & 0xFF;
+                if(b < 0x80) {
+                    chars[count++] = (char) b;
+                } else if(b >> 5 == 0x6) {
+                    chars[count++] = (char) ((b & 0x1F) << 6 | continuation(buffer, end));
+                } else if(b >> 4 == 0xE) {
+                    chars[count++] = (char) ((b & 0x0F) << 12 | continuation(buffer, end) << 6 | continuation(buffer, end));
+                } else if(b >> 3 == 0x1E) {
+                    final int codePoint = (b & 0x07) << 18 | continuation(buffer, end) << 12 | continuation(buffer, end) << 6 | continuation(buffer, end);
+                    if(!Character.isSupplementaryCodePoint(codePoint)) throw new IllegalArgumentException("Malformed UTF-8 string");
+                    chars[count++] = Character.highSurrogate(codePoint);
+                    chars[count++] = Character.lowSurrogate(codePoint);
+                } else {
+                    throw new IllegalArgumentException("Malformed UTF-8 string");
+                }
+            }
+            return new String(chars, 0, count);
+        }
+
+        private static int continuation(ByteBuffer buffer, int end) throws IllegalArgumentException {
+            if(buffer.position() >= end) throw new IllegalArgumentException("Malformed UTF-8 string");
+            final int b = buffer.get() & 0xFF;
+            if(b >> 6 != 0x2) throw new IllegalArgumentException("Malformed UTF-8 string");
+            return b & 0x3F;
+        }
+
+    }
+
+    private static final class BytesFieldCodec extends ReferenceFieldCodec {
+
+        private BytesFieldCodec(Field field) {
+            super(field);
+        }
+
+        @Override
+        void writeValue(Object value, ByteBuffer buffer) {
+            final byte[] bytes = (byte[]) value;
+            buffer.putInt(bytes.length).put(bytes);
+        }
+
+        @Override
+        Object readValue(ByteBuffer buffer) throws IllegalArgumentException {
+            final int length = buffer.getInt();
+            if(length < 0 || length > buffer.remaining()) throw new IllegalArgumentException("Invalid array length " + length);
+            final byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            return bytes;
+        }
+
+    }
+
+    private static final class EnumFieldCodec extends ReferenceFieldCodec {
+
+        private final Object[] constants;
+
+        private EnumFieldCodec(Field field) {
+            super(field);
+            this.constants = field.getType().getEnumConstants();
+        }
+
+        @Override
+        void writeValue(Object value, ByteBuffer buffer) {
+            buffer.putInt(((Enum<?>) value).ordinal());
+        }
+
+        @Override
+        Object readValue(ByteBuffer buffer) throws IllegalArgumentException {
+            final int ordinal = buffer.getInt();
+            if(ordinal < 0 || ordinal >= constants.length) throw new IllegalArgumentException("Invalid ordinal " + ordinal + " of " + field.getType().getName());
+            return constants[ordinal];
+        }
+
+    }
+
+    /**
+     * Writes the wrapped value as its primitive type.
+     */
+    private static final class WrapperFieldCodec extends ReferenceFieldCodec {
+
+        private final Class<?> type;
+
+        private WrapperFieldCodec(Field field) {
+            super(field);
+            this.type = field.getType();
+        }
+
+        @Override
+        void writeValue(Object value, ByteBuffer buffer) {
+            if(type == Integer.class) buffer.putInt((Integer) value);
+            else if(type == Long.class) buffer.putLong((Long) value);
+            else if(type == Double.class) buffer.putDouble((Double) value);
+            else if(type == Float.class) buffer.putFloat((Float) value);
+            else if(type == Short.class) buffer.putShort((Short) value);
+            else if(type == Byte.class) buffer.put((Byte) value);
+            else if(type == Character.class) buffer.putChar((Character) value);
+            else buffer.put((Boolean) value ? (byte) 1 : (byte) 0);
+        }
+
+        @Override
+        Object readValue(ByteBuffer buffer) {
+            if(type == Integer.class) return buffer.getInt();
+            if(type == Long.class) return buffer.getLong();
+            if(type == Double.class) return buffer.getDouble();
+            if(type == Float.class) return buffer.getFloat();
+            if(type == Short.class) return buffer.getShort();
+            if(type == Byte.class) return buffer.get();
+            if(type == Character.class) return buffer.getChar();
+            return buffer.get() != 0;
+        }
+
+    }
+
+}
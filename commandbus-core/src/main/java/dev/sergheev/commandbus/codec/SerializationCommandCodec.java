@@ -0,0 +1,158 @@
+package dev.sergheev.commandbus.codec;
+
+import dev.sergheev.commandbus.Command;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * A {@link CommandCodec} based on the Java serialization, able to encode any {@link Serializable}
+ * command without any configuration, at the expense of speed and size.
+ *
+ * <p>The object streams read from and write to the buffers directly, without intermediate arrays.
+ */
+public class SerializationCommandCodec implements CommandCodec {
+
+    /**
+     * The class loader that resolves the classes of the decoded commands, or {@code null} for the default one.
+     */
+    private final ClassLoader classLoader;
+
+    /**
+     * Constructs a new {@link SerializationCommandCodec} instance that resolves the classes of the
+     * decoded commands through the default resolution of the Java serialization.
+     */
+    public SerializationCommandCodec() {
+        this(null);
+    }
+
+    /**
+     * Constructs a new {@link SerializationCommandCodec} instance that resolves the classes of the
+     * decoded commands through the given class loader.
+     * @param classLoader the class loader of the decoded commands, or {@code null} for the default one
+     */
+    public SerializationCommandCodec(ClassLoader classLoader) {
+        this.classLoader = classLoader;
+    }
+
+    /**
+     * Writes the serialized form of the given command into the given buffer.
+     * @param command the command that is to be encoded
+     * @param buffer the buffer that is to receive the encoded command
+     * @throws BufferOverflowException if the command does not fit in the remaining bytes of the buffer
+     * @throws IllegalArgumentException if the command is not {@link Serializable}, or cannot be serialized
+     */
+    @Override
+    public void encode(Command command, ByteBuffer buffer) throws BufferOverflowException, IllegalArgumentException {
+        if(!(command instanceof Serializable)) throw new IllegalArgumentException("The command " + command.getClass().getName() + " is not serializable");
+        try(ObjectOutputStream output = new ObjectOutputStream(new ByteBufferOutputStream(buffer))) {
+            output.writeObject(command);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Unable to serialize " + command.getClass().getName(), e);
+        }
+    }
+
+    /**
+     * Reads a serialized command from the given buffer.
+     * @param buffer the buffer that holds the encoded command
+     * @throws IllegalArgumentException if the bytes do not hold a serialized command, or its class cannot be found
+     * @return the decoded command
+     */
+    @Override
+    public Command decode(ByteBuffer buffer) throws IllegalArgumentException {
+        try(ObjectInputStream input = new ClassLoaderObjectInputStream(new ByteBufferInputStream(buffer), classLoader)) {
+            final Object command = input.readObject();
+            if(!(command instanceof Command)) throw new IllegalArgumentException("The decoded object " + command + " is not a command");
+            return (Command) command;
+        } catch (IOException | ClassNotFoundException e) {
+            throw new IllegalArgumentException("Unable to deserialize the command", e);
+        }
+    }
+
+    /**
+     * Writes into a buffer, failing with a {@link BufferOverflowException} once it is full.
+     */
+    private static final class ByteBufferOutputStream extends OutputStream {
+
+        private final ByteBuffer buffer;
+
+        private ByteBufferOutputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public void write(int b) throws BufferOverflowException {
+            buffer.put((byte) b);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws BufferOverflowException {
+            buffer.put(bytes, offset, length);
+        }
+
+    }
+
+    /**
+     * Reads from a buffer, up to its limit.
+     */
+    private static final class ByteBufferInputStream extends InputStream {
+
+        private final ByteBuffer buffer;
+
+        private ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if(length == 0) return 0;
+            if(!buffer.hasRemaining()) return -1;
+            final int count = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, count);
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+
+    }
+
+    /**
+     * Resolves the classes through the given class loader, if any.
+     */
+    private static final class ClassLoaderObjectInputStream extends ObjectInputStream {
+
+        private final ClassLoader classLoader;
+
+        private ClassLoaderObjectInputStream(InputStream input, ClassLoader classLoader) throws IOException {
+            super(input);
+            this.classLoader = classLoader;
+        }
+
+        @Override
+        protected Class<?> resolveClass(ObjectStreamClass descriptor) throws IOException, ClassNotFoundException {
+            if(classLoader == null) return super.resolveClass(descriptor);
+            try {
+                return Class.forName(descriptor.getName(), false, classLoader);
+            } catch (ClassNotFoundException e) {
+                return super.resolveClass(descriptor);
+            }
+        }
+
+    }
+
+}
@@ -24,16 +24,16 @@ import static java.util.Objects.requireNonNull;
 public class SimpleContainer implements Container {
 
     /**
-     * Creates a thread-safe {@link SimpleContainer} implementation based on a {@link HashMap}.
-     * @return a thread-safe {@link SimpleContainer} instance
+     * Creates a non thread-safe {@link SimpleContainer} implementation based on a {@link HashMap}.
+     * @return a non thread-safe {@link SimpleContainer} instance
      */
     public static SimpleContainer newInstance() {
         return new SimpleContainer(HashMap::new);
     }
 
     /**
-     * Creates a non thread-safe {@link SimpleContainer} implementation based on a {@link ConcurrentHashMap}.
-     * @return a non thread-safe {@link SimpleContainer} instance
+     * Creates a thread-safe {@link SimpleContainer} implementation based on a {@link ConcurrentHashMap}.
+     * @return a thread-safe {@link SimpleContainer} instance
      */
     public static SimpleContainer newConcurrentInstance() {
         return new SimpleContainer(ConcurrentHashMap::new);
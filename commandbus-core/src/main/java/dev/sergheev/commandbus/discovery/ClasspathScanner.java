@@ -0,0 +1,228 @@
+package dev.sergheev.commandbus.discovery;
+
+import dev.sergheev.commandbus.CommandHandler;
+import dev.sergheev.commandbus.mapping.CommandMapping;
+import dev.sergheev.commandbus.mapping.CommandMappings;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Scans the class files of some packages of the classpath for mapped handlers.
+ *
+ * <p>The class files are read in parallel, and a class is only loaded if its bytes
+ * reference the {@link CommandMapping} annotation, so the unrelated classes of the
+ * scanned packages are neither loaded nor initialized.
+ */
+@SuppressWarnings({ "rawtypes" })
+final class ClasspathScanner {
+
+    /**
+     * The descriptor shared by the {@link CommandMapping} and {@link CommandMappings} annotations,
+     * as stored in the constant pool of the annotated classes.
+     */
+    private static final byte[] MAPPING_DESCRIPTOR = ("L" + CommandMapping.class.getName().replace('.', '/')).getBytes(StandardCharsets.UTF_8);
+
+    private final ClassLoader classLoader;
+
+    /**
+     * The resource paths of the scanned packages (i.e., {@code com/example/}).
+     */
+    private final List<String> packagePaths;
+
+    ClasspathScanner(ClassLoader classLoader, List<String> packageNames) {
+        this.classLoader = classLoader;
+        this.packagePaths = packageNames.stream()
+                .map(packageName -> packageName.isEmpty() ? "" : packageName.replace('.', '/') + "/")
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Scans the classpath for the mapped handler classes.
+     * @throws IllegalStateException if the classpath cannot be read
+     * @return the found handler classes, sorted by name
+     */
+    List<Class<? extends CommandHandler>> scan() throws IllegalStateException {
+        final List<ClassFile> classFiles = new ArrayList<>();
+        final List<JarFile> jarFiles = new ArrayList<>();
+        try {
+            for(File root : classpathRoots()) {
+                if(root.isDirectory()) {
+                    collectFromDirectory(root.toPath(), classFiles);
+                } else if(root.isFile()) {
+                    final JarFile jarFile = new JarFile(root);
+                    jarFiles.add(jarFile);
+                    collectFromJar(jarFile, classFiles);
+                }
+            }
+            final List<Class<? extends CommandHandler>> handlerTypes = classFiles.parallelStream()
+                    .filter(ClassFile::referencesMapping)
+                    .map(classFile -> CommandHandlerDiscovery.load(classLoader, classFile.className))
+                    .filter(type -> CommandHandlerDiscovery.isConcreteHandler(type) && isMapped(type))
+                    .map(type -> type.asSubclass(CommandHandler.class))
+                    .distinct()
+                    .sorted((first, second) -> first.getName().compareTo(second.getName()))
+                .collect(Collectors.toList());
+            return Collections.unmodifiableList(handlerTypes);
+        } catch (IOException | UncheckedIOException e) {
+            throw new IllegalStateException("Unable to scan the classpath", e);
+        } finally {
+            for(JarFile jarFile : jarFiles) closeQuietly(jarFile);
+        }
+    }
+
+    /**
+     * Returns the directories and jars from which the class loader (and its parents) load classes.
+     */
+    private Set<File> classpathRoots() {
+        final Set<File> roots = new LinkedHashSet<>();
+        boolean isSystemClasspathIncluded = false;
+        for(ClassLoader loader = classLoader; loader != null; loader = loader.getParent()) {
+            if(loader instanceof URLClassLoader) {
+                for(URL url : ((URLClassLoader) loader).getURLs()) {
+                    if("file".equals(url.getProtocol())) roots.add(toFile(url));
+                }
+            }
+            if(loader == ClassLoader.getSystemClassLoader()) isSystemClasspathIncluded = true;
+        }
+        // Since Java 9 the application class loader is not an URLClassLoader
+        if(isSystemClasspathIncluded) {
+            for(String entry : System.getProperty("java.class.path", "").split(File.pathSeparator)) {
+                if(!entry.isEmpty()) roots.add(new File(entry));
+            }
+        }
+        return roots;
+    }
+
+    private void collectFromDirectory(Path root, List<ClassFile> classFiles) throws IOException {
+        for(String packagePath : packagePaths) {
+            final Path packageDirectory = root.resolve(packagePath);
+            if(!Files.isDirectory(packageDirectory)) continue;
+            try(Stream<Path> paths = Files.walk(packageDirectory)) {
+                paths.filter(path -> path.toString().endsWith(".class")).forEach(path -> {
+                    final String relativePath = root.relativize(path).toString().replace(File.separatorChar, '/');
+                    classFiles.add(new ClassFile(classNameOf(relativePath), () -> Files.newInputStream(path)));
+                });
+            }
+        }
+    }
+
+    private void collectFromJar(JarFile jarFile, List<ClassFile> classFiles) {
+        final Enumeration<JarEntry> entries = jarFile.entries();
+        while(entries.hasMoreElements()) {
+            final JarEntry entry = entries.nextElement();
+            final String entryName = entry.getName();
+            if(!entryName.endsWith(".class") || !isInScannedPackage(entryName)) continue;
+            classFiles.add(new ClassFile(classNameOf(entryName), () -> jarFile.getInputStream(entry)));
+        }
+    }
+
+    private boolean isInScannedPackage(String resourcePath) {
+        for(String packagePath : packagePaths) {
+            if(resourcePath.startsWith(packagePath)) return true;
+        }
+        return false;
+    }
+
+    private static boolean isMapped(Class<?> type) {
+        return type.isAnnotationPresent(CommandMapping.class) || type.isAnnotationPresent(CommandMappings.class);
+    }
+
+    private static String classNameOf(String resourcePath) {
+        return resourcePath.substring(0, resourcePath.length() - ".class".length()).replace('/', '.');
+    }
+
+    private static File toFile(URL url) {
+        try {
+            return new File(url.toURI());
+        } catch (URISyntaxException | IllegalArgumentException e) {
+            return new File(url.getPath());
+        }
+    }
+
+    private static void closeQuietly(JarFile jarFile) {
+        try {
+            jarFile.close();
+        } catch (IOException ignored) {
+            // Nothing else can be done, the scan result is not affected
+        }
+    }
+
+    /**
+     * Opens the contents of a class file.
+     */
+    @FunctionalInterface
+    private interface ClassFileSource {
+
+        InputStream open() throws IOException;
+
+    }
+
+    /**
+     * A class file of a scanned package, read lazily.
+     */
+    private static final class ClassFile {
+
+        private final String className;
+
+        private final ClassFileSource source;
+
+        private ClassFile(String className, ClassFileSource source) {
+            this.className = className;
+            this.source = source;
+        }
+
+        /**
+         * Returns {@code true} if the bytes of this class file contain the descriptor of a command mapping.
+         * @throws UncheckedIOException if the class file cannot be read
+         */
+        private boolean referencesMapping() throws UncheckedIOException {
+            try(InputStream input = source.open()) {
+                return indexOf(readFully(input), MAPPING_DESCRIPTOR) >= 0;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private static byte[] readFully(InputStream input) throws IOException {
+            final ByteArrayOutputStream output = new ByteArrayOutputStream(4096);
+            final byte[] buffer = new byte[4096];
+            int read;
+            while((read = input.read(buffer)) != -1) output.write(buffer, 0, read);
+            return output.toByteArray();
+        }
+
+        private static int indexOf(byte[] bytes, byte[] pattern) {
+            final int last = bytes.length - pattern.length;
+            outer:
+            for(int i = 0; i <= last; i++) {
+                for(int j = 0; j < pattern.length; j++) {
+                    if(bytes[i + j] != pattern[j]) continue outer;
+                }
+                return i;
+            }
+            return -1;
+        }
+
+    }
+
+}
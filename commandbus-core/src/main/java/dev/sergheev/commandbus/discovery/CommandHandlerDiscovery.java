@@ -0,0 +1,158 @@
+package dev.sergheev.commandbus.discovery;
+
+import dev.sergheev.commandbus.CommandHandler;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.lang.reflect.Modifier;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Discovers the {@link CommandHandler} classes annotated with command mappings, so they do
+ * not have to be registered one by one.
+ *
+ * <p>The handlers are read from the {@value #INDEX_LOCATION} index files that the
+ * {@code commandbus-processor} annotation processor generates at build time (one per jar
+ * or output directory), which does not require scanning the classpath. If no index is
+ * found, the classpath can optionally be scanned instead, by specifying the packages to
+ * scan with {@link #withScanFallback(String...)}: the class files of those packages are
+ * read in parallel, and only the ones referencing a command mapping are loaded.
+ */
+@SuppressWarnings({ "rawtypes" })
+public final class CommandHandlerDiscovery {
+
+    /**
+     * The location of the index files, which list the binary name of a handler class per line.
+     */
+    public static final String INDEX_LOCATION = "META-INF/commandbus/handlers";
+
+    /**
+     * A static factory method for the creation of a new {@code CommandHandlerDiscovery} instance,
+     * which discovers handlers through the context class loader of the current thread.
+     * @return a new {@link CommandHandlerDiscovery} instance
+     */
+    public static CommandHandlerDiscovery create() {
+        final ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+        return new CommandHandlerDiscovery(Objects.isNull(contextClassLoader) ? CommandHandlerDiscovery.class.getClassLoader() : contextClassLoader);
+    }
+
+    /**
+     * The class loader from which the indexes are read and the handler classes are loaded.
+     */
+    private ClassLoader classLoader;
+
+    /**
+     * The packages that are to be scanned if no index is found, empty if scanning is disabled.
+     */
+    private final List<String> scannedPackages;
+
+    private CommandHandlerDiscovery(ClassLoader classLoader) {
+        this.classLoader = classLoader;
+        this.scannedPackages = new ArrayList<>();
+    }
+
+    /**
+     * Use the given class loader to read the indexes and to load the handler classes.
+     * @param classLoader the class loader that is to be used
+     * @throws NullPointerException if the given {@code classLoader} is {@code null}
+     * @return the current {@link CommandHandlerDiscovery} instance
+     */
+    public CommandHandlerDiscovery withClassLoader(ClassLoader classLoader) throws NullPointerException {
+        requireNonNull(classLoader, "classLoader must not be null");
+        this.classLoader = classLoader;
+        return this;
+    }
+
+    /**
+     * Scans the given packages (and their subpackages) of the classpath if no index is found.
+     * @param packageNames the names of the packages that are to be scanned
+     * @throws NullPointerException if the given {@code packageNames} or any of them are {@code null}
+     * @return the current {@link CommandHandlerDiscovery} instance
+     */
+    public CommandHandlerDiscovery withScanFallback(String... packageNames) throws NullPointerException {
+        requireNonNull(packageNames, "packageNames must not be null");
+        for(String packageName : packageNames) requireNonNull(packageName, "packageName must not be null");
+        scannedPackages.addAll(Arrays.asList(packageNames));
+        return this;
+    }
+
+    /**
+     * Discovers the handler classes from the indexes, or by scanning the classpath if there is no index
+     * and scanning is enabled.
+     * @throws IllegalStateException if an index cannot be read or lists a class that cannot be loaded
+     * @throws IllegalStateException if an indexed class is not a concrete {@link CommandHandler}
+     * @return the discovered handler classes, sorted by name
+     */
+    public List<Class<? extends CommandHandler>> discover() throws IllegalStateException {
+        final Set<String> indexedNames = readIndexes();
+        if(indexedNames.isEmpty() && !scannedPackages.isEmpty()) {
+            return new ClasspathScanner(classLoader, scannedPackages).scan();
+        }
+        final List<Class<? extends CommandHandler>> handlerTypes = new ArrayList<>(indexedNames.size());
+        for(String handlerName : indexedNames) {
+            final Class<?> type = load(classLoader, handlerName);
+            if(!isConcreteHandler(type)) throw new IllegalStateException("The indexed class " + handlerName + " is not a concrete handler");
+            handlerTypes.add(type.asSubclass(CommandHandler.class));
+        }
+        handlerTypes.sort((first, second) -> first.getName().compareTo(second.getName()));
+        return Collections.unmodifiableList(handlerTypes);
+    }
+
+    /**
+     * Reads the handler names listed by all the indexes visible to the class loader.
+     */
+    private Set<String> readIndexes() throws IllegalStateException {
+        final Set<String> handlerNames = new LinkedHashSet<>();
+        try {
+            final Enumeration<URL> indexes = classLoader.getResources(INDEX_LOCATION);
+            while(indexes.hasMoreElements()) readIndex(indexes.nextElement(), handlerNames);
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to read the handler indexes", e);
+        }
+        return handlerNames;
+    }
+
+    private static void readIndex(URL index, Set<String> handlerNames) throws IOException {
+        try(InputStream input = index.openStream();
+            BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            String line;
+            while((line = reader.readLine()) != null) {
+                final String handlerName = line.trim();
+                if(!handlerName.isEmpty() && !handlerName.startsWith("#")) handlerNames.add(handlerName);
+            }
+        }
+    }
+
+    /**
+     * Loads the class with the given name without initializing it.
+     * @throws IllegalStateException if the class cannot be loaded
+     */
+    static Class<?> load(ClassLoader classLoader, String className) throws IllegalStateException {
+        try {
+            return Class.forName(className, false, classLoader);
+        } catch (ClassNotFoundException | LinkageError e) {
+            throw new IllegalStateException("Unable to load the handler " + className, e);
+        }
+    }
+
+    /**
+     * Returns {@code true} if the given type is a handler class that can be instantiated.
+     */
+    static boolean isConcreteHandler(Class<?> type) {
+        return CommandHandler.class.isAssignableFrom(type) && !type.isInterface() && !Modifier.isAbstract(type.getModifiers());
+    }
+
+}
@@ -0,0 +1,65 @@
+package dev.sergheev.commandbus.interceptor;
+
+import dev.sergheev.commandbus.BatchCommandHandler;
+import dev.sergheev.commandbus.Command;
+import dev.sergheev.commandbus.CommandHandler;
+import dev.sergheev.commandbus.CommandInterceptor;
+
+import java.util.List;
+
+/**
+ * A link of a precompiled interceptor chain, that hands the command over to
+ * its interceptor together with the next link (or the handler itself).
+ */
+class InterceptingCommandHandler<C extends Command, R> implements CommandHandler<C, R> {
+
+    /**
+     * The interceptor of this link.
+     */
+    final CommandInterceptor<C, R> interceptor;
+
+    /**
+     * The next link of the chain, or the handler itself.
+     */
+    final CommandHandler<C, R> next;
+
+    InterceptingCommandHandler(CommandInterceptor<C, R> interceptor, CommandHandler<C, R> next) {
+        this.interceptor = interceptor;
+        this.next = next;
+    }
+
+    /**
+     * Returns a link of the given interceptor in front of the given handler, which keeps
+     * processing groups of commands at once if the handler is a {@link BatchCommandHandler}.
+     */
+    static <C extends Command, R> CommandHandler<C, R> link(CommandInterceptor<C, R> interceptor, CommandHandler<C, R> next) {
+        if(next instanceof BatchCommandHandler) {
+            return new BatchInterceptingCommandHandler<>(interceptor, (BatchCommandHandler<C, R>) next);
+        }
+        return new InterceptingCommandHandler<>(interceptor, next);
+    }
+
+    @Override
+    public R handle(C command) {
+        return interceptor.intercept(command, next);
+    }
+
+    /**
+     * A link in front of a {@link BatchCommandHandler}, that hands groups of commands over to
+     * {@link CommandInterceptor#interceptAll}.
+     */
+    private static final class BatchInterceptingCommandHandler<C extends Command, R>
+            extends InterceptingCommandHandler<C, R> implements BatchCommandHandler<C, R> {
+
+        private BatchInterceptingCommandHandler(CommandInterceptor<C, R> interceptor, BatchCommandHandler<C, R> next) {
+            super(interceptor, next);
+        }
+
+        @Override
+        public List<R> handleAll(List<C> commands) {
+            return interceptor.interceptAll(commands, (BatchCommandHandler<C, R>) next);
+        }
+
+    }
+
+}
@@ -0,0 +1,100 @@
+package dev.sergheev.commandbus.interceptor;
+
+import dev.sergheev.commandbus.Command;
+import dev.sergheev.commandbus.CommandHandler;
+import dev.sergheev.commandbus.CommandInterceptor;
+import dev.sergheev.commandbus.registry.CommandHandlerDecorator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A {@link CommandHandlerDecorator} that wraps a handler into the chain of the
+ * interceptors that apply to the command type it is registered for.
+ *
+ * <p>The chain is compiled once per command type, when the handler is registered,
+ * as nested handlers: executing a command does not iterate over any list nor
+ * allocate. The first added interceptor is the outermost one, and command types
+ * without any interceptor keep their bare handler. The links in front of a
+ * {@link dev.sergheev.commandbus.BatchCommandHandler} hand groups of commands over to
+ * {@link CommandInterceptor#interceptAll}.
+ */
+@SuppressWarnings({ "rawtypes", "unchecked" })
+public class InterceptorChainDecorator implements CommandHandlerDecorator {
+
+    /**
+     * The interceptors in the order they were added, each one with the command type it applies to.
+     */
+    private final List<InterceptorBinding> bindings;
+
+    public InterceptorChainDecorator() {
+        this.bindings = new ArrayList<>();
+    }
+
+    private InterceptorChainDecorator(List<InterceptorBinding> bindings) {
+        this.bindings = bindings;
+    }
+
+    /**
+     * Adds an interceptor that applies to the given command type and all of its subtypes.
+     * @param commandType the type of the commands to intercept ({@link Command} to intercept all of them)
+     * @param interceptor the interceptor that is to be added
+     * @throws NullPointerException if the {@code commandType} or the {@code interceptor} are {@code null}
+     */
+    public void add(Class<? extends Command> commandType, CommandInterceptor<?, ?> interceptor) throws NullPointerException {
+        requireNonNull(commandType, "commandType must not be null");
+        requireNonNull(interceptor, "interceptor must not be null");
+        bindings.add(new InterceptorBinding(commandType, interceptor));
+    }
+
+    /**
+     * Returns {@code true} if no interceptor has been added.
+     * @return {@code true} if no interceptor has been added, {@code false} otherwise
+     */
+    public boolean isEmpty() {
+        return bindings.isEmpty();
+    }
+
+    /**
+     * Returns an unmodifiable copy of this decorator, which the interceptors added afterwards do not apply to.
+     * @return a copy of this decorator with the interceptors added so far
+     */
+    public InterceptorChainDecorator snapshot() {
+        return new InterceptorChainDecorator(Collections.unmodifiableList(new ArrayList<>(bindings)));
+    }
+
+    /**
+     * Returns the given handler wrapped into the chain of interceptors that apply to the given command type.
+     * @param commandType the type of the command the handler is registered for
+     * @param handler the registered handler instance
+     * @return the given handler if no interceptor applies, or the outermost link of the chain
+     */
+    @Override
+    public CommandHandler decorate(Class<? extends Command> commandType, CommandHandler handler) {
+        CommandHandler chain = handler;
+        for(int i = bindings.size() - 1; i >= 0; i--) {
+            final InterceptorBinding binding = bindings.get(i);
+            if(binding.commandType.isAssignableFrom(commandType)) {
+                chain = InterceptingCommandHandler.link(binding.interceptor, chain);
+            }
+        }
+        return chain;
+    }
+
+    private static final class InterceptorBinding {
+
+        private final Class<? extends Command> commandType;
+
+        private final CommandInterceptor interceptor;
+
+        private InterceptorBinding(Class<? extends Command> commandType, CommandInterceptor interceptor) {
+            this.commandType = commandType;
+            this.interceptor = interceptor;
+        }
+
+    }
+
+}
@@ -0,0 +1,330 @@
+package dev.sergheev.commandbus.journal;
+
+import dev.sergheev.commandbus.Command;
+import dev.sergheev.commandbus.CommandHandler;
+import dev.sergheev.commandbus.codec.CommandCodec;
+import dev.sergheev.commandbus.registry.CommandHandlerDecorator;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A durable write-ahead log of commands, kept in segmented memory-mapped files.
+ *
+ * <p>The commands are encoded by a {@link CommandCodec} directly into the mapped segment
+ * by a single writer thread, which takes all the commands appended concurrently at once
+ * (group commit), so a single force of the segment covers all of them when the {@link FsyncPolicy}
+ * requires it. Every appended command gets a sequence, starting at {@code 1}. A segment is
+ * rolled over to a new one when the next command does not fit in it.
+ *
+ * <p>As a {@link CommandHandlerDecorator}, the journal appends every command before handing it over
+ * to its handler, so the journal holds every command that has been (or was about to be) handled.
+ *
+ * <p>Opening a journal in a directory that already holds segments continues after the last
+ * valid record, discarding a record that was being written when the process crashed.
+ * Journals are created with {@link CommandJournalBuilder}.
+ */
+@SuppressWarnings({ "rawtypes", "unchecked" })
+public class CommandJournal implements CommandHandlerDecorator, AutoCloseable {
+
+    /**
+     * Wakes the writer up when the journal is closed.
+     */
+    private static final PendingAppend CLOSE = new PendingAppend(null);
+
+    private final Path directory;
+
+    private final CommandCodec codec;
+
+    private final int segmentSize;
+
+    private final FsyncPolicy fsyncPolicy;
+
+    private final int maxBatchSize;
+
+    private final BlockingQueue<PendingAppend> pendingAppends;
+
+    private final Thread writer;
+
+    /**
+     * The segment the commands are appended to, only accessed by the writer thread once it is started.
+     */
+    private JournalSegment segment;
+
+    /**
+     * The sequence of the last appended command, {@code 0} if there is none.
+     */
+    private volatile long lastSequence;
+
+    private volatile boolean isOpen;
+
+    CommandJournal(Path directory, CommandCodec codec, int segmentSize, FsyncPolicy fsyncPolicy, int maxBatchSize) throws IOException {
+        this.directory = directory;
+        this.codec = codec;
+        this.segmentSize = segmentSize;
+        this.fsyncPolicy = fsyncPolicy;
+        this.maxBatchSize = maxBatchSize;
+        this.pendingAppends = new LinkedBlockingQueue<>();
+        final List<Path> paths = JournalSegment.list(directory);
+        this.segment = paths.isEmpty()
+                ? JournalSegment.create(directory, 1L, segmentSize)
+                : JournalSegment.open(paths.get(paths.size() - 1), true);
+        this.lastSequence = segment.nextSequence() - 1;
+        this.isOpen = true;
+        this.writer = new Thread(this::write, "commandbus-journal-" + directory.getFileName());
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Appends the given command to the journal, and returns once it is written (and forced to the
+     * storage device if the {@link FsyncPolicy} requires it).
+     * @param command the command that is to be appended
+     * @throws NullPointerException if the given {@code command} is {@code null}
+     * @throws IllegalArgumentException if the command cannot be encoded, or does not fit in a segment
+     * @throws IllegalStateException if the journal is closed, or cannot be written
+     * @return the sequence of the appended command
+     */
+    public long append(Command command) throws NullPointerException, IllegalArgumentException, IllegalStateException {
+        try {
+            return appendAsync(command).join();
+        } catch (CompletionException e) {
+            final Throwable cause = e.getCause();
+            if(cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if(cause instanceof Error) throw (Error) cause;
+            throw e;
+        }
+    }
+
+    /**
+     * Appends the given command to the journal, and returns a future that completes with its sequence once it is
+     * written (and forced to the storage device if the {@link FsyncPolicy} requires it), or exceptionally with an
+     * {@link IllegalArgumentException} if the command cannot be encoded, or with an {@link IllegalStateException}
+     * if the journal cannot be written.
+     * @param command the command that is to be appended
+     * @throws NullPointerException if the given {@code command} is {@code null}
+     * @throws IllegalStateException if the journal is closed
+     * @return a future that completes with the sequence of the appended command
+     */
+    public CompletableFuture<Long> appendAsync(Command command) throws NullPointerException, IllegalStateException {
+        requireNonNull(command, "command must not be null");
+        final PendingAppend append = new PendingAppend(command);
+        if(!isOpen) throw new IllegalStateException("The journal is closed");
+        pendingAppends.add(append);
+        // The writer may have stopped before seeing the append
+        if(!isOpen && pendingAppends.remove(append)) throw new IllegalStateException("The journal is closed");
+        return append.future;
+    }
+
+    /**
+     * Returns the sequence of the last appended command.
+     * @return the sequence of the last appended command, or {@code 0} if there is none
+     */
+    public long lastSequence() {
+        return lastSequence;
+    }
+
+    /**
+     * Returns the directory that holds the segments of this journal.
+     * @return the directory that holds the segments of this journal
+     */
+    public Path directory() {
+        return directory;
+    }
+
+    /**
+     * Returns the given handler wrapped into a handler that appends every command to this journal before handling it.
+     * @param commandType the type of the command the handler is registered for
+     * @param handler the registered handler instance
+     * @return a handler that appends every command to this journal before handling it
+     */
+    @Override
+    public CommandHandler decorate(Class<? extends Command> commandType, CommandHandler handler) {
+        return JournalingCommandHandler.journal(handler, this);
+    }
+
+    /**
+     * Stops accepting commands, writes and forces the already appended ones, and closes the segment.
+     * @throws IllegalStateException if the current thread is interrupted while waiting for the writer
+     */
+    @Override
+    public void close() throws IllegalStateException {
+        if(!isOpen) return;
+        isOpen = false;
+        pendingAppends.add(CLOSE);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the journal writer to stop", e);
+        }
+    }
+
+    /**
+     * Writes the appended commands in batches until the journal is closed. If the writer fails unexpectedly
+     * (i.e. with an {@link Error}), the journal is closed and every command that is not written yet fails.
+     */
+    private void write() {
+        final List<PendingAppend> batch = new ArrayList<>(maxBatchSize);
+        long lastForceNanos = System.nanoTime();
+        boolean isDirty = false;
+        boolean isClosing = false;
+        RuntimeException failure = new IllegalStateException("The journal is closed");
+        try {
+            while(!isClosing || !pendingAppends.isEmpty()) {
+                final PendingAppend first = fsyncPolicy.isEveryWrite() || fsyncPolicy.isOsManaged() || !isDirty
+                        ? pendingAppends.take()
+                        : pendingAppends.poll(Math.max(0L, lastForceNanos + fsyncPolicy.intervalNanos() - System.nanoTime()), TimeUnit.NANOSECONDS);
+                if(first != null) {
+                    batch.add(first);
+                    pendingAppends.drainTo(batch, maxBatchSize - 1);
+                }
+                for(PendingAppend append : batch) {
+                    if(append == CLOSE) {
+                        isClosing = true;
+                    } else if(writeRecord(append)) {
+                        isDirty = true;
+                    }
+                }
+                if(isDirty && (fsyncPolicy.isEveryWrite() || (!fsyncPolicy.isOsManaged() && System.nanoTime() - lastForceNanos >= fsyncPolicy.intervalNanos()))) {
+                    forceOrFail(batch);
+                    lastForceNanos = System.nanoTime();
+                    isDirty = false;
+                }
+                for(PendingAppend append : batch) append.complete();
+                batch.clear();
+            }
+            segment.force();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Throwable t) {
+            failure = new IllegalStateException("The journal writer failed, the journal is closed", t);
+        } finally {
+            isOpen = false;
+            for(PendingAppend append : batch) {
+                if(append == CLOSE || append.future.isDone()) continue;
+                append.failure = failure;
+                append.complete();
+            }
+            failPending(failure);
+            try {
+                segment.close();
+            } catch (IOException ignored) {
+                // Nothing else can be done
+            }
+        }
+    }
+
+    /**
+     * Encodes the given command into the current segment, rolling it over if it is full.
+     * @return {@code true} if the command was written
+     */
+    private boolean writeRecord(PendingAppend append) {
+        try {
+            ByteBuffer view = segment.writeView();
+            try {
+                codec.encode(append.command, view);
+            } catch (BufferOverflowException e) {
+                if(segment.recordCount() == 0) throw tooLarge(append.command);
+                roll();
+                view = segment.writeView();
+                try {
+                    codec.encode(append.command, view);
+                } catch (BufferOverflowException overflow) {
+                    throw tooLarge(append.command);
+                }
+            }
+            append.sequence = segment.commit(view.position());
+            lastSequence = append.sequence;
+            return true;
+        } catch (RuntimeException e) {
+            append.failure = e;
+            return false;
+        }
+    }
+
+    private IllegalArgumentException tooLarge(Command command) {
+        return new IllegalArgumentException("The command " + command.getClass().getName() + " does not fit in a segment of " + segmentSize + " bytes");
+    }
+
+    /**
+     * Forces the complete segment, and replaces it with a new one that starts at the next sequence.
+     * @throws IllegalStateException if the new segment cannot be created
+     */
+    private void roll() throws IllegalStateException {
+        segment.force();
+        final JournalSegment next;
+        try {
+            next = JournalSegment.create(directory, segment.nextSequence(), segmentSize);
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to create a journal segment in " + directory, e);
+        }
+        try {
+            segment.close();
+        } catch (IOException ignored) {
+            // The segment is complete and forced already
+        }
+        segment = next;
+    }
+
+    private void forceOrFail(List<PendingAppend> batch) {
+        try {
+            segment.force();
+        } catch (RuntimeException e) {
+            final IllegalStateException failure = new IllegalStateException("Unable to force the journal segment " + segment.path(), e);
+            for(PendingAppend append : batch) {
+                if(append.failure == null) append.failure = failure;
+            }
+        }
+    }
+
+    private void failPending(RuntimeException failure) {
+        PendingAppend append;
+        while((append = pendingAppends.poll()) != null) {
+            if(append == CLOSE) continue;
+            append.failure = failure;
+            append.complete();
+        }
+    }
+
+    /**
+     * A command waiting to be written, only accessed by the writer thread until it is completed.
+     */
+    private static final class PendingAppend {
+
+        private final Command command;
+
+        private final CompletableFuture<Long> future;
+
+        private long sequence;
+
+        private RuntimeException failure;
+
+        private PendingAppend(Command command) {
+            this.command = command;
+            this.future = new CompletableFuture<>();
+        }
+
+        private void complete() {
+            if(this == CLOSE) return;
+            if(failure != null) {
+                future.completeExceptionally(failure);
+            } else {
+                future.complete(sequence);
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,111 @@
+package dev.sergheev.commandbus.journal;
+
+import dev.sergheev.commandbus.codec.CommandCodec;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A simple fluent API builder for the construction of a {@link CommandJournal}.
+ */
+public final class CommandJournalBuilder {
+
+    /**
+     * The default size of the segments, in bytes.
+     */
+    public static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+
+    /**
+     * The default maximum amount of commands written at once.
+     */
+    public static final int DEFAULT_MAX_BATCH_SIZE = 1024;
+
+    /**
+     * A static factory method for the creation of a new {@code CommandJournalBuilder} instance.
+     * @param directory the directory that holds (or is to hold) the segments of the journal
+     * @param codec the codec of the journaled commands
+     * @throws NullPointerException if the {@code directory} or {@code codec} are {@code null}
+     * @return a new {@link CommandJournalBuilder} instance
+     */
+    public static CommandJournalBuilder create(Path directory, CommandCodec codec) throws NullPointerException {
+        requireNonNull(directory, "directory must not be null");
+        requireNonNull(codec, "codec must not be null");
+        return new CommandJournalBuilder(directory, codec);
+    }
+
+    private final Path directory;
+
+    private final CommandCodec codec;
+
+    private int segmentSize;
+
+    private FsyncPolicy fsyncPolicy;
+
+    private int maxBatchSize;
+
+    private CommandJournalBuilder(Path directory, CommandCodec codec) {
+        this.directory = directory;
+        this.codec = codec;
+        this.segmentSize = DEFAULT_SEGMENT_SIZE;
+        this.fsyncPolicy = FsyncPolicy.interval(100, TimeUnit.MILLISECONDS);
+        this.maxBatchSize = DEFAULT_MAX_BATCH_SIZE;
+    }
+
+    /**
+     * Rolls the journal over to a new segment once a segment of the given size is full. The size of the
+     * existing segments is kept when the journal is reopened.
+     * @param segmentSize the size of the segments, in bytes ({@value #DEFAULT_SEGMENT_SIZE} by default)
+     * @throws IllegalArgumentException if the {@code segmentSize} is below {@code 64} bytes
+     * @return the current {@link CommandJournalBuilder} instance
+     */
+    public CommandJournalBuilder withSegmentSize(int segmentSize) throws IllegalArgumentException {
+        if(segmentSize < 64) throw new IllegalArgumentException("segmentSize must be at least 64 bytes");
+        this.segmentSize = segmentSize;
+        return this;
+    }
+
+    /**
+     * Forces the written commands to the storage device according to the given policy (every {@code 100}
+     * milliseconds by default).
+     * @param fsyncPolicy defines when the written commands are forced
+     * @throws NullPointerException if the given {@code fsyncPolicy} is {@code null}
+     * @return the current {@link CommandJournalBuilder} instance
+     */
+    public CommandJournalBuilder withFsyncPolicy(FsyncPolicy fsyncPolicy) throws NullPointerException {
+        requireNonNull(fsyncPolicy, "fsyncPolicy must not be null");
+        this.fsyncPolicy = fsyncPolicy;
+        return this;
+    }
+
+    /**
+     * Writes up to the given amount of concurrently appended commands at once, covered by a single force.
+     * @param maxBatchSize the maximum amount of commands written at once ({@value #DEFAULT_MAX_BATCH_SIZE} by default)
+     * @throws IllegalArgumentException if the {@code maxBatchSize} is not positive
+     * @return the current {@link CommandJournalBuilder} instance
+     */
+    public CommandJournalBuilder withMaxBatchSize(int maxBatchSize) throws IllegalArgumentException {
+        if(maxBatchSize <= 0) throw new IllegalArgumentException("maxBatchSize must be positive");
+        this.maxBatchSize = maxBatchSize;
+        return this;
+    }
+
+    /**
+     * Opens the journal configured accordingly, creating its directory if needed, and continuing
+     * after the last valid record if it already holds segments.
+     * @throws IllegalStateException if the directory or its segments cannot be opened
+     * @return a new open {@link CommandJournal} instance
+     */
+    public CommandJournal open() throws IllegalStateException {
+        try {
+            Files.createDirectories(directory);
+            return new CommandJournal(directory, codec, segmentSize, fsyncPolicy, maxBatchSize);
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to open the journal in " + directory, e);
+        }
+    }
+
+}
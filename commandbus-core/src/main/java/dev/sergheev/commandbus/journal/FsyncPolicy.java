@@ -0,0 +1,72 @@
+package dev.sergheev.commandbus.journal;
+
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Defines when the appended commands are forced to the storage device, trading the commands
+ * that may be lost on a power failure for throughput. A crash of the process alone never loses
+ * the appended commands, as they are written to memory-mapped files.
+ */
+public final class FsyncPolicy {
+
+    private static final FsyncPolicy EVERY_WRITE = new FsyncPolicy(0L);
+
+    private static final FsyncPolicy OS_MANAGED = new FsyncPolicy(-1L);
+
+    /**
+     * Zero to force every write, a negative value to never force, otherwise the interval in nanoseconds.
+     */
+    private final long intervalNanos;
+
+    private FsyncPolicy(long intervalNanos) {
+        this.intervalNanos = intervalNanos;
+    }
+
+    /**
+     * Returns a policy that forces every group of commands written at once before their appends return,
+     * so no appended command is ever lost. The writes of the concurrently appended commands are grouped.
+     * @return a policy that forces every write
+     */
+    public static FsyncPolicy everyWrite() {
+        return EVERY_WRITE;
+    }
+
+    /**
+     * Returns a policy that forces the written commands at most once per the given interval, so the
+     * commands appended during the last interval may be lost.
+     * @param interval the interval between forces
+     * @param unit the unit of the {@code interval}
+     * @throws IllegalArgumentException if the {@code interval} is not positive
+     * @throws NullPointerException if the given {@code unit} is {@code null}
+     * @return a policy that forces the written commands periodically
+     */
+    public static FsyncPolicy interval(long interval, TimeUnit unit) throws IllegalArgumentException, NullPointerException {
+        if(interval <= 0) throw new IllegalArgumentException("interval must be positive");
+        requireNonNull(unit, "unit must not be null");
+        return new FsyncPolicy(unit.toNanos(interval));
+    }
+
+    /**
+     * Returns a policy that leaves forcing the written commands to the operating system, and only forces
+     * them when a segment is complete and when the journal is closed.
+     * @return a policy that leaves forcing the written commands to the operating system
+     */
+    public static FsyncPolicy osManaged() {
+        return OS_MANAGED;
+    }
+
+    boolean isEveryWrite() {
+        return intervalNanos == 0;
+    }
+
+    boolean isOsManaged() {
+        return intervalNanos < 0;
+    }
+
+    long intervalNanos() {
+        return intervalNanos;
+    }
+
+}
@@ -0,0 +1,379 @@
+package dev.sergheev.commandbus.journal;
+
+import dev.sergheev.commandbus.Command;
+import dev.sergheev.commandbus.CommandBus;
+import dev.sergheev.commandbus.PartitionedCommand;
+import dev.sergheev.commandbus.codec.CommandCodec;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Pushes the commands of a journal back through a bus, to recover after a crash or to rebuild a read model.
+ *
+ * <p>A single thread reads the segments sequentially (through their memory mappings) and decodes
+ * the commands, which are handled in parallel by a fixed amount of lanes: the commands with equal
+ * partition keys always go to the same lane, whose commands are handled one at a time in journal
+ * order, so the order per partition key is preserved. By default, the key of a {@link PartitionedCommand}
+ * is its {@link PartitionedCommand#partitionKey()}, and the other commands are spread across the lanes
+ * with no ordering guarantee.
+ *
+ * <p>With a checkpoint file, the replay waits every given amount of commands until all the lanes are
+ * idle, and then records the sequence up to which all the commands have been handled. A replay that is
+ * interrupted (i.e. a handler throws) resumes after the recorded sequence, so the commands handled since
+ * the last checkpoint are handled again. The bus the commands are replayed into should not journal them.
+ */
+public final class JournalReplay {
+
+    /**
+     * The default amount of commands between checkpoints.
+     */
+    public static final int DEFAULT_CHECKPOINT_INTERVAL = 100_000;
+
+    /**
+     * The default maximum amount of commands waiting in every lane.
+     */
+    public static final int DEFAULT_LANE_CAPACITY = 1024;
+
+    /**
+     * A static factory method for the creation of a new {@code JournalReplay} instance.
+     * @param directory the directory that holds the segments of the journal
+     * @param codec the codec of the journaled commands
+     * @throws NullPointerException if the {@code directory} or {@code codec} are {@code null}
+     * @return a new {@link JournalReplay} instance
+     */
+    public static JournalReplay create(Path directory, CommandCodec codec) throws NullPointerException {
+        requireNonNull(directory, "directory must not be null");
+        requireNonNull(codec, "codec must not be null");
+        return new JournalReplay(directory, codec);
+    }
+
+    private final Path directory;
+
+    private final CommandCodec codec;
+
+    private int parallelism;
+
+    private int laneCapacity;
+
+    private Function<? super Command, ?> partitionKeyExtractor;
+
+    /**
+     * The file that holds the sequence of the last checkpoint, or {@code null} if checkpointing is disabled.
+     */
+    private Path checkpointFile;
+
+    private int checkpointInterval;
+
+    private Consumer<ReplayStats> progressListener;
+
+    private JournalReplay(Path directory, CommandCodec codec) {
+        this.directory = directory;
+        this.codec = codec;
+        this.parallelism = Runtime.getRuntime().availableProcessors();
+        this.laneCapacity = DEFAULT_LANE_CAPACITY;
+        this.partitionKeyExtractor = command -> command instanceof PartitionedCommand ? ((PartitionedCommand) command).partitionKey() : null;
+        this.checkpointFile = null;
+        this.checkpointInterval = DEFAULT_CHECKPOINT_INTERVAL;
+        this.progressListener = null;
+    }
+
+    /**
+     * Handles the commands in the given amount of lanes (as many as available processors by default).
+     * @param parallelism the amount of lanes
+     * @throws IllegalArgumentException if the {@code parallelism} is not positive
+     * @return the current {@link JournalReplay} instance
+     */
+    public JournalReplay withParallelism(int parallelism) throws IllegalArgumentException {
+        if(parallelism <= 0) throw new IllegalArgumentException("parallelism must be positive");
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    /**
+     * Keeps up to the given amount of commands waiting in every lane, the reading thread waits for room when it is full.
+     * @param laneCapacity the maximum amount of commands waiting in every lane ({@value #DEFAULT_LANE_CAPACITY} by default)
+     * @throws IllegalArgumentException if the {@code laneCapacity} is not positive
+     * @return the current {@link JournalReplay} instance
+     */
+    public JournalReplay withLaneCapacity(int laneCapacity) throws IllegalArgumentException {
+        if(laneCapacity <= 0) throw new IllegalArgumentException("laneCapacity must be positive");
+        this.laneCapacity = laneCapacity;
+        return this;
+    }
+
+    /**
+     * Preserves the order of the commands whose keys, as returned by the given extractor, are equal. The commands
+     * whose key is {@code null} are spread across the lanes with no ordering guarantee.
+     * @param partitionKeyExtractor returns the partition key of a command, or {@code null} if it has none
+     * @throws NullPointerException if the given {@code partitionKeyExtractor} is {@code null}
+     * @return the current {@link JournalReplay} instance
+     */
+    public JournalReplay withPartitionKey(Function<? super Command, ?> partitionKeyExtractor) throws NullPointerException {
+        requireNonNull(partitionKeyExtractor, "partitionKeyExtractor must not be null");
+        this.partitionKeyExtractor = partitionKeyExtractor;
+        return this;
+    }
+
+    /**
+     * Records the progress of the replay into the given file every given amount of commands, and resumes after the
+     * sequence recorded in the file if it exists.
+     * @param checkpointFile the file that holds the sequence of the last checkpoint
+     * @param checkpointInterval the amount of commands between checkpoints
+     * @throws NullPointerException if the given {@code checkpointFile} is {@code null}
+     * @throws IllegalArgumentException if the {@code checkpointInterval} is not positive
+     * @return the current {@link JournalReplay} instance
+     */
+    public JournalReplay withCheckpoint(Path checkpointFile, int checkpointInterval) throws NullPointerException, IllegalArgumentException {
+        requireNonNull(checkpointFile, "checkpointFile must not be null");
+        if(checkpointInterval <= 0) throw new IllegalArgumentException("checkpointInterval must be positive");
+        this.checkpointFile = checkpointFile;
+        this.checkpointInterval = checkpointInterval;
+        return this;
+    }
+
+    /**
+     * Reports the progress of the replay to the given listener at every checkpoint (every {@value #DEFAULT_CHECKPOINT_INTERVAL}
+     * commands if there is no checkpoint file), from the reading thread.
+     * @param progressListener the listener of the progress of the replay
+     * @throws NullPointerException if the given {@code progressListener} is {@code null}
+     * @return the current {@link JournalReplay} instance
+     */
+    public JournalReplay withProgressListener(Consumer<ReplayStats> progressListener) throws NullPointerException {
+        requireNonNull(progressListener, "progressListener must not be null");
+        this.progressListener = progressListener;
+        return this;
+    }
+
+    /**
+     * Replays the commands of the journal (after the last checkpoint, if any) into the given bus, and returns once all
+     * of them have been handled. The commands appended to the journal while it is replayed may not be replayed.
+     * @param bus the bus that is to handle the commands
+     * @throws NullPointerException if the given {@code bus} is {@code null}
+     * @throws IllegalStateException if the journal or the checkpoint cannot be read or written
+     * @throws IllegalStateException if a command cannot be handled, the cause being the failure of the handler
+     * @return the statistics of the complete replay
+     */
+    public ReplayStats replayInto(CommandBus bus) throws NullPointerException, IllegalStateException {
+        requireNonNull(bus, "bus must not be null");
+        final long startNanos = System.nanoTime();
+        final long resumedSequence = readCheckpoint();
+        final Lanes lanes = new Lanes(bus, parallelism, laneCapacity);
+        long dispatchedSequence = resumedSequence;
+        long sinceCheckpoint = 0;
+        try {
+            for(Path path : JournalSegment.list(directory)) {
+                final JournalSegment segment = JournalSegment.open(path, false);
+                try {
+                    if(segment.baseSequence() + segment.recordCount() <= resumedSequence + 1) continue;
+                    if(segment.baseSequence() > dispatchedSequence + 1) throw new IllegalStateException("The journal has no command " + (dispatchedSequence + 1) + " (missing segment before " + path + ")");
+                    long sequence = segment.baseSequence();
+                    int position = JournalSegment.HEADER_SIZE;
+                    for(int length = segment.recordLengthAt(position); length > 0; length = segment.recordLengthAt(position), sequence++) {
+                        if(sequence > resumedSequence) {
+                            final Command command = codec.decode(segment.recordAt(position, length));
+                            lanes.dispatch(sequence, command, partitionKeyExtractor.apply(command));
+                            dispatchedSequence = sequence;
+                            if(++sinceCheckpoint == checkpointInterval) {
+                                lanes.awaitIdle();
+                                checkpoint(dispatchedSequence, lanes.completedCount(), startNanos);
+                                sinceCheckpoint = 0;
+                            }
+                        }
+                        position += JournalSegment.RECORD_HEADER_SIZE + length;
+                    }
+                } finally {
+                    segment.close();
+                }
+            }
+            lanes.awaitIdle();
+            if(sinceCheckpoint > 0) checkpoint(dispatchedSequence, lanes.completedCount(), startNanos);
+            return new ReplayStats(lanes.completedCount(), dispatchedSequence, System.nanoTime() - startNanos);
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to read the journal in " + directory, e);
+        } finally {
+            lanes.stop();
+        }
+    }
+
+    private long readCheckpoint() throws IllegalStateException {
+        if(checkpointFile == null || !Files.exists(checkpointFile)) return 0L;
+        try {
+            return Long.parseLong(new String(Files.readAllBytes(checkpointFile), StandardCharsets.UTF_8).trim());
+        } catch (IOException | NumberFormatException e) {
+            throw new IllegalStateException("Unable to read the checkpoint " + checkpointFile, e);
+        }
+    }
+
+    /**
+     * Records that all the commands up to the given sequence have been handled, replacing the checkpoint file atomically.
+     */
+    private void checkpoint(long sequence, long replayedCount, long startNanos) throws IllegalStateException {
+        if(checkpointFile != null) {
+            final Path temporaryFile = checkpointFile.resolveSibling(checkpointFile.getFileName() + ".tmp");
+            try {
+                Files.write(temporaryFile, Long.toString(sequence).getBytes(StandardCharsets.UTF_8));
+                Files.move(temporaryFile, checkpointFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                throw new IllegalStateException("Unable to write the checkpoint " + checkpointFile, e);
+            }
+        }
+        if(progressListener != null) progressListener.accept(new ReplayStats(replayedCount, sequence, System.nanoTime() - startNanos));
+    }
+
+    /**
+     * The lanes that handle the commands, each on a thread of its own.
+     */
+    private static final class Lanes {
+
+        /**
+         * Stops the thread of a lane.
+         */
+        private static final Record STOP = new Record(0L, null);
+
+        private final CommandBus bus;
+
+        private final List<BlockingQueue<Record>> queues;
+
+        private final List<Thread> threads;
+
+        private final AtomicLong completedCount;
+
+        private final AtomicReference<IllegalStateException> failure;
+
+        /**
+         * The amount of dispatched commands, only accessed by the reading thread.
+         */
+        private long dispatchedCount;
+
+        /**
+         * Picks the lane of the commands without partition key.
+         */
+        private int nextLane;
+
+        private Lanes(CommandBus bus, int parallelism, int laneCapacity) {
+            this.bus = bus;
+            this.queues = new ArrayList<>(parallelism);
+            this.threads = new ArrayList<>(parallelism);
+            this.completedCount = new AtomicLong();
+            this.failure = new AtomicReference<>();
+            for(int i = 0; i < parallelism; i++) {
+                final BlockingQueue<Record> queue = new ArrayBlockingQueue<>(laneCapacity);
+                final Thread thread = new Thread(() -> handle(queue), "commandbus-replay-" + i);
+                thread.setDaemon(true);
+                queues.add(queue);
+                threads.add(thread);
+            }
+            threads.forEach(Thread::start);
+        }
+
+        private void dispatch(long sequence, Command command, Object partitionKey) throws IllegalStateException {
+            throwIfFailed();
+            final int lane;
+            if(partitionKey == null) {
+                lane = nextLane;
+                nextLane = (nextLane + 1) % queues.size();
+            } else {
+                final int hash = partitionKey.hashCode();
+                lane = Math.floorMod(hash ^ (hash >>> 16), queues.size());
+            }
+            put(queues.get(lane), new Record(sequence, command));
+            dispatchedCount++;
+        }
+
+        /**
+         * Waits until all the dispatched commands have been handled.
+         * @throws IllegalStateException if a command could not be handled
+         */
+        private void awaitIdle() throws IllegalStateException {
+            while(completedCount.get() < dispatchedCount) {
+                throwIfFailed();
+                LockSupport.parkNanos(100_000L);
+            }
+            throwIfFailed();
+        }
+
+        private long completedCount() {
+            return completedCount.get();
+        }
+
+        private void stop() {
+            for(BlockingQueue<Record> queue : queues) {
+                queue.clear();
+                put(queue, STOP);
+            }
+            for(Thread thread : threads) {
+                try {
+                    thread.join();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+
+        private void handle(BlockingQueue<Record> queue) {
+            while(true) {
+                final Record record;
+                try {
+                    record = queue.take();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                if(record == STOP) return;
+                // Once a command failed, the rest are discarded until the replay stops
+                if(failure.get() != null) continue;
+                try {
+                    bus.execute(record.command);
+                    completedCount.incrementAndGet();
+                } catch (Throwable t) {
+                    failure.compareAndSet(null, new IllegalStateException("Unable to replay the command " + record.sequence, t));
+                }
+            }
+        }
+
+        private void put(BlockingQueue<Record> queue, Record record) throws IllegalStateException {
+            try {
+                while(!queue.offer(record, 10, TimeUnit.MILLISECONDS)) throwIfFailed();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while replaying the journal", e);
+            }
+        }
+
+        private void throwIfFailed() throws IllegalStateException {
+            final IllegalStateException exception = failure.get();
+            if(exception != null) throw exception;
+        }
+
+    }
+
+    private static final class Record {
+
+        private final long sequence;
+
+        private final Command command;
+
+        private Record(long sequence, Command command) {
+            this.sequence = sequence;
+            this.command = command;
+        }
+
+    }
+
+}
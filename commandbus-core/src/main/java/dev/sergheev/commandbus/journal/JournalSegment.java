@@ -0,0 +1,223 @@
+package dev.sergheev.commandbus.journal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * A memory-mapped file of the journal, holding the records of consecutive sequences.
+ *
+ * <p>A segment starts with a header (a magic number, the format version and the sequence
+ * of its first record), followed by the records: the length of the encoded command, its
+ * CRC32 checksum and the encoded command. The length is written last, so a record whose
+ * length is zero (as the file is initially filled with zeros) marks the end of the segment,
+ * and a record that was being written when the process crashed fails its checksum.
+ *
+ * <p>Segments are named after the sequence of their first record, so they sort in order.
+ */
+final class JournalSegment {
+
+    static final String FILE_SUFFIX = ".journal";
+
+    static final int MAGIC = 0x434D444A;
+
+    static final int VERSION = 1;
+
+    static final int HEADER_SIZE = 16;
+
+    static final int RECORD_HEADER_SIZE = 8;
+
+    private final Path path;
+
+    private final FileChannel channel;
+
+    private final MappedByteBuffer buffer;
+
+    /**
+     * The sequence of the first record of this segment.
+     */
+    private final long baseSequence;
+
+    /**
+     * The position of the next record.
+     */
+    private int writePosition;
+
+    /**
+     * The amount of records of this segment.
+     */
+    private int recordCount;
+
+    private JournalSegment(Path path, FileChannel channel, MappedByteBuffer buffer, long baseSequence) {
+        this.path = path;
+        this.channel = channel;
+        this.buffer = buffer;
+        this.baseSequence = baseSequence;
+        this.writePosition = HEADER_SIZE;
+        this.recordCount = 0;
+    }
+
+    /**
+     * Creates a new empty segment of the given size, whose first record will have the given sequence.
+     */
+    static JournalSegment create(Path directory, long baseSequence, int segmentSize) throws IOException {
+        final Path path = directory.resolve(String.format("%020d%s", baseSequence, FILE_SUFFIX));
+        final FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, VERSION);
+            buffer.putLong(8, baseSequence);
+            return new JournalSegment(path, channel, buffer, baseSequence);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Opens an existing segment, positioned after its last valid record. The bytes of a record that
+     * was being written when the process crashed are cleared, so they are overwritten by the next record.
+     * @throws IOException if the file cannot be mapped, or is not a segment
+     */
+    static JournalSegment open(Path path, boolean writable) throws IOException {
+        final FileChannel channel = writable
+                ? FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)
+                : FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            final long size = channel.size();
+            if(size < HEADER_SIZE || size > Integer.MAX_VALUE) throw new IOException("The file " + path + " is not a journal segment");
+            final MappedByteBuffer buffer = channel.map(writable ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY, 0, size);
+            if(buffer.getInt(0) != MAGIC) throw new IOException("The file " + path + " is not a journal segment");
+            if(buffer.getInt(4) != VERSION) throw new IOException("The journal segment " + path + " has an unsupported version " + buffer.getInt(4));
+            final JournalSegment segment = new JournalSegment(path, channel, buffer, buffer.getLong(8));
+            segment.recover(writable);
+            return segment;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the segment files of the given directory, sorted by their first sequence.
+     */
+    static List<Path> list(Path directory) throws IOException {
+        final List<Path> paths = new ArrayList<>();
+        try(DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + FILE_SUFFIX)) {
+            stream.forEach(paths::add);
+        }
+        Collections.sort(paths);
+        return paths;
+    }
+
+    private void recover(boolean writable) {
+        int position = HEADER_SIZE;
+        int count = 0;
+        while(true) {
+            final int length = recordLengthAt(position);
+            if(length <= 0) break;
+            position += RECORD_HEADER_SIZE + length;
+            count++;
+        }
+        this.writePosition = position;
+        this.recordCount = count;
+        if(writable && position + 4 <= buffer.capacity() && buffer.getInt(position) != 0) {
+            // A torn record, clear it all
+            for(int i = position; i < buffer.capacity(); i++) buffer.put(i, (byte) 0);
+        }
+    }
+
+    /**
+     * Returns the length of the valid record at the given position, or {@code -1} if there is none.
+     */
+    int recordLengthAt(int position) {
+        if(position + RECORD_HEADER_SIZE > buffer.capacity()) return -1;
+        final int length = buffer.getInt(position);
+        if(length <= 0 || length > buffer.capacity() - position - RECORD_HEADER_SIZE) return -1;
+        return checksumOf(position + RECORD_HEADER_SIZE, length) == buffer.getInt(position + 4) ? length : -1;
+    }
+
+    /**
+     * Returns a view of this segment positioned at the start of the next record, limited to the end of the segment.
+     */
+    ByteBuffer writeView() {
+        final ByteBuffer view = buffer.duplicate();
+        view.position(writePosition + RECORD_HEADER_SIZE);
+        return view;
+    }
+
+    /**
+     * Completes the record whose encoded command ends at the given position of the view returned by {@link #writeView()}.
+     * @throws IllegalArgumentException if the encoded command is empty
+     * @return the sequence of the record
+     */
+    long commit(int endPosition) throws IllegalArgumentException {
+        final int length = endPosition - writePosition - RECORD_HEADER_SIZE;
+        if(length <= 0) throw new IllegalArgumentException("The codec wrote no bytes");
+        buffer.putInt(writePosition + 4, checksumOf(writePosition + RECORD_HEADER_SIZE, length));
+        buffer.putInt(writePosition, length);
+        writePosition = endPosition;
+        return baseSequence + recordCount++;
+    }
+
+    /**
+     * Returns a read-only view of the given encoded command.
+     */
+    ByteBuffer recordAt(int position, int length) {
+        final ByteBuffer view = buffer.asReadOnlyBuffer();
+        view.limit(position + RECORD_HEADER_SIZE + length);
+        view.position(position + RECORD_HEADER_SIZE);
+        return view;
+    }
+
+    private int checksumOf(int position, int length) {
+        final ByteBuffer view = buffer.duplicate();
+        view.limit(position + length);
+        view.position(position);
+        final CRC32 checksum = new CRC32();
+        checksum.update(view);
+        return (int) checksum.getValue();
+    }
+
+    void force() {
+        buffer.force();
+    }
+
+    void close() throws IOException {
+        channel.close();
+    }
+
+    Path path() {
+        return path;
+    }
+
+    long baseSequence() {
+        return baseSequence;
+    }
+
+    int recordCount() {
+        return recordCount;
+    }
+
+    /**
+     * Returns the sequence of the next record appended to this segment.
+     */
+    long nextSequence() {
+        return baseSequence + recordCount;
+    }
+
+    int capacity() {
+        return buffer.capacity();
+    }
+
+}
@@ -0,0 +1,71 @@
+package dev.sergheev.commandbus.journal;
+
+import dev.sergheev.commandbus.BatchCommandHandler;
+import dev.sergheev.commandbus.Command;
+import dev.sergheev.commandbus.CommandHandler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * A handler that appends every command to the journal before handing it over to the decorated handler.
+ */
+class JournalingCommandHandler<C extends Command, R> implements CommandHandler<C, R> {
+
+    final CommandHandler<C, R> handler;
+
+    final CommandJournal journal;
+
+    JournalingCommandHandler(CommandHandler<C, R> handler, CommandJournal journal) {
+        this.handler = handler;
+        this.journal = journal;
+    }
+
+    /**
+     * Returns a handler that journals the commands of the given handler, which keeps processing
+     * groups of commands at once if the handler is a {@link BatchCommandHandler}.
+     */
+    static <C extends Command, R> CommandHandler<C, R> journal(CommandHandler<C, R> handler, CommandJournal journal) {
+        if(handler instanceof BatchCommandHandler) {
+            return new JournalingBatchCommandHandler<>((BatchCommandHandler<C, R>) handler, journal);
+        }
+        return new JournalingCommandHandler<>(handler, journal);
+    }
+
+    @Override
+    public R handle(C command) {
+        journal.append(command);
+        return handler.handle(command);
+    }
+
+    /**
+     * A handler in front of a {@link BatchCommandHandler}, that appends all the commands of a group at
+     * once (so they share the same group commit) before handing them over to the decorated handler.
+     */
+    private static final class JournalingBatchCommandHandler<C extends Command, R>
+            extends JournalingCommandHandler<C, R> implements BatchCommandHandler<C, R> {
+
+        private JournalingBatchCommandHandler(BatchCommandHandler<C, R> handler, CommandJournal journal) {
+            super(handler, journal);
+        }
+
+        @Override
+        public List<R> handleAll(List<C> commands) {
+            final List<CompletableFuture<Long>> appends = new ArrayList<>(commands.size());
+            for(C command : commands) appends.add(journal.appendAsync(command));
+            try {
+                CompletableFuture.allOf(appends.toArray(new CompletableFuture[0])).join();
+            } catch (CompletionException e) {
+                final Throwable cause = e.getCause();
+                if(cause instanceof RuntimeException) throw (RuntimeException) cause;
+                if(cause instanceof Error) throw (Error) cause;
+                throw e;
+            }
+            return ((BatchCommandHandler<C, R>) handler).handleAll(commands);
+        }
+
+    }
+
+}
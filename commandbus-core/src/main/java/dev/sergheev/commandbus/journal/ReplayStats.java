@@ -0,0 +1,60 @@
+package dev.sergheev.commandbus.journal;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An immutable point-in-time view of the progress of a {@link JournalReplay}.
+ */
+public final class ReplayStats {
+
+    private final long replayedCount;
+
+    private final long lastSequence;
+
+    private final long elapsedNanos;
+
+    ReplayStats(long replayedCount, long lastSequence, long elapsedNanos) {
+        this.replayedCount = replayedCount;
+        this.lastSequence = lastSequence;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Returns the amount of commands handled by the replay (the ones before the checkpoint it resumed from excluded).
+     * @return the amount of commands handled by the replay
+     */
+    public long replayedCount() {
+        return replayedCount;
+    }
+
+    /**
+     * Returns the sequence up to which all the commands of the journal have been handled.
+     * @return the sequence up to which all the commands have been handled, or {@code 0} if there is none
+     */
+    public long lastSequence() {
+        return lastSequence;
+    }
+
+    /**
+     * Returns the time elapsed since the replay started.
+     * @param unit the unit of the returned time
+     * @return the time elapsed since the replay started
+     */
+    public long elapsed(TimeUnit unit) {
+        return unit.convert(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Returns the replay rate, in commands per second.
+     * @return the replay rate, in commands per second
+     */
+    public double commandsPerSecond() {
+        return elapsedNanos == 0 ? 0.0 : replayedCount * 1e9 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "ReplayStats{replayed=" + replayedCount + ", lastSequence=" + lastSequence + ", commandsPerSecond=" + Math.round(commandsPerSecond()) + "}";
+    }
+
+}
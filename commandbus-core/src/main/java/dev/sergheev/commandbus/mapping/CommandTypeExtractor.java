@@ -0,0 +1,42 @@
+package dev.sergheev.commandbus.mapping;
+
+import dev.sergheev.commandbus.Command;
+
+import java.util.LinkedList;
+import java.util.List;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A simple decorator for {@link CommandMappingExtractor} that extracts all the
+ * command types (concrete {@link Command} classes) from {@link CommandMapping}
+ * annotations present in that class.
+ */
+public class CommandTypeExtractor {
+
+    /**
+     * Extracts command mappings from a given class.
+     */
+    private final CommandMappingExtractor mappingExtractor;
+
+    public CommandTypeExtractor() {
+        this.mappingExtractor = new CommandMappingExtractor();
+    }
+
+    /**
+     * Extracts a list of command types present in the mappings of a given class.
+     * @param givenClass the given class in which command types are to be searched
+     * @throws NullPointerException if {@code givenClass} is {@code null}
+     * @return a list of command types associated to {@code givenClass}
+     */
+    public List<Class<? extends Command>> extractCommandTypesFor(Class<?> givenClass) {
+        requireNonNull(givenClass, "givenClass must not be null");
+        final List<Class<? extends Command>> commandTypes = new LinkedList<>();
+        final List<CommandMapping> mappings = mappingExtractor.extractMappingsFrom(givenClass);
+        mappings.forEach(mapping -> {
+            if(mapping.value() != Command.class) commandTypes.add(mapping.value());
+        });
+        return commandTypes;
+    }
+
+}
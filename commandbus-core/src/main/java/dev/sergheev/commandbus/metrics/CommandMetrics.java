@@ -0,0 +1,113 @@
+package dev.sergheev.commandbus.metrics;
+
+import dev.sergheev.commandbus.Command;
+import dev.sergheev.commandbus.CommandHandler;
+import dev.sergheev.commandbus.registry.CommandHandlerDecorator;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Records, per command type, the invocation count, the error count, the amount
+ * of in-flight commands and a latency histogram of the handlers.
+ *
+ * <p>As a {@link CommandHandlerDecorator}, the metrics of each command type are
+ * bound to its handler when the handler is registered, so recording does not
+ * involve any lookup. Recording only updates low-contention structures (adders
+ * and a striped histogram), and the recorded values are read through a
+ * {@link MetricsSnapshot} that may be taken at any time from any thread.
+ *
+ * <p>Timing a command requires reading the clock twice, which is the dominant
+ * recording cost: timing every command adds around a hundred nanoseconds per
+ * dispatch, a multiple of the cost of the dispatch itself. Latencies are therefore
+ * sampled by default, timing only one out of every {@value #DEFAULT_LATENCY_SAMPLING}
+ * commands picked at random, while the counters keep covering every command. Use
+ * {@link #CommandMetrics(int) CommandMetrics(1)} to time every command.
+ */
+@SuppressWarnings({ "rawtypes", "unchecked" })
+public class CommandMetrics implements CommandHandlerDecorator {
+
+    /**
+     * The maximum default amount of histogram stripes per command type.
+     */
+    private static final int MAX_DEFAULT_STRIPES = 8;
+
+    /**
+     * One out of this amount of commands is timed by default.
+     */
+    public static final int DEFAULT_LATENCY_SAMPLING = 16;
+
+    /**
+     * Associates every instrumented command type to its metrics.
+     */
+    private final ConcurrentMap<Class<? extends Command>, CommandTypeMetrics> commandTypeToMetrics;
+
+    /**
+     * The amount of histogram stripes of every command type.
+     */
+    private final int stripes;
+
+    /**
+     * One out of this amount of commands is timed.
+     */
+    private final int latencySampling;
+
+    /**
+     * Constructs a new {@link CommandMetrics} instance that times one out of every {@value #DEFAULT_LATENCY_SAMPLING}
+     * commands, with as many histogram stripes as available processors (up to {@value #MAX_DEFAULT_STRIPES}).
+     */
+    public CommandMetrics() {
+        this(DEFAULT_LATENCY_SAMPLING);
+    }
+
+    /**
+     * Constructs a new {@link CommandMetrics} instance that times one out of every {@code latencySampling}
+     * commands, with as many histogram stripes as available processors (up to {@value #MAX_DEFAULT_STRIPES}).
+     * @param latencySampling one out of this amount of commands is timed, {@code 1} to time every command
+     * @throws IllegalArgumentException if {@code latencySampling} is not a positive power of two
+     */
+    public CommandMetrics(int latencySampling) throws IllegalArgumentException {
+        this(Math.min(MAX_DEFAULT_STRIPES, Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1)), latencySampling);
+    }
+
+    /**
+     * Constructs a new {@link CommandMetrics} instance.
+     * @param stripes the amount of histogram stripes of every command type (more stripes reduce the contention
+     *                between concurrently recording threads, at the expense of memory)
+     * @param latencySampling one out of this amount of commands is timed, {@code 1} to time every command
+     * @throws IllegalArgumentException if {@code stripes} is not a positive power of two
+     * @throws IllegalArgumentException if {@code latencySampling} is not a positive power of two
+     */
+    public CommandMetrics(int stripes, int latencySampling) throws IllegalArgumentException {
+        if(stripes <= 0 || Integer.bitCount(stripes) != 1) throw new IllegalArgumentException("stripes must be a positive power of two");
+        if(latencySampling <= 0 || Integer.bitCount(latencySampling) != 1) throw new IllegalArgumentException("latencySampling must be a positive power of two");
+        this.commandTypeToMetrics = new ConcurrentHashMap<>();
+        this.stripes = stripes;
+        this.latencySampling = latencySampling;
+    }
+
+    /**
+     * Returns the given handler wrapped into a handler that records the metrics of the given command type.
+     * @param commandType the type of the command the handler is registered for
+     * @param handler the registered handler instance
+     * @return a handler that records the metrics of the given command type
+     */
+    @Override
+    public CommandHandler decorate(Class<? extends Command> commandType, CommandHandler handler) {
+        final CommandTypeMetrics metrics = commandTypeToMetrics.computeIfAbsent(commandType, type -> new CommandTypeMetrics(type, stripes, latencySampling));
+        return InstrumentedCommandHandler.instrument(handler, metrics);
+    }
+
+    /**
+     * Returns a point-in-time view of the metrics recorded so far.
+     * @return a point-in-time view of the metrics recorded so far
+     */
+    public MetricsSnapshot snapshot() {
+        final Map<Class<? extends Command>, CommandTypeSnapshot> commandTypeToSnapshot = new LinkedHashMap<>();
+        commandTypeToMetrics.forEach((commandType, metrics) -> commandTypeToSnapshot.put(commandType, metrics.snapshot()));
+        return new MetricsSnapshot(commandTypeToSnapshot);
+    }
+
+}
@@ -0,0 +1,94 @@
+package dev.sergheev.commandbus.metrics;
+
+import dev.sergheev.commandbus.Command;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The metrics recorded for a single command type.
+ *
+ * <p>Counters are exact, while latencies may be sampled: reading the clock is
+ * usually the most expensive part of recording, so only one out of every
+ * {@code latencySampling} commands (picked at random) is timed.
+ */
+final class CommandTypeMetrics {
+
+    private final Class<? extends Command> commandType;
+
+    private final LongAdder started;
+
+    private final LongAdder completed;
+
+    private final LongAdder errors;
+
+    private final LatencyHistogram latencies;
+
+    /**
+     * Zero when every command is timed, otherwise the mask of the random value that selects the timed commands.
+     */
+    private final int latencySamplingMask;
+
+    CommandTypeMetrics(Class<? extends Command> commandType, int stripes, int latencySampling) {
+        this.commandType = commandType;
+        this.started = new LongAdder();
+        this.completed = new LongAdder();
+        this.errors = new LongAdder();
+        this.latencies = new LatencyHistogram(stripes);
+        this.latencySamplingMask = latencySampling - 1;
+    }
+
+    /**
+     * Records the start of a command, returning {@code true} if its latency is to be recorded.
+     */
+    boolean onStart() {
+        started.increment();
+        return latencySamplingMask == 0 || (ThreadLocalRandom.current().nextInt() & latencySamplingMask) == 0;
+    }
+
+    void onError() {
+        errors.increment();
+    }
+
+    void onComplete() {
+        completed.increment();
+    }
+
+    void onComplete(long nanos) {
+        completed.increment();
+        latencies.record(nanos);
+    }
+
+    /**
+     * Records the start of a group of commands processed at once, returning {@code true} if its latency is to be recorded.
+     */
+    boolean onStart(int count) {
+        started.add(count);
+        return latencySamplingMask == 0 || (ThreadLocalRandom.current().nextInt() & latencySamplingMask) == 0;
+    }
+
+    void onError(int count) {
+        errors.add(count);
+    }
+
+    void onComplete(int count) {
+        completed.add(count);
+    }
+
+    /**
+     * Records the completion of a group of commands, the latency of each of them being the one of the whole group.
+     */
+    void onComplete(int count, long nanos) {
+        completed.add(count);
+        latencies.record(nanos, count);
+    }
+
+    CommandTypeSnapshot snapshot() {
+        final long errorCount = errors.sum();
+        final long completedCount = completed.sum();
+        final long[] buckets = latencies.snapshot();
+        final long startedCount = started.sum();
+        return new CommandTypeSnapshot(commandType, startedCount, completedCount, errorCount, buckets);
+    }
+
+}
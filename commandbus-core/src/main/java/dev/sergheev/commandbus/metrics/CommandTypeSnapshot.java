@@ -0,0 +1,126 @@
+package dev.sergheev.commandbus.metrics;
+
+import dev.sergheev.commandbus.Command;
+
+/**
+ * An immutable point-in-time view of the metrics recorded for a single command type.
+ *
+ * <p>Latencies are expressed in nanoseconds, and every reported percentile is the
+ * highest value of the histogram bucket it falls in (at most {@code 1/16} above the
+ * actual value). When latencies are sampled, the percentiles are computed from the
+ * sampled commands only, while the counters always cover every command.
+ */
+public final class CommandTypeSnapshot {
+
+    private final Class<? extends Command> commandType;
+
+    private final long invocationCount;
+
+    private final long errorCount;
+
+    private final long completedCount;
+
+    private final long sampledCount;
+
+    private final long[] buckets;
+
+    CommandTypeSnapshot(Class<? extends Command> commandType, long invocationCount, long completedCount, long errorCount, long[] buckets) {
+        this.commandType = commandType;
+        this.invocationCount = Math.max(invocationCount, completedCount);
+        this.completedCount = completedCount;
+        this.errorCount = errorCount;
+        this.buckets = buckets;
+        long sampled = 0;
+        for(long count : buckets) sampled += count;
+        this.sampledCount = sampled;
+    }
+
+    /**
+     * Returns the command type these metrics were recorded for.
+     * @return the command type these metrics were recorded for
+     */
+    public Class<? extends Command> commandType() {
+        return commandType;
+    }
+
+    /**
+     * Returns the amount of commands handed over to the handler.
+     * @return the amount of commands handed over to the handler
+     */
+    public long invocationCount() {
+        return invocationCount;
+    }
+
+    /**
+     * Returns the amount of commands whose latency was recorded, which the percentiles are computed from.
+     * @return the amount of commands whose latency was recorded
+     */
+    public long sampledCount() {
+        return sampledCount;
+    }
+
+    /**
+     * Returns the amount of commands whose handler threw.
+     * @return the amount of commands whose handler threw
+     */
+    public long errorCount() {
+        return errorCount;
+    }
+
+    /**
+     * Returns the amount of commands that were being processed when the snapshot was taken.
+     * @return the amount of commands that were being processed when the snapshot was taken
+     */
+    public long inFlight() {
+        return invocationCount - completedCount;
+    }
+
+    /**
+     * Returns the latency (in nanoseconds) below which the given fraction of the (timed) completed commands fall.
+     * @param quantile the fraction of the timed completed commands, between {@code 0} and {@code 1}
+     * @throws IllegalArgumentException if the {@code quantile} is not between {@code 0} and {@code 1}
+     * @return the latency at the given quantile, or {@code 0} if no command was timed yet
+     */
+    public long latencyAt(double quantile) throws IllegalArgumentException {
+        if(!(quantile >= 0 && quantile <= 1)) throw new IllegalArgumentException("quantile must be between 0 and 1");
+        if(sampledCount == 0) return 0;
+        final long rank = Math.max(1, (long) Math.ceil(quantile * sampledCount));
+        long cumulative = 0;
+        for(int i = 0; i < buckets.length; i++) {
+            cumulative += buckets[i];
+            if(cumulative >= rank) return LatencyHistogram.highestValueOf(i);
+        }
+        return LatencyHistogram.highestValueOf(buckets.length - 1);
+    }
+
+    /**
+     * Returns the median latency in nanoseconds.
+     * @return the median latency in nanoseconds
+     */
+    public long p50() {
+        return latencyAt(0.5);
+    }
+
+    /**
+     * Returns the 99th percentile latency in nanoseconds.
+     * @return the 99th percentile latency in nanoseconds
+     */
+    public long p99() {
+        return latencyAt(0.99);
+    }
+
+    /**
+     * Returns the 99.9th percentile latency in nanoseconds.
+     * @return the 99.9th percentile latency in nanoseconds
+     */
+    public long p999() {
+        return latencyAt(0.999);
+    }
+
+    @Override
+    public String toString() {
+        return commandType.getName() + "{invocations=" + invocationCount + ", errors=" + errorCount + ", inFlight=" + inFlight()
+                + ", p50=" + p50() + "ns, p99=" + p99() + "ns, p999=" + p999() + "ns}";
+    }
+
+}
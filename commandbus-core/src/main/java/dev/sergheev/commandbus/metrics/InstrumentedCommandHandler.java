@@ -0,0 +1,88 @@
+package dev.sergheev.commandbus.metrics;
+
+import dev.sergheev.commandbus.BatchCommandHandler;
+import dev.sergheev.commandbus.Command;
+import dev.sergheev.commandbus.CommandHandler;
+
+import java.util.List;
+
+/**
+ * A handler that records the metrics of every command it hands over to the decorated handler.
+ */
+class InstrumentedCommandHandler<C extends Command, R> implements CommandHandler<C, R> {
+
+    final CommandHandler<C, R> handler;
+
+    final CommandTypeMetrics metrics;
+
+    InstrumentedCommandHandler(CommandHandler<C, R> handler, CommandTypeMetrics metrics) {
+        this.handler = handler;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Returns a handler that records the metrics of the given handler, which keeps processing
+     * groups of commands at once if the handler is a {@link BatchCommandHandler}.
+     */
+    static <C extends Command, R> CommandHandler<C, R> instrument(CommandHandler<C, R> handler, CommandTypeMetrics metrics) {
+        if(handler instanceof BatchCommandHandler) {
+            return new InstrumentedBatchCommandHandler<>((BatchCommandHandler<C, R>) handler, metrics);
+        }
+        return new InstrumentedCommandHandler<>(handler, metrics);
+    }
+
+    @Override
+    public R handle(C command) {
+        if(!metrics.onStart()) return handleUntimed(command);
+        final long start = System.nanoTime();
+        try {
+            return handler.handle(command);
+        } catch (Throwable t) {
+            metrics.onError();
+            throw t;
+        } finally {
+            metrics.onComplete(System.nanoTime() - start);
+        }
+    }
+
+    private R handleUntimed(C command) {
+        try {
+            return handler.handle(command);
+        } catch (Throwable t) {
+            metrics.onError();
+            throw t;
+        } finally {
+            metrics.onComplete();
+        }
+    }
+
+    /**
+     * A handler in front of a {@link BatchCommandHandler}, that times a group of commands as a
+     * whole: every command of the group is counted, with the latency of the group.
+     */
+    private static final class InstrumentedBatchCommandHandler<C extends Command, R>
+            extends InstrumentedCommandHandler<C, R> implements BatchCommandHandler<C, R> {
+
+        private InstrumentedBatchCommandHandler(BatchCommandHandler<C, R> handler, CommandTypeMetrics metrics) {
+            super(handler, metrics);
+        }
+
+        @Override
+        public List<R> handleAll(List<C> commands) {
+            final int count = commands.size();
+            final boolean timed = metrics.onStart(count);
+            final long start = timed ? System.nanoTime() : 0L;
+            try {
+                return ((BatchCommandHandler<C, R>) handler).handleAll(commands);
+            } catch (Throwable t) {
+                metrics.onError(count);
+                throw t;
+            } finally {
+                if(timed) metrics.onComplete(count, System.nanoTime() - start);
+                else metrics.onComplete(count);
+            }
+        }
+
+    }
+
+}
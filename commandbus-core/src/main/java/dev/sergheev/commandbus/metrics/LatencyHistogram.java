@@ -0,0 +1,96 @@
+package dev.sergheev.commandbus.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A lock-free latency histogram with log-linear buckets.
+ *
+ * <p>Values below {@code 32} nanoseconds are counted exactly, and every power of two
+ * range above is split into {@value #SUB_BUCKETS} buckets, so a recorded value is
+ * reported with a relative error below {@code 1/16}. Values above {@code 2^41}
+ * nanoseconds (about 36 minutes) are counted in the last bucket.
+ *
+ * <p>The buckets are striped by thread, so concurrent recorders mostly increment
+ * different counters. The stripes are only merged when a snapshot is taken.
+ */
+final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 4;
+
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    private static final int MAX_EXPONENT = 40;
+
+    /**
+     * The amount of buckets of every stripe.
+     */
+    static final int BUCKETS = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+
+    /**
+     * The counters of all the stripes, stripe {@code s} occupies the range {@code [s * BUCKETS, (s + 1) * BUCKETS)}.
+     */
+    private final AtomicLongArray counts;
+
+    private final int stripeMask;
+
+    /**
+     * Constructs a new {@link LatencyHistogram} instance.
+     * @param stripes the amount of stripes, a power of two
+     */
+    LatencyHistogram(int stripes) {
+        this.counts = new AtomicLongArray(stripes * BUCKETS);
+        this.stripeMask = stripes - 1;
+    }
+
+    /**
+     * Records the given latency.
+     * @param nanos the latency in nanoseconds
+     */
+    void record(long nanos) {
+        final int stripe = (int) Thread.currentThread().getId() & stripeMask;
+        counts.incrementAndGet(stripe * BUCKETS + indexOf(nanos));
+    }
+
+    /**
+     * Records the given latency for a group of commands that completed together.
+     * @param nanos the latency in nanoseconds
+     * @param count the amount of commands of the group
+     */
+    void record(long nanos, int count) {
+        final int stripe = (int) Thread.currentThread().getId() & stripeMask;
+        counts.addAndGet(stripe * BUCKETS + indexOf(nanos), count);
+    }
+
+    /**
+     * Returns the counters of every bucket, merged across all the stripes.
+     * @return the counters of every bucket
+     */
+    long[] snapshot() {
+        final long[] merged = new long[BUCKETS];
+        for(int i = 0; i < counts.length(); i++) merged[i % BUCKETS] += counts.get(i);
+        return merged;
+    }
+
+    /**
+     * Returns the index of the bucket the given value is counted in.
+     */
+    static int indexOf(long value) {
+        if(value < SUB_BUCKETS) return value < 0 ? 0 : (int) value;
+        final int exponent = 63 - Long.numberOfLeadingZeros(value);
+        if(exponent > MAX_EXPONENT) return BUCKETS - 1;
+        final int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * Returns the highest value counted in the bucket with the given index.
+     */
+    static long highestValueOf(int index) {
+        if(index < SUB_BUCKETS) return index;
+        final int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        final int subBucket = index % SUB_BUCKETS;
+        final long lowest = (long) (SUB_BUCKETS + subBucket) << (exponent - SUB_BUCKET_BITS);
+        return lowest + (1L << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+
+}
@@ -0,0 +1,45 @@
+package dev.sergheev.commandbus.metrics;
+
+import dev.sergheev.commandbus.Command;
+
+import java.util.Collections;
+import java.util.Map;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * An immutable point-in-time view of the metrics recorded for every command type.
+ */
+public final class MetricsSnapshot {
+
+    private final Map<Class<? extends Command>, CommandTypeSnapshot> commandTypeToSnapshot;
+
+    MetricsSnapshot(Map<Class<? extends Command>, CommandTypeSnapshot> commandTypeToSnapshot) {
+        this.commandTypeToSnapshot = Collections.unmodifiableMap(commandTypeToSnapshot);
+    }
+
+    /**
+     * Returns the metrics of every instrumented command type.
+     * @return an unmodifiable map of every instrumented command type to its metrics
+     */
+    public Map<Class<? extends Command>, CommandTypeSnapshot> commandTypes() {
+        return commandTypeToSnapshot;
+    }
+
+    /**
+     * Returns the metrics of the given command type.
+     * @param commandType the command type whose metrics are to be returned
+     * @throws NullPointerException if the {@code commandType} is {@code null}
+     * @return the metrics of the given command type, or {@code null} if it is not instrumented
+     */
+    public CommandTypeSnapshot forCommandType(Class<? extends Command> commandType) throws NullPointerException {
+        requireNonNull(commandType, "commandType must not be null");
+        return commandTypeToSnapshot.get(commandType);
+    }
+
+    @Override
+    public String toString() {
+        return commandTypeToSnapshot.values().toString();
+    }
+
+}
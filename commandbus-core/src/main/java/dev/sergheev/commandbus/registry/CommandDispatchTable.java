@@ -0,0 +1,163 @@
+package dev.sergheev.commandbus.registry;
+
+import dev.sergheev.commandbus.Command;
+import dev.sergheev.commandbus.CommandHandler;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * A non thread-safe table that resolves the handler of a command by its type or name
+ * with a single lookup, shared by the {@link CommandHandlerRegistry} implementations.
+ *
+ * <p>Every command type is bound to the handler type that owns it, so unbinding a
+ * handler type only removes the commands that were not taken over by another one.
+ *
+ * <p>A command type without a handler of its own is resolved through its supertypes
+ * by a {@link CommandHierarchyCache}, which is discarded whenever the table changes, and
+ * the handler found that way is decorated for the command type itself.
+ */
+@SuppressWarnings({ "rawtypes" })
+final class CommandDispatchTable {
+
+    /**
+     * Associates a command type to the (possibly decorated) handler that processes it.
+     */
+    private final Map<Class<? extends Command>, CommandHandler> commandTypeToHandler;
+
+    /**
+     * Associates a command name to the (possibly decorated) handler that processes it.
+     */
+    private final Map<String, CommandHandler> commandNameToHandler;
+
+    /**
+     * Associates a command type to the undecorated handler it is bound to.
+     */
+    private final Map<Class<? extends Command>, CommandHandler> commandTypeToRegisteredHandler;
+
+    /**
+     * Associates a command type to the type of the handler it is bound to.
+     */
+    private final Map<Class<? extends Command>, Class<? extends CommandHandler>> commandTypeToOwner;
+
+    /**
+     * The decorator the handlers were bound with, which decorates the handlers resolved through the supertypes.
+     */
+    private CommandHandlerDecorator decorator;
+
+    /**
+     * Resolves the command types without a handler of their own, created on the first such lookup.
+     */
+    private CommandHierarchyCache hierarchyCache;
+
+    CommandDispatchTable() {
+        this.commandTypeToHandler = new HashMap<>();
+        this.commandNameToHandler = new HashMap<>();
+        this.commandTypeToRegisteredHandler = new HashMap<>();
+        this.commandTypeToOwner = new HashMap<>();
+        this.decorator = CommandHandlerDecorator.NONE;
+    }
+
+    private CommandDispatchTable(CommandDispatchTable source) {
+        this.commandTypeToHandler = new HashMap<>(source.commandTypeToHandler);
+        this.commandNameToHandler = new HashMap<>(source.commandNameToHandler);
+        this.commandTypeToRegisteredHandler = new HashMap<>(source.commandTypeToRegisteredHandler);
+        this.commandTypeToOwner = new HashMap<>(source.commandTypeToOwner);
+        this.decorator = source.decorator;
+    }
+
+    /**
+     * Returns a modifiable copy of this table.
+     */
+    CommandDispatchTable copy() {
+        return new CommandDispatchTable(this);
+    }
+
+    /**
+     * Binds the given command types to the given handler, decorated for each of them.
+     */
+    void bind(Class<? extends CommandHandler> owner, List<Class<? extends Command>> commandTypes,
+              CommandHandler handler, CommandHandlerDecorator decorator) {
+        for(Class<? extends Command> commandType : commandTypes) {
+            final CommandHandler decorated = decorator.decorate(commandType, handler);
+            commandTypeToHandler.put(commandType, decorated);
+            commandNameToHandler.put(commandType.getName(), decorated);
+            commandTypeToRegisteredHandler.put(commandType, handler);
+            commandTypeToOwner.put(commandType, owner);
+        }
+        this.decorator = decorator;
+        hierarchyCache = null;
+    }
+
+    /**
+     * Unbinds the given command types, as long as they are still bound to the given handler type.
+     */
+    void unbind(Class<? extends CommandHandler> owner, List<Class<? extends Command>> commandTypes) {
+        for(Class<? extends Command> commandType : commandTypes) {
+            if(commandTypeToOwner.get(commandType) != owner) continue;
+            commandTypeToHandler.remove(commandType);
+            commandNameToHandler.remove(commandType.getName());
+            commandTypeToRegisteredHandler.remove(commandType);
+            commandTypeToOwner.remove(commandType);
+        }
+        hierarchyCache = null;
+    }
+
+    /**
+     * Returns the handler bound to the given command type or else the one of its closest supertype decorated
+     * for the given command type, or {@code null} if there is none.
+     */
+    CommandHandler get(Class<? extends Command> commandType) {
+        final CommandHandler handler = commandTypeToHandler.get(commandType);
+        if(handler != null) return handler;
+        CommandHierarchyCache cache = hierarchyCache;
+        if(cache == null) {
+            // The table of a concurrent registry is not modified once published, so racing to create the cache is harmless
+            cache = new CommandHierarchyCache(commandTypeToRegisteredHandler::get, decorator);
+            hierarchyCache = cache;
+        }
+        return cache.get(commandType);
+    }
+
+    /**
+     * Returns the undecorated handler bound to exactly the given command type, or {@code null} if there is none.
+     */
+    CommandHandler registeredHandlerOf(Class<?> commandType) {
+        return commandTypeToRegisteredHandler.get(commandType);
+    }
+
+    /**
+     * Returns the handler bound to the given command name, or {@code null} if there is none.
+     */
+    CommandHandler get(String commandName) {
+        return commandNameToHandler.get(commandName);
+    }
+
+    /**
+     * Performs the given action for every command type and the handler it is bound to.
+     */
+    void forEach(BiConsumer<Class<? extends Command>, CommandHandler> action) {
+        commandTypeToHandler.forEach(action);
+    }
+
+    /**
+     * Returns the amount of bound command types.
+     */
+    int size() {
+        return commandTypeToHandler.size();
+    }
+
+    /**
+     * Removes all the bindings from this table.
+     */
+    void clear() {
+        commandTypeToHandler.clear();
+        commandNameToHandler.clear();
+        commandTypeToRegisteredHandler.clear();
+        commandTypeToOwner.clear();
+        hierarchyCache = null;
+    }
+
+}
@@ -0,0 +1,44 @@
+package dev.sergheev.commandbus.registry;
+
+import dev.sergheev.commandbus.Command;
+import dev.sergheev.commandbus.CommandHandler;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Decorates the handler that a registry dispatches a given command type to.
+ *
+ * <p>The decoration takes place once, when the handler is registered, so
+ * the decorated handler is what the registry hands out on every lookup of
+ * that command type, without any further per-command cost.
+ */
+@FunctionalInterface
+@SuppressWarnings({ "rawtypes" })
+public interface CommandHandlerDecorator {
+
+    /**
+     * A decorator that leaves every handler untouched.
+     */
+    CommandHandlerDecorator NONE = (commandType, handler) -> handler;
+
+    /**
+     * Returns the handler that is to process the commands of the given type.
+     * @param commandType the type of the command the handler is registered for
+     * @param handler the registered handler instance
+     * @return the given handler, or a handler that decorates it
+     */
+    CommandHandler decorate(Class<? extends Command> commandType, CommandHandler handler);
+
+    /**
+     * Returns a decorator that decorates the handlers with this decorator first, and then with the given one.
+     * @param after the decorator that is to wrap the handlers decorated by this decorator
+     * @throws NullPointerException if the {@code after} decorator is {@code null}
+     * @return a decorator that applies this decorator and then the given one
+     */
+    default CommandHandlerDecorator andThen(CommandHandlerDecorator after) throws NullPointerException {
+        requireNonNull(after, "after must not be null");
+        if(this == NONE) return after;
+        return (commandType, handler) -> after.decorate(commandType, decorate(commandType, handler));
+    }
+
+}
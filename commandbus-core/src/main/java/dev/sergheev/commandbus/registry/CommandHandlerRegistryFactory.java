@@ -1,7 +1,10 @@
 package dev.sergheev.commandbus.registry;
 
+import dev.sergheev.commandbus.CommandHandler;
 import dev.sergheev.commandbus.container.SimpleContainer;
 
+import java.util.Map;
+
 /**
  * Simple factory with static creation methods for {@link CommandHandlerRegistry}.
  */
@@ -16,11 +19,58 @@ public class CommandHandlerRegistryFactory {
     }
 
     /**
-     * Creates a thread-safe {@link SimpleCommandHandlerRegistry}.
-     * @return a thread-safe {@link SimpleCommandHandlerRegistry}.
+     * Creates a thread-safe {@link ConcurrentCommandHandlerRegistry} whose lookups never block.
+     * @return a thread-safe {@link ConcurrentCommandHandlerRegistry}.
      */
     public static ConcurrentCommandHandlerRegistry newConcurrentRegistry() {
-        return new ConcurrentCommandHandlerRegistry(SimpleContainer.newInstance());
+        return new ConcurrentCommandHandlerRegistry(SimpleContainer.newConcurrentInstance());
+    }
+
+    /**
+     * Creates a non thread-safe {@link SimpleCommandHandlerRegistry} that decorates the dispatched handlers.
+     * @param handlerDecorator the decorator applied to a handler for each command type it processes
+     * @throws NullPointerException if the {@code handlerDecorator} is {@code null}
+     * @return a non thread-safe {@link SimpleCommandHandlerRegistry}.
+     */
+    public static SimpleCommandHandlerRegistry newRegistry(CommandHandlerDecorator handlerDecorator) throws NullPointerException {
+        return new SimpleCommandHandlerRegistry(SimpleContainer.newInstance(), handlerDecorator);
+    }
+
+    /**
+     * Creates a thread-safe {@link ConcurrentCommandHandlerRegistry} that decorates the dispatched handlers.
+     * @param handlerDecorator the decorator applied to a handler for each command type it processes
+     * @throws NullPointerException if the {@code handlerDecorator} is {@code null}
+     * @return a thread-safe {@link ConcurrentCommandHandlerRegistry}.
+     */
+    public static ConcurrentCommandHandlerRegistry newConcurrentRegistry(CommandHandlerDecorator handlerDecorator) throws NullPointerException {
+        return new ConcurrentCommandHandlerRegistry(SimpleContainer.newConcurrentInstance(), handlerDecorator);
+    }
+
+    /**
+     * Creates an immutable {@link FrozenCommandHandlerRegistry} that contains the given handlers.
+     * @param classToInstance the handler type to instance associations
+     * @throws NullPointerException if the {@code classToInstance} map or any of its types or instances are {@code null}
+     * @throws IllegalArgumentException if any instance is not of its associated type
+     * @return an immutable {@link FrozenCommandHandlerRegistry}.
+     */
+    @SuppressWarnings({ "rawtypes" })
+    public static FrozenCommandHandlerRegistry newFrozenRegistry(Map<Class<? extends CommandHandler>, Object> classToInstance) throws NullPointerException, IllegalArgumentException {
+        return new FrozenCommandHandlerRegistry(classToInstance, CommandHandlerDecorator.NONE);
+    }
+
+    /**
+     * Creates an immutable {@link FrozenCommandHandlerRegistry} that contains the given handlers, decorated.
+     * @param classToInstance the handler type to instance associations
+     * @param handlerDecorator the decorator applied to a handler for each command type it processes
+     * @throws NullPointerException if the {@code classToInstance} map or any of its types or instances are {@code null}
+     * @throws NullPointerException if the {@code handlerDecorator} is {@code null}
+     * @throws IllegalArgumentException if any instance is not of its associated type
+     * @return an immutable {@link FrozenCommandHandlerRegistry}.
+     */
+    @SuppressWarnings({ "rawtypes" })
+    public static FrozenCommandHandlerRegistry newFrozenRegistry(Map<Class<? extends CommandHandler>, Object> classToInstance,
+                                                                 CommandHandlerDecorator handlerDecorator) throws NullPointerException, IllegalArgumentException {
+        return new FrozenCommandHandlerRegistry(classToInstance, handlerDecorator);
     }
 
 }
@@ -0,0 +1,85 @@
+package dev.sergheev.commandbus.registry;
+
+import dev.sergheev.commandbus.Command;
+import dev.sergheev.commandbus.CommandHandler;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Resolves the handler of a command type that has no handler of its own through the
+ * superclasses and interfaces it extends, shared by the {@link CommandHandlerRegistry}
+ * implementations.
+ *
+ * <p>The superclasses are tried first, from the closest one, and then the interfaces,
+ * breadth-first in declaration order, so the most specific handler wins. The registered
+ * handler found that way is decorated for the command type being resolved, so the options
+ * of that exact type (interceptors, memoization, metrics...) apply to it as well. Every
+ * command type is resolved once and the outcome (including the absence of a handler) is
+ * kept in a {@link ClassValue}, so the hierarchy is never walked twice for the same class.
+ * A cache only reflects the bindings it was created for: registries replace it on every change.
+ */
+@SuppressWarnings({ "rawtypes", "unchecked" })
+final class CommandHierarchyCache {
+
+    /**
+     * Stands for the absence of a handler in the cache.
+     */
+    private static final CommandHandler NO_HANDLER = command -> {
+        throw new AssertionError();
+    };
+
+    /**
+     * The resolved handler of every command type, or {@link #NO_HANDLER} if there is none.
+     */
+    private final ClassValue<CommandHandler> resolvedHandlers;
+
+    /**
+     * Constructs a new {@link CommandHierarchyCache} instance.
+     * @param registeredHandlers returns the undecorated handler bound to exactly the given type, or {@code null} if there is none
+     * @param decorator the decorator applied to a resolved handler for the command type it was resolved for
+     */
+    CommandHierarchyCache(Function<Class<?>, CommandHandler> registeredHandlers, CommandHandlerDecorator decorator) {
+        this.resolvedHandlers = new ClassValue<CommandHandler>() {
+            @Override
+            protected CommandHandler computeValue(Class<?> commandType) {
+                final CommandHandler handler = resolve(commandType, registeredHandlers);
+                return handler == null ? NO_HANDLER : decorator.decorate((Class<? extends Command>) commandType, handler);
+            }
+        };
+    }
+
+    /**
+     * Returns the handler bound to the closest supertype of the given command type, decorated for the
+     * given command type, or {@code null} if there is none.
+     */
+    CommandHandler get(Class<?> commandType) {
+        final CommandHandler handler = resolvedHandlers.get(commandType);
+        return handler == NO_HANDLER ? null : handler;
+    }
+
+    private static CommandHandler resolve(Class<?> commandType, Function<Class<?>, CommandHandler> boundHandlers) {
+        for(Class<?> superclass = commandType.getSuperclass(); superclass != null; superclass = superclass.getSuperclass()) {
+            final CommandHandler handler = boundHandlers.apply(superclass);
+            if(handler != null) return handler;
+        }
+        final Deque<Class<?>> interfaces = new ArrayDeque<>();
+        for(Class<?> type = commandType; type != null; type = type.getSuperclass()) {
+            Collections.addAll(interfaces, type.getInterfaces());
+        }
+        final Set<Class<?>> visited = new HashSet<>();
+        while(!interfaces.isEmpty()) {
+            final Class<?> type = interfaces.poll();
+            if(!visited.add(type)) continue;
+            final CommandHandler handler = boundHandlers.apply(type);
+            if(handler != null) return handler;
+            Collections.addAll(interfaces, type.getInterfaces());
+        }
+        return null;
+    }
+
+}
@@ -3,9 +3,9 @@ package dev.sergheev.commandbus.registry;
 import dev.sergheev.commandbus.Command;
 import dev.sergheev.commandbus.CommandHandler;
 import dev.sergheev.commandbus.container.Container;
-import dev.sergheev.commandbus.mapping.CommandNameExtractor;
+import dev.sergheev.commandbus.mapping.CommandTypeExtractor;
 
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.locks.Lock;
@@ -15,27 +15,41 @@ import static java.util.Objects.requireNonNull;
 
 /**
  * A thread-safe {@link CommandHandlerRegistry} implementation.
+ *
+ * <p>Lookups never block: the command to handler associations are kept in
+ * an immutable copy-on-write snapshot that is replaced as a whole on every
+ * modification, so readers only perform a volatile read followed by a map
+ * lookup. Modifications are serialized by a lock and become visible to all
+ * readers at the moment the new snapshot is published.
+ *
+ * <p>The provided {@link Container} must be thread-safe, because handler
+ * instances are read from it without holding the lock.
  */
 @SuppressWarnings({ "rawtypes", "unchecked" })
 public class ConcurrentCommandHandlerRegistry implements CommandHandlerRegistry {
 
     /**
-     * A container that stores handler type to instance associations.
+     * A thread-safe container that stores handler type to instance associations.
      */
     private final Container handlerContainer;
 
     /**
-     * A map that associates a command name to the handler that can process that given command.
+     * An immutable snapshot of the table that associates command types and names to the handler that can process that given command.
      */
-    private final Map<String, Class<? extends CommandHandler>> commandNameToType;
+    private volatile CommandDispatchTable dispatchTable;
 
     /**
-     * An utility that extracts fully qualified command class names from mapping annotations in a given class.
+     * Decorates the handlers when they are bound to the command types they process.
      */
-    private final CommandNameExtractor commandNameExtractor;
+    private final CommandHandlerDecorator handlerDecorator;
 
     /**
-     * Ensures the atomicity of two actions: command name to handler mapping and the storage or retrieval of handlers.
+     * An utility that extracts command classes from mapping annotations in a given class.
+     */
+    private final CommandTypeExtractor commandTypeExtractor;
+
+    /**
+     * Serializes the modifications, ensuring the atomicity of two actions: the storage of handlers and the publication of the new snapshot.
      */
     private final Lock registryLock;
 
@@ -48,14 +62,27 @@ public class ConcurrentCommandHandlerRegistry implements CommandHandlerRegistry
 
     /**
      * Constructs a new {@link ConcurrentCommandHandlerRegistry} instance.
-     * @param handlerContainer the container that will hold {@link CommandHandler} instances
+     * @param handlerContainer the thread-safe container that will hold {@link CommandHandler} instances
      * @throws NullPointerException if the {@code handlerContainer} is {@code null}
      */
     ConcurrentCommandHandlerRegistry(Container handlerContainer) throws NullPointerException {
+        this(handlerContainer, CommandHandlerDecorator.NONE);
+    }
+
+    /**
+     * Constructs a new {@link ConcurrentCommandHandlerRegistry} instance that decorates the dispatched handlers.
+     * @param handlerContainer the thread-safe container that will hold {@link CommandHandler} instances
+     * @param handlerDecorator the decorator applied to a handler for each command type it processes
+     * @throws NullPointerException if the {@code handlerContainer} is {@code null}
+     * @throws NullPointerException if the {@code handlerDecorator} is {@code null}
+     */
+    ConcurrentCommandHandlerRegistry(Container handlerContainer, CommandHandlerDecorator handlerDecorator) throws NullPointerException {
         requireNonNull(handlerContainer, "handlerContainer must not be null");
+        requireNonNull(handlerDecorator, "handlerDecorator must not be null");
         this.handlerContainer = handlerContainer;
-        this.commandNameToType = new HashMap<>();
-        this.commandNameExtractor = new CommandNameExtractor();
+        this.dispatchTable = new CommandDispatchTable();
+        this.handlerDecorator = handlerDecorator;
+        this.commandTypeExtractor = new CommandTypeExtractor();
         this.registryLock = new ReentrantLock();
     }
 
@@ -72,11 +99,41 @@ public class ConcurrentCommandHandlerRegistry implements CommandHandlerRegistry
     public <T extends CommandHandler> T registerHandler(Class<T> type, Object instance) throws NullPointerException {
         requireNonNull(type, "type must not be null");
         requireNonNull(instance, "instance must not be null");
-        final List<String> commandNames = commandNameExtractor.extractCommandNamesFor(type);
+        final List<Class<? extends Command>> commandTypes = commandTypeExtractor.extractCommandTypesFor(type);
         registryLock.lock();
         try {
-            commandNames.forEach(name -> commandNameToType.put(name, type));
-            return handlerContainer.put(type, instance);
+            final T previous = handlerContainer.put(type, instance);
+            final CommandDispatchTable newDispatchTable = dispatchTable.copy();
+            newDispatchTable.bind(type, commandTypes, (CommandHandler) instance, handlerDecorator);
+            dispatchTable = newDispatchTable;
+            return previous;
+        } finally {
+            registryLock.unlock();
+        }
+    }
+
+    /**
+     * Stores all the specified type-instance relationships in this registry, publishing a single new snapshot for all of them.
+     * @param typeToInstance the types and the instances to be associated with them
+     * @throws NullPointerException if {@code typeToInstance}, or any of its types or instances, is {@code null}
+     */
+    @Override
+    public void registerHandlers(Map<Class<? extends CommandHandler>, Object> typeToInstance) throws NullPointerException {
+        requireNonNull(typeToInstance, "typeToInstance must not be null");
+        final Map<Class<? extends CommandHandler>, List<Class<? extends Command>>> typeToCommandTypes = new LinkedHashMap<>();
+        typeToInstance.forEach((type, instance) -> {
+            requireNonNull(type, "type must not be null");
+            requireNonNull(instance, "instance must not be null");
+            typeToCommandTypes.put(type, commandTypeExtractor.extractCommandTypesFor(type));
+        });
+        registryLock.lock();
+        try {
+            final CommandDispatchTable newDispatchTable = dispatchTable.copy();
+            typeToInstance.forEach((type, instance) -> {
+                handlerContainer.put(type, instance);
+                newDispatchTable.bind(type, typeToCommandTypes.get(type), (CommandHandler) instance, handlerDecorator);
+            });
+            dispatchTable = newDispatchTable;
         } finally {
             registryLock.unlock();
         }
@@ -93,10 +150,13 @@ public class ConcurrentCommandHandlerRegistry implements CommandHandlerRegistry
     @Override
     public <T extends CommandHandler> T unregisterHandler(Class<T> type) throws NullPointerException {
         requireNonNull(type, "type must not be null");
-        final List<String> commandNames = commandNameExtractor.extractCommandNamesFor(type);
+        final List<Class<? extends Command>> commandTypes = commandTypeExtractor.extractCommandTypesFor(type);
         registryLock.lock();
         try {
-            commandNames.forEach(commandNameToType::remove);
+            if(!handlerContainer.contains(type)) return null;
+            final CommandDispatchTable newDispatchTable = dispatchTable.copy();
+            newDispatchTable.unbind(type, commandTypes);
+            dispatchTable = newDispatchTable;
             return handlerContainer.remove(type);
         } finally {
             registryLock.unlock();
@@ -114,12 +174,7 @@ public class ConcurrentCommandHandlerRegistry implements CommandHandlerRegistry
     @Override
     public <T extends CommandHandler> T getHandler(Class<T> type) throws NullPointerException {
         requireNonNull(type, "type must not be null");
-        registryLock.lock();
-        try {
-            return handlerContainer.get(type);
-        } finally {
-            registryLock.unlock();
-        }
+        return handlerContainer.get(type);
     }
 
     /**
@@ -128,18 +183,29 @@ public class ConcurrentCommandHandlerRegistry implements CommandHandlerRegistry
      * @param <C> type of the command
      * @param <R> type of the handler's response
      * @throws NullPointerException if {@code commandName} is {@code null}
-     * @return the instance which is able to handle the given command name
+     * @return the instance which is able to handle the given command name, or
+     *         {@code null} if there is no handler associated to {@code commandName}
      */
     @Override
     public <C extends Command, R> CommandHandler<C, R> getHandlerFor(String commandName) throws NullPointerException {
         requireNonNull(commandName, "commandName must not be null");
-        registryLock.lock();
-        try {
-            final Class<? extends CommandHandler> handlerType = commandNameToType.get(commandName);
-            return handlerContainer.get(handlerType);
-        } finally {
-            registryLock.unlock();
-        }
+        return dispatchTable.get(commandName);
+    }
+
+    /**
+     * Returns the instance which is able to handle a given command type, or the one of its closest
+     * superclass or interface if the command type has no handler of its own.
+     * @param commandType command class
+     * @param <C> type of the command
+     * @param <R> type of the handler's response
+     * @throws NullPointerException if {@code commandType} is {@code null}
+     * @return the instance which is able to handle the given command type, or
+     *         {@code null} if there is no handler associated to {@code commandType}
+     */
+    @Override
+    public <C extends Command, R> CommandHandler<C, R> getHandlerFor(Class<? extends Command> commandType) throws NullPointerException {
+        requireNonNull(commandType, "commandType must not be null");
+        return dispatchTable.get(commandType);
     }
 
     /**
@@ -153,12 +219,7 @@ public class ConcurrentCommandHandlerRegistry implements CommandHandlerRegistry
     @Override
     public boolean containsHandler(Class<? extends CommandHandler> type) throws NullPointerException {
         requireNonNull(type, "type must not be null");
-        registryLock.lock();
-        try {
-            return handlerContainer.contains(type);
-        } finally {
-            registryLock.unlock();
-        }
+        return handlerContainer.contains(type);
     }
 
     /**
@@ -168,6 +229,7 @@ public class ConcurrentCommandHandlerRegistry implements CommandHandlerRegistry
     public void clearRegistry() {
         registryLock.lock();
         try {
+            dispatchTable = new CommandDispatchTable();
             handlerContainer.clear();
         } finally {
             registryLock.unlock();
@@ -180,12 +242,7 @@ public class ConcurrentCommandHandlerRegistry implements CommandHandlerRegistry
      */
     @Override
     public boolean isRegistryEmpty() {
-        registryLock.lock();
-        try {
-            return handlerContainer.isEmpty();
-        } finally {
-            registryLock.unlock();
-        }
+        return handlerContainer.isEmpty();
     }
 
     /**
@@ -194,12 +251,7 @@ public class ConcurrentCommandHandlerRegistry implements CommandHandlerRegistry
      */
     @Override
     public int registrySize() {
-        registryLock.lock();
-        try {
-            return handlerContainer.size();
-        } finally {
-            registryLock.unlock();
-        }
+        return handlerContainer.size();
     }
 
 }
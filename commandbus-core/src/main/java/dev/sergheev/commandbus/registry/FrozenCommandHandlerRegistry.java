@@ -0,0 +1,236 @@
+package dev.sergheev.commandbus.registry;
+
+import dev.sergheev.commandbus.Command;
+import dev.sergheev.commandbus.CommandHandler;
+import dev.sergheev.commandbus.mapping.CommandTypeExtractor;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * An immutable, and therefore thread-safe, {@link CommandHandlerRegistry} implementation.
+ *
+ * <p>All the handlers are given on construction, and compiled into two compact
+ * open-addressing tables (one keyed by command type and one by command name) that
+ * are never modified afterwards, so lookups do not involve any synchronization nor
+ * any volatile read. The command types without a handler of their own are resolved
+ * through their supertypes once, and cached for good. Every method that would modify this registry throws an
+ * {@link UnsupportedOperationException}.
+ */
+@SuppressWarnings({ "rawtypes", "unchecked" })
+public final class FrozenCommandHandlerRegistry implements CommandHandlerRegistry {
+
+    /**
+     * The handler type to instance associations.
+     */
+    private final Map<Class<? extends CommandHandler>, Object> classToInstance;
+
+    /**
+     * The command types of the type table, at the slot their hash (or the next free one) points to.
+     */
+    private final Class<?>[] commandTypes;
+
+    /**
+     * The command names of the name table, at the slot their hash (or the next free one) points to.
+     */
+    private final String[] commandNames;
+
+    /**
+     * The (possibly decorated) handlers of the command types and names at the same slots.
+     */
+    private final CommandHandler[] handlers;
+
+    /**
+     * The mask that turns a hash into a slot, the tables length minus one.
+     */
+    private final int mask;
+
+    /**
+     * Resolves the command types without a handler of their own through their supertypes.
+     */
+    private final CommandHierarchyCache hierarchyCache;
+
+    /**
+     * @throws AssertionError if an attempt to instantiate {@code FrozenCommandHandlerRegistry} is made
+     */
+    private FrozenCommandHandlerRegistry() {
+        throw new AssertionError();
+    }
+
+    /**
+     * Constructs a new {@link FrozenCommandHandlerRegistry} instance that contains the given handlers.
+     * @param classToInstance the handler type to instance associations
+     * @param handlerDecorator the decorator applied to a handler for each command type it processes
+     * @throws NullPointerException if the {@code classToInstance} map or any of its types or instances are {@code null}
+     * @throws NullPointerException if the {@code handlerDecorator} is {@code null}
+     * @throws IllegalArgumentException if any instance is not of its associated type
+     */
+    FrozenCommandHandlerRegistry(Map<Class<? extends CommandHandler>, Object> classToInstance, CommandHandlerDecorator handlerDecorator) throws NullPointerException, IllegalArgumentException {
+        requireNonNull(classToInstance, "classToInstance must not be null");
+        requireNonNull(handlerDecorator, "handlerDecorator must not be null");
+        final CommandTypeExtractor commandTypeExtractor = new CommandTypeExtractor();
+        final CommandDispatchTable dispatchTable = new CommandDispatchTable();
+        final Map<Class<? extends CommandHandler>, Object> instances = new HashMap<>();
+        classToInstance.forEach((type, instance) -> {
+            requireNonNull(type, "type must not be null");
+            requireNonNull(instance, "instance must not be null");
+            if(!type.isInstance(instance)) throw new IllegalArgumentException("The given instance must match the type");
+            instances.put(type, instance);
+            dispatchTable.bind(type, commandTypeExtractor.extractCommandTypesFor(type), (CommandHandler) instance, handlerDecorator);
+        });
+        this.classToInstance = Collections.unmodifiableMap(instances);
+        // Keeping the load factor at or below 0.5 keeps the probe sequences short
+        final int capacity = Integer.highestOneBit(Math.max(1, dispatchTable.size()) * 4 - 1);
+        this.commandTypes = new Class<?>[capacity];
+        this.commandNames = new String[capacity];
+        this.handlers = new CommandHandler[capacity * 2];
+        this.mask = capacity - 1;
+        dispatchTable.forEach(this::put);
+        this.hierarchyCache = new CommandHierarchyCache(dispatchTable::registeredHandlerOf, handlerDecorator);
+    }
+
+    private void put(Class<? extends Command> commandType, CommandHandler handler) {
+        int typeSlot = spread(commandType.hashCode()) & mask;
+        while(commandTypes[typeSlot] != null) typeSlot = (typeSlot + 1) & mask;
+        commandTypes[typeSlot] = commandType;
+        handlers[typeSlot] = handler;
+        final String commandName = commandType.getName();
+        int nameSlot = spread(commandName.hashCode()) & mask;
+        while(commandNames[nameSlot] != null) nameSlot = (nameSlot + 1) & mask;
+        commandNames[nameSlot] = commandName;
+        handlers[commandTypes.length + nameSlot] = handler;
+    }
+
+    /**
+     * Spreads the higher bits of a hash to the lower ones, which are the ones that select a slot.
+     */
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Always throws an {@link UnsupportedOperationException}, because this registry is immutable.
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public <T extends CommandHandler> T registerHandler(Class<T> type, Object instance) throws UnsupportedOperationException {
+        throw new UnsupportedOperationException("A frozen registry cannot be modified");
+    }
+
+    /**
+     * Always throws an {@link UnsupportedOperationException}, because this registry is immutable.
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public <T extends CommandHandler> T unregisterHandler(Class<T> type) throws UnsupportedOperationException {
+        throw new UnsupportedOperationException("A frozen registry cannot be modified");
+    }
+
+    /**
+     * Returns the instance to which the specified key is associated.
+     * @param type type whose associated instance is to be returned
+     * @param <T> the type of the value
+     * @throws NullPointerException if {@code type} is {@code null}
+     * @return the current instance associated to {@code type}, or
+     *         {@code null} if there was no association for {@code type}
+     */
+    @Override
+    public <T extends CommandHandler> T getHandler(Class<T> type) throws NullPointerException {
+        requireNonNull(type, "type must not be null");
+        return type.cast(classToInstance.get(type));
+    }
+
+    /**
+     * Returns the instance which is able to handle a given command name.
+     * @param commandName command class name
+     * @param <C> type of the command
+     * @param <R> type of the handler's response
+     * @throws NullPointerException if {@code commandName} is {@code null}
+     * @return the instance which is able to handle the given command name, or
+     *         {@code null} if there is no handler associated to {@code commandName}
+     */
+    @Override
+    public <C extends Command, R> CommandHandler<C, R> getHandlerFor(String commandName) throws NullPointerException {
+        requireNonNull(commandName, "commandName must not be null");
+        final String[] names = commandNames;
+        for(int slot = spread(commandName.hashCode()) & mask; ; slot = (slot + 1) & mask) {
+            final String name = names[slot];
+            if(name == null) return null;
+            if(name.equals(commandName)) return handlers[names.length + slot];
+        }
+    }
+
+    /**
+     * Returns the instance which is able to handle a given command type, or the one of its closest
+     * superclass or interface if the command type has no handler of its own.
+     * @param commandType command class
+     * @param <C> type of the command
+     * @param <R> type of the handler's response
+     * @throws NullPointerException if {@code commandType} is {@code null}
+     * @return the instance which is able to handle the given command type, or
+     *         {@code null} if there is no handler associated to {@code commandType}
+     */
+    @Override
+    public <C extends Command, R> CommandHandler<C, R> getHandlerFor(Class<? extends Command> commandType) throws NullPointerException {
+        requireNonNull(commandType, "commandType must not be null");
+        final CommandHandler handler = boundHandlerOf(commandType);
+        return handler != null ? handler : hierarchyCache.get(commandType);
+    }
+
+    /**
+     * Returns the handler bound to exactly the given command type, or {@code null} if there is none.
+     */
+    private CommandHandler boundHandlerOf(Class<?> commandType) {
+        final Class<?>[] types = commandTypes;
+        for(int slot = spread(commandType.hashCode()) & mask; ; slot = (slot + 1) & mask) {
+            final Class<?> type = types[slot];
+            if(type == commandType) return handlers[slot];
+            if(type == null) return null;
+        }
+    }
+
+    /**
+     * Returns {@code true} if the type is associated to an instance in this
+     * container, false otherwise.
+     * @param type type whose presence in this registry is to be tested
+     * @throws NullPointerException if {@code type} is {@code null}
+     * @return {@code true} if the type is associated to an instance in this
+     *         container, false otherwise.
+     */
+    @Override
+    public boolean containsHandler(Class<? extends CommandHandler> type) throws NullPointerException {
+        requireNonNull(type, "type must not be null");
+        return classToInstance.containsKey(type);
+    }
+
+    /**
+     * Always throws an {@link UnsupportedOperationException}, because this registry is immutable.
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void clearRegistry() throws UnsupportedOperationException {
+        throw new UnsupportedOperationException("A frozen registry cannot be modified");
+    }
+
+    /**
+     * Returns {@code true} if this registry has no stored associations.
+     * @return {@code true} if this registry has no stored associations.
+     */
+    @Override
+    public boolean isRegistryEmpty() {
+        return classToInstance.isEmpty();
+    }
+
+    /**
+     * Returns the amount of type-instance associations currently in this registry.
+     * @return the amount of type-instance associations currently in this registry.
+     */
+    @Override
+    public int registrySize() {
+        return classToInstance.size();
+    }
+
+}
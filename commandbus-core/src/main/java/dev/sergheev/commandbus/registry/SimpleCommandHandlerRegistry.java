@@ -2,13 +2,10 @@ package dev.sergheev.commandbus.registry;
 
 import dev.sergheev.commandbus.Command;
 import dev.sergheev.commandbus.CommandHandler;
-import dev.sergheev.commandbus.SimpleCommandBus;
 import dev.sergheev.commandbus.container.Container;
-import dev.sergheev.commandbus.mapping.CommandNameExtractor;
+import dev.sergheev.commandbus.mapping.CommandTypeExtractor;
 
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 import static java.util.Objects.requireNonNull;
 
@@ -24,14 +21,19 @@ public class SimpleCommandHandlerRegistry implements CommandHandlerRegistry {
     private final Container handlerContainer;
 
     /**
-     * A map that associates a command name to the handler that can process that given command.
+     * A table that associates command types and names to the handler that can process that given command.
      */
-    private final Map<String, Class<? extends CommandHandler>> commandNameToType;
+    private final CommandDispatchTable dispatchTable;
 
     /**
-     * An utility that extracts fully qualified command class names from mapping annotations in a given class.
+     * Decorates the handlers when they are bound to the command types they process.
      */
-    private final CommandNameExtractor commandNameExtractor;
+    private final CommandHandlerDecorator handlerDecorator;
+
+    /**
+     * An utility that extracts command classes from mapping annotations in a given class.
+     */
+    private final CommandTypeExtractor commandTypeExtractor;
 
     /**
      * @throws AssertionError if an attempt to instantiate {@code SimpleCommandHandlerRegistry} is made
@@ -46,10 +48,23 @@ public class SimpleCommandHandlerRegistry implements CommandHandlerRegistry {
      * @throws NullPointerException if the {@code handlerContainer} is {@code null}
      */
     SimpleCommandHandlerRegistry(Container handlerContainer) throws NullPointerException {
+        this(handlerContainer, CommandHandlerDecorator.NONE);
+    }
+
+    /**
+     * Constructs a new {@link SimpleCommandHandlerRegistry} instance that decorates the dispatched handlers.
+     * @param handlerContainer the container that will hold {@link CommandHandler} instances
+     * @param handlerDecorator the decorator applied to a handler for each command type it processes
+     * @throws NullPointerException if the {@code handlerContainer} is {@code null}
+     * @throws NullPointerException if the {@code handlerDecorator} is {@code null}
+     */
+    SimpleCommandHandlerRegistry(Container handlerContainer, CommandHandlerDecorator handlerDecorator) throws NullPointerException {
         requireNonNull(handlerContainer, "handlerContainer must not be null");
+        requireNonNull(handlerDecorator, "handlerDecorator must not be null");
         this.handlerContainer = handlerContainer;
-        this.commandNameToType = new HashMap<>();
-        this.commandNameExtractor = new CommandNameExtractor();
+        this.dispatchTable = new CommandDispatchTable();
+        this.handlerDecorator = handlerDecorator;
+        this.commandTypeExtractor = new CommandTypeExtractor();
     }
 
     /**
@@ -65,9 +80,10 @@ public class SimpleCommandHandlerRegistry implements CommandHandlerRegistry {
     public <T extends CommandHandler> T registerHandler(Class<T> type, Object instance) throws NullPointerException {
         requireNonNull(type, "type must not be null");
         requireNonNull(instance, "instance must not be null");
-        final List<String> commandNames = commandNameExtractor.extractCommandNamesFor(type);
-        commandNames.forEach(name -> commandNameToType.put(name, type));
-        return handlerContainer.put(type, instance);
+        final List<Class<? extends Command>> commandTypes = commandTypeExtractor.extractCommandTypesFor(type);
+        final T previous = handlerContainer.put(type, instance);
+        dispatchTable.bind(type, commandTypes, (CommandHandler) instance, handlerDecorator);
+        return previous;
     }
 
     /**
@@ -81,9 +97,11 @@ public class SimpleCommandHandlerRegistry implements CommandHandlerRegistry {
     @Override
     public <T extends CommandHandler> T unregisterHandler(Class<T> type) throws NullPointerException {
         requireNonNull(type, "type must not be null");
-        final List<String> commandNames = commandNameExtractor.extractCommandNamesFor(type);
-        commandNames.forEach(commandNameToType::remove);
-        return handlerContainer.remove(type);
+        final T previous = handlerContainer.remove(type);
+        if(previous == null) return null;
+        final List<Class<? extends Command>> commandTypes = commandTypeExtractor.extractCommandTypesFor(type);
+        dispatchTable.unbind(type, commandTypes);
+        return previous;
     }
 
     /**
@@ -106,13 +124,29 @@ public class SimpleCommandHandlerRegistry implements CommandHandlerRegistry {
      * @param <C> type of the command
      * @param <R> type of the handler's response
      * @throws NullPointerException if {@code commandName} is {@code null}
-     * @return the instance which is able to handle the given command name
+     * @return the instance which is able to handle the given command name, or
+     *         {@code null} if there is no handler associated to {@code commandName}
      */
     @Override
     public <C extends Command, R> CommandHandler<C, R> getHandlerFor(String commandName) throws NullPointerException {
         requireNonNull(commandName, "commandName must not be null");
-        final Class<? extends CommandHandler> handlerType = commandNameToType.get(commandName);
-        return handlerContainer.get(handlerType);
+        return dispatchTable.get(commandName);
+    }
+
+    /**
+     * Returns the instance which is able to handle a given command type, or the one of its closest
+     * superclass or interface if the command type has no handler of its own.
+     * @param commandType command class
+     * @param <C> type of the command
+     * @param <R> type of the handler's response
+     * @throws NullPointerException if {@code commandType} is {@code null}
+     * @return the instance which is able to handle the given command type, or
+     *         {@code null} if there is no handler associated to {@code commandType}
+     */
+    @Override
+    public <C extends Command, R> CommandHandler<C, R> getHandlerFor(Class<? extends Command> commandType) throws NullPointerException {
+        requireNonNull(commandType, "commandType must not be null");
+        return dispatchTable.get(commandType);
     }
 
     /**
@@ -134,6 +168,7 @@ public class SimpleCommandHandlerRegistry implements CommandHandlerRegistry {
      */
     @Override
     public void clearRegistry() {
+        dispatchTable.clear();
         handlerContainer.clear();
     }
 
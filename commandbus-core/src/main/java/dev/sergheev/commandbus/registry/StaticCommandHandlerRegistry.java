@@ -0,0 +1,291 @@
+package dev.sergheev.commandbus.registry;
+
+import dev.sergheev.commandbus.Command;
+import dev.sergheev.commandbus.CommandHandler;
+import dev.sergheev.commandbus.container.Container;
+import dev.sergheev.commandbus.container.SimpleContainer;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A thread-safe {@link CommandHandlerRegistry} whose command to handler mappings are
+ * known at compile time, and which is the base class of the registry generated by the
+ * {@code commandbus-processor} annotation processor.
+ *
+ * <p>Every mapped command type is assigned a fixed slot, and the subclass resolves
+ * slots through hard-wired {@code switch} statements instead of reading the mapping
+ * annotations, so registering handlers does not involve any reflection. Lookups never
+ * block: they resolve the slot of the command and read its handler.
+ *
+ * <p>The command types without a slot are resolved through the slots of their supertypes,
+ * and cached until the next modification.
+ *
+ * <p>Only the handler types known by the subclass can be registered, any other handler
+ * type is rejected with an {@link IllegalArgumentException}.
+ */
+@SuppressWarnings({ "rawtypes", "unchecked" })
+public abstract class StaticCommandHandlerRegistry implements CommandHandlerRegistry {
+
+    /**
+     * A thread-safe container that stores handler type to instance associations.
+     */
+    private final Container handlerContainer;
+
+    /**
+     * Associates every slot to the command type it dispatches.
+     */
+    private final Class<? extends Command>[] commandTypes;
+
+    /**
+     * Associates every slot to the (possibly decorated) handler that processes its command type.
+     */
+    private final AtomicReferenceArray<CommandHandler> slotToHandler;
+
+    /**
+     * Associates every slot to the undecorated handler it is bound to.
+     */
+    private final AtomicReferenceArray<CommandHandler> slotToRegisteredHandler;
+
+    /**
+     * Associates every slot to the type of the handler it is bound to, guarded by the registry lock.
+     */
+    private final Class<? extends CommandHandler>[] slotToOwner;
+
+    /**
+     * Decorates the handlers when they are bound to the command types they process.
+     */
+    private final CommandHandlerDecorator handlerDecorator;
+
+    /**
+     * Resolves the command types without a slot of their own through their supertypes, replaced on every modification.
+     */
+    private volatile CommandHierarchyCache hierarchyCache;
+
+    /**
+     * Serializes the modifications of the handler container and the slots.
+     */
+    private final Lock registryLock;
+
+    /**
+     * Constructs a new {@link StaticCommandHandlerRegistry} instance.
+     * @param commandTypes the command types this registry dispatches, indexed by their slot
+     * @param handlerDecorator the decorator applied to a handler for each command type it processes
+     * @throws NullPointerException if the {@code commandTypes} are {@code null}
+     * @throws NullPointerException if the {@code handlerDecorator} is {@code null}
+     */
+    protected StaticCommandHandlerRegistry(Class<? extends Command>[] commandTypes, CommandHandlerDecorator handlerDecorator) throws NullPointerException {
+        requireNonNull(commandTypes, "commandTypes must not be null");
+        requireNonNull(handlerDecorator, "handlerDecorator must not be null");
+        this.handlerContainer = SimpleContainer.newConcurrentInstance();
+        this.commandTypes = commandTypes.clone();
+        this.slotToHandler = new AtomicReferenceArray<>(commandTypes.length);
+        this.slotToRegisteredHandler = new AtomicReferenceArray<>(commandTypes.length);
+        this.slotToOwner = new Class[commandTypes.length];
+        this.handlerDecorator = handlerDecorator;
+        this.hierarchyCache = new CommandHierarchyCache(this::registeredHandlerOf, handlerDecorator);
+        this.registryLock = new ReentrantLock();
+    }
+
+    /**
+     * Returns the slot of the command with the given name.
+     * @param commandName the fully qualified (binary) class name of the command
+     * @return the slot of the command, or {@code -1} if the command is not dispatched by this registry
+     */
+    protected abstract int slotOf(String commandName);
+
+    /**
+     * Returns the slots of the commands processed by the handler with the given name.
+     * @param handlerName the fully qualified (binary) class name of the handler
+     * @return the slots of the commands processed by the handler, or {@code null} if the handler is unknown to this registry
+     */
+    protected abstract int[] slotsOf(String handlerName);
+
+    /**
+     * Stores the specified type-instance relationship in this registry.
+     * @param type type with which the instance is to be associated
+     * @param instance instance to be associated with the specified type
+     * @param <T> the type of the instance
+     * @throws NullPointerException if {@code type} is {@code null}
+     * @throws NullPointerException if {@code instance} is {@code null}
+     * @throws IllegalArgumentException if {@code type} was not known when this registry was generated
+     * @return the newly registered instance associated to {@code type}
+     */
+    @Override
+    public <T extends CommandHandler> T registerHandler(Class<T> type, Object instance) throws NullPointerException, IllegalArgumentException {
+        requireNonNull(type, "type must not be null");
+        requireNonNull(instance, "instance must not be null");
+        final int[] slots = requireSlotsOf(type);
+        registryLock.lock();
+        try {
+            final T previous = handlerContainer.put(type, instance);
+            for(int slot : slots) {
+                slotToOwner[slot] = type;
+                slotToRegisteredHandler.set(slot, (CommandHandler) instance);
+                slotToHandler.set(slot, handlerDecorator.decorate(commandTypes[slot], (CommandHandler) instance));
+            }
+            hierarchyCache = new CommandHierarchyCache(this::registeredHandlerOf, handlerDecorator);
+            return previous;
+        } finally {
+            registryLock.unlock();
+        }
+    }
+
+    /**
+     * Removes the instance to which the type is associated from this registry.
+     * @param type type whose instance of to be removed from this registry
+     * @param <T> the type of the value
+     * @throws NullPointerException if {@code type} is {@code null}
+     * @return the previous instance associated with {@code type}, or {@code null}
+     *         if there was no instance associated to {@code key}.
+     */
+    @Override
+    public <T extends CommandHandler> T unregisterHandler(Class<T> type) throws NullPointerException {
+        requireNonNull(type, "type must not be null");
+        final int[] slots = slotsOf(type.getName());
+        if(slots == null) return null;
+        registryLock.lock();
+        try {
+            if(!handlerContainer.contains(type)) return null;
+            for(int slot : slots) {
+                if(slotToOwner[slot] != type) continue;
+                slotToOwner[slot] = null;
+                slotToHandler.set(slot, null);
+                slotToRegisteredHandler.set(slot, null);
+            }
+            hierarchyCache = new CommandHierarchyCache(this::registeredHandlerOf, handlerDecorator);
+            return handlerContainer.remove(type);
+        } finally {
+            registryLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the instance to which the specified key is associated.
+     * @param type type whose associated instance is to be returned
+     * @param <T> the type of the value
+     * @throws NullPointerException if {@code type} is {@code null}
+     * @return the current instance associated to {@code type}, or
+     *         {@code null} if there was no association for {@code type}
+     */
+    @Override
+    public <T extends CommandHandler> T getHandler(Class<T> type) throws NullPointerException {
+        requireNonNull(type, "type must not be null");
+        return handlerContainer.get(type);
+    }
+
+    /**
+     * Returns the instance which is able to handle a given command name.
+     * @param commandName command class name
+     * @param <C> type of the command
+     * @param <R> type of the handler's response
+     * @throws NullPointerException if {@code commandName} is {@code null}
+     * @return the instance which is able to handle the given command name, or
+     *         {@code null} if there is no handler associated to {@code commandName}
+     */
+    @Override
+    public <C extends Command, R> CommandHandler<C, R> getHandlerFor(String commandName) throws NullPointerException {
+        requireNonNull(commandName, "commandName must not be null");
+        final int slot = slotOf(commandName);
+        return slot < 0 ? null : slotToHandler.get(slot);
+    }
+
+    /**
+     * Returns the instance which is able to handle a given command type, or the one of its closest
+     * superclass or interface if the command type has no handler of its own.
+     * @param commandType command class
+     * @param <C> type of the command
+     * @param <R> type of the handler's response
+     * @throws NullPointerException if {@code commandType} is {@code null}
+     * @return the instance which is able to handle the given command type, or
+     *         {@code null} if there is no handler associated to {@code commandType}
+     */
+    @Override
+    public <C extends Command, R> CommandHandler<C, R> getHandlerFor(Class<? extends Command> commandType) throws NullPointerException {
+        requireNonNull(commandType, "commandType must not be null");
+        final CommandHandler handler = boundHandlerOf(commandType);
+        return handler != null ? handler : hierarchyCache.get(commandType);
+    }
+
+    /**
+     * Returns the handler bound to exactly the given command type, or {@code null} if there is none.
+     */
+    private CommandHandler boundHandlerOf(Class<?> commandType) {
+        final int slot = slotOf(commandType.getName());
+        // A class with the same name, loaded by another class loader, is a different command
+        return slot < 0 || commandTypes[slot] != commandType ? null : slotToHandler.get(slot);
+    }
+
+    /**
+     * Returns the undecorated handler bound to exactly the given command type, or {@code null} if there is none.
+     */
+    private CommandHandler registeredHandlerOf(Class<?> commandType) {
+        final int slot = slotOf(commandType.getName());
+        return slot < 0 || commandTypes[slot] != commandType ? null : slotToRegisteredHandler.get(slot);
+    }
+
+    /**
+     * Returns {@code true} if the type is associated to an instance in this
+     * container, false otherwise.
+     * @param type type whose presence in this registry is to be tested
+     * @throws NullPointerException if {@code type} is {@code null}
+     * @return {@code true} if the type is associated to an instance in this
+     *         container, false otherwise.
+     */
+    @Override
+    public boolean containsHandler(Class<? extends CommandHandler> type) throws NullPointerException {
+        requireNonNull(type, "type must not be null");
+        return handlerContainer.contains(type);
+    }
+
+    /**
+     * Removes all the registered associations from the registry.
+     */
+    @Override
+    public void clearRegistry() {
+        registryLock.lock();
+        try {
+            for(int slot = 0; slot < commandTypes.length; slot++) {
+                slotToOwner[slot] = null;
+                slotToHandler.set(slot, null);
+                slotToRegisteredHandler.set(slot, null);
+            }
+            hierarchyCache = new CommandHierarchyCache(this::registeredHandlerOf, handlerDecorator);
+            handlerContainer.clear();
+        } finally {
+            registryLock.unlock();
+        }
+    }
+
+    /**
+     * Returns {@code true} if this registry has no stored associations.
+     * @return {@code true} if this registry has no stored associations.
+     */
+    @Override
+    public boolean isRegistryEmpty() {
+        return handlerContainer.isEmpty();
+    }
+
+    /**
+     * Returns the amount of type-instance associations currently in this registry.
+     * @return the amount of type-instance associations currently in this registry.
+     */
+    @Override
+    public int registrySize() {
+        return handlerContainer.size();
+    }
+
+    /**
+     * Returns the slots of the commands processed by the given handler type.
+     * @throws IllegalArgumentException if the handler type is unknown to this registry
+     */
+    private int[] requireSlotsOf(Class<? extends CommandHandler> type) throws IllegalArgumentException {
+        final int[] slots = slotsOf(type.getName());
+        if(slots == null) throw new IllegalArgumentException("The handler " + type.getName() + " was not mapped at compile time");
+        return slots;
+    }
+
+}
@@ -0,0 +1,179 @@
+package dev.sergheev.commandbus.remote;
+
+import java.io.IOException;
+import java.net.StandardSocketOptions;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Queue;
+import java.util.function.Consumer;
+
+/**
+ * A non-blocking connection that exchanges length-prefixed frames, driven by the thread of its selector.
+ *
+ * <p>The outgoing frames are encoded straight into a direct buffer, so many of them are written with a
+ * single system call, and the incoming frames are handed over as views of the read buffer. Both buffers
+ * grow as needed to hold a whole frame, up to {@link #MAX_FRAME_SIZE}. Only the thread of the selector
+ * may use a frame channel.
+ */
+final class FrameChannel {
+
+    /**
+     * The maximum size of the payload of a frame.
+     */
+    static final int MAX_FRAME_SIZE = 16 * 1024 * 1024;
+
+    private static final int INITIAL_BUFFER_SIZE = 64 * 1024;
+
+    private static final int LENGTH_SIZE = 4;
+
+    /**
+     * A frame that is waiting to be written.
+     */
+    interface OutgoingFrame {
+
+        /**
+         * Writes the payload of this frame into the given buffer.
+         * @throws BufferOverflowException if the payload does not fit in the remaining bytes of the buffer
+         */
+        void writeTo(ByteBuffer buffer) throws BufferOverflowException;
+
+        /**
+         * Reports that this frame cannot be written (i.e. it is too large, or its payload cannot be encoded).
+         */
+        void fail(RuntimeException cause);
+
+    }
+
+    private final SocketChannel channel;
+
+    private final SelectionKey key;
+
+    /**
+     * Holds the received bytes that are not handed over yet, in write mode.
+     */
+    private ByteBuffer readBuffer;
+
+    /**
+     * Holds the encoded frames that are not written yet, in write mode.
+     */
+    private ByteBuffer writeBuffer;
+
+    FrameChannel(SocketChannel channel, Selector selector, Object attachment) throws IOException {
+        channel.configureBlocking(false);
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        this.channel = channel;
+        this.key = channel.register(selector, SelectionKey.OP_READ, attachment);
+        this.readBuffer = ByteBuffer.allocateDirect(INITIAL_BUFFER_SIZE);
+        this.writeBuffer = ByteBuffer.allocateDirect(INITIAL_BUFFER_SIZE);
+    }
+
+    /**
+     * Reads the available bytes, and hands the payload of every complete frame over to the given consumer.
+     * The payload is only valid until the consumer returns.
+     * @throws IOException if the connection fails, or a frame is larger than {@link #MAX_FRAME_SIZE}
+     * @return {@code false} if the connection has been closed by the peer
+     */
+    boolean read(Consumer<ByteBuffer> payloadConsumer) throws IOException {
+        if(channel.read(readBuffer) < 0) return false;
+        readBuffer.flip();
+        while(readBuffer.remaining() >= LENGTH_SIZE) {
+            final int length = readBuffer.getInt(readBuffer.position());
+            if(length < 0 || length > MAX_FRAME_SIZE) throw new IOException("Invalid frame length " + length);
+            if(readBuffer.remaining() < LENGTH_SIZE + length) break;
+            final int limit = readBuffer.limit();
+            final int end = readBuffer.position() + LENGTH_SIZE + length;
+            readBuffer.position(readBuffer.position() + LENGTH_SIZE).limit(end);
+            payloadConsumer.accept(readBuffer);
+            readBuffer.limit(limit).position(end);
+        }
+        readBuffer.compact();
+        if(readBuffer.position() >= LENGTH_SIZE) {
+            final int frameSize = LENGTH_SIZE + readBuffer.getInt(0);
+            if(frameSize > readBuffer.capacity()) readBuffer = grow(readBuffer, frameSize);
+        }
+        return true;
+    }
+
+    /**
+     * Encodes the queued frames and writes them, until the queue is empty or the socket cannot take any more bytes
+     * (in which case the rest is written once the socket is writable again).
+     * @throws IOException if the connection fails
+     */
+    void writeAll(Queue<? extends OutgoingFrame> frames) throws IOException {
+        for(OutgoingFrame frame = frames.peek(); frame != null; frame = frames.peek()) {
+            final boolean isAppended;
+            try {
+                isAppended = append(frame);
+            } catch (RuntimeException e) {
+                frames.poll();
+                frame.fail(e);
+                continue;
+            }
+            if(isAppended) {
+                frames.poll();
+            } else if(!flush()) {
+                return;
+            }
+        }
+        flush();
+    }
+
+    /**
+     * Appends the given frame to the write buffer, growing it if the frame does not fit in an empty one.
+     * @throws IllegalArgumentException if the frame is larger than {@link #MAX_FRAME_SIZE}
+     * @return {@code false} if the frame does not fit in the remaining bytes of the write buffer
+     */
+    private boolean append(OutgoingFrame frame) throws IllegalArgumentException {
+        final int start = writeBuffer.position();
+        if(writeBuffer.remaining() <= LENGTH_SIZE) return false;
+        try {
+            writeBuffer.position(start + LENGTH_SIZE);
+            frame.writeTo(writeBuffer);
+            writeBuffer.putInt(start, writeBuffer.position() - start - LENGTH_SIZE);
+            return true;
+        } catch (BufferOverflowException e) {
+            writeBuffer.position(start);
+            if(start > 0) return false;
+            if(writeBuffer.capacity() >= LENGTH_SIZE + MAX_FRAME_SIZE) throw new IllegalArgumentException("The frame is larger than " + MAX_FRAME_SIZE + " bytes");
+            writeBuffer = grow(writeBuffer, writeBuffer.capacity() * 2);
+            return append(frame);
+        } catch (RuntimeException e) {
+            writeBuffer.position(start);
+            throw e;
+        }
+    }
+
+    /**
+     * Writes as many pending bytes as the socket takes, and waits for it to be writable if some are left.
+     * @return {@code true} if all the pending bytes have been written
+     */
+    private boolean flush() throws IOException {
+        if(writeBuffer.position() == 0) return true;
+        writeBuffer.flip();
+        channel.write(writeBuffer);
+        final boolean isFlushed = !writeBuffer.hasRemaining();
+        writeBuffer.compact();
+        key.interestOps(isFlushed ? SelectionKey.OP_READ : SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+        return isFlushed;
+    }
+
+    void close() {
+        key.cancel();
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // The connection is being discarded anyway
+        }
+    }
+
+    private static ByteBuffer grow(ByteBuffer buffer, int minimumCapacity) {
+        final ByteBuffer grown = ByteBuffer.allocateDirect(Math.min(Math.max(minimumCapacity, buffer.capacity() * 2), LENGTH_SIZE + MAX_FRAME_SIZE));
+        buffer.flip();
+        grown.put(buffer);
+        return grown;
+    }
+
+}
@@ -0,0 +1,263 @@
+package dev.sergheev.commandbus.remote;
+
+import dev.sergheev.commandbus.AsyncCommandBus;
+import dev.sergheev.commandbus.Command;
+import dev.sergheev.commandbus.codec.CommandCodec;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * An {@link AsyncCommandBus} that ships the commands to a {@link RemoteCommandBusServer} over a
+ * single TCP connection, and completes their futures once the results come back.
+ *
+ * <p>Every command is tagged with a correlation id, so any amount of commands can be in flight
+ * at the same time on the connection: they are pipelined (written without waiting for the previous
+ * results) and their results are matched back in whatever order the server completes them. The
+ * connection is driven by a single thread that encodes the queued commands straight into its write
+ * buffer, many commands being written with a single system call under load.
+ *
+ * <p>The futures are completed by that thread, so the dependent stages should use the async variants
+ * (or be cheap) not to hold it. A failed command completes its future with a {@link RemoteCommandException},
+ * or an {@link IllegalArgumentException} if the remote bus has no handler for it. If the connection
+ * is lost the commands in flight fail, and the bus is closed: there is no reconnection.
+ */
+public final class RemoteCommandBus implements AsyncCommandBus, AutoCloseable {
+
+    private static final AtomicLong BUS_COUNTER = new AtomicLong();
+
+    /**
+     * A static factory method that connects a new {@code RemoteCommandBus} to the server listening on the given address.
+     * @param address the address of the {@link RemoteCommandBusServer}
+     * @param codec the codec of the commands, which must be equal to the one of the server
+     * @throws NullPointerException if the {@code address} or {@code codec} are {@code null}
+     * @throws IllegalStateException if the connection cannot be established
+     * @return a new {@link RemoteCommandBus} instance connected to the given address
+     */
+    public static RemoteCommandBus connect(InetSocketAddress address, CommandCodec codec) throws NullPointerException, IllegalStateException {
+        requireNonNull(address, "address must not be null");
+        requireNonNull(codec, "codec must not be null");
+        try {
+            return new RemoteCommandBus(address, codec);
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to connect to " + address, e);
+        }
+    }
+
+    private final InetSocketAddress address;
+
+    private final CommandCodec codec;
+
+    private final Selector selector;
+
+    private final FrameChannel frameChannel;
+
+    /**
+     * The commands waiting to be written by the connection thread.
+     */
+    private final Queue<Request> requests;
+
+    /**
+     * The futures of the commands whose results have not come back yet, by correlation id.
+     */
+    private final Map<Long, CompletableFuture<Object>> inFlight;
+
+    private final AtomicLong correlationIds;
+
+    /**
+     * Indicates that the selector has already been woken up to write the queued commands.
+     */
+    private final AtomicBoolean isWakeupPending;
+
+    private final Thread connectionThread;
+
+    private volatile boolean isClosed;
+
+    private RemoteCommandBus(InetSocketAddress address, CommandCodec codec) throws IOException {
+        this.address = address;
+        this.codec = codec;
+        this.selector = Selector.open();
+        final SocketChannel channel = SocketChannel.open();
+        try {
+            channel.connect(address);
+            this.frameChannel = new FrameChannel(channel, selector, null);
+        } catch (IOException e) {
+            channel.close();
+            selector.close();
+            throw e;
+        }
+        this.requests = new ConcurrentLinkedQueue<>();
+        this.inFlight = new ConcurrentHashMap<>();
+        this.correlationIds = new AtomicLong();
+        this.isWakeupPending = new AtomicBoolean();
+        this.isClosed = false;
+        this.connectionThread = new Thread(this::run, "commandbus-remote-" + BUS_COUNTER.incrementAndGet());
+        this.connectionThread.setDaemon(true);
+        this.connectionThread.start();
+    }
+
+    /**
+     * Sends the given command to the remote bus, and waits for its result.
+     * @param command the command that is to be processed
+     * @param <R> the type of the returned result
+     * @throws NullPointerException if the given {@code command} is {@code null}
+     * @throws IllegalArgumentException if the command cannot be encoded, or the remote bus has no handler able to process it
+     * @throws RemoteCommandException if the command failed on the remote bus
+     * @throws IllegalStateException if this bus is closed, or the connection is lost
+     * @return the resulting object from processing the given command
+     */
+    @Override
+    public <R> R execute(Command command) throws NullPointerException, IllegalArgumentException, RemoteCommandException, IllegalStateException {
+        try {
+            return this.<R>executeAsync(command).join();
+        } catch (CompletionException e) {
+            if(e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            if(e.getCause() instanceof Error) throw (Error) e.getCause();
+            throw e;
+        }
+    }
+
+    /**
+     * Sends the given command to the remote bus, without waiting for the previous commands to complete.
+     * @param command the command that is to be processed
+     * @param <R> the type of the returned result
+     * @throws NullPointerException if the given {@code command} is {@code null}
+     * @return a future that completes with the result of the command, or exceptionally as described in {@link #execute(Command)}
+     */
+    @Override
+    @SuppressWarnings({ "unchecked" })
+    public <R> CompletableFuture<R> executeAsync(Command command) throws NullPointerException {
+        requireNonNull(command, "command must not be null");
+        final CompletableFuture<Object> future = new CompletableFuture<>();
+        if(isClosed) {
+            future.completeExceptionally(closedException());
+            return (CompletableFuture<R>) future;
+        }
+        final long correlationId = correlationIds.incrementAndGet();
+        inFlight.put(correlationId, future);
+        requests.add(new Request(correlationId, command));
+        // The connection thread may have failed the commands in flight before this one was added
+        if(isClosed && inFlight.remove(correlationId) != null) future.completeExceptionally(closedException());
+        if(isWakeupPending.compareAndSet(false, true)) selector.wakeup();
+        return (CompletableFuture<R>) future;
+    }
+
+    /**
+     * Returns the amount of commands whose results have not come back yet.
+     * @return the amount of commands in flight
+     */
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+
+    /**
+     * Closes the connection, the commands in flight fail with an {@link IllegalStateException}, as well as any further one.
+     */
+    @Override
+    public void close() {
+        isClosed = true;
+        selector.wakeup();
+        if(Thread.currentThread() == connectionThread) return;
+        try {
+            connectionThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        IllegalStateException failure = null;
+        try {
+            while(!isClosed) {
+                selector.select();
+                isWakeupPending.set(false);
+                if(!selector.selectedKeys().isEmpty()) {
+                    selector.selectedKeys().clear();
+                    if(!frameChannel.read(this::complete)) {
+                        failure = new IllegalStateException("The connection to " + address + " has been closed by the server");
+                        break;
+                    }
+                }
+                frameChannel.writeAll(requests);
+            }
+        } catch (IOException | RuntimeException e) {
+            failure = new IllegalStateException("The connection to " + address + " has been lost", e);
+        } finally {
+            isClosed = true;
+            frameChannel.close();
+            try {
+                selector.close();
+            } catch (IOException ignored) {
+                // The selector is being discarded anyway
+            }
+            final IllegalStateException cause = failure == null ? closedException() : failure;
+            requests.clear();
+            inFlight.keySet().forEach(correlationId -> {
+                final CompletableFuture<Object> future = inFlight.remove(correlationId);
+                if(future != null) future.completeExceptionally(cause);
+            });
+        }
+    }
+
+    /**
+     * Completes the future of the command whose result is held by the given frame.
+     */
+    private void complete(ByteBuffer payload) {
+        final CompletableFuture<Object> future = inFlight.remove(payload.getLong());
+        if(future == null) return;
+        try {
+            if(payload.get() == RemoteValues.SUCCESS) future.complete(RemoteValues.readValue(payload));
+            else future.completeExceptionally(RemoteValues.readFailure(payload));
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            future.completeExceptionally(new IllegalStateException("Unable to decode the result", e));
+        }
+    }
+
+    private IllegalStateException closedException() {
+        return new IllegalStateException("The remote bus connected to " + address + " is closed");
+    }
+
+    /**
+     * A command waiting to be written.
+     */
+    private final class Request implements FrameChannel.OutgoingFrame {
+
+        private final long correlationId;
+
+        private final Command command;
+
+        private Request(long correlationId, Command command) {
+            this.correlationId = correlationId;
+            this.command = command;
+        }
+
+        @Override
+        public void writeTo(ByteBuffer buffer) throws BufferOverflowException {
+            buffer.putLong(correlationId);
+            codec.encode(command, buffer);
+        }
+
+        @Override
+        public void fail(RuntimeException cause) {
+            final CompletableFuture<Object> future = inFlight.remove(correlationId);
+            if(future != null) future.completeExceptionally(cause);
+        }
+
+    }
+
+}
@@ -0,0 +1,325 @@
+package dev.sergheev.commandbus.remote;
+
+import dev.sergheev.commandbus.AsyncCommandBus;
+import dev.sergheev.commandbus.Command;
+import dev.sergheev.commandbus.CommandBus;
+import dev.sergheev.commandbus.codec.CommandCodec;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Serves a local {@link CommandBus} to the {@link RemoteCommandBus}es connected to it over TCP.
+ *
+ * <p>A single thread accepts the connections, decodes the incoming commands and writes the results
+ * back, through a selector. The commands are processed concurrently, through
+ * {@link AsyncCommandBus#executeAsync(Command)} if the bus is asynchronous, or on the given executor
+ * otherwise, so the results are sent back in completion order, matched by the clients through their
+ * correlation ids.
+ */
+public final class RemoteCommandBusServer implements AutoCloseable {
+
+    private static final AtomicLong SERVER_COUNTER = new AtomicLong();
+
+    /**
+     * A static factory method that starts a new {@code RemoteCommandBusServer} serving the given bus, on the common pool if it is not
+     * asynchronous.
+     * @param address the address the server is to listen on (with port {@code 0} for an ephemeral one)
+     * @param bus the bus that is to process the commands
+     * @param codec the codec of the commands, which must be equal to the one of the clients
+     * @throws NullPointerException if the {@code address}, {@code bus} or {@code codec} are {@code null}
+     * @throws IllegalStateException if the server cannot listen on the given address
+     * @return a new {@link RemoteCommandBusServer} instance, listening on the given address
+     */
+    public static RemoteCommandBusServer bind(InetSocketAddress address, CommandBus bus, CommandCodec codec) throws NullPointerException, IllegalStateException {
+        return bind(address, bus, codec, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * A static factory method that starts a new {@code RemoteCommandBusServer} serving the given bus, on the given executor if it is not
+     * asynchronous.
+     * @param address the address the server is to listen on (with port {@code 0} for an ephemeral one)
+     * @param bus the bus that is to process the commands
+     * @param codec the codec of the commands, which must be equal to the one of the clients
+     * @param executor the executor that processes the commands if the {@code bus} is not an {@link AsyncCommandBus}
+     * @throws NullPointerException if the {@code address}, {@code bus}, {@code codec} or {@code executor} are {@code null}
+     * @throws IllegalStateException if the server cannot listen on the given address
+     * @return a new {@link RemoteCommandBusServer} instance, listening on the given address
+     */
+    public static RemoteCommandBusServer bind(InetSocketAddress address, CommandBus bus, CommandCodec codec, Executor executor) throws NullPointerException, IllegalStateException {
+        requireNonNull(address, "address must not be null");
+        requireNonNull(bus, "bus must not be null");
+        requireNonNull(codec, "codec must not be null");
+        requireNonNull(executor, "executor must not be null");
+        try {
+            return new RemoteCommandBusServer(address, bus, codec, executor);
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to listen on " + address, e);
+        }
+    }
+
+    private final CommandBus bus;
+
+    private final CommandCodec codec;
+
+    private final Executor executor;
+
+    private final Selector selector;
+
+    private final ServerSocketChannel serverChannel;
+
+    /**
+     * The connections accepted so far, only accessed by the server thread.
+     */
+    private final Set<Connection> connections;
+
+    /**
+     * The connections that have results waiting to be written.
+     */
+    private final Queue<Connection> pendingConnections;
+
+    /**
+     * Indicates that the selector has already been woken up to write the pending results.
+     */
+    private final AtomicBoolean isWakeupPending;
+
+    private final Thread serverThread;
+
+    private volatile boolean isClosed;
+
+    private RemoteCommandBusServer(InetSocketAddress address, CommandBus bus, CommandCodec codec, Executor executor) throws IOException {
+        this.bus = bus;
+        this.codec = codec;
+        this.executor = executor;
+        this.selector = Selector.open();
+        this.serverChannel = ServerSocketChannel.open();
+        try {
+            serverChannel.bind(address);
+            serverChannel.configureBlocking(false);
+            serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        } catch (IOException e) {
+            serverChannel.close();
+            selector.close();
+            throw e;
+        }
+        this.connections = new HashSet<>();
+        this.pendingConnections = new ConcurrentLinkedQueue<>();
+        this.isWakeupPending = new AtomicBoolean();
+        this.isClosed = false;
+        this.serverThread = new Thread(this::run, "commandbus-remote-server-" + SERVER_COUNTER.incrementAndGet());
+        this.serverThread.setDaemon(true);
+        this.serverThread.start();
+    }
+
+    /**
+     * Returns the address this server listens on, which tells the port chosen for an ephemeral one.
+     * @throws IllegalStateException if this server is closed
+     * @return the address this server listens on
+     */
+    public InetSocketAddress localAddress() throws IllegalStateException {
+        try {
+            return (InetSocketAddress) serverChannel.getLocalAddress();
+        } catch (IOException e) {
+            throw new IllegalStateException("The server is closed", e);
+        }
+    }
+
+    /**
+     * Stops listening and closes all the connections, the results of the commands still being processed are discarded.
+     */
+    @Override
+    public void close() {
+        isClosed = true;
+        selector.wakeup();
+        if(Thread.currentThread() == serverThread) return;
+        try {
+            serverThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        try {
+            while(!isClosed) {
+                selector.select();
+                isWakeupPending.set(false);
+                for(SelectionKey key : selector.selectedKeys()) {
+                    if(!key.isValid()) continue;
+                    if(key.isAcceptable()) {
+                        accept();
+                    } else {
+                        final Connection connection = (Connection) key.attachment();
+                        if(key.isReadable() && !connection.read()) continue;
+                        if(key.isValid() && key.isWritable()) connection.writeResults();
+                    }
+                }
+                selector.selectedKeys().clear();
+                for(Connection connection = pendingConnections.poll(); connection != null; connection = pendingConnections.poll()) {
+                    connection.isPending.set(false);
+                    if(connection.isOpen) connection.writeResults();
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("The server failed", e);
+        } finally {
+            new ArrayList<>(connections).forEach(Connection::close);
+            try {
+                serverChannel.close();
+                selector.close();
+            } catch (IOException ignored) {
+                // The server is being discarded anyway
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        final SocketChannel channel = serverChannel.accept();
+        if(channel == null) return;
+        final Connection connection = new Connection();
+        try {
+            connection.frameChannel = new FrameChannel(channel, selector, connection);
+        } catch (IOException e) {
+            channel.close();
+            return;
+        }
+        connections.add(connection);
+    }
+
+    /**
+     * A client connection and the results waiting to be written to it.
+     */
+    private final class Connection {
+
+        private FrameChannel frameChannel;
+
+        private final Queue<Response> responses = new ConcurrentLinkedQueue<>();
+
+        /**
+         * Indicates that this connection is already queued in the pending connections.
+         */
+        private final AtomicBoolean isPending = new AtomicBoolean();
+
+        private volatile boolean isOpen = true;
+
+        /**
+         * Processes the incoming commands.
+         * @return {@code false} if the connection has been closed
+         */
+        private boolean read() {
+            try {
+                if(frameChannel.read(this::process)) return true;
+            } catch (IOException | RuntimeException e) {
+                // The connection failed, or the client sent an invalid frame: there is no way to recover from it
+            }
+            close();
+            return false;
+        }
+
+        private void process(ByteBuffer payload) {
+            final long correlationId = payload.getLong();
+            CompletableFuture<Object> result;
+            try {
+                final Command command = codec.decode(payload);
+                result = bus instanceof AsyncCommandBus
+                        ? ((AsyncCommandBus) bus).executeAsync(command)
+                        : CompletableFuture.supplyAsync(() -> bus.execute(command), executor);
+            } catch (BufferUnderflowException | IllegalArgumentException e) {
+                result = new CompletableFuture<>();
+                result.completeExceptionally(new IllegalArgumentException("Unable to decode the command", e));
+            } catch (RuntimeException e) {
+                result = new CompletableFuture<>();
+                result.completeExceptionally(e);
+            }
+            result.whenComplete((value, failure) -> respond(new Response(this, correlationId, value, failure)));
+        }
+
+        private void respond(Response response) {
+            if(!isOpen) return;
+            responses.add(response);
+            if(isPending.compareAndSet(false, true)) {
+                pendingConnections.add(this);
+                if(isWakeupPending.compareAndSet(false, true)) selector.wakeup();
+            }
+        }
+
+        private void writeResults() {
+            try {
+                frameChannel.writeAll(responses);
+            } catch (IOException e) {
+                close();
+            }
+        }
+
+        private void close() {
+            isOpen = false;
+            responses.clear();
+            frameChannel.close();
+            connections.remove(this);
+        }
+
+    }
+
+    /**
+     * A result waiting to be written.
+     */
+    private static final class Response implements FrameChannel.OutgoingFrame {
+
+        private final Connection connection;
+
+        private final long correlationId;
+
+        private final Object value;
+
+        private Throwable failure;
+
+        private Response(Connection connection, long correlationId, Object value, Throwable failure) {
+            this.connection = connection;
+            this.correlationId = correlationId;
+            this.value = value;
+            this.failure = failure;
+        }
+
+        @Override
+        public void writeTo(ByteBuffer buffer) throws BufferOverflowException {
+            buffer.putLong(correlationId);
+            final int statusPosition = buffer.position();
+            if(failure == null) {
+                try {
+                    RemoteValues.writeValue(value, buffer.put(RemoteValues.SUCCESS));
+                    return;
+                } catch (IllegalArgumentException e) {
+                    buffer.position(statusPosition);
+                    failure = e;
+                }
+            }
+            RemoteValues.writeFailure(failure, buffer.put(RemoteValues.FAILURE));
+        }
+
+        @Override
+        public void fail(RuntimeException cause) {
+            connection.respond(new Response(connection, correlationId, null, cause));
+        }
+
+    }
+
+}
@@ -0,0 +1,26 @@
+package dev.sergheev.commandbus.remote;
+
+/**
+ * Thrown when a command fails on the remote bus, the failure itself cannot be sent back,
+ * so only its type and its message are known.
+ */
+public class RemoteCommandException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String remoteType;
+
+    RemoteCommandException(String remoteType, String message) {
+        super(remoteType + ": " + message);
+        this.remoteType = remoteType;
+    }
+
+    /**
+     * Returns the fully qualified name of the class of the failure thrown on the remote bus.
+     * @return the fully qualified name of the class of the remote failure
+     */
+    public String remoteType() {
+        return remoteType;
+    }
+
+}
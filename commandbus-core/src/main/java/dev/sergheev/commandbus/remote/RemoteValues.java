@@ -0,0 +1,140 @@
+package dev.sergheev.commandbus.remote;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Encodes the results and failures of the remote commands, the common result types directly,
+ * and any other {@link Serializable} one through the Java serialization.
+ */
+final class RemoteValues {
+
+    static final byte SUCCESS = 0;
+
+    static final byte FAILURE = 1;
+
+    private static final byte NULL = 0;
+    private static final byte INTEGER = 1;
+    private static final byte LONG = 2;
+    private static final byte DOUBLE = 3;
+    private static final byte FLOAT = 4;
+    private static final byte SHORT = 5;
+    private static final byte BYTE = 6;
+    private static final byte CHARACTER = 7;
+    private static final byte BOOLEAN = 8;
+    private static final byte STRING = 9;
+    private static final byte BYTES = 10;
+    private static final byte SERIALIZED = 11;
+
+    private RemoteValues() {}
+
+    /**
+     * Writes the given result, preceded by its type.
+     * @throws IllegalArgumentException if the result is not one of the common types, nor {@link Serializable}
+     */
+    static void writeValue(Object value, ByteBuffer buffer) throws BufferOverflowException, IllegalArgumentException {
+        if(value == null) buffer.put(NULL);
+        else if(value instanceof Integer) buffer.put(INTEGER).putInt((Integer) value);
+        else if(value instanceof Long) buffer.put(LONG).putLong((Long) value);
+        else if(value instanceof Double) buffer.put(DOUBLE).putDouble((Double) value);
+        else if(value instanceof Float) buffer.put(FLOAT).putFloat((Float) value);
+        else if(value instanceof Short) buffer.put(SHORT).putShort((Short) value);
+        else if(value instanceof Byte) buffer.put(BYTE).put((Byte) value);
+        else if(value instanceof Character) buffer.put(CHARACTER).putChar((Character) value);
+        else if(value instanceof Boolean) buffer.put(BOOLEAN).put((Boolean) value ? (byte) 1 : (byte) 0);
+        else if(value instanceof String) writeString((String) value, buffer.put(STRING));
+        else if(value instanceof byte[]) writeBytes((byte[]) value, buffer.put(BYTES));
+        else if(value instanceof Serializable) writeBytes(serialize(value), buffer.put(SERIALIZED));
+        else throw new IllegalArgumentException("The result " + value.getClass().getName() + " cannot be sent, it is not serializable");
+    }
+
+    /**
+     * Reads a result written by {@link #writeValue(Object, ByteBuffer)}.
+     * @throws IllegalArgumentException if the bytes do not hold a result
+     */
+    static Object readValue(ByteBuffer buffer) throws IllegalArgumentException {
+        final byte type = buffer.get();
+        switch (type) {
+            case NULL: return null;
+            case INTEGER: return buffer.getInt();
+            case LONG: return buffer.getLong();
+            case DOUBLE: return buffer.getDouble();
+            case FLOAT: return buffer.getFloat();
+            case SHORT: return buffer.getShort();
+            case BYTE: return buffer.get();
+            case CHARACTER: return buffer.getChar();
+            case BOOLEAN: return buffer.get() != 0;
+            case STRING: return readString(buffer);
+            case BYTES: return readBytes(buffer);
+            case SERIALIZED: return deserialize(readBytes(buffer));
+            default: throw new IllegalArgumentException("Unknown result type " + type);
+        }
+    }
+
+    /**
+     * Writes the type and the message of the given failure, unwrapping the {@link CompletionException}s.
+     */
+    static void writeFailure(Throwable failure, ByteBuffer buffer) throws BufferOverflowException {
+        final Throwable cause = failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+        writeString(cause.getClass().getName(), buffer);
+        writeString(cause.getMessage() == null ? "" : cause.getMessage(), buffer);
+    }
+
+    /**
+     * Reads a failure written by {@link #writeFailure(Throwable, ByteBuffer)}, as an {@link IllegalArgumentException}
+     * if the remote bus has no handler for the command (or rejected it), or as a {@link RemoteCommandException} otherwise.
+     */
+    static RuntimeException readFailure(ByteBuffer buffer) {
+        final String remoteType = readString(buffer);
+        final String message = readString(buffer);
+        if(IllegalArgumentException.class.getName().equals(remoteType)) return new IllegalArgumentException(message);
+        return new RemoteCommandException(remoteType, message);
+    }
+
+    private static void writeString(String string, ByteBuffer buffer) throws BufferOverflowException {
+        writeBytes(string.getBytes(StandardCharsets.UTF_8), buffer);
+    }
+
+    private static String readString(ByteBuffer buffer) throws IllegalArgumentException {
+        return new String(readBytes(buffer), StandardCharsets.UTF_8);
+    }
+
+    private static void writeBytes(byte[] bytes, ByteBuffer buffer) throws BufferOverflowException {
+        buffer.putInt(bytes.length).put(bytes);
+    }
+
+    private static byte[] readBytes(ByteBuffer buffer) throws IllegalArgumentException {
+        final int length = buffer.getInt();
+        if(length < 0 || length > buffer.remaining()) throw new IllegalArgumentException("Invalid length " + length);
+        final byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    private static byte[] serialize(Object value) throws IllegalArgumentException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try(ObjectOutputStream output = new ObjectOutputStream(bytes)) {
+            output.writeObject(value);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Unable to serialize the result " + value.getClass().getName(), e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Object deserialize(byte[] bytes) throws IllegalArgumentException {
+        try(ObjectInputStream input = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return input.readObject();
+        } catch (IOException | ClassNotFoundException e) {
+            throw new IllegalArgumentException("Unable to deserialize the result", e);
+        }
+    }
+
+}
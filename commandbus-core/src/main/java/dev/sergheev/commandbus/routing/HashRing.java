@@ -0,0 +1,163 @@
+package dev.sergheev.commandbus.routing;
+
+import dev.sergheev.commandbus.CommandBus;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * An immutable consistent-hash ring, on which every node owns the given amount of points (its virtual
+ * nodes) and every key belongs to the node owning the first point at or after its own hash, wrapping around.
+ *
+ * <p>The points of a node only depend on its name, so adding a node only moves to it the keys that fall
+ * just before its points, and removing one only moves its own keys, to the nodes that follow its points.
+ */
+final class HashRing {
+
+    static final HashRing EMPTY = new HashRing(Collections.emptyMap(), 0);
+
+    private final Map<String, CommandBus> nodes;
+
+    /**
+     * The buses of the nodes, in the order they were added.
+     */
+    private final CommandBus[] nodeBuses;
+
+    /**
+     * The sorted positions of the points.
+     */
+    private final long[] positions;
+
+    /**
+     * The bus of the node owning the point at the same index.
+     */
+    private final CommandBus[] owners;
+
+    /**
+     * The name of the node owning the point at the same index.
+     */
+    private final String[] ownerNames;
+
+    private HashRing(Map<String, CommandBus> nodes, int virtualNodes) {
+        this.nodes = nodes;
+        this.nodeBuses = nodes.values().toArray(new CommandBus[0]);
+        final int pointCount = nodes.size() * virtualNodes;
+        final Point[] points = new Point[pointCount];
+        int index = 0;
+        for(Map.Entry<String, CommandBus> node : nodes.entrySet()) {
+            for(int i = 0; i < virtualNodes; i++) points[index++] = new Point(hash(node.getKey(), i), node.getKey(), node.getValue());
+        }
+        Arrays.sort(points, Comparator.<Point>comparingLong(point -> point.position).thenComparing(point -> point.name));
+        this.positions = new long[pointCount];
+        this.owners = new CommandBus[pointCount];
+        this.ownerNames = new String[pointCount];
+        for(int i = 0; i < pointCount; i++) {
+            positions[i] = points[i].position;
+            owners[i] = points[i].bus;
+            ownerNames[i] = points[i].name;
+        }
+    }
+
+    HashRing withNode(String name, CommandBus bus, int virtualNodes) {
+        final Map<String, CommandBus> nodes = new LinkedHashMap<>(this.nodes);
+        nodes.put(name, bus);
+        return new HashRing(nodes, virtualNodes);
+    }
+
+    HashRing withoutNode(String name, int virtualNodes) {
+        final Map<String, CommandBus> nodes = new LinkedHashMap<>(this.nodes);
+        nodes.remove(name);
+        return new HashRing(nodes, virtualNodes);
+    }
+
+    Map<String, CommandBus> nodes() {
+        return nodes;
+    }
+
+    /**
+     * Returns the bus of the node at the given index, in the order the nodes were added.
+     */
+    CommandBus nodeAt(int index) {
+        return nodeBuses[index];
+    }
+
+    int nodeCount() {
+        return nodeBuses.length;
+    }
+
+    boolean isEmpty() {
+        return positions.length == 0;
+    }
+
+    /**
+     * Returns the index of the point owning the given key, the ring must not be empty.
+     */
+    int pointOf(Object key) {
+        final int index = Arrays.binarySearch(positions, hash(key));
+        final int point = index >= 0 ? index : -index - 1;
+        return point == positions.length ? 0 : point;
+    }
+
+    CommandBus ownerAt(int point) {
+        return owners[point];
+    }
+
+    String ownerNameAt(int point) {
+        return ownerNames[point];
+    }
+
+    /**
+     * Hashes the name of a node and the index of one of its points (FNV-1a, then mixed).
+     */
+    private static long hash(String name, int index) {
+        return mix((fnv(name) ^ '#') * 0x100000001B3L ^ index);
+    }
+
+    /**
+     * Hashes the given routing key the same way on every JVM: the character sequences by their characters,
+     * the enum constants by their name, and the other keys by their {@code hashCode}.
+     */
+    private static long hash(Object key) {
+        if(key instanceof CharSequence) return mix(fnv((CharSequence) key));
+        if(key instanceof Enum) return mix(fnv(((Enum<?>) key).name()));
+        return mix(key.hashCode());
+    }
+
+    /**
+     * Hashes the characters of the given sequence (FNV-1a).
+     */
+    private static long fnv(CharSequence chars) {
+        long hash = 0xCBF29CE484222325L;
+        for(int i = 0; i < chars.length(); i++) hash = (hash ^ chars.charAt(i)) * 0x100000001B3L;
+        return hash;
+    }
+
+    /**
+     * Spreads the bits of the given value over the whole ring (the finalizer of MurmurHash3).
+     */
+    private static long mix(long value) {
+        value = (value ^ (value >>> 33)) * 0xFF51AFD7ED558CCDL;
+        value = (value ^ (value >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return value ^ (value >>> 33);
+    }
+
+    private static final class Point {
+
+        private final long position;
+
+        private final String name;
+
+        private final CommandBus bus;
+
+        private Point(long position, String name, CommandBus bus) {
+            this.position = position;
+            this.name = name;
+            this.bus = bus;
+        }
+
+    }
+
+}
@@ -0,0 +1,214 @@
+package dev.sergheev.commandbus.routing;
+
+import dev.sergheev.commandbus.AsyncCommandBus;
+import dev.sergheev.commandbus.Command;
+import dev.sergheev.commandbus.CommandBus;
+import dev.sergheev.commandbus.PartitionedCommand;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A {@link CommandBus} that spreads the commands across several buses (its nodes), local
+ * or remote, placing them on a consistent-hash ring by their routing key, so the commands
+ * with equal keys keep landing on the same node while the membership does not change.
+ *
+ * <p>Every node owns {@link #withVirtualNodes(int) several points} of the ring, which evens out
+ * the share of the keys of every node. When a node is added it only takes over keys from the others
+ * (about a share of them), and when one is removed only its own keys move, so most of the keys stay
+ * on their node across membership changes.
+ *
+ * <p>The routing key of a {@link PartitionedCommand} is its {@link PartitionedCommand#partitionKey()}
+ * by default, and the commands without key are spread across the nodes in turn. The membership
+ * may change at any time, the routing of the commands being dispatched meanwhile is undefined.
+ *
+ * <p>The character sequences and the enum constants are hashed by their characters and their name,
+ * any other routing key by its {@code hashCode}, which must then be the same on every JVM (as it is
+ * for the boxed primitives or {@link java.util.UUID}, but not for the identity hash code), so that
+ * the routing buses of different processes route the same keys to the same nodes.
+ */
+public final class RoutingCommandBus implements AsyncCommandBus {
+
+    /**
+     * The default amount of points of every node on the ring.
+     */
+    public static final int DEFAULT_VIRTUAL_NODES = 160;
+
+    /**
+     * A static factory method for the creation of a new {@code RoutingCommandBus} instance, without nodes.
+     * @return a new {@link RoutingCommandBus} instance
+     */
+    public static RoutingCommandBus create() {
+        return new RoutingCommandBus();
+    }
+
+    /**
+     * The amount of points of every node, guarded by this bus when it is changed.
+     */
+    private volatile int virtualNodes;
+
+    /**
+     * Returns the routing key of a command, read by the routing threads while it may be replaced.
+     */
+    private volatile Function<? super Command, ?> routingKeyExtractor;
+
+    /**
+     * The current ring, replaced on every membership change.
+     */
+    private volatile HashRing ring;
+
+    /**
+     * Picks the node of the commands without routing key.
+     */
+    private final AtomicInteger nextNode;
+
+    private RoutingCommandBus() {
+        this.virtualNodes = DEFAULT_VIRTUAL_NODES;
+        this.routingKeyExtractor = command -> command instanceof PartitionedCommand ? ((PartitionedCommand) command).partitionKey() : null;
+        this.ring = HashRing.EMPTY;
+        this.nextNode = new AtomicInteger();
+    }
+
+    /**
+     * Gives every node the given amount of points on the ring ({@value #DEFAULT_VIRTUAL_NODES} by default), the more
+     * points, the more even the share of the keys of every node.
+     * @param virtualNodes the amount of points of every node
+     * @throws IllegalArgumentException if the {@code virtualNodes} is not positive
+     * @throws IllegalStateException if nodes have already been added
+     * @return the current {@link RoutingCommandBus} instance
+     */
+    public synchronized RoutingCommandBus withVirtualNodes(int virtualNodes) throws IllegalArgumentException, IllegalStateException {
+        if(virtualNodes <= 0) throw new IllegalArgumentException("virtualNodes must be positive");
+        if(!ring.nodes().isEmpty()) throw new IllegalStateException("The amount of virtual nodes cannot be changed once nodes have been added");
+        this.virtualNodes = virtualNodes;
+        return this;
+    }
+
+    /**
+     * Routes the commands by the key returned by the given extractor, the commands whose key is {@code null} being
+     * spread across the nodes in turn.
+     * Routing keys other than character sequences and enum constants must have a {@code hashCode} that is
+     * the same on every JVM.
+     * @param routingKeyExtractor returns the routing key of a command, or {@code null} if it has none
+     * @throws NullPointerException if the given {@code routingKeyExtractor} is {@code null}
+     * @return the current {@link RoutingCommandBus} instance
+     */
+    public synchronized RoutingCommandBus withRoutingKey(Function<? super Command, ?> routingKeyExtractor) throws NullPointerException {
+        requireNonNull(routingKeyExtractor, "routingKeyExtractor must not be null");
+        this.routingKeyExtractor = routingKeyExtractor;
+        return this;
+    }
+
+    /**
+     * Adds a node to the ring. The name places the node on the ring, so a node keeps its keys as long as it keeps its name.
+     * @param name the unique name of the node
+     * @param bus the bus of the node
+     * @throws NullPointerException if the given {@code name} or {@code bus} are {@code null}
+     * @throws IllegalArgumentException if there is already a node with the given name
+     * @return the current {@link RoutingCommandBus} instance
+     */
+    public synchronized RoutingCommandBus addNode(String name, CommandBus bus) throws NullPointerException, IllegalArgumentException {
+        requireNonNull(name, "name must not be null");
+        requireNonNull(bus, "bus must not be null");
+        if(ring.nodes().containsKey(name)) throw new IllegalArgumentException("There is already a node named " + name);
+        ring = ring.withNode(name, bus, virtualNodes);
+        return this;
+    }
+
+    /**
+     * Removes a node from the ring, its keys are taken over by the nodes that follow its points.
+     * @param name the name of the node
+     * @throws NullPointerException if the given {@code name} is {@code null}
+     * @return the bus of the removed node, or {@code null} if there was no node with the given name
+     */
+    public synchronized CommandBus removeNode(String name) throws NullPointerException {
+        requireNonNull(name, "name must not be null");
+        final CommandBus bus = ring.nodes().get(name);
+        if(bus != null) ring = ring.withoutNode(name, virtualNodes);
+        return bus;
+    }
+
+    /**
+     * Returns the names of the nodes, in the order they were added.
+     * @return an unmodifiable list of the names of the nodes
+     */
+    public List<String> nodeNames() {
+        return Collections.unmodifiableList(new ArrayList<>(ring.nodes().keySet()));
+    }
+
+    /**
+     * Returns the name of the node that owns the given routing key.
+     * @param routingKey the routing key
+     * @throws NullPointerException if the given {@code routingKey} is {@code null}
+     * @throws IllegalStateException if there is no node
+     * @return the name of the node that owns the given routing key
+     */
+    public String nodeFor(Object routingKey) throws NullPointerException, IllegalStateException {
+        requireNonNull(routingKey, "routingKey must not be null");
+        final HashRing ring = nonEmptyRing();
+        return ring.ownerNameAt(ring.pointOf(routingKey));
+    }
+
+    /**
+     * Returns the resulting object from processing the given command on the node that owns its routing key.
+     * @param command the command that is to be processed
+     * @param <R> the type of the returned result
+     * @throws NullPointerException if the given {@code command} is {@code null}
+     * @throws IllegalArgumentException if the node has no handler able to process the given {@code command}
+     * @throws IllegalStateException if there is no node
+     * @return the resulting object from processing the given command
+     */
+    @Override
+    public <R> R execute(Command command) throws NullPointerException, IllegalArgumentException, IllegalStateException {
+        requireNonNull(command, "command must not be null");
+        return route(command).execute(command);
+    }
+
+    /**
+     * Returns a future that completes with the resulting object from processing the given command on the node that
+     * owns its routing key. The command is processed asynchronously if the bus of the node is an {@link AsyncCommandBus},
+     * and by the calling thread otherwise.
+     * @param command the command that is to be processed
+     * @param <R> the type of the returned result
+     * @throws NullPointerException if the given {@code command} is {@code null}
+     * @return a future that completes with the resulting object from processing the given command, or exceptionally
+     *         with an {@link IllegalStateException} if there is no node
+     */
+    @Override
+    public <R> CompletableFuture<R> executeAsync(Command command) throws NullPointerException {
+        requireNonNull(command, "command must not be null");
+        try {
+            final CommandBus bus = route(command);
+            if(bus instanceof AsyncCommandBus) return ((AsyncCommandBus) bus).executeAsync(command);
+            return CompletableFuture.completedFuture(bus.execute(command));
+        } catch (RuntimeException e) {
+            final CompletableFuture<R> future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+            return future;
+        }
+    }
+
+    /**
+     * Returns the bus of the node the given command is to be processed on.
+     * @throws IllegalStateException if there is no node
+     */
+    private CommandBus route(Command command) throws IllegalStateException {
+        final HashRing ring = nonEmptyRing();
+        final Object routingKey = routingKeyExtractor.apply(command);
+        if(routingKey != null) return ring.ownerAt(ring.pointOf(routingKey));
+        return ring.nodeAt(Math.floorMod(nextNode.getAndIncrement(), ring.nodeCount()));
+    }
+
+    private HashRing nonEmptyRing() throws IllegalStateException {
+        final HashRing ring = this.ring;
+        if(ring.isEmpty()) throw new IllegalStateException("There is no node to route the commands to");
+        return ring;
+    }
+
+}
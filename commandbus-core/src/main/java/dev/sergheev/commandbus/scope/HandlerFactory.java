@@ -0,0 +1,49 @@
+package dev.sergheev.commandbus.scope;
+
+import dev.sergheev.commandbus.CommandHandler;
+
+import java.util.function.Supplier;
+
+/**
+ * Creates, releases and destroys the instances of a scoped handler, notifying its lifecycle.
+ */
+@SuppressWarnings({ "rawtypes", "unchecked" })
+final class HandlerFactory {
+
+    private final Class<? extends CommandHandler> type;
+
+    private final Supplier<?> supplier;
+
+    private final HandlerLifecycle lifecycle;
+
+    HandlerFactory(Class<? extends CommandHandler> type, Supplier<?> supplier, HandlerLifecycle lifecycle) {
+        this.type = type;
+        this.supplier = supplier;
+        this.lifecycle = lifecycle;
+    }
+
+    /**
+     * Creates a new instance of the handler.
+     * @throws IllegalStateException if the supplier does not supply an instance of the handler type
+     */
+    CommandHandler create() throws IllegalStateException {
+        final Object instance = supplier.get();
+        if(!type.isInstance(instance)) throw new IllegalStateException("The supplier of the scoped handler " + type.getName() + " must supply an instance of it");
+        final CommandHandler handler = (CommandHandler) instance;
+        lifecycle.onCreate(handler);
+        return handler;
+    }
+
+    void release(CommandHandler handler) {
+        lifecycle.onRelease(handler);
+    }
+
+    void destroy(CommandHandler handler) {
+        lifecycle.onDestroy(handler);
+    }
+
+    String typeName() {
+        return type.getName();
+    }
+
+}
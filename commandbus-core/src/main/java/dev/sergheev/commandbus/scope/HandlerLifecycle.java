@@ -0,0 +1,46 @@
+package dev.sergheev.commandbus.scope;
+
+import dev.sergheev.commandbus.CommandHandler;
+
+/**
+ * Callbacks notified of the lifecycle of the handler instances created by a {@link HandlerScope}.
+ *
+ * <p>The callbacks do nothing by default. {@link #onCreate} and {@link #onRelease} are invoked from the thread
+ * that uses the instance, while {@link #onDestroy} may be invoked from any thread: the thread that closes the
+ * scope, the thread that gives back an instance of a closed pool, or the thread that creates the next instance
+ * of a thread-confined scope, which destroys the instances of the terminated threads.
+ * @param <T> the type of the handler instances
+ */
+@SuppressWarnings({ "rawtypes" })
+public interface HandlerLifecycle<T extends CommandHandler> {
+
+    /**
+     * Returns a lifecycle whose callbacks do nothing.
+     * @param <T> the type of the handler instances
+     * @return a lifecycle whose callbacks do nothing
+     */
+    static <T extends CommandHandler> HandlerLifecycle<T> none() {
+        return new HandlerLifecycle<T>() {};
+    }
+
+    /**
+     * Invoked once an instance has been created, before it processes any command.
+     * @param handler the created instance
+     */
+    default void onCreate(T handler) {}
+
+    /**
+     * Invoked every time an instance has processed a command (or a batch of commands), before it is
+     * handed out again, typically to reset the scratch state it keeps between commands.
+     * @param handler the instance that processed the command
+     */
+    default void onRelease(T handler) {}
+
+    /**
+     * Invoked once an instance is discarded by its scope, after which it does not process any other command. It is
+     * not necessarily invoked from the thread that used the instance, but never while the instance is in use.
+     * @param handler the discarded instance
+     */
+    default void onDestroy(T handler) {}
+
+}
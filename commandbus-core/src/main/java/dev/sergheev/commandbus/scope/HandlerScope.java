@@ -0,0 +1,117 @@
+package dev.sergheev.commandbus.scope;
+
+import dev.sergheev.commandbus.CommandHandler;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+
+/**
+ * Defines how many instances of a handler are created, and which of them processes each command.
+ *
+ * <p>By default a single handler instance processes all the commands, so a handler that keeps mutable
+ * scratch state (parsers, buffers, encoders) has to synchronize it. A scoped handler is instead created
+ * by a supplier, and each command is processed by an instance that no other thread is using meanwhile:
+ * <ul>
+ *     <li>{@link #threadConfined()}: every thread has its own instance</li>
+ *     <li>{@link #pooled(int)}: the instances are taken from a bounded pool and given back once done</li>
+ * </ul>
+ *
+ * <p>A scope can be shared by several handlers. Closing it destroys all the instances it created, after
+ * which the handlers bound to it can no longer process commands.
+ */
+@SuppressWarnings({ "rawtypes" })
+public abstract class HandlerScope implements AutoCloseable {
+
+    /**
+     * Creates a scope in which every thread processes the commands with its own handler instance.
+     * The instances of the threads that terminated are destroyed the next time a thread creates its own.
+     * @return a new thread-confined {@link HandlerScope}
+     */
+    public static HandlerScope threadConfined() {
+        return new ThreadConfinedScope();
+    }
+
+    /**
+     * Creates a scope in which the commands are processed by instances taken from a pool of at most the given
+     * amount of instances, which are created on demand. When all of them are in use, the threads wait for one
+     * to be given back, so a handler that executes a command of its own type while all the instances are in use
+     * (including its own) waits forever.
+     * @param capacity the maximum amount of instances of each handler
+     * @throws IllegalArgumentException if the {@code capacity} is not positive
+     * @return a new pooled {@link HandlerScope}
+     */
+    public static HandlerScope pooled(int capacity) throws IllegalArgumentException {
+        if(capacity <= 0) throw new IllegalArgumentException("capacity must be positive");
+        return new PooledScope(capacity);
+    }
+
+    /**
+     * The scoped handlers bound to this scope, destroyed when this scope is closed.
+     */
+    private final List<ScopedCommandHandler> scopedHandlers;
+
+    HandlerScope() {
+        this.scopedHandlers = new CopyOnWriteArrayList<>();
+    }
+
+    /**
+     * Binds a handler to this scope, creating its first instance.
+     * @param type the type of the handler class
+     * @param supplier the supplier of the instances of the previously mentioned type
+     * @param lifecycle the callbacks notified of the lifecycle of the instances
+     * @throws IllegalStateException if this scope is closed
+     * @throws IllegalStateException if the {@code supplier} does not supply an instance of the {@code type}
+     * @return the scoped handler that hands every command over to an instance of this scope
+     */
+    final ScopedCommandHandler bind(Class<? extends CommandHandler> type, Supplier<?> supplier, HandlerLifecycle lifecycle) throws IllegalStateException {
+        final ScopedCommandHandler scopedHandler = newScopedHandler(new HandlerFactory(type, supplier, lifecycle));
+        scopedHandlers.add(scopedHandler);
+        return scopedHandler;
+    }
+
+    /**
+     * Creates the scoped handler of the instances created by the given factory.
+     */
+    abstract ScopedCommandHandler newScopedHandler(HandlerFactory factory);
+
+    /**
+     * Destroys all the instances created in this scope. The handlers bound to this scope throw an
+     * {@link IllegalStateException} when processing further commands.
+     */
+    @Override
+    public void close() {
+        for(ScopedCommandHandler scopedHandler : scopedHandlers) scopedHandler.close();
+    }
+
+    /**
+     * A scope in which every thread has its own handler instance.
+     */
+    private static final class ThreadConfinedScope extends HandlerScope {
+
+        @Override
+        ScopedCommandHandler newScopedHandler(HandlerFactory factory) {
+            return new ThreadConfinedCommandHandler(factory);
+        }
+
+    }
+
+    /**
+     * A scope in which the handler instances are taken from a bounded pool.
+     */
+    private static final class PooledScope extends HandlerScope {
+
+        private final int capacity;
+
+        private PooledScope(int capacity) {
+            this.capacity = capacity;
+        }
+
+        @Override
+        ScopedCommandHandler newScopedHandler(HandlerFactory factory) {
+            return new PooledCommandHandler(factory, capacity);
+        }
+
+    }
+
+}
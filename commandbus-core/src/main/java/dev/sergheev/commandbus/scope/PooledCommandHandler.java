@@ -0,0 +1,85 @@
+package dev.sergheev.commandbus.scope;
+
+import dev.sergheev.commandbus.CommandHandler;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+
+/**
+ * A scoped handler that processes the commands with instances taken from a bounded pool.
+ *
+ * <p>Every thread holds a permit while it uses an instance, so no more instances than permits
+ * are ever in use, and an instance is only created when none is idle. The idle instances are
+ * kept in a lock-free queue, so acquiring an instance does not block unless the pool is exhausted.
+ * Acquiring waits without a timeout, so a nested command of the same handler type executed while the
+ * pool is exhausted deadlocks the threads holding its instances.
+ */
+@SuppressWarnings({ "rawtypes" })
+final class PooledCommandHandler extends ScopedCommandHandler {
+
+    /**
+     * The permits of the instances that can still be acquired.
+     */
+    private final Semaphore permits;
+
+    /**
+     * The instances that are not in use.
+     */
+    private final Queue<CommandHandler> idleInstances;
+
+    private final CommandHandler prototype;
+
+    private volatile boolean isClosed;
+
+    PooledCommandHandler(HandlerFactory factory, int capacity) throws IllegalStateException {
+        super(factory);
+        this.permits = new Semaphore(capacity);
+        this.idleInstances = new ConcurrentLinkedQueue<>();
+        this.isClosed = false;
+        this.prototype = factory.create();
+        idleInstances.add(prototype);
+    }
+
+    @Override
+    CommandHandler prototype() {
+        return prototype;
+    }
+
+    @Override
+    CommandHandler acquire() throws IllegalStateException {
+        if(isClosed) throw closedException();
+        permits.acquireUninterruptibly();
+        final CommandHandler handler = idleInstances.poll();
+        if(handler != null) return handler;
+        try {
+            return factory.create();
+        } catch (RuntimeException | Error e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    @Override
+    void release(CommandHandler handler) {
+        try {
+            factory.release(handler);
+        } finally {
+            idleInstances.add(handler);
+            permits.release();
+            if(isClosed) destroyIdleInstances();
+        }
+    }
+
+    @Override
+    void close() {
+        isClosed = true;
+        destroyIdleInstances();
+    }
+
+    private void destroyIdleInstances() {
+        CommandHandler handler;
+        while((handler = idleInstances.poll()) != null) factory.destroy(handler);
+    }
+
+}
@@ -0,0 +1,78 @@
+package dev.sergheev.commandbus.scope;
+
+import dev.sergheev.commandbus.BatchCommandHandler;
+import dev.sergheev.commandbus.Command;
+import dev.sergheev.commandbus.CommandHandler;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A handler that hands every command over to an instance of its scope, acquired for the
+ * time of the command and released right after it.
+ *
+ * <p>A group of commands is processed by a single instance, at once if the instance is a
+ * {@link BatchCommandHandler} or one by one otherwise.
+ */
+@SuppressWarnings({ "rawtypes", "unchecked" })
+abstract class ScopedCommandHandler implements BatchCommandHandler {
+
+    /**
+     * Creates, releases and destroys the instances of this handler.
+     */
+    final HandlerFactory factory;
+
+    ScopedCommandHandler(HandlerFactory factory) {
+        this.factory = factory;
+    }
+
+    /**
+     * Returns the instance created when this handler was bound to its scope, which is the one registered
+     * in the registry, so it is recognized and replaced by this handler when it is decorated.
+     */
+    abstract CommandHandler prototype();
+
+    /**
+     * Returns an instance that no other thread uses until it is released.
+     * @throws IllegalStateException if the scope is closed
+     */
+    abstract CommandHandler acquire() throws IllegalStateException;
+
+    /**
+     * Gives back an instance once it has processed a command.
+     */
+    abstract void release(CommandHandler handler);
+
+    /**
+     * Destroys the instances of this handler, after which it can no longer process commands.
+     */
+    abstract void close();
+
+    @Override
+    public Object handle(Command command) {
+        final CommandHandler handler = acquire();
+        try {
+            return handler.handle(command);
+        } finally {
+            release(handler);
+        }
+    }
+
+    @Override
+    public List handleAll(List commands) {
+        final CommandHandler handler = acquire();
+        try {
+            if(handler instanceof BatchCommandHandler) return ((BatchCommandHandler) handler).handleAll(commands);
+            final List<Object> results = new ArrayList<>(commands.size());
+            for(Object command : commands) results.add(handler.handle((Command) command));
+            return results;
+        } finally {
+            release(handler);
+        }
+    }
+
+    IllegalStateException closedException() {
+        return new IllegalStateException("The scope of the handler " + factory.typeName() + " is closed");
+    }
+
+}
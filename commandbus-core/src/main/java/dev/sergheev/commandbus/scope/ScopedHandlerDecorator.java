@@ -0,0 +1,89 @@
+package dev.sergheev.commandbus.scope;
+
+import dev.sergheev.commandbus.Command;
+import dev.sergheev.commandbus.CommandHandler;
+import dev.sergheev.commandbus.registry.CommandHandlerDecorator;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A {@link CommandHandlerDecorator} that replaces the prototype instances of the scoped handlers
+ * by the handler that hands the commands over to the instances of their scope.
+ *
+ * <p>The prototype of a scoped handler is the instance registered in the registry, so it can be
+ * looked up by type like any other handler, while the commands are dispatched to its scope.
+ * Handlers that are not scoped are left untouched.
+ */
+@SuppressWarnings({ "rawtypes" })
+public class ScopedHandlerDecorator implements CommandHandlerDecorator {
+
+    /**
+     * Associates the prototype of every scoped handler to the handler that dispatches to its scope.
+     */
+    private final Map<CommandHandler, ScopedCommandHandler> prototypeToScopedHandler;
+
+    public ScopedHandlerDecorator() {
+        this.prototypeToScopedHandler = new IdentityHashMap<>();
+    }
+
+    private ScopedHandlerDecorator(Map<CommandHandler, ScopedCommandHandler> prototypeToScopedHandler) {
+        this.prototypeToScopedHandler = prototypeToScopedHandler;
+    }
+
+    /**
+     * Binds a handler to the given scope, and returns the prototype instance that is to be registered.
+     * @param type the type of the handler class
+     * @param supplier the supplier of the instances of the previously mentioned type
+     * @param scope the scope that decides which instance processes every command
+     * @param lifecycle the callbacks notified of the lifecycle of the instances
+     * @param <T> the type of the handler
+     * @throws NullPointerException if the {@code type}, {@code supplier}, {@code scope} or {@code lifecycle} are {@code null}
+     * @throws IllegalStateException if the {@code scope} is closed
+     * @throws IllegalStateException if the {@code supplier} does not supply an instance of the {@code type}
+     * @return the prototype instance of the handler
+     */
+    public <T extends CommandHandler> T add(Class<T> type, Supplier<? extends T> supplier, HandlerScope scope,
+                                            HandlerLifecycle<? super T> lifecycle) throws NullPointerException, IllegalStateException {
+        requireNonNull(type, "type must not be null");
+        requireNonNull(supplier, "supplier must not be null");
+        requireNonNull(scope, "scope must not be null");
+        requireNonNull(lifecycle, "lifecycle must not be null");
+        final ScopedCommandHandler scopedHandler = scope.bind(type, supplier, lifecycle);
+        prototypeToScopedHandler.put(scopedHandler.prototype(), scopedHandler);
+        return type.cast(scopedHandler.prototype());
+    }
+
+    /**
+     * Returns {@code true} if no handler has been bound to a scope.
+     * @return {@code true} if no handler has been bound to a scope, {@code false} otherwise
+     */
+    public boolean isEmpty() {
+        return prototypeToScopedHandler.isEmpty();
+    }
+
+    /**
+     * Returns an unmodifiable copy of this decorator, which the handlers bound afterwards are not part of.
+     * @return a copy of this decorator with the handlers bound so far
+     */
+    public ScopedHandlerDecorator snapshot() {
+        return new ScopedHandlerDecorator(Collections.unmodifiableMap(new IdentityHashMap<>(prototypeToScopedHandler)));
+    }
+
+    /**
+     * Returns the scoped handler of the given instance if it is the prototype of one.
+     * @param commandType the type of the command the handler is registered for
+     * @param handler the registered handler instance
+     * @return the scoped handler of the given instance, or the given instance if it is not scoped
+     */
+    @Override
+    public CommandHandler decorate(Class<? extends Command> commandType, CommandHandler handler) {
+        final ScopedCommandHandler scopedHandler = prototypeToScopedHandler.get(handler);
+        return scopedHandler == null ? handler : scopedHandler;
+    }
+
+}
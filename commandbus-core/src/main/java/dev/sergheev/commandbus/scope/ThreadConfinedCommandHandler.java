@@ -0,0 +1,106 @@
+package dev.sergheev.commandbus.scope;
+
+import dev.sergheev.commandbus.CommandHandler;
+
+import java.lang.ref.WeakReference;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * A scoped handler that processes the commands of every thread with an instance of its own,
+ * created the first time the thread executes one of them.
+ *
+ * <p>A command executed by a handler while processing another command of the same type in the
+ * same thread is processed by the same instance, so such handlers must not keep scratch state
+ * across the nested execution.
+ *
+ * <p>The instances of the threads that terminated are destroyed the next time a thread creates its
+ * own, so short-lived threads do not retain an instance each until the scope is closed.
+ */
+@SuppressWarnings({ "rawtypes" })
+final class ThreadConfinedCommandHandler extends ScopedCommandHandler {
+
+    /**
+     * The instance of every thread.
+     */
+    private final ThreadLocal<CommandHandler> threadInstance;
+
+    /**
+     * All the live instances with the thread they belong to, destroyed when their thread
+     * terminates or when the scope is closed.
+     */
+    private final Queue<ThreadInstance> instances;
+
+    private final CommandHandler prototype;
+
+    private volatile boolean isClosed;
+
+    ThreadConfinedCommandHandler(HandlerFactory factory) throws IllegalStateException {
+        super(factory);
+        this.threadInstance = new ThreadLocal<>();
+        this.instances = new ConcurrentLinkedQueue<>();
+        this.isClosed = false;
+        this.prototype = acquire();
+    }
+
+    @Override
+    CommandHandler prototype() {
+        return prototype;
+    }
+
+    @Override
+    CommandHandler acquire() throws IllegalStateException {
+        if(isClosed) throw closedException();
+        CommandHandler handler = threadInstance.get();
+        if(handler == null) {
+            destroyTerminatedThreadInstances();
+            handler = factory.create();
+            instances.add(new ThreadInstance(Thread.currentThread(), handler));
+            threadInstance.set(handler);
+        }
+        return handler;
+    }
+
+    /**
+     * Destroys the instances of the threads that terminated, which no thread can use anymore.
+     */
+    private void destroyTerminatedThreadInstances() {
+        for(ThreadInstance instance : instances) {
+            if(instance.isTerminated() && instances.remove(instance)) factory.destroy(instance.handler);
+        }
+    }
+
+    @Override
+    void release(CommandHandler handler) {
+        factory.release(handler);
+    }
+
+    @Override
+    void close() {
+        isClosed = true;
+        ThreadInstance instance;
+        while((instance = instances.poll()) != null) factory.destroy(instance.handler);
+    }
+
+    /**
+     * An instance with the thread it belongs to, which is only weakly referenced so it can be collected once terminated.
+     */
+    private static final class ThreadInstance {
+
+        private final WeakReference<Thread> thread;
+
+        private final CommandHandler handler;
+
+        private ThreadInstance(Thread thread, CommandHandler handler) {
+            this.thread = new WeakReference<>(thread);
+            this.handler = handler;
+        }
+
+        private boolean isTerminated() {
+            final Thread owner = thread.get();
+            return owner == null || !owner.isAlive();
+        }
+
+    }
+
+}
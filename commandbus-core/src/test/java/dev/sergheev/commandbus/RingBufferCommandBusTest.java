@@ -0,0 +1,156 @@
+package dev.sergheev.commandbus;
+
+import dev.sergheev.commandbus.mapping.CommandMapping;
+import dev.sergheev.commandbus.registry.CommandHandlerRegistry;
+import dev.sergheev.commandbus.registry.CommandHandlerRegistryFactory;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+public class RingBufferCommandBusTest {
+
+    public static class RecordCommand implements Command {
+        private final int producer;
+        private final int sequence;
+        public RecordCommand(int producer, int sequence) {
+            this.producer = producer;
+            this.sequence = sequence;
+        }
+    }
+
+    public static class FailingCommand implements Command {}
+
+    /**
+     * Records the sequence of the commands of every producer, only ever called by the consumer thread.
+     */
+    @CommandMapping(RecordCommand.class)
+    public static class RecordCommandHandler implements CommandHandler<RecordCommand, String> {
+        private final List<List<Integer>> producerToSequences = new ArrayList<>();
+        public RecordCommandHandler(int producers) {
+            for(int i = 0; i < producers; i++) producerToSequences.add(new ArrayList<>());
+        }
+        public String handle(RecordCommand command) {
+            producerToSequences.get(command.producer).add(command.sequence);
+            return Thread.currentThread().getName();
+        }
+    }
+
+    @CommandMapping(FailingCommand.class)
+    public static class FailingCommandHandler implements CommandHandler<FailingCommand, String> {
+        public String handle(FailingCommand command) {
+            throw new IllegalStateException("failure");
+        }
+    }
+
+    @Test
+    public void testCommandsOfConcurrentProducersAreProcessedInOrderOnTheConsumerThread() throws Exception {
+        final int producers = 4;
+        final int commands = 5_000;
+        final RecordCommandHandler handler = new RecordCommandHandler(producers);
+        try(RingBufferCommandBus bus = SimpleCommandBusBuilder.create()
+                .registerHandler(RecordCommandHandler.class, handler)
+            .buildRingBuffer(8, RingBufferWaitStrategy.YIELD)) {
+            final List<CompletableFuture<String>> results = Collections.synchronizedList(new ArrayList<>());
+            final List<Thread> threads = new ArrayList<>();
+            for(int producer = 0; producer < producers; producer++) {
+                final int producerId = producer;
+                threads.add(new Thread(() -> {
+                    for(int sequence = 0; sequence < commands; sequence++) results.add(bus.executeAsync(new RecordCommand(producerId, sequence)));
+                }));
+            }
+            threads.forEach(Thread::start);
+            for(Thread thread : threads) thread.join();
+            for(CompletableFuture<String> result : results) Assert.assertTrue(result.get(10, TimeUnit.SECONDS).startsWith("commandbus-ring-"));
+        }
+        final List<Integer> expected = new ArrayList<>();
+        for(int sequence = 0; sequence < commands; sequence++) expected.add(sequence);
+        for(List<Integer> sequences : handler.producerToSequences) Assert.assertEquals(expected, sequences);
+    }
+
+    @Test
+    public void testHandlerFailureCompletesFutureExceptionally() throws Exception {
+        try(RingBufferCommandBus bus = SimpleCommandBusBuilder.create()
+                .registerHandler(FailingCommandHandler.class, new FailingCommandHandler())
+            .buildRingBuffer(4, RingBufferWaitStrategy.PARK)) {
+            bus.executeAsync(new FailingCommand()).get(5, TimeUnit.SECONDS);
+            Assert.fail("The future must complete exceptionally");
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+    }
+
+    @Test
+    public void testPublishedFailureIsReportedAndTheConsumerKeepsRunning() throws Exception {
+        final CountDownLatch reported = new CountDownLatch(1);
+        final RecordCommandHandler handler = new RecordCommandHandler(1);
+        final CommandHandlerRegistry registry = CommandHandlerRegistryFactory.newConcurrentRegistry();
+        registry.registerHandler(RecordCommandHandler.class, handler);
+        final CommandHandlerFinder finder = new SimpleCommandHandlerFinder(registry);
+        try(RingBufferCommandBus bus = new RingBufferCommandBus(finder, 2, RingBufferWaitStrategy.PARK, runnable -> {
+            final Thread thread = new Thread(runnable, "consumer");
+            thread.setUncaughtExceptionHandler((t, e) -> reported.countDown());
+            return thread;
+        })) {
+            bus.publish(new FailingCommand());
+            Assert.assertTrue(reported.await(5, TimeUnit.SECONDS));
+            Assert.assertEquals("consumer", bus.executeAsync(new RecordCommand(0, 0)).get(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    public void testCloseProcessesThePublishedCommandsAndRejectsNewOnes() {
+        final RecordCommandHandler handler = new RecordCommandHandler(1);
+        final RingBufferCommandBus bus = SimpleCommandBusBuilder.create()
+                .registerHandler(RecordCommandHandler.class, handler)
+            .buildRingBuffer(16, RingBufferWaitStrategy.BUSY_SPIN);
+        for(int sequence = 0; sequence < 100; sequence++) bus.publish(new RecordCommand(0, sequence));
+        bus.close();
+        Assert.assertEquals(100, handler.producerToSequences.get(0).size());
+        try {
+            bus.publish(new RecordCommand(0, 100));
+            Assert.fail("A closed bus must not accept commands");
+        } catch (IllegalStateException e) {
+            // Expected
+        }
+    }
+
+    @Test
+    public void testCommandsPublishedWhileClosingAreEitherProcessedOrRejected() throws Exception {
+        for(int round = 0; round < 20; round++) {
+            final RingBufferCommandBus bus = SimpleCommandBusBuilder.create()
+                    .registerHandler(RecordCommandHandler.class, new RecordCommandHandler(1))
+                .buildRingBuffer(8, RingBufferWaitStrategy.YIELD);
+            final List<CompletableFuture<String>> results = Collections.synchronizedList(new ArrayList<>());
+            final CountDownLatch publishing = new CountDownLatch(4);
+            final List<Thread> threads = new ArrayList<>();
+            for(int producer = 0; producer < 4; producer++) {
+                threads.add(new Thread(() -> {
+                    publishing.countDown();
+                    try {
+                        while(true) results.add(bus.executeAsync(new RecordCommand(0, 0)));
+                    } catch (IllegalStateException e) {
+                        // The bus is closed
+                    }
+                }));
+            }
+            threads.forEach(Thread::start);
+            Assert.assertTrue(publishing.await(5, TimeUnit.SECONDS));
+            bus.close();
+            for(Thread thread : threads) thread.join(5000);
+            for(CompletableFuture<String> result : results) Assert.assertTrue(result.isDone() && !result.isCompletedExceptionally());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBufferSizeThatIsNotAPowerOfTwoThrowsException() {
+        SimpleCommandBusBuilder.create().buildRingBuffer(12, RingBufferWaitStrategy.YIELD);
+    }
+
+}
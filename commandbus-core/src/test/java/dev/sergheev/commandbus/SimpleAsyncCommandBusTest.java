@@ -0,0 +1,272 @@
+package dev.sergheev.commandbus;
+
+import dev.sergheev.commandbus.mapping.CommandMapping;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class SimpleAsyncCommandBusTest {
+
+    public static class ThreadNameCommand implements Command {}
+
+    public static class FailingCommand implements Command {}
+
+    public static class UnmappedCommand implements Command {}
+
+    @CommandMapping(ThreadNameCommand.class)
+    public static class ThreadNameCommandHandler implements CommandHandler<ThreadNameCommand, String> {
+        public String handle(ThreadNameCommand command) {
+            return Thread.currentThread().getName();
+        }
+    }
+
+    @CommandMapping(FailingCommand.class)
+    public static class FailingCommandHandler implements CommandHandler<FailingCommand, String> {
+        public String handle(FailingCommand command) {
+            throw new IllegalStateException("failure");
+        }
+    }
+
+    public static class SequencedCommand implements PartitionedCommand {
+        private final String key;
+        private final int sequence;
+        public SequencedCommand(String key, int sequence) {
+            this.key = key;
+            this.sequence = sequence;
+        }
+        public Object partitionKey() {
+            return key;
+        }
+    }
+
+    /**
+     * Records the sequence of the commands of every partition, and fails if a partition is processed concurrently.
+     */
+    @CommandMapping(SequencedCommand.class)
+    public static class SequencedCommandHandler implements CommandHandler<SequencedCommand, Integer> {
+        private final Map<String, List<Integer>> keyToSequences = new ConcurrentHashMap<>();
+        private final Map<String, AtomicInteger> keyToInFlight = new ConcurrentHashMap<>();
+        public Integer handle(SequencedCommand command) {
+            final AtomicInteger inFlight = keyToInFlight.computeIfAbsent(command.key, key -> new AtomicInteger());
+            if(inFlight.incrementAndGet() != 1) throw new IllegalStateException("The partition is processed concurrently");
+            try {
+                keyToSequences.computeIfAbsent(command.key, key -> Collections.synchronizedList(new ArrayList<>())).add(command.sequence);
+                Thread.yield();
+                return command.sequence;
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        }
+    }
+
+    public static class NestingCommand implements PartitionedCommand {
+        public Object partitionKey() {
+            return "a";
+        }
+    }
+
+    /**
+     * Executes two commands on its own lane, and tells if the second one was rejected.
+     */
+    @CommandMapping(NestingCommand.class)
+    public static class NestingCommandHandler implements CommandHandler<NestingCommand, Boolean> {
+        private AsyncCommandBus bus;
+        public Boolean handle(NestingCommand command) {
+            bus.executeAsync(new SequencedCommand("a", 0));
+            return bus.executeAsync(new SequencedCommand("a", 1)).isCompletedExceptionally();
+        }
+    }
+
+    @Test
+    public void testPartitionedCommandsAreProcessedInOrderPerPartition() throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final SequencedCommandHandler handler = new SequencedCommandHandler();
+            final AsyncCommandBus bus = SimpleCommandBusBuilder.create()
+                    .registerHandler(SequencedCommandHandler.class, handler)
+                    .withExecutor(executor)
+                    .partitionedLanes(3, 16, LaneOverflowPolicy.BLOCK)
+                .buildAsync();
+            final List<CompletableFuture<Integer>> results = new ArrayList<>();
+            final List<Integer> expected = new ArrayList<>();
+            for(int sequence = 0; sequence < 200; sequence++) {
+                expected.add(sequence);
+                for(String key : new String[] { "a", "b", "c", "d", "e" }) results.add(bus.executeAsync(new SequencedCommand(key, sequence)));
+            }
+            for(CompletableFuture<Integer> result : results) result.get(10, TimeUnit.SECONDS);
+            Assert.assertEquals(5, handler.keyToSequences.size());
+            for(List<Integer> sequences : handler.keyToSequences.values()) Assert.assertEquals(expected, sequences);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testPartitionedCommandIsRejectedWhenItsLaneIsFull() throws Exception {
+        final List<Runnable> pendingTasks = new ArrayList<>();
+        final AsyncCommandBus bus = SimpleCommandBusBuilder.create()
+                .registerHandler(SequencedCommandHandler.class, new SequencedCommandHandler())
+                .withExecutor(pendingTasks::add)
+                .partitionedLanes(1, 1, LaneOverflowPolicy.REJECT)
+            .buildAsync();
+        final CompletableFuture<Integer> accepted = bus.executeAsync(new SequencedCommand("a", 0));
+        final CompletableFuture<Integer> rejected = bus.executeAsync(new SequencedCommand("a", 1));
+        try {
+            rejected.get(5, TimeUnit.SECONDS);
+            Assert.fail("The command should have been rejected");
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof RejectedExecutionException);
+        }
+        Assert.assertEquals(1, pendingTasks.size());
+        pendingTasks.get(0).run();
+        Assert.assertEquals(Integer.valueOf(0), accepted.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testPartitionedCommandRejectedByTheExecutorIsNotExecuted() throws Exception {
+        final List<Runnable> pendingTasks = new ArrayList<>();
+        final AtomicInteger rejections = new AtomicInteger(1);
+        final SequencedCommandHandler handler = new SequencedCommandHandler();
+        final AsyncCommandBus bus = SimpleCommandBusBuilder.create()
+                .registerHandler(SequencedCommandHandler.class, handler)
+                .withExecutor(task -> {
+                    if(rejections.getAndDecrement() > 0) throw new RejectedExecutionException();
+                    pendingTasks.add(task);
+                })
+                .partitionedLanes(1, 1, LaneOverflowPolicy.REJECT)
+            .buildAsync();
+        final CompletableFuture<Integer> rejected = bus.executeAsync(new SequencedCommand("a", 0));
+        Assert.assertTrue(rejected.isCompletedExceptionally());
+        final CompletableFuture<Integer> accepted = bus.executeAsync(new SequencedCommand("a", 1));
+        Assert.assertEquals(1, pendingTasks.size());
+        pendingTasks.get(0).run();
+        Assert.assertEquals(Integer.valueOf(1), accepted.get(5, TimeUnit.SECONDS));
+        Assert.assertEquals(Collections.singletonList(1), handler.keyToSequences.get("a"));
+    }
+
+    @Test
+    public void testLaneIsStillDrainedWhenTheExecutorRejectsItAgain() throws Exception {
+        final List<Runnable> pendingTasks = new ArrayList<>();
+        final AsyncCommandBus bus = SimpleCommandBusBuilder.create()
+                .registerHandler(SequencedCommandHandler.class, new SequencedCommandHandler())
+                .withExecutor(task -> {
+                    if(!pendingTasks.isEmpty()) throw new RejectedExecutionException();
+                    pendingTasks.add(task);
+                })
+                .partitionedLanes(1, 1_000, LaneOverflowPolicy.REJECT)
+            .buildAsync();
+        final List<CompletableFuture<Integer>> results = new ArrayList<>();
+        for(int sequence = 0; sequence < 200; sequence++) results.add(bus.executeAsync(new SequencedCommand("a", sequence)));
+        pendingTasks.get(0).run();
+        for(CompletableFuture<Integer> result : results) Assert.assertTrue(result.isDone() && !result.isCompletedExceptionally());
+    }
+
+    @Test
+    public void testHandlerWaitingForRoomInItsOwnLaneIsRejected() throws Exception {
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final NestingCommandHandler handler = new NestingCommandHandler();
+            final AsyncCommandBus bus = SimpleCommandBusBuilder.create()
+                    .registerHandler(NestingCommandHandler.class, handler)
+                    .registerHandler(SequencedCommandHandler.class, new SequencedCommandHandler())
+                    .withExecutor(executor)
+                    .partitionedLanes(1, 1, LaneOverflowPolicy.BLOCK)
+                .buildAsync();
+            handler.bus = bus;
+            Assert.assertEquals(Boolean.TRUE, bus.<Boolean>executeAsync(new NestingCommand()).get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testPartitionedLanesWithoutLanesCannotBeConfigured() {
+        SimpleCommandBusBuilder.create().partitionedLanes(0);
+    }
+
+    @Test
+    public void testCommandIsExecutedOnTheConfiguredExecutor() throws Exception {
+        final ExecutorService executor = Executors.newSingleThreadExecutor(task -> new Thread(task, "bus-worker"));
+        try {
+            final AsyncCommandBus bus = SimpleCommandBusBuilder.create()
+                    .registerHandler(ThreadNameCommandHandler.class, new ThreadNameCommandHandler())
+                    .withExecutor(executor)
+                .buildAsync();
+            final CompletableFuture<String> result = bus.executeAsync(new ThreadNameCommand());
+            Assert.assertEquals("bus-worker", result.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testAsyncBusStillExecutesSynchronously() {
+        final AsyncCommandBus bus = SimpleCommandBusBuilder.create()
+                .registerHandler(ThreadNameCommandHandler.class, new ThreadNameCommandHandler())
+            .buildAsync();
+        final String result = bus.execute(new ThreadNameCommand());
+        Assert.assertEquals(Thread.currentThread().getName(), result);
+    }
+
+    @Test
+    public void testHandlerFailureCompletesFutureExceptionally() throws Exception {
+        final AsyncCommandBus bus = SimpleCommandBusBuilder.create()
+                .registerHandler(FailingCommandHandler.class, new FailingCommandHandler())
+            .buildAsync();
+        final CompletableFuture<String> result = bus.executeAsync(new FailingCommand());
+        try {
+            result.get(5, TimeUnit.SECONDS);
+            Assert.fail("The future must complete exceptionally");
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+    }
+
+    @Test
+    public void testUnmappedCommandCompletesFutureExceptionally() throws Exception {
+        final AsyncCommandBus bus = SimpleCommandBusBuilder.create().buildAsync();
+        final CompletableFuture<Object> result = bus.executeAsync(new UnmappedCommand());
+        try {
+            result.get(5, TimeUnit.SECONDS);
+            Assert.fail("The future must complete exceptionally");
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof IllegalArgumentException);
+        }
+    }
+
+    @Test
+    public void testCommandRejectedByTheExecutorCompletesFutureExceptionally() throws Exception {
+        final AsyncCommandBus bus = SimpleCommandBusBuilder.create()
+                .registerHandler(ThreadNameCommandHandler.class, new ThreadNameCommandHandler())
+                .withExecutor(task -> {
+                    throw new RejectedExecutionException();
+                })
+            .buildAsync();
+        final CompletableFuture<String> result = bus.executeAsync(new ThreadNameCommand());
+        try {
+            result.get(5, TimeUnit.SECONDS);
+            Assert.fail("The future must complete exceptionally");
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof RejectedExecutionException);
+        }
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testExecutingNullCommandAsynchronouslyThrowsException() {
+        final AsyncCommandBus bus = SimpleCommandBusBuilder.create().buildAsync();
+        bus.executeAsync(null);
+    }
+
+}
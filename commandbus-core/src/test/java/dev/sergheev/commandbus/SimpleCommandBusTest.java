@@ -0,0 +1,322 @@
+package dev.sergheev.commandbus;
+
+import dev.sergheev.commandbus.mapping.CommandMapping;
+import dev.sergheev.commandbus.metrics.CommandMetrics;
+import dev.sergheev.commandbus.registry.CommandHandlerRegistryFactory;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class SimpleCommandBusTest {
+
+    public static class EchoCommand implements Command {
+        private final String message;
+        public EchoCommand(String message) {
+            this.message = message;
+        }
+    }
+
+    public static class LoudEchoCommand extends EchoCommand {
+        public LoudEchoCommand(String message) {
+            super(message);
+        }
+    }
+
+    public static class UnmappedCommand implements Command {}
+
+    @CommandMapping(EchoCommand.class)
+    public static class EchoCommandHandler implements CommandHandler<EchoCommand, String> {
+        public String handle(EchoCommand command) {
+            return command.message;
+        }
+    }
+
+    public static class NumberCommand implements Command {
+        private final int number;
+        public NumberCommand(int number) {
+            this.number = number;
+        }
+    }
+
+    @CommandMapping(NumberCommand.class)
+    public static class DoublingBatchCommandHandler implements BatchCommandHandler<NumberCommand, Integer> {
+        private final AtomicInteger batchCalls = new AtomicInteger();
+        public Integer handle(NumberCommand command) {
+            return command.number * 2;
+        }
+        public List<Integer> handleAll(List<NumberCommand> commands) {
+            batchCalls.incrementAndGet();
+            final List<Integer> results = new ArrayList<>(commands.size());
+            for(NumberCommand command : commands) results.add(command.number * 2);
+            return results;
+        }
+    }
+
+    @Test
+    public void testCommandIsDispatchedToItsHandler() {
+        final CommandBus bus = SimpleCommandBusBuilder.create()
+                .registerHandler(EchoCommandHandler.class, new EchoCommandHandler())
+            .build();
+        final String result = bus.execute(new EchoCommand("hello"));
+        Assert.assertEquals("hello", result);
+    }
+
+    @Test
+    @SuppressWarnings({ "unchecked" })
+    public void testFinderWithOnlyTheNameLookupIsSupported() {
+        final CommandHandler<EchoCommand, String> handler = new EchoCommandHandler();
+        final CommandBus bus = new SimpleCommandBus(new CommandHandlerFinder() {
+            public <C extends Command, R> CommandHandler<C, R> findHandlerFor(String commandName) {
+                return EchoCommand.class.getName().equals(commandName) ? (CommandHandler<C, R>) handler : null;
+            }
+        });
+        Assert.assertEquals("hello", bus.execute(new EchoCommand("hello")));
+    }
+
+    @Test
+    public void testResultsOfAllCommandsAreUnmodifiable() {
+        final CommandBus bus = SimpleCommandBusBuilder.create()
+                .registerHandler(EchoCommandHandler.class, new EchoCommandHandler())
+            .build();
+        final CommandBus defaultBus = new CommandBus() {
+            public <R> R execute(Command command) {
+                return bus.execute(command);
+            }
+        };
+        for(CommandBus candidate : Arrays.asList(bus, defaultBus)) {
+            final List<String> results = candidate.executeAll(Arrays.asList(new EchoCommand("a"), new EchoCommand("b")));
+            Assert.assertEquals(Arrays.asList("a", "b"), results);
+            try {
+                results.set(0, "c");
+                Assert.fail();
+            } catch (UnsupportedOperationException expected) {
+            }
+        }
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testExecutingNullCommandThrowsException() {
+        final CommandBus bus = SimpleCommandBusBuilder.create().build();
+        bus.execute(null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testExecutingUnmappedCommandThrowsException() {
+        final CommandBus bus = SimpleCommandBusBuilder.create()
+                .registerHandler(EchoCommandHandler.class, new EchoCommandHandler())
+            .build();
+        bus.execute(new UnmappedCommand());
+    }
+
+    @Test
+    public void testFrozenBusDispatchesToItsHandlers() {
+        final CommandBus bus = SimpleCommandBusBuilder.create()
+                .registerHandler(EchoCommandHandler.class, new EchoCommandHandler())
+                .registerHandler(DoublingBatchCommandHandler.class, new DoublingBatchCommandHandler())
+                .frozen()
+            .build();
+        Assert.assertEquals("hello", bus.execute(new EchoCommand("hello")));
+        Assert.assertEquals(Integer.valueOf(6), bus.execute(new NumberCommand(3)));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testFrozenBusWithCustomRegistryCannotBeBuilt() {
+        SimpleCommandBusBuilder.create()
+                .withRegistry(CommandHandlerRegistryFactory.newRegistry())
+                .frozen()
+            .build();
+    }
+
+    @Test
+    public void testLazyHandlerIsCreatedOnItsFirstCommand() {
+        final AtomicInteger creations = new AtomicInteger();
+        final CommandBus bus = SimpleCommandBusBuilder.create()
+                .registerHandler(DoublingBatchCommandHandler.class, new DoublingBatchCommandHandler())
+                .registerLazyHandler(EchoCommandHandler.class, () -> {
+                    creations.incrementAndGet();
+                    return new EchoCommandHandler();
+                })
+                .addInterceptor((command, next) -> "<" + next.handle(command) + ">")
+            .build();
+        Assert.assertEquals("<6>", bus.execute(new NumberCommand(3)));
+        Assert.assertEquals(0, creations.get());
+        Assert.assertEquals("<hello>", bus.execute(new EchoCommand("hello")));
+        Assert.assertEquals("<again>", bus.execute(new EchoCommand("again")));
+        Assert.assertEquals(1, creations.get());
+    }
+
+    @Test
+    public void testLazyHandlerIsCreatedOnTheFirstCommandOfASubtype() {
+        final AtomicInteger creations = new AtomicInteger();
+        final CommandBus bus = SimpleCommandBusBuilder.create()
+                .registerLazyHandler(EchoCommandHandler.class, () -> {
+                    creations.incrementAndGet();
+                    return new EchoCommandHandler();
+                })
+                .addInterceptor(LoudEchoCommand.class, (command, next) -> next.handle(command) + "!")
+            .build();
+        Assert.assertEquals("hello!", bus.execute(new LoudEchoCommand("hello")));
+        Assert.assertEquals("hello", bus.execute(new EchoCommand("hello")));
+        Assert.assertEquals("again!", bus.execute(new LoudEchoCommand("again")));
+        Assert.assertEquals(1, creations.get());
+    }
+
+    @Test
+    public void testOptionsOfASubtypeApplyToTheHandlerOfItsSupertype() {
+        final CommandMetrics metrics = new CommandMetrics();
+        final CommandBus bus = SimpleCommandBusBuilder.create()
+                .registerHandler(EchoCommandHandler.class, new EchoCommandHandler())
+                .addInterceptor(LoudEchoCommand.class, (command, next) -> next.handle(command) + "!")
+                .withMetrics(metrics)
+            .build();
+        Assert.assertEquals("hello!", bus.execute(new LoudEchoCommand("hello")));
+        Assert.assertEquals("hello", bus.execute(new EchoCommand("hello")));
+        Assert.assertEquals(1, metrics.snapshot().forCommandType(LoudEchoCommand.class).invocationCount());
+        Assert.assertEquals(1, metrics.snapshot().forCommandType(EchoCommand.class).invocationCount());
+    }
+
+    @Test
+    public void testConcurrentFirstCommandsCreateASingleLazyHandler() throws Exception {
+        final AtomicInteger creations = new AtomicInteger();
+        final CommandBus bus = SimpleCommandBusBuilder.create()
+                .registerLazyHandler(EchoCommandHandler.class, () -> {
+                    creations.incrementAndGet();
+                    return new EchoCommandHandler();
+                })
+                .concurrent()
+            .build();
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final CountDownLatch start = new CountDownLatch(1);
+            final List<Future<String>> results = new ArrayList<>();
+            for(int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return bus.execute(new EchoCommand("hello"));
+                }));
+            }
+            start.countDown();
+            for(Future<String> result : results) Assert.assertEquals("hello", result.get());
+        } finally {
+            executor.shutdown();
+        }
+        Assert.assertEquals(1, creations.get());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testLazyHandlerSupplyingNullThrowsException() {
+        final CommandBus bus = SimpleCommandBusBuilder.create()
+                .registerLazyHandler(EchoCommandHandler.class, () -> null)
+            .build();
+        bus.execute(new EchoCommand("hello"));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testFrozenBusWithLazyHandlerCannotBeBuilt() {
+        SimpleCommandBusBuilder.create()
+                .registerLazyHandler(EchoCommandHandler.class, EchoCommandHandler::new)
+                .frozen()
+            .build();
+    }
+
+    @Test
+    public void testDispatcherHandsCommandsOverToTheirHandler() {
+        final SimpleCommandBus bus = SimpleCommandBusBuilder.create()
+                .registerHandler(EchoCommandHandler.class, new EchoCommandHandler())
+            .build();
+        final CommandHandler<EchoCommand, String> dispatcher = bus.dispatcherFor(EchoCommand.class);
+        Assert.assertEquals("hello", dispatcher.handle(new EchoCommand("hello")));
+        Assert.assertSame(dispatcher, bus.dispatcherFor(EchoCommand.class));
+    }
+
+    @Test
+    public void testEveryCommandTypeHasADispatcherOfItsOwnClass() {
+        final SimpleCommandBus bus = SimpleCommandBusBuilder.create()
+                .registerHandler(EchoCommandHandler.class, new EchoCommandHandler())
+                .registerHandler(DoublingBatchCommandHandler.class, new DoublingBatchCommandHandler())
+            .build();
+        final CommandHandler<EchoCommand, String> echoDispatcher = bus.dispatcherFor(EchoCommand.class);
+        final CommandHandler<NumberCommand, Integer> numberDispatcher = bus.dispatcherFor(NumberCommand.class);
+        Assert.assertNotSame(echoDispatcher.getClass(), numberDispatcher.getClass());
+        Assert.assertEquals(Integer.valueOf(4), numberDispatcher.handle(new NumberCommand(2)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDispatcherForUnmappedCommandThrowsException() {
+        final SimpleCommandBus bus = SimpleCommandBusBuilder.create().build();
+        bus.dispatcherFor(UnmappedCommand.class);
+    }
+
+    @Test
+    public void testBatchResultsFollowTheInputOrder() {
+        final DoublingBatchCommandHandler batchHandler = new DoublingBatchCommandHandler();
+        final CommandBus bus = SimpleCommandBusBuilder.create()
+                .registerHandler(EchoCommandHandler.class, new EchoCommandHandler())
+                .registerHandler(DoublingBatchCommandHandler.class, batchHandler)
+            .build();
+        final List<Command> commands = Arrays.asList(
+                new NumberCommand(1), new EchoCommand("a"), new NumberCommand(2), new EchoCommand("b"), new NumberCommand(3));
+        final List<Object> results = bus.executeAll(commands);
+        Assert.assertEquals(Arrays.<Object>asList(2, "a", 4, "b", 6), results);
+        Assert.assertEquals(1, batchHandler.batchCalls.get());
+    }
+
+    @Test
+    public void testEmptyBatchReturnsEmptyResults() {
+        final CommandBus bus = SimpleCommandBusBuilder.create().build();
+        Assert.assertTrue(bus.executeAll(Collections.<Command>emptyList()).isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBatchWithUnmappedCommandThrowsException() {
+        final CommandBus bus = SimpleCommandBusBuilder.create()
+                .registerHandler(EchoCommandHandler.class, new EchoCommandHandler())
+            .build();
+        bus.executeAll(Arrays.asList(new EchoCommand("a"), new UnmappedCommand()));
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testBatchWithNullCommandThrowsException() {
+        final CommandBus bus = SimpleCommandBusBuilder.create()
+                .registerHandler(EchoCommandHandler.class, new EchoCommandHandler())
+            .build();
+        bus.executeAll(Arrays.asList(new EchoCommand("a"), null));
+    }
+
+    @Test
+    public void testParallelBatchResultsFollowTheInputOrder() {
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            final CommandBus bus = SimpleCommandBusBuilder.create()
+                    .registerHandler(EchoCommandHandler.class, new EchoCommandHandler())
+                    .registerHandler(DoublingBatchCommandHandler.class, new DoublingBatchCommandHandler())
+                    .withExecutor(executor)
+                    .parallelBatches()
+                .build();
+            final List<Command> commands = new ArrayList<>();
+            final List<Object> expected = new ArrayList<>();
+            for(int i = 0; i < 1000; i++) {
+                if(i % 3 == 0) {
+                    commands.add(new EchoCommand("e" + i));
+                    expected.add("e" + i);
+                } else {
+                    commands.add(new NumberCommand(i));
+                    expected.add(i * 2);
+                }
+            }
+            Assert.assertEquals(expected, bus.executeAll(commands));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+}
@@ -0,0 +1,38 @@
+package dev.sergheev.commandbus;
+
+import dev.sergheev.commandbus.mapping.CommandMapping;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+public class VirtualThreadsTest {
+
+    public static class CurrentThreadCommand implements Command {}
+
+    @CommandMapping(CurrentThreadCommand.class)
+    public static class CurrentThreadCommandHandler implements CommandHandler<CurrentThreadCommand, Thread> {
+        public Thread handle(CurrentThreadCommand command) {
+            return Thread.currentThread();
+        }
+    }
+
+    @Test
+    public void testCommandsRunOnVirtualThreadsWhenSupported() throws Exception {
+        Assume.assumeTrue(VirtualThreads.isSupported());
+        final AsyncCommandBus bus = SimpleCommandBusBuilder.create()
+                .registerHandler(CurrentThreadCommandHandler.class, new CurrentThreadCommandHandler())
+                .virtualThreads()
+            .buildAsync();
+        final Thread thread = bus.<Thread>executeAsync(new CurrentThreadCommand()).get(5, TimeUnit.SECONDS);
+        Assert.assertEquals(Boolean.TRUE, Thread.class.getMethod("isVirtual").invoke(thread));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testVirtualThreadsAreRejectedWhenUnsupported() {
+        Assume.assumeFalse(VirtualThreads.isSupported());
+        SimpleCommandBusBuilder.create().virtualThreads();
+    }
+
+}
@@ -0,0 +1,185 @@
+package dev.sergheev.commandbus.bulkhead;
+
+import dev.sergheev.commandbus.BatchCommandHandler;
+import dev.sergheev.commandbus.Command;
+import dev.sergheev.commandbus.CommandBus;
+import dev.sergheev.commandbus.CommandHandler;
+import dev.sergheev.commandbus.SimpleCommandBusBuilder;
+import dev.sergheev.commandbus.mapping.CommandMapping;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+public class CommandBulkheadsTest {
+
+    public static class SlowCommand implements Command {}
+
+    public static class FastCommand implements Command {}
+
+    /**
+     * Blocks every invocation until released, signaling every start.
+     */
+    @CommandMapping(SlowCommand.class)
+    public static class SlowCommandHandler implements CommandHandler<SlowCommand, Boolean> {
+        private final Semaphore started = new Semaphore(0);
+        private final CountDownLatch release = new CountDownLatch(1);
+        public Boolean handle(SlowCommand command) {
+            started.release();
+            try {
+                return release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+    }
+
+    @CommandMapping(FastCommand.class)
+    public static class FastCommandHandler implements CommandHandler<FastCommand, Boolean> {
+        public Boolean handle(FastCommand command) {
+            return true;
+        }
+    }
+
+    public static class BatchedCommand implements Command {}
+
+    /**
+     * Returns, for every command, the amount of active commands of the bulkhead while the group is processed.
+     */
+    @CommandMapping(BatchedCommand.class)
+    public static class BatchedCommandHandler implements BatchCommandHandler<BatchedCommand, Integer> {
+        private CommandBulkheads bulkheads;
+        private int batchCalls;
+        public Integer handle(BatchedCommand command) {
+            throw new AssertionError("The commands must be handled at once");
+        }
+        public List<Integer> handleAll(List<BatchedCommand> commands) {
+            batchCalls++;
+            final List<Integer> results = new ArrayList<>();
+            for(BatchedCommand command : commands) results.add(bulkheads.stats().get(BatchedCommand.class).activeCount());
+            return results;
+        }
+    }
+
+    @Test
+    public void testCommandsOverTheLimitAreRejectedWithoutStarvingOtherTypes() throws Exception {
+        final CommandBulkheads bulkheads = new CommandBulkheads().limit(SlowCommand.class, BulkheadPolicy.rejecting(2));
+        final SlowCommandHandler handler = new SlowCommandHandler();
+        final CommandBus bus = newBus(bulkheads, handler);
+        final List<Thread> threads = startSlowCommands(bus, 2);
+        Assert.assertTrue(handler.started.tryAcquire(2, 5, TimeUnit.SECONDS));
+        try {
+            bus.execute(new SlowCommand());
+            Assert.fail("The command over the limit must be rejected");
+        } catch (RejectedExecutionException e) {
+            // Expected
+        }
+        Assert.assertEquals(Boolean.TRUE, bus.execute(new FastCommand()));
+        final BulkheadStats stats = bulkheads.stats().get(SlowCommand.class);
+        Assert.assertEquals(2, stats.activeCount());
+        Assert.assertEquals(1, stats.rejectedCount());
+        Assert.assertEquals(1.0, stats.utilization(), 0.0);
+        handler.release.countDown();
+        for(Thread thread : threads) thread.join(5000);
+        Assert.assertEquals(0, bulkheads.stats().get(SlowCommand.class).activeCount());
+        Assert.assertFalse(bulkheads.stats().containsKey(FastCommand.class));
+    }
+
+    @Test
+    public void testCommandsOverTheLimitWaitForTheirTurnUntilTheQueueIsFull() throws Exception {
+        final CommandBulkheads bulkheads = new CommandBulkheads().limit(SlowCommand.class, BulkheadPolicy.queueing(1, 1, 5, TimeUnit.SECONDS));
+        final SlowCommandHandler handler = new SlowCommandHandler();
+        final CommandBus bus = newBus(bulkheads, handler);
+        final List<Thread> threads = startSlowCommands(bus, 1);
+        Assert.assertTrue(handler.started.tryAcquire(1, 5, TimeUnit.SECONDS));
+        threads.addAll(startSlowCommands(bus, 1));
+        awaitTrue(() -> bulkheads.stats().get(SlowCommand.class).queuedCount() == 1);
+        try {
+            bus.execute(new SlowCommand());
+            Assert.fail("The command that does not fit in the queue must be rejected");
+        } catch (RejectedExecutionException e) {
+            // Expected
+        }
+        handler.release.countDown();
+        Assert.assertTrue(handler.started.tryAcquire(1, 5, TimeUnit.SECONDS));
+        for(Thread thread : threads) thread.join(5000);
+        final BulkheadStats stats = bulkheads.stats().get(SlowCommand.class);
+        Assert.assertEquals(0, stats.queuedCount());
+        Assert.assertEquals(1, stats.rejectedCount());
+    }
+
+    @Test
+    public void testQueuedCommandIsRejectedIfItsTurnDoesNotComeInTime() throws Exception {
+        final CommandBulkheads bulkheads = new CommandBulkheads().limit(SlowCommand.class, BulkheadPolicy.queueing(1, 4, 20, TimeUnit.MILLISECONDS));
+        final SlowCommandHandler handler = new SlowCommandHandler();
+        final CommandBus bus = newBus(bulkheads, handler);
+        final List<Thread> threads = startSlowCommands(bus, 1);
+        Assert.assertTrue(handler.started.tryAcquire(1, 5, TimeUnit.SECONDS));
+        try {
+            bus.execute(new SlowCommand());
+            Assert.fail("The queued command must be rejected");
+        } catch (RejectedExecutionException e) {
+            // Expected
+        } finally {
+            handler.release.countDown();
+        }
+        for(Thread thread : threads) thread.join(5000);
+        Assert.assertEquals(1, bulkheads.stats().get(SlowCommand.class).rejectedCount());
+    }
+
+    @Test
+    public void testGroupOfCommandsIsHandedOverAtOnceWithASinglePermit() {
+        final CommandBulkheads bulkheads = new CommandBulkheads().limit(BatchedCommand.class, BulkheadPolicy.rejecting(1));
+        final BatchedCommandHandler handler = new BatchedCommandHandler();
+        handler.bulkheads = bulkheads;
+        final CommandBus bus = SimpleCommandBusBuilder.create()
+                .registerHandler(BatchedCommandHandler.class, handler)
+                .withBulkheads(bulkheads)
+            .build();
+        final List<Integer> results = bus.executeAll(Arrays.asList(new BatchedCommand(), new BatchedCommand(), new BatchedCommand()));
+        Assert.assertEquals(Arrays.asList(1, 1, 1), results);
+        Assert.assertEquals(1, handler.batchCalls);
+        Assert.assertEquals(0, bulkheads.stats().get(BatchedCommand.class).activeCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testPolicyWithoutPermitsCannotBeCreated() {
+        BulkheadPolicy.rejecting(0);
+    }
+
+    private static CommandBus newBus(CommandBulkheads bulkheads, SlowCommandHandler handler) {
+        return SimpleCommandBusBuilder.create()
+                .concurrent()
+                .registerHandler(SlowCommandHandler.class, handler)
+                .registerHandler(FastCommandHandler.class, new FastCommandHandler())
+                .withBulkheads(bulkheads)
+            .build();
+    }
+
+    private static List<Thread> startSlowCommands(CommandBus bus, int count) {
+        final List<Thread> threads = new ArrayList<>();
+        for(int i = 0; i < count; i++) {
+            final Thread thread = new Thread(() -> bus.execute(new SlowCommand()));
+            thread.start();
+            threads.add(thread);
+        }
+        return threads;
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while(!condition.getAsBoolean()) {
+            Assert.assertTrue(System.nanoTime() < deadline);
+            Thread.sleep(1);
+        }
+    }
+
+}
@@ -0,0 +1,224 @@
+package dev.sergheev.commandbus.cache;
+
+import dev.sergheev.commandbus.BatchCommandHandler;
+import dev.sergheev.commandbus.Command;
+import dev.sergheev.commandbus.CommandBus;
+import dev.sergheev.commandbus.CommandHandler;
+import dev.sergheev.commandbus.SimpleCommandBusBuilder;
+import dev.sergheev.commandbus.mapping.CommandMapping;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class CommandMemoizerTest {
+
+    @Memoized(maximumSize = 2)
+    public static class SquareCommand implements Command {
+        private final int value;
+        public SquareCommand(int value) {
+            this.value = value;
+        }
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof SquareCommand && ((SquareCommand) other).value == value;
+        }
+        @Override
+        public int hashCode() {
+            return value;
+        }
+    }
+
+    public static class LookupCommand implements Command {
+        private final String key;
+        public LookupCommand(String key) {
+            this.key = key;
+        }
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof LookupCommand && ((LookupCommand) other).key.equals(key);
+        }
+        @Override
+        public int hashCode() {
+            return key.hashCode();
+        }
+    }
+
+    @Memoized(maximumSize = 16)
+    public static class CubeCommand implements Command {
+        private final int value;
+        public CubeCommand(int value) {
+            this.value = value;
+        }
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof CubeCommand && ((CubeCommand) other).value == value;
+        }
+        @Override
+        public int hashCode() {
+            return value;
+        }
+    }
+
+    @CommandMapping(CubeCommand.class)
+    public static class CubeCommandHandler implements BatchCommandHandler<CubeCommand, Integer> {
+        private final List<Integer> handledValues = new ArrayList<>();
+        private final AtomicInteger batchCalls = new AtomicInteger();
+        public Integer handle(CubeCommand command) {
+            handledValues.add(command.value);
+            return command.value * command.value * command.value;
+        }
+        public List<Integer> handleAll(List<CubeCommand> commands) {
+            batchCalls.incrementAndGet();
+            final List<Integer> results = new ArrayList<>();
+            for(CubeCommand command : commands) results.add(handle(command));
+            return results;
+        }
+    }
+
+    @CommandMapping(SquareCommand.class)
+    public static class SquareCommandHandler implements CommandHandler<SquareCommand, Integer> {
+        private final AtomicInteger calls = new AtomicInteger();
+        public Integer handle(SquareCommand command) {
+            calls.incrementAndGet();
+            return command.value * command.value;
+        }
+    }
+
+    /**
+     * Fails the first time it is called, and then returns {@code null} for unknown keys.
+     */
+    @CommandMapping(LookupCommand.class)
+    public static class LookupCommandHandler implements CommandHandler<LookupCommand, String> {
+        private final AtomicInteger calls = new AtomicInteger();
+        public String handle(LookupCommand command) {
+            if(calls.incrementAndGet() == 1) throw new IllegalStateException("failure");
+            return command.key.equals("known") ? "value" : null;
+        }
+    }
+
+    @Test
+    public void testAnnotatedCommandResultIsReusedWithoutCallingTheHandler() {
+        final CommandMemoizer memoizer = new CommandMemoizer();
+        final SquareCommandHandler handler = new SquareCommandHandler();
+        final CommandBus bus = SimpleCommandBusBuilder.create()
+                .registerHandler(SquareCommandHandler.class, handler)
+                .withMemoization(memoizer)
+            .build();
+        Assert.assertEquals(Integer.valueOf(9), bus.execute(new SquareCommand(3)));
+        Assert.assertEquals(Integer.valueOf(9), bus.execute(new SquareCommand(3)));
+        Assert.assertEquals(Integer.valueOf(9), bus.execute(new SquareCommand(3)));
+        Assert.assertEquals(1, handler.calls.get());
+        final CacheStats stats = memoizer.stats().get(SquareCommand.class);
+        Assert.assertEquals(2, stats.hitCount());
+        Assert.assertEquals(1, stats.missCount());
+        Assert.assertEquals(2.0 / 3.0, stats.hitRate(), 0.0001);
+        Assert.assertEquals(1, stats.size());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testHandlersDecoratedAgainShareTheCacheOfTheirCommandType() {
+        final CommandMemoizer memoizer = new CommandMemoizer();
+        final SquareCommandHandler handler = new SquareCommandHandler();
+        final CommandHandler<SquareCommand, Integer> first = memoizer.decorate(SquareCommand.class, handler);
+        Assert.assertEquals(Integer.valueOf(9), first.handle(new SquareCommand(3)));
+        final CommandHandler<SquareCommand, Integer> second = memoizer.decorate(SquareCommand.class, handler);
+        Assert.assertEquals(Integer.valueOf(9), second.handle(new SquareCommand(3)));
+        Assert.assertEquals(1, handler.calls.get());
+        Assert.assertEquals(1, memoizer.stats().get(SquareCommand.class).hitCount());
+        Assert.assertEquals(1, memoizer.stats().get(SquareCommand.class).missCount());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedResultIsEvictedFirst() {
+        final CommandMemoizer memoizer = new CommandMemoizer();
+        final SquareCommandHandler handler = new SquareCommandHandler();
+        final CommandBus bus = SimpleCommandBusBuilder.create()
+                .registerHandler(SquareCommandHandler.class, handler)
+                .withMemoization(memoizer)
+            .build();
+        bus.execute(new SquareCommand(1));
+        bus.execute(new SquareCommand(2));
+        bus.execute(new SquareCommand(1));
+        bus.execute(new SquareCommand(3));
+        Assert.assertEquals(3, handler.calls.get());
+        bus.execute(new SquareCommand(1));
+        Assert.assertEquals(3, handler.calls.get());
+        bus.execute(new SquareCommand(2));
+        Assert.assertEquals(4, handler.calls.get());
+        final CacheStats stats = memoizer.stats().get(SquareCommand.class);
+        Assert.assertTrue(stats.evictionCount() >= 1);
+        Assert.assertTrue(stats.size() <= 2);
+    }
+
+    @Test
+    public void testExpiredResultIsComputedAgain() throws InterruptedException {
+        final CommandMemoizer memoizer = new CommandMemoizer()
+                .memoizeHandler(SquareCommandHandler.class, MemoizationPolicy.maximumSize(16).expireAfterWrite(10, TimeUnit.MILLISECONDS));
+        final SquareCommandHandler handler = new SquareCommandHandler();
+        final CommandBus bus = SimpleCommandBusBuilder.create()
+                .registerHandler(SquareCommandHandler.class, handler)
+                .withMemoization(memoizer)
+            .build();
+        bus.execute(new SquareCommand(4));
+        Thread.sleep(50);
+        bus.execute(new SquareCommand(4));
+        Assert.assertEquals(2, handler.calls.get());
+        Assert.assertEquals(1, memoizer.stats().get(SquareCommand.class).expirationCount());
+    }
+
+    @Test
+    public void testFailuresAreNotMemoizedButNullResultsAre() {
+        final CommandMemoizer memoizer = new CommandMemoizer().memoize(LookupCommand.class, MemoizationPolicy.maximumSize(16));
+        final LookupCommandHandler handler = new LookupCommandHandler();
+        final CommandBus bus = SimpleCommandBusBuilder.create()
+                .registerHandler(LookupCommandHandler.class, handler)
+                .withMemoization(memoizer)
+            .build();
+        try {
+            bus.execute(new LookupCommand("unknown"));
+            Assert.fail("The handler must throw");
+        } catch (IllegalStateException e) {
+            // Expected
+        }
+        Assert.assertNull(bus.execute(new LookupCommand("unknown")));
+        Assert.assertNull(bus.execute(new LookupCommand("unknown")));
+        Assert.assertEquals("value", bus.execute(new LookupCommand("known")));
+        Assert.assertEquals(3, handler.calls.get());
+    }
+
+    @Test
+    public void testCommandTypesThatAreNotMemoizedAreLeftUntouched() {
+        final CommandMemoizer memoizer = new CommandMemoizer();
+        final LookupCommandHandler handler = new LookupCommandHandler();
+        Assert.assertSame(handler, memoizer.decorate(LookupCommand.class, handler));
+        Assert.assertTrue(memoizer.stats().isEmpty());
+    }
+
+    @Test
+    public void testOnlyCommandsWithoutKeptResultAreHandedOverToBatchHandler() {
+        final CubeCommandHandler handler = new CubeCommandHandler();
+        final CommandBus bus = SimpleCommandBusBuilder.create()
+                .registerHandler(CubeCommandHandler.class, handler)
+                .withMemoization(new CommandMemoizer())
+            .build();
+        Assert.assertEquals(Integer.valueOf(8), bus.execute(new CubeCommand(2)));
+        final List<Integer> results = bus.executeAll(Arrays.asList(new CubeCommand(3), new CubeCommand(2), new CubeCommand(4)));
+        Assert.assertEquals(Arrays.asList(27, 8, 64), results);
+        Assert.assertEquals(1, handler.batchCalls.get());
+        Assert.assertEquals(Arrays.asList(2, 3, 4), handler.handledValues);
+        Assert.assertEquals(Arrays.asList(27, 8), bus.executeAll(Arrays.asList(new CubeCommand(3), new CubeCommand(2))));
+        Assert.assertEquals(1, handler.batchCalls.get());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testPolicyWithoutSizeCannotBeCreated() {
+        MemoizationPolicy.maximumSize(0);
+    }
+
+}
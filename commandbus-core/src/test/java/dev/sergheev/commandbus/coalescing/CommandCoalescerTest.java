@@ -0,0 +1,278 @@
+package dev.sergheev.commandbus.coalescing;
+
+import dev.sergheev.commandbus.AsyncCommandBus;
+import dev.sergheev.commandbus.BatchCommandHandler;
+import dev.sergheev.commandbus.Command;
+import dev.sergheev.commandbus.CommandBus;
+import dev.sergheev.commandbus.CommandHandler;
+import dev.sergheev.commandbus.SimpleCommandBusBuilder;
+import dev.sergheev.commandbus.mapping.CommandMapping;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class CommandCoalescerTest {
+
+    public static class PriceCommand implements Command {
+        private final String product;
+        private final String requestId;
+        public PriceCommand(String product, String requestId) {
+            this.product = product;
+            this.requestId = requestId;
+        }
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof PriceCommand && ((PriceCommand) other).product.equals(product);
+        }
+        @Override
+        public int hashCode() {
+            return product.hashCode();
+        }
+    }
+
+    /**
+     * Blocks every invocation until released, and fails for the {@code "broken"} product.
+     */
+    @CommandMapping(PriceCommand.class)
+    public static class PriceCommandHandler implements CommandHandler<PriceCommand, Integer> {
+        private final AtomicInteger calls = new AtomicInteger();
+        private final CountDownLatch started = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+        public Integer handle(PriceCommand command) {
+            calls.incrementAndGet();
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if(command.product.equals("broken")) throw new IllegalStateException("failure");
+            return command.product.length();
+        }
+    }
+
+    public static class StockCommand implements Command {
+        private final String product;
+        public StockCommand(String product) {
+            this.product = product;
+        }
+    }
+
+    public static class UrgentStockCommand extends StockCommand {
+        public UrgentStockCommand(String product) {
+            super(product);
+        }
+    }
+
+    @CommandMapping(StockCommand.class)
+    public static class StockCommandHandler implements BatchCommandHandler<StockCommand, Integer> {
+        private final List<List<String>> batches = new ArrayList<>();
+        public Integer handle(StockCommand command) {
+            throw new AssertionError("The commands must be handled at once");
+        }
+        public List<Integer> handleAll(List<StockCommand> commands) {
+            final List<String> products = new ArrayList<>();
+            final List<Integer> results = new ArrayList<>();
+            for(StockCommand command : commands) {
+                products.add(command.product);
+                results.add(command.product.length());
+            }
+            batches.add(products);
+            return results;
+        }
+    }
+
+    @Test
+    public void testConcurrentEqualCommandsShareOneInvocation() throws Exception {
+        final CommandCoalescer coalescer = new CommandCoalescer().coalesce(PriceCommand.class);
+        final PriceCommandHandler handler = new PriceCommandHandler();
+        final CommandBus bus = SimpleCommandBusBuilder.create()
+                .concurrent()
+                .registerHandler(PriceCommandHandler.class, handler)
+                .withCoalescing(coalescer)
+            .build();
+        final List<Integer> results = new ArrayList<>();
+        final List<Thread> threads = new ArrayList<>();
+        for(int i = 0; i < 4; i++) {
+            threads.add(new Thread(() -> {
+                final Integer result = bus.execute(new PriceCommand("apple", "request"));
+                synchronized(results) {
+                    results.add(result);
+                }
+            }));
+        }
+        threads.get(0).start();
+        Assert.assertTrue(handler.started.await(5, TimeUnit.SECONDS));
+        for(Thread thread : threads.subList(1, threads.size())) thread.start();
+        awaitWaiting(threads.subList(1, threads.size()));
+        Assert.assertEquals(1, coalescer.inFlightCount(PriceCommand.class));
+        handler.release.countDown();
+        for(Thread thread : threads) thread.join(5000);
+        Assert.assertEquals(1, handler.calls.get());
+        Assert.assertEquals(4, results.size());
+        for(Integer result : results) Assert.assertEquals(Integer.valueOf(5), result);
+        Assert.assertEquals(0, coalescer.inFlightCount(PriceCommand.class));
+    }
+
+    @Test
+    public void testEqualCommandsOfAGroupShareOneInvocationOfTheBatchHandler() {
+        final CommandCoalescer coalescer = new CommandCoalescer().coalesce(StockCommand.class, command -> command.product);
+        final StockCommandHandler handler = new StockCommandHandler();
+        final CommandBus bus = SimpleCommandBusBuilder.create()
+                .registerHandler(StockCommandHandler.class, handler)
+                .withCoalescing(coalescer)
+            .build();
+        final List<Integer> results = bus.executeAll(Arrays.asList(new StockCommand("apple"), new StockCommand("pear"), new StockCommand("apple")));
+        Assert.assertEquals(Arrays.asList(5, 4, 5), results);
+        Assert.assertEquals(Collections.singletonList(Arrays.asList("apple", "pear")), handler.batches);
+        Assert.assertEquals(0, coalescer.inFlightCount(StockCommand.class));
+    }
+
+    @Test
+    public void testCommandsOfASubtypeAreCoalescedAsTheirSupertype() {
+        final CommandCoalescer coalescer = new CommandCoalescer().coalesce(StockCommand.class, command -> command.product);
+        final StockCommandHandler handler = new StockCommandHandler();
+        final CommandBus bus = SimpleCommandBusBuilder.create()
+                .registerHandler(StockCommandHandler.class, handler)
+                .withCoalescing(coalescer)
+            .build();
+        final List<Integer> results = bus.executeAll(Arrays.asList(new UrgentStockCommand("apple"), new UrgentStockCommand("apple")));
+        Assert.assertEquals(Arrays.asList(5, 5), results);
+        Assert.assertEquals(Collections.singletonList(Collections.singletonList("apple")), handler.batches);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testHandlersDecoratedAgainShareTheInvocationsInFlight() throws Exception {
+        final CommandCoalescer coalescer = new CommandCoalescer().coalesce(PriceCommand.class);
+        final PriceCommandHandler handler = new PriceCommandHandler();
+        final CommandHandler<PriceCommand, Integer> first = coalescer.decorate(PriceCommand.class, command -> handler.handle((PriceCommand) command));
+        final Thread leader = new Thread(() -> first.handle(new PriceCommand("apple", "first")));
+        leader.start();
+        Assert.assertTrue(handler.started.await(5, TimeUnit.SECONDS));
+        final CommandHandler<PriceCommand, Integer> second = coalescer.decorate(PriceCommand.class, command -> handler.handle((PriceCommand) command));
+        final AtomicReference<Integer> result = new AtomicReference<>();
+        final Thread follower = new Thread(() -> result.set(second.handle(new PriceCommand("apple", "second"))));
+        follower.start();
+        awaitWaiting(Collections.singletonList(follower));
+        Assert.assertEquals(1, coalescer.inFlightCount(PriceCommand.class));
+        handler.release.countDown();
+        leader.join(5000);
+        follower.join(5000);
+        Assert.assertEquals(Integer.valueOf(5), result.get());
+        Assert.assertEquals(1, handler.calls.get());
+    }
+
+    @Test
+    public void testFailureOfTheSharedInvocationIsThrownToAllTheCommands() throws Exception {
+        final PriceCommandHandler handler = new PriceCommandHandler();
+        final CommandBus bus = SimpleCommandBusBuilder.create()
+                .concurrent()
+                .registerHandler(PriceCommandHandler.class, handler)
+                .withCoalescing(new CommandCoalescer().coalesce(PriceCommand.class))
+            .build();
+        final AtomicReference<Throwable> leaderFailure = new AtomicReference<>();
+        final AtomicReference<Throwable> followerFailure = new AtomicReference<>();
+        final Thread leader = new Thread(() -> {
+            try {
+                bus.execute(new PriceCommand("broken", "first"));
+            } catch (Throwable t) {
+                leaderFailure.set(t);
+            }
+        });
+        final Thread follower = new Thread(() -> {
+            try {
+                bus.execute(new PriceCommand("broken", "second"));
+            } catch (Throwable t) {
+                followerFailure.set(t);
+            }
+        });
+        leader.start();
+        Assert.assertTrue(handler.started.await(5, TimeUnit.SECONDS));
+        follower.start();
+        awaitWaiting(Collections.singletonList(follower));
+        handler.release.countDown();
+        leader.join(5000);
+        follower.join(5000);
+        Assert.assertEquals(1, handler.calls.get());
+        Assert.assertTrue(leaderFailure.get() instanceof IllegalStateException);
+        Assert.assertSame(leaderFailure.get(), followerFailure.get());
+    }
+
+    @Test
+    public void testAsyncCommandsWithEqualKeysShareOneInvocation() throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            final PriceCommandHandler handler = new PriceCommandHandler();
+            final AsyncCommandBus bus = SimpleCommandBusBuilder.create()
+                    .registerHandler(PriceCommandHandler.class, handler)
+                    .withCoalescing(new CommandCoalescer().coalesce(PriceCommand.class, command -> command.requestId))
+                    .withExecutor(executor)
+                .buildAsync();
+            final CompletableFuture<Integer> first = bus.executeAsync(new PriceCommand("apple", "request"));
+            final CompletableFuture<Integer> second = bus.executeAsync(new PriceCommand("pear", "request"));
+            final CompletableFuture<Integer> cancelled = bus.executeAsync(new PriceCommand("plum", "request"));
+            Assert.assertTrue(cancelled.cancel(false));
+            handler.release.countDown();
+            Assert.assertEquals(Integer.valueOf(5), first.get(5, TimeUnit.SECONDS));
+            Assert.assertEquals(Integer.valueOf(5), second.get(5, TimeUnit.SECONDS));
+            Assert.assertEquals(1, handler.calls.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testCommandsAfterTheInvocationCompletedStartANewOne() throws Exception {
+        final PriceCommandHandler handler = new PriceCommandHandler();
+        handler.release.countDown();
+        final AsyncCommandBus bus = SimpleCommandBusBuilder.create()
+                .registerHandler(PriceCommandHandler.class, handler)
+                .withCoalescing(new CommandCoalescer().coalesce(PriceCommand.class))
+            .buildAsync();
+        bus.execute(new PriceCommand("apple", "first"));
+        bus.execute(new PriceCommand("apple", "second"));
+        bus.executeAsync(new PriceCommand("apple", "third")).get(5, TimeUnit.SECONDS);
+        Assert.assertEquals(3, handler.calls.get());
+    }
+
+    @Test
+    public void testNullKeyFailsTheAsyncCommand() throws Exception {
+        final AsyncCommandBus bus = SimpleCommandBusBuilder.create()
+                .registerHandler(PriceCommandHandler.class, new PriceCommandHandler())
+                .withCoalescing(new CommandCoalescer().coalesce(PriceCommand.class, command -> null))
+            .buildAsync();
+        try {
+            bus.executeAsync(new PriceCommand("apple", "request")).get(5, TimeUnit.SECONDS);
+            Assert.fail("The future must complete exceptionally");
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof NullPointerException);
+        }
+    }
+
+    /**
+     * Waits until all the given threads wait for the shared invocation.
+     */
+    private static void awaitWaiting(List<Thread> threads) throws InterruptedException {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        for(Thread thread : threads) {
+            while(thread.getState() != Thread.State.WAITING) {
+                Assert.assertTrue(System.nanoTime() < deadline);
+                Thread.sleep(1);
+            }
+        }
+    }
+
+}
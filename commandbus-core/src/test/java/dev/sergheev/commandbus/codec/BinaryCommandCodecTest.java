@@ -0,0 +1,173 @@
+package dev.sergheev.commandbus.codec;
+
+import dev.sergheev.commandbus.Command;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+public class BinaryCommandCodecTest {
+
+    public static class SumCommand implements Command {
+        private final int firstNumber;
+        private final int secondNumber;
+        private SumCommand() {
+            this(0, 0);
+        }
+        public SumCommand(int firstNumber, int secondNumber) {
+            this.firstNumber = firstNumber;
+            this.secondNumber = secondNumber;
+        }
+    }
+
+    public static class BaseCommand implements Command {
+        protected long id;
+        private static int instances;
+    }
+
+    public static class EverythingCommand extends BaseCommand {
+        private boolean flag;
+        private byte smallNumber;
+        private char letter;
+        private short shortNumber;
+        private float ratio;
+        private double amount;
+        private Long optionalNumber;
+        private Integer missingNumber;
+        private String text;
+        private String missingText;
+        private TimeUnit unit;
+        private byte[] payload;
+        private transient Object cached = new Object();
+    }
+
+    public static class ConstructedCommand implements Command {
+        private final String source;
+        private ConstructedCommand() {
+            this.source = "constructor";
+        }
+    }
+
+    public static class UnsupportedCommand implements Command {
+        private List<String> values;
+    }
+
+    public static class UnregisteredCommand implements Command {}
+
+    public static class UnconstructableCommand implements Command {
+        private final int value;
+        public UnconstructableCommand(int value) {
+            this.value = value;
+        }
+    }
+
+    private final BinaryCommandCodec codec = BinaryCommandCodecBuilder.create()
+            .register(SumCommand.class)
+            .register(EverythingCommand.class)
+            .register(10, ConstructedCommand.class)
+        .build();
+
+    @Test
+    public void testPrimitiveFieldsAreEncodedAsTheirBinaryRepresentation() {
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(64);
+        codec.encode(new SumCommand(3, 4), buffer);
+        Assert.assertEquals(12, buffer.position());
+        buffer.flip();
+        Assert.assertEquals(0, buffer.getInt(0));
+        final SumCommand command = (SumCommand) codec.decode(buffer);
+        Assert.assertEquals(3, command.firstNumber);
+        Assert.assertEquals(4, command.secondNumber);
+        Assert.assertFalse(buffer.hasRemaining());
+    }
+
+    @Test
+    public void testAllSupportedFieldsAreDecodedBack() {
+        final EverythingCommand original = new EverythingCommand();
+        original.id = 42L;
+        original.flag = true;
+        original.smallNumber = -3;
+        original.letter = '\u00e9';
+        original.shortNumber = 1234;
+        original.ratio = 0.5f;
+        original.amount = -12.25;
+        original.optionalNumber = 7L;
+        original.text = "ascii, \u00fc, \u20ac and \ud83d\ude80";
+        original.unit = TimeUnit.SECONDS;
+        original.payload = new byte[] { 1, 2, 3 };
+        final ByteBuffer buffer = ByteBuffer.allocate(256);
+        codec.encode(original, buffer);
+        buffer.flip();
+        final EverythingCommand decoded = (EverythingCommand) codec.decode(buffer);
+        Assert.assertEquals(42L, decoded.id);
+        Assert.assertTrue(decoded.flag);
+        Assert.assertEquals(-3, decoded.smallNumber);
+        Assert.assertEquals('\u00e9', decoded.letter);
+        Assert.assertEquals(1234, decoded.shortNumber);
+        Assert.assertEquals(0.5f, decoded.ratio, 0.0f);
+        Assert.assertEquals(-12.25, decoded.amount, 0.0);
+        Assert.assertEquals(Long.valueOf(7L), decoded.optionalNumber);
+        Assert.assertNull(decoded.missingNumber);
+        Assert.assertEquals(original.text, decoded.text);
+        Assert.assertNull(decoded.missingText);
+        Assert.assertEquals(TimeUnit.SECONDS, decoded.unit);
+        Assert.assertArrayEquals(new byte[] { 1, 2, 3 }, decoded.payload);
+        Assert.assertNotSame(original.cached, decoded.cached);
+    }
+
+    @Test
+    public void testPrivateConstructorWithoutParametersIsUsed() {
+        final ByteBuffer buffer = ByteBuffer.allocate(64);
+        codec.encode(new ConstructedCommand(), buffer);
+        buffer.flip();
+        Assert.assertEquals(10, buffer.getInt(0));
+        Assert.assertEquals("constructor", ((ConstructedCommand) codec.decode(buffer)).source);
+    }
+
+    @Test
+    public void testCommandThatDoesNotFitOverflowsTheBuffer() {
+        try {
+            codec.encode(new SumCommand(1, 2), ByteBuffer.allocate(8));
+            Assert.fail();
+        } catch (BufferOverflowException expected) {
+        }
+    }
+
+    @Test
+    public void testInvalidInputsAreRejected() {
+        assertRejected(() -> codec.encode(new UnregisteredCommand(), ByteBuffer.allocate(64)));
+        assertRejected(() -> codec.decode(ByteBuffer.wrap(new byte[] { 0, 0, 0, 99 })));
+        assertRejected(() -> codec.decode(ByteBuffer.wrap(new byte[] { 0, 0, 0, 0, 0, 0 })));
+        assertRejected(() -> BinaryCommandCodecBuilder.create().register(UnsupportedCommand.class));
+        assertRejected(() -> BinaryCommandCodecBuilder.create().register(UnconstructableCommand.class));
+        assertRejected(() -> BinaryCommandCodecBuilder.create().register(SumCommand.class).register(SumCommand.class));
+        assertRejected(() -> BinaryCommandCodecBuilder.create().register(1, SumCommand.class).register(1, UnregisteredCommand.class));
+    }
+
+    @Test
+    public void testBinaryCodecIsMoreCompactThanSerialization() {
+        final ByteBuffer binary = ByteBuffer.allocate(1024);
+        final ByteBuffer serialized = ByteBuffer.allocate(1024);
+        codec.encode(new SumCommand(1, 2), binary);
+        new SerializationCommandCodec().encode(new SerializableSumCommand(1, 2), serialized);
+        Assert.assertTrue(Arrays.toString(new int[] { binary.position(), serialized.position() }), binary.position() * 5 < serialized.position());
+    }
+
+    public static class SerializableSumCommand extends SumCommand implements java.io.Serializable {
+        public SerializableSumCommand(int firstNumber, int secondNumber) {
+            super(firstNumber, secondNumber);
+        }
+    }
+
+    private static void assertRejected(Runnable runnable) {
+        try {
+            runnable.run();
+            Assert.fail();
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+}
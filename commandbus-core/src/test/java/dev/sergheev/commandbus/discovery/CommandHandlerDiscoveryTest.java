@@ -0,0 +1,103 @@
+package dev.sergheev.commandbus.discovery;
+
+import dev.sergheev.commandbus.Command;
+import dev.sergheev.commandbus.CommandBus;
+import dev.sergheev.commandbus.CommandHandler;
+import dev.sergheev.commandbus.SimpleCommandBusBuilder;
+import dev.sergheev.commandbus.mapping.CommandMapping;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+@SuppressWarnings({ "rawtypes" })
+public class CommandHandlerDiscoveryTest {
+
+    public static class GreetCommand implements Command {}
+
+    public static class FarewellCommand implements Command {}
+
+    @CommandMapping(GreetCommand.class)
+    public static class GreetCommandHandler implements CommandHandler<GreetCommand, String> {
+        public String handle(GreetCommand command) {
+            return "hello";
+        }
+    }
+
+    @CommandMapping(FarewellCommand.class)
+    public static class FarewellCommandHandler implements CommandHandler<FarewellCommand, String> {
+        public String handle(FarewellCommand command) {
+            return "bye";
+        }
+    }
+
+    @CommandMapping(GreetCommand.class)
+    public static class MappedNonHandler {}
+
+    @CommandMapping(GreetCommand.class)
+    public static abstract class AbstractMappedHandler implements CommandHandler<GreetCommand, String> {}
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testIndexedHandlersAreDiscovered() throws IOException {
+        final ClassLoader loader = withIndex(GreetCommandHandler.class.getName(), "# comment", FarewellCommandHandler.class.getName());
+        final List<Class<? extends CommandHandler>> handlerTypes = CommandHandlerDiscovery.create().withClassLoader(loader).discover();
+        Assert.assertEquals(Arrays.asList(FarewellCommandHandler.class, GreetCommandHandler.class), handlerTypes);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testIndexedClassThatCannotBeLoadedThrowsException() throws IOException {
+        final ClassLoader loader = withIndex("dev.sergheev.commandbus.discovery.MissingCommandHandler");
+        CommandHandlerDiscovery.create().withClassLoader(loader).discover();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testIndexedClassThatIsNotAHandlerThrowsException() throws IOException {
+        final ClassLoader loader = withIndex(MappedNonHandler.class.getName());
+        CommandHandlerDiscovery.create().withClassLoader(loader).discover();
+    }
+
+    @Test
+    public void testScanFallbackFindsOnlyConcreteMappedHandlers() {
+        final List<Class<? extends CommandHandler>> handlerTypes = CommandHandlerDiscovery.create()
+                .withClassLoader(getClass().getClassLoader())
+                .withScanFallback(getClass().getPackage().getName())
+            .discover();
+        Assert.assertEquals(Arrays.asList(FarewellCommandHandler.class, GreetCommandHandler.class), handlerTypes);
+    }
+
+    @Test
+    public void testNothingIsDiscoveredWithoutIndexNorScanFallback() {
+        Assert.assertTrue(CommandHandlerDiscovery.create().withClassLoader(getClass().getClassLoader()).discover().isEmpty());
+    }
+
+    @Test
+    public void testDiscoveredHandlersAreRegisteredByTheBuilder() throws IOException {
+        final ClassLoader loader = withIndex(GreetCommandHandler.class.getName(), FarewellCommandHandler.class.getName());
+        final CommandBus bus = SimpleCommandBusBuilder.create()
+                .discoverHandlers(CommandHandlerDiscovery.create().withClassLoader(loader))
+            .build();
+        Assert.assertEquals("hello", bus.execute(new GreetCommand()));
+        Assert.assertEquals("bye", bus.execute(new FarewellCommand()));
+    }
+
+    private ClassLoader withIndex(String... lines) throws IOException {
+        final File root = folder.newFolder();
+        final File index = new File(root, CommandHandlerDiscovery.INDEX_LOCATION);
+        Assert.assertTrue(index.getParentFile().mkdirs());
+        Files.write(index.toPath(), Arrays.asList(lines), StandardCharsets.UTF_8);
+        return new URLClassLoader(new URL[] { root.toURI().toURL() }, getClass().getClassLoader());
+    }
+
+}
@@ -0,0 +1,184 @@
+package dev.sergheev.commandbus.interceptor;
+
+import dev.sergheev.commandbus.BatchCommandHandler;
+import dev.sergheev.commandbus.Command;
+import dev.sergheev.commandbus.CommandBus;
+import dev.sergheev.commandbus.CommandHandler;
+import dev.sergheev.commandbus.CommandInterceptor;
+import dev.sergheev.commandbus.SimpleCommandBusBuilder;
+import dev.sergheev.commandbus.mapping.CommandMapping;
+import dev.sergheev.commandbus.registry.CommandHandlerRegistry;
+import dev.sergheev.commandbus.registry.CommandHandlerRegistryFactory;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class InterceptorChainDecoratorTest {
+
+    public static class FakeCommand implements Command {}
+
+    public static class AnotherFakeCommand implements Command {}
+
+    public static class SpecialFakeCommand extends FakeCommand {}
+
+    @CommandMapping(FakeCommand.class)
+    public static class FakeCommandHandler implements CommandHandler<FakeCommand, String> {
+        public String handle(FakeCommand command) {
+            return "fake";
+        }
+    }
+
+    @CommandMapping(AnotherFakeCommand.class)
+    public static class AnotherFakeCommandHandler implements CommandHandler<AnotherFakeCommand, String> {
+        public String handle(AnotherFakeCommand command) {
+            return "another";
+        }
+    }
+
+    @CommandMapping(FakeCommand.class)
+    public static class FakeBatchCommandHandler implements BatchCommandHandler<FakeCommand, String> {
+        private final AtomicInteger batchCalls = new AtomicInteger();
+        public String handle(FakeCommand command) {
+            return "one";
+        }
+        public List<String> handleAll(List<FakeCommand> commands) {
+            batchCalls.incrementAndGet();
+            final List<String> results = new ArrayList<>();
+            for(FakeCommand command : commands) results.add("batch");
+            return results;
+        }
+    }
+
+    public static class CountingBatchInterceptor implements CommandInterceptor<FakeCommand, String> {
+        private final AtomicInteger groups = new AtomicInteger();
+        public String intercept(FakeCommand command, CommandHandler<FakeCommand, String> next) {
+            return next.handle(command);
+        }
+        public List<String> interceptAll(List<FakeCommand> commands, BatchCommandHandler<FakeCommand, String> next) {
+            groups.incrementAndGet();
+            return next.handleAll(commands);
+        }
+    }
+
+    @Test
+    public void testInterceptorsAreChainedInTheOrderTheyWereAdded() {
+        final List<String> calls = new ArrayList<>();
+        final CommandBus bus = SimpleCommandBusBuilder.create()
+                .registerHandler(FakeCommandHandler.class, new FakeCommandHandler())
+                .addInterceptor((command, next) -> {
+                    calls.add("first");
+                    return next.handle(command);
+                })
+                .addInterceptor((command, next) -> {
+                    calls.add("second");
+                    return "[" + next.handle(command) + "]";
+                })
+            .build();
+        final String result = bus.execute(new FakeCommand());
+        Assert.assertEquals("[fake]", result);
+        Assert.assertEquals(Arrays.asList("first", "second"), calls);
+    }
+
+    @Test
+    public void testTypeSpecificInterceptorOnlyWrapsItsCommandType() {
+        final CommandBus bus = SimpleCommandBusBuilder.create()
+                .registerHandler(FakeCommandHandler.class, new FakeCommandHandler())
+                .registerHandler(AnotherFakeCommandHandler.class, new AnotherFakeCommandHandler())
+                .addInterceptor(FakeCommand.class, (command, next) -> "intercepted")
+            .build();
+        Assert.assertEquals("intercepted", bus.execute(new FakeCommand()));
+        Assert.assertEquals("another", bus.execute(new AnotherFakeCommand()));
+    }
+
+    @Test
+    public void testInterceptorCanShortCircuitTheHandler() {
+        final CommandBus bus = SimpleCommandBusBuilder.create()
+                .registerHandler(FakeCommandHandler.class, new FakeCommandHandler())
+                .addInterceptor(FakeCommand.class, (command, next) -> {
+                    throw new IllegalArgumentException("invalid command");
+                })
+            .build();
+        try {
+            bus.execute(new FakeCommand());
+            Assert.fail("The interceptor must reject the command");
+        } catch (IllegalArgumentException e) {
+            Assert.assertEquals("invalid command", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testInterceptorsAddedAfterTheBusIsBuiltDoNotApplyToIt() {
+        final SimpleCommandBusBuilder builder = SimpleCommandBusBuilder.create()
+                .registerHandler(FakeCommandHandler.class, new FakeCommandHandler())
+                .addInterceptor((command, next) -> next.handle(command));
+        final CommandBus bus = builder.build();
+        builder.addInterceptor((command, next) -> "intercepted");
+        Assert.assertEquals("fake", bus.execute(new FakeCommand()));
+        Assert.assertEquals("fake", bus.execute(new SpecialFakeCommand()));
+        Assert.assertEquals("intercepted", builder.build().execute(new SpecialFakeCommand()));
+    }
+
+    @Test
+    public void testCommandTypesWithoutInterceptorsAreDispatchedToTheBareHandler() {
+        final InterceptorChainDecorator decorator = new InterceptorChainDecorator();
+        decorator.add(FakeCommand.class, (command, next) -> next.handle(command));
+        final CommandHandlerRegistry registry = CommandHandlerRegistryFactory.newRegistry(decorator);
+        final AnotherFakeCommandHandler handler = new AnotherFakeCommandHandler();
+        registry.registerHandler(AnotherFakeCommandHandler.class, handler);
+        Assert.assertSame(handler, registry.getHandlerFor(AnotherFakeCommand.class));
+    }
+
+    @Test
+    public void testUnregisteringDecoratedHandlerRemovesItsChain() {
+        final InterceptorChainDecorator decorator = new InterceptorChainDecorator();
+        decorator.add(Command.class, (command, next) -> next.handle(command));
+        final CommandHandlerRegistry registry = CommandHandlerRegistryFactory.newConcurrentRegistry(decorator);
+        registry.registerHandler(FakeCommandHandler.class, new FakeCommandHandler());
+        Assert.assertNotNull(registry.getHandlerFor(FakeCommand.class));
+        registry.unregisterHandler(FakeCommandHandler.class);
+        Assert.assertNull(registry.getHandlerFor(FakeCommand.class));
+    }
+
+    @Test
+    public void testBatchAwareInterceptorKeepsTheBatchProcessingOfTheHandler() {
+        final FakeBatchCommandHandler handler = new FakeBatchCommandHandler();
+        final CountingBatchInterceptor interceptor = new CountingBatchInterceptor();
+        final CommandBus bus = SimpleCommandBusBuilder.create()
+                .registerHandler(FakeBatchCommandHandler.class, handler)
+                .addInterceptor(FakeCommand.class, interceptor)
+            .build();
+        final List<String> results = bus.executeAll(Arrays.asList(new FakeCommand(), new FakeCommand(), new FakeCommand()));
+        Assert.assertEquals(Arrays.asList("batch", "batch", "batch"), results);
+        Assert.assertEquals(1, interceptor.groups.get());
+        Assert.assertEquals(1, handler.batchCalls.get());
+    }
+
+    @Test
+    public void testInterceptorInterceptsEveryCommandOfABatchByDefault() {
+        final FakeBatchCommandHandler handler = new FakeBatchCommandHandler();
+        final AtomicInteger intercepted = new AtomicInteger();
+        final CommandBus bus = SimpleCommandBusBuilder.create()
+                .registerHandler(FakeBatchCommandHandler.class, handler)
+                .addInterceptor((command, next) -> {
+                    intercepted.incrementAndGet();
+                    return next.handle(command);
+                })
+            .build();
+        final List<String> results = bus.executeAll(Arrays.asList(new FakeCommand(), new FakeCommand()));
+        Assert.assertEquals(Arrays.asList("one", "one"), results);
+        Assert.assertEquals(2, intercepted.get());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testCustomRegistryCannotBeCombinedWithInterceptors() {
+        SimpleCommandBusBuilder.create()
+                .withRegistry(CommandHandlerRegistryFactory.newRegistry())
+                .addInterceptor((command, next) -> next.handle(command))
+            .build();
+    }
+
+}
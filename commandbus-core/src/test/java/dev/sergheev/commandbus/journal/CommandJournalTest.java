@@ -0,0 +1,260 @@
+package dev.sergheev.commandbus.journal;
+
+import dev.sergheev.commandbus.BatchCommandHandler;
+import dev.sergheev.commandbus.Command;
+import dev.sergheev.commandbus.CommandBus;
+import dev.sergheev.commandbus.CommandHandler;
+import dev.sergheev.commandbus.SimpleCommandBusBuilder;
+import dev.sergheev.commandbus.codec.CommandCodec;
+import dev.sergheev.commandbus.codec.SerializationCommandCodec;
+import dev.sergheev.commandbus.mapping.CommandMapping;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+public class CommandJournalTest {
+
+    public static class DepositCommand implements Command, Serializable {
+        private final String account;
+        private final long amount;
+        public DepositCommand(String account, long amount) {
+            this.account = account;
+            this.amount = amount;
+        }
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof DepositCommand && ((DepositCommand) other).account.equals(account) && ((DepositCommand) other).amount == amount;
+        }
+        @Override
+        public int hashCode() {
+            return account.hashCode() * 31 + Long.hashCode(amount);
+        }
+    }
+
+    public static class UnserializableCommand implements Command {}
+
+    @CommandMapping(DepositCommand.class)
+    public static class DepositCommandHandler implements CommandHandler<DepositCommand, Long> {
+        public Long handle(DepositCommand command) {
+            return command.amount;
+        }
+    }
+
+    @CommandMapping(DepositCommand.class)
+    public static class BatchDepositCommandHandler implements BatchCommandHandler<DepositCommand, Long> {
+        private int batchCalls;
+        public Long handle(DepositCommand command) {
+            throw new AssertionError("The commands must be handled at once");
+        }
+        public List<Long> handleAll(List<DepositCommand> commands) {
+            batchCalls++;
+            final List<Long> results = new ArrayList<>();
+            for(DepositCommand command : commands) results.add(command.amount);
+            return results;
+        }
+    }
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final CommandCodec codec = new SerializationCommandCodec();
+
+    @Test
+    public void testAppendedCommandsAreKeptAcrossReopening() throws IOException {
+        final Path directory = folder.newFolder().toPath();
+        try(CommandJournal journal = CommandJournalBuilder.create(directory, codec).withFsyncPolicy(FsyncPolicy.everyWrite()).open()) {
+            Assert.assertEquals(0, journal.lastSequence());
+            Assert.assertEquals(1, journal.append(new DepositCommand("a", 1)));
+            Assert.assertEquals(2, journal.append(new DepositCommand("b", 2)));
+        }
+        try(CommandJournal journal = CommandJournalBuilder.create(directory, codec).open()) {
+            Assert.assertEquals(2, journal.lastSequence());
+            Assert.assertEquals(3, journal.append(new DepositCommand("c", 3)));
+        }
+        Assert.assertEquals(commands("a", "b", "c"), readAll(directory));
+    }
+
+    @Test
+    public void testFullSegmentIsRolledOver() throws IOException {
+        final Path directory = folder.newFolder().toPath();
+        final List<Command> expected = new ArrayList<>();
+        try(CommandJournal journal = CommandJournalBuilder.create(directory, codec).withSegmentSize(1024).withFsyncPolicy(FsyncPolicy.osManaged()).open()) {
+            for(int i = 0; i < 20; i++) {
+                final DepositCommand command = new DepositCommand("account", i);
+                expected.add(command);
+                Assert.assertEquals(i + 1, journal.append(command));
+            }
+        }
+        Assert.assertTrue(JournalSegment.list(directory).size() > 1);
+        Assert.assertEquals(expected, readAll(directory));
+    }
+
+    @Test
+    public void testConcurrentAppendsGetDistinctSequences() throws Exception {
+        final Path directory = folder.newFolder().toPath();
+        try(CommandJournal journal = CommandJournalBuilder.create(directory, codec).withFsyncPolicy(FsyncPolicy.everyWrite()).open()) {
+            final Set<Long> sequences = Collections.synchronizedSet(new HashSet<>());
+            final List<Thread> threads = new ArrayList<>();
+            for(int t = 0; t < 4; t++) {
+                threads.add(new Thread(() -> {
+                    for(int i = 0; i < 250; i++) sequences.add(journal.append(new DepositCommand("account", i)));
+                }));
+            }
+            threads.forEach(Thread::start);
+            for(Thread thread : threads) thread.join();
+            Assert.assertEquals(1000, sequences.size());
+            Assert.assertEquals(1000, journal.lastSequence());
+        }
+        Assert.assertEquals(1000, readAll(directory).size());
+    }
+
+    @Test
+    public void testHandledCommandsAreJournaledByTheBus() throws Exception {
+        final Path directory = folder.newFolder().toPath();
+        try(CommandJournal journal = CommandJournalBuilder.create(directory, codec).open()) {
+            final CommandBus bus = SimpleCommandBusBuilder.create()
+                    .registerHandler(DepositCommandHandler.class, new DepositCommandHandler())
+                    .withJournal(journal)
+                .build();
+            Assert.assertEquals(Long.valueOf(5), bus.execute(new DepositCommand("a", 5)));
+            Assert.assertEquals(Long.valueOf(7), bus.execute(new DepositCommand("b", 7)));
+        }
+        Assert.assertEquals(Arrays.asList(new DepositCommand("a", 5), new DepositCommand("b", 7)), readAll(directory));
+    }
+
+    @Test
+    public void testGroupOfCommandsIsJournaledBeforeBeingHandedOverAtOnce() throws Exception {
+        final Path directory = folder.newFolder().toPath();
+        final BatchDepositCommandHandler handler = new BatchDepositCommandHandler();
+        try(CommandJournal journal = CommandJournalBuilder.create(directory, codec).open()) {
+            final CommandBus bus = SimpleCommandBusBuilder.create()
+                    .registerHandler(BatchDepositCommandHandler.class, handler)
+                    .withJournal(journal)
+                .build();
+            final List<Long> results = bus.executeAll(commands("a", "b", "c"));
+            Assert.assertEquals(Arrays.asList(1L, 2L, 3L), results);
+            Assert.assertEquals(3, journal.lastSequence());
+        }
+        Assert.assertEquals(1, handler.batchCalls);
+        Assert.assertEquals(commands("a", "b", "c"), readAll(directory));
+    }
+
+    @Test
+    public void testTornRecordIsDiscardedWhenReopening() throws IOException {
+        final Path directory = folder.newFolder().toPath();
+        try(CommandJournal journal = CommandJournalBuilder.create(directory, codec).withSegmentSize(4096).open()) {
+            journal.append(new DepositCommand("a", 1));
+        }
+        final Path path = JournalSegment.list(directory).get(0);
+        final JournalSegment segment = JournalSegment.open(path, false);
+        final int endPosition = JournalSegment.HEADER_SIZE + JournalSegment.RECORD_HEADER_SIZE + segment.recordLengthAt(JournalSegment.HEADER_SIZE);
+        segment.close();
+        try(FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            // A length and part of a command, without a valid checksum
+            channel.write(ByteBuffer.wrap(new byte[] { 0, 0, 0, 20, 1, 2, 3, 4, 5, 6 }), endPosition);
+        }
+        try(CommandJournal journal = CommandJournalBuilder.create(directory, codec).open()) {
+            Assert.assertEquals(1, journal.lastSequence());
+            Assert.assertEquals(2, journal.append(new DepositCommand("b", 2)));
+        }
+        Assert.assertEquals(commands("a", "b"), readAll(directory));
+    }
+
+    @Test
+    public void testCommandThatCannotBeEncodedIsRejected() throws Exception {
+        try(CommandJournal journal = CommandJournalBuilder.create(folder.newFolder().toPath(), codec).withSegmentSize(512).open()) {
+            try {
+                journal.append(new UnserializableCommand());
+                Assert.fail("The command must be rejected");
+            } catch (IllegalArgumentException e) {
+                // Expected
+            }
+            try {
+                journal.append(new DepositCommand(new String(new char[1000]), 1));
+                Assert.fail("The command must not fit in a segment");
+            } catch (IllegalArgumentException e) {
+                // Expected
+            }
+            final CompletableFuture<Long> sequence = journal.appendAsync(new DepositCommand("a", 1));
+            Assert.assertEquals(Long.valueOf(1), sequence.get(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    public void testUnexpectedWriterFailureFailsTheAppendsAndClosesTheJournal() throws Exception {
+        final CommandCodec failingCodec = new CommandCodec() {
+            public void encode(Command command, ByteBuffer buffer) {
+                if(command instanceof UnserializableCommand) throw new StackOverflowError();
+                codec.encode(command, buffer);
+            }
+            public Command decode(ByteBuffer buffer) {
+                return codec.decode(buffer);
+            }
+        };
+        try(CommandJournal journal = CommandJournalBuilder.create(folder.newFolder().toPath(), failingCodec).open()) {
+            Assert.assertEquals(1, journal.append(new DepositCommand("a", 1)));
+            try {
+                journal.appendAsync(new UnserializableCommand()).get(5, TimeUnit.SECONDS);
+                Assert.fail("The append must fail");
+            } catch (ExecutionException e) {
+                Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+                Assert.assertTrue(e.getCause().getCause() instanceof StackOverflowError);
+            }
+            try {
+                journal.append(new DepositCommand("b", 2));
+                Assert.fail("The journal must be closed");
+            } catch (IllegalStateException e) {
+                // Expected
+            }
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testClosedJournalRejectsCommands() throws IOException {
+        final CommandJournal journal = CommandJournalBuilder.create(folder.newFolder().toPath(), codec).open();
+        journal.close();
+        journal.append(new DepositCommand("a", 1));
+    }
+
+    private static List<Command> commands(String... accounts) {
+        final List<Command> commands = new ArrayList<>();
+        for(int i = 0; i < accounts.length; i++) commands.add(new DepositCommand(accounts[i], i + 1));
+        return commands;
+    }
+
+    private List<Command> readAll(Path directory) throws IOException {
+        final List<Command> commands = new ArrayList<>();
+        for(Path path : JournalSegment.list(directory)) {
+            final JournalSegment segment = JournalSegment.open(path, false);
+            try {
+                Assert.assertEquals(commands.size() + 1, segment.baseSequence());
+                int position = JournalSegment.HEADER_SIZE;
+                for(int length = segment.recordLengthAt(position); length > 0; length = segment.recordLengthAt(position)) {
+                    commands.add(codec.decode(segment.recordAt(position, length)));
+                    position += JournalSegment.RECORD_HEADER_SIZE + length;
+                }
+            } finally {
+                segment.close();
+            }
+        }
+        return commands;
+    }
+
+}
@@ -0,0 +1,131 @@
+package dev.sergheev.commandbus.journal;
+
+import dev.sergheev.commandbus.CommandBus;
+import dev.sergheev.commandbus.CommandHandler;
+import dev.sergheev.commandbus.PartitionedCommand;
+import dev.sergheev.commandbus.SimpleCommandBusBuilder;
+import dev.sergheev.commandbus.codec.CommandCodec;
+import dev.sergheev.commandbus.codec.SerializationCommandCodec;
+import dev.sergheev.commandbus.mapping.CommandMapping;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class JournalReplayTest {
+
+    public static class TransferCommand implements PartitionedCommand, Serializable {
+        private final String account;
+        private final int index;
+        public TransferCommand(String account, int index) {
+            this.account = account;
+            this.index = index;
+        }
+        public Object partitionKey() {
+            return account;
+        }
+    }
+
+    @CommandMapping(TransferCommand.class)
+    public static class RecordingHandler implements CommandHandler<TransferCommand, Void> {
+        private final Map<String, List<Integer>> indexesByAccount = new ConcurrentHashMap<>();
+        private volatile int failingIndex = -1;
+        public Void handle(TransferCommand command) {
+            if(command.index == failingIndex) throw new IllegalArgumentException("failing " + command.index);
+            indexesByAccount.computeIfAbsent(command.account, account -> Collections.synchronizedList(new ArrayList<>())).add(command.index);
+            return null;
+        }
+        private int handledCount() {
+            return indexesByAccount.values().stream().mapToInt(List::size).sum();
+        }
+    }
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final CommandCodec codec = new SerializationCommandCodec();
+
+    @Test
+    public void testCommandsAreReplayedInOrderPerPartition() throws IOException {
+        final Path directory = journal(1000, 4);
+        final RecordingHandler handler = new RecordingHandler();
+        final ReplayStats stats = JournalReplay.create(directory, codec).withParallelism(3).withLaneCapacity(8).replayInto(busOf(handler));
+        Assert.assertEquals(1000, stats.replayedCount());
+        Assert.assertEquals(1000, stats.lastSequence());
+        Assert.assertTrue(stats.commandsPerSecond() > 0);
+        Assert.assertEquals(4, handler.indexesByAccount.size());
+        handler.indexesByAccount.forEach((account, indexes) -> {
+            Assert.assertEquals(250, indexes.size());
+            for(int i = 1; i < indexes.size(); i++) Assert.assertTrue(indexes.get(i - 1) < indexes.get(i));
+        });
+    }
+
+    @Test
+    public void testInterruptedReplayResumesFromTheCheckpoint() throws IOException {
+        final Path directory = journal(100, 2);
+        final Path checkpoint = folder.getRoot().toPath().resolve("replay.checkpoint");
+        final RecordingHandler handler = new RecordingHandler();
+        handler.failingIndex = 55;
+        try {
+            JournalReplay.create(directory, codec).withParallelism(2).withCheckpoint(checkpoint, 10).replayInto(busOf(handler));
+            Assert.fail();
+        } catch (IllegalStateException e) {
+            Assert.assertTrue(e.getMessage().contains("56"));
+            Assert.assertTrue(e.getCause() instanceof IllegalArgumentException);
+        }
+        Assert.assertEquals("50", new String(Files.readAllBytes(checkpoint), StandardCharsets.UTF_8));
+        final RecordingHandler resumedHandler = new RecordingHandler();
+        final ReplayStats stats = JournalReplay.create(directory, codec).withParallelism(2).withCheckpoint(checkpoint, 10).replayInto(busOf(resumedHandler));
+        Assert.assertEquals(50, stats.replayedCount());
+        Assert.assertEquals(50, resumedHandler.handledCount());
+        Assert.assertEquals(100, stats.lastSequence());
+        Assert.assertEquals("100", new String(Files.readAllBytes(checkpoint), StandardCharsets.UTF_8));
+        Assert.assertEquals(0, JournalReplay.create(directory, codec).withCheckpoint(checkpoint, 10).replayInto(busOf(new RecordingHandler())).replayedCount());
+    }
+
+    @Test
+    public void testProgressIsReportedAtEveryCheckpoint() throws IOException {
+        final Path directory = journal(30, 3);
+        final List<Long> sequences = new ArrayList<>();
+        JournalReplay.create(directory, codec)
+                .withCheckpoint(folder.getRoot().toPath().resolve("replay.checkpoint"), 10)
+                .withProgressListener(stats -> sequences.add(stats.lastSequence()))
+            .replayInto(busOf(new RecordingHandler()));
+        Assert.assertEquals(Arrays.asList(10L, 20L, 30L), sequences);
+    }
+
+    @Test
+    public void testEmptyJournalReplaysNothing() throws IOException {
+        final ReplayStats stats = JournalReplay.create(folder.newFolder().toPath(), codec).replayInto(busOf(new RecordingHandler()));
+        Assert.assertEquals(0, stats.replayedCount());
+        Assert.assertEquals(0, stats.lastSequence());
+    }
+
+    /**
+     * Journals the given amount of commands, spread across the given amount of accounts, in small segments.
+     */
+    private Path journal(int commandCount, int accountCount) throws IOException {
+        final Path directory = folder.newFolder().toPath();
+        try(CommandJournal journal = CommandJournalBuilder.create(directory, codec).withSegmentSize(16 * 1024).open()) {
+            for(int i = 0; i < commandCount; i++) journal.appendAsync(new TransferCommand("account-" + i % accountCount, i));
+        }
+        return directory;
+    }
+
+    private CommandBus busOf(RecordingHandler handler) {
+        return SimpleCommandBusBuilder.create().registerHandler(RecordingHandler.class, handler).build();
+    }
+
+}
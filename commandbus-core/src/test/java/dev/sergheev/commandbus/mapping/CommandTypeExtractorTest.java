@@ -0,0 +1,65 @@
+package dev.sergheev.commandbus.mapping;
+
+import dev.sergheev.commandbus.Command;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+
+public class CommandTypeExtractorTest {
+
+    public static class FakeCommand implements Command {}
+
+    public static class AnotherFakeCommand implements Command {}
+
+    @CommandMapping(Command.class)
+    public static class FirstFakeCommandHandler {}
+
+    @CommandMapping(FakeCommand.class)
+    public static class SecondFakeCommandHandler {}
+
+    public static class ThirdFakeCommandHandler {}
+
+    @CommandMapping(Command.class)
+    @CommandMapping(FakeCommand.class)
+    @CommandMapping(AnotherFakeCommand.class)
+    public static class FourthRandomCommandHandler {}
+
+    @Test(expected = NullPointerException.class)
+    public void testTypeExtractionThrowsExceptionWhenPassingNullClass() {
+        CommandTypeExtractor extractor = new CommandTypeExtractor();
+        extractor.extractCommandTypesFor(null);
+    }
+
+    @Test
+    public void testMappingAssociatedToAnInterfaceInsteadOfImplementationDoesNotGetExtracted() {
+        CommandTypeExtractor extractor = new CommandTypeExtractor();
+        List<Class<? extends Command>> types = extractor.extractCommandTypesFor(FirstFakeCommandHandler.class);
+        Assert.assertTrue(types.isEmpty());
+    }
+
+    @Test
+    public void testMappingImplementingTheCommandInterfaceDoesGetExtracted() {
+        CommandTypeExtractor extractor = new CommandTypeExtractor();
+        List<Class<? extends Command>> types = extractor.extractCommandTypesFor(SecondFakeCommandHandler.class);
+        Assert.assertEquals(1, types.size());
+        Assert.assertEquals(FakeCommand.class, types.get(0));
+    }
+
+    @Test
+    public void testClassWithNoCommandMappingsReturnsEmptyExtractedList() {
+        CommandTypeExtractor extractor = new CommandTypeExtractor();
+        List<Class<? extends Command>> types = extractor.extractCommandTypesFor(ThirdFakeCommandHandler.class);
+        Assert.assertTrue(types.isEmpty());
+    }
+
+    @Test
+    public void testClassWithMultipleAnnotationsReturnsValidTypesAndIgnoresTheRawInterface() {
+        CommandTypeExtractor extractor = new CommandTypeExtractor();
+        List<Class<? extends Command>> types = extractor.extractCommandTypesFor(FourthRandomCommandHandler.class);
+        Assert.assertEquals(2, types.size());
+        Assert.assertTrue(types.contains(FakeCommand.class));
+        Assert.assertTrue(types.contains(AnotherFakeCommand.class));
+    }
+
+}
@@ -0,0 +1,193 @@
+package dev.sergheev.commandbus.metrics;
+
+import dev.sergheev.commandbus.AsyncCommandBus;
+import dev.sergheev.commandbus.BatchCommandHandler;
+import dev.sergheev.commandbus.Command;
+import dev.sergheev.commandbus.CommandBus;
+import dev.sergheev.commandbus.CommandHandler;
+import dev.sergheev.commandbus.SimpleCommandBusBuilder;
+import dev.sergheev.commandbus.mapping.CommandMapping;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class CommandMetricsTest {
+
+    public static class SleepCommand implements Command {
+        private final long millis;
+        public SleepCommand(long millis) {
+            this.millis = millis;
+        }
+    }
+
+    public static class FailingCommand implements Command {}
+
+    public static class AwaitingCommand implements Command {
+        private final CountDownLatch started = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+    }
+
+    @CommandMapping(SleepCommand.class)
+    public static class SleepCommandHandler implements CommandHandler<SleepCommand, Boolean> {
+        public Boolean handle(SleepCommand command) {
+            try {
+                Thread.sleep(command.millis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return true;
+        }
+    }
+
+    @CommandMapping(FailingCommand.class)
+    public static class FailingCommandHandler implements CommandHandler<FailingCommand, Boolean> {
+        public Boolean handle(FailingCommand command) {
+            throw new IllegalStateException("failure");
+        }
+    }
+
+    @CommandMapping(AwaitingCommand.class)
+    public static class AwaitingCommandHandler implements CommandHandler<AwaitingCommand, Boolean> {
+        public Boolean handle(AwaitingCommand command) {
+            command.started.countDown();
+            try {
+                return command.release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+    }
+
+    public static class BatchedCommand implements Command {}
+
+    @CommandMapping(BatchedCommand.class)
+    public static class BatchedCommandHandler implements BatchCommandHandler<BatchedCommand, Boolean> {
+        private final AtomicInteger batchCalls = new AtomicInteger();
+        public Boolean handle(BatchedCommand command) {
+            return false;
+        }
+        public List<Boolean> handleAll(List<BatchedCommand> commands) {
+            batchCalls.incrementAndGet();
+            final List<Boolean> results = new ArrayList<>();
+            for(BatchedCommand command : commands) results.add(true);
+            return results;
+        }
+    }
+
+    @Test
+    public void testInvocationsAndLatenciesAreRecordedPerCommandType() {
+        final CommandMetrics metrics = new CommandMetrics(1);
+        final CommandBus bus = SimpleCommandBusBuilder.create()
+                .registerHandler(SleepCommandHandler.class, new SleepCommandHandler())
+                .registerHandler(FailingCommandHandler.class, new FailingCommandHandler())
+                .withMetrics(metrics)
+            .build();
+        for(int i = 0; i < 10; i++) bus.execute(new SleepCommand(2));
+        final CommandTypeSnapshot snapshot = metrics.snapshot().forCommandType(SleepCommand.class);
+        Assert.assertEquals(10, snapshot.invocationCount());
+        Assert.assertEquals(0, snapshot.errorCount());
+        Assert.assertEquals(0, snapshot.inFlight());
+        Assert.assertTrue(snapshot.p50() >= TimeUnit.MILLISECONDS.toNanos(2));
+        Assert.assertTrue(snapshot.p99() >= snapshot.p50());
+        Assert.assertTrue(snapshot.p999() >= snapshot.p99());
+        Assert.assertEquals(0, metrics.snapshot().forCommandType(FailingCommand.class).invocationCount());
+    }
+
+    @Test
+    public void testHandlerFailuresAreCountedAsErrors() {
+        final CommandMetrics metrics = new CommandMetrics();
+        final CommandBus bus = SimpleCommandBusBuilder.create()
+                .registerHandler(FailingCommandHandler.class, new FailingCommandHandler())
+                .withMetrics(metrics)
+            .build();
+        for(int i = 0; i < 3; i++) {
+            try {
+                bus.execute(new FailingCommand());
+                Assert.fail("The handler must throw");
+            } catch (IllegalStateException expected) {
+                // the failure is still propagated to the caller
+            }
+        }
+        final CommandTypeSnapshot snapshot = metrics.snapshot().forCommandType(FailingCommand.class);
+        Assert.assertEquals(3, snapshot.invocationCount());
+        Assert.assertEquals(3, snapshot.errorCount());
+    }
+
+    @Test
+    public void testCommandsBeingProcessedAreReportedInFlight() throws Exception {
+        final CommandMetrics metrics = new CommandMetrics();
+        final AsyncCommandBus bus = SimpleCommandBusBuilder.create()
+                .registerHandler(AwaitingCommandHandler.class, new AwaitingCommandHandler())
+                .withMetrics(metrics)
+            .buildAsync();
+        final AwaitingCommand command = new AwaitingCommand();
+        final CompletableFuture<Boolean> result = bus.executeAsync(command);
+        Assert.assertTrue(command.started.await(5, TimeUnit.SECONDS));
+        Assert.assertEquals(1, metrics.snapshot().forCommandType(AwaitingCommand.class).inFlight());
+        command.release.countDown();
+        Assert.assertTrue(result.get(5, TimeUnit.SECONDS));
+        Assert.assertEquals(0, metrics.snapshot().forCommandType(AwaitingCommand.class).inFlight());
+    }
+
+    @Test
+    public void testSampledLatenciesStillCountEveryCommand() {
+        final CommandMetrics metrics = new CommandMetrics(1, 4);
+        final CommandBus bus = SimpleCommandBusBuilder.create()
+                .registerHandler(SleepCommandHandler.class, new SleepCommandHandler())
+                .withMetrics(metrics)
+            .build();
+        for(int i = 0; i < 100; i++) bus.execute(new SleepCommand(0));
+        final CommandTypeSnapshot snapshot = metrics.snapshot().forCommandType(SleepCommand.class);
+        Assert.assertEquals(100, snapshot.invocationCount());
+        Assert.assertEquals(0, snapshot.inFlight());
+    }
+
+    @Test
+    public void testGroupsOfCommandsAreStillProcessedAtOnce() {
+        final CommandMetrics metrics = new CommandMetrics();
+        final BatchedCommandHandler handler = new BatchedCommandHandler();
+        final CommandBus bus = SimpleCommandBusBuilder.create()
+                .registerHandler(BatchedCommandHandler.class, handler)
+                .withMetrics(metrics)
+            .build();
+        final List<Boolean> results = bus.executeAll(Arrays.asList(new BatchedCommand(), new BatchedCommand(), new BatchedCommand()));
+        Assert.assertEquals(Arrays.asList(true, true, true), results);
+        Assert.assertEquals(1, handler.batchCalls.get());
+        final CommandTypeSnapshot snapshot = metrics.snapshot().forCommandType(BatchedCommand.class);
+        Assert.assertEquals(3, snapshot.invocationCount());
+        Assert.assertEquals(0, snapshot.inFlight());
+    }
+
+    @Test
+    public void testLatenciesAreSampledByDefault() {
+        final CommandMetrics metrics = new CommandMetrics();
+        final CommandBus bus = SimpleCommandBusBuilder.create()
+                .registerHandler(SleepCommandHandler.class, new SleepCommandHandler())
+                .withMetrics(metrics)
+            .build();
+        for(int i = 0; i < 1000; i++) bus.execute(new SleepCommand(0));
+        final CommandTypeSnapshot snapshot = metrics.snapshot().forCommandType(SleepCommand.class);
+        Assert.assertEquals(1000, snapshot.invocationCount());
+        Assert.assertTrue(snapshot.sampledCount() > 0);
+        Assert.assertTrue(snapshot.sampledCount() < 1000);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNonPowerOfTwoStripesAreRejected() {
+        new CommandMetrics(3, 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNonPowerOfTwoLatencySamplingIsRejected() {
+        new CommandMetrics(1, 10);
+    }
+
+}
@@ -0,0 +1,51 @@
+package dev.sergheev.commandbus.metrics;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void testSmallValuesAreCountedExactly() {
+        for(long value = 0; value < 32; value++) {
+            Assert.assertEquals(value, LatencyHistogram.highestValueOf(LatencyHistogram.indexOf(value)));
+        }
+    }
+
+    @Test
+    public void testBucketsKeepTheRelativeErrorBelowOneSixteenth() {
+        for(long value = 32; value < (1L << 41); value = value * 3 / 2 + 7) {
+            final long reported = LatencyHistogram.highestValueOf(LatencyHistogram.indexOf(value));
+            Assert.assertTrue(reported >= value);
+            Assert.assertTrue((reported - value) * 16 <= value);
+        }
+    }
+
+    @Test
+    public void testBucketIndexesAreMonotonic() {
+        int previous = 0;
+        for(long value = 0; value < 100_000; value++) {
+            final int index = LatencyHistogram.indexOf(value);
+            Assert.assertTrue(index >= previous);
+            previous = index;
+        }
+    }
+
+    @Test
+    public void testOutOfRangeValuesAreClamped() {
+        Assert.assertEquals(0, LatencyHistogram.indexOf(-5));
+        Assert.assertEquals(LatencyHistogram.BUCKETS - 1, LatencyHistogram.indexOf(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void testSnapshotMergesAllTheStripes() {
+        final LatencyHistogram histogram = new LatencyHistogram(4);
+        histogram.record(10);
+        histogram.record(10);
+        histogram.record(1000);
+        final long[] buckets = histogram.snapshot();
+        Assert.assertEquals(2, buckets[LatencyHistogram.indexOf(10)]);
+        Assert.assertEquals(1, buckets[LatencyHistogram.indexOf(1000)]);
+    }
+
+}
@@ -0,0 +1,187 @@
+package dev.sergheev.commandbus.registry;
+
+import dev.sergheev.commandbus.Command;
+import dev.sergheev.commandbus.CommandHandler;
+import dev.sergheev.commandbus.mapping.CommandMapping;
+import org.junit.Assert;
+import org.junit.Test;
+
+public abstract class AbstractCommandHandlerRegistryTest {
+
+    public static class FakeCommand implements Command {}
+
+    public static class AnotherFakeCommand implements Command {}
+
+    public static class UnmappedCommand implements Command {}
+
+    public interface AuditedCommand extends Command {}
+
+    public static class AuditedFakeCommand implements AuditedCommand {}
+
+    public static class FakeSubCommand extends FakeCommand implements AuditedCommand {}
+
+    @CommandMapping(FakeCommand.class)
+    public static class FakeCommandHandler implements CommandHandler<FakeCommand, String> {
+        public String handle(FakeCommand command) {
+            return "fake";
+        }
+    }
+
+    @CommandMapping(FakeCommand.class)
+    @CommandMapping(AnotherFakeCommand.class)
+    public static class MultiCommandHandler implements CommandHandler<Command, String> {
+        public String handle(Command command) {
+            return "multi";
+        }
+    }
+
+    @CommandMapping(AuditedCommand.class)
+    public static class AuditCommandHandler implements CommandHandler<AuditedCommand, String> {
+        public String handle(AuditedCommand command) {
+            return "audit";
+        }
+    }
+
+    @Test
+    public void testRegistryIsEmptyOnCreation() {
+        final CommandHandlerRegistry registry = createRegistry();
+        Assert.assertTrue(registry.isRegistryEmpty());
+        Assert.assertEquals(0, registry.registrySize());
+    }
+
+    @Test
+    public void testRegisteredHandlerIsFoundByCommandType() {
+        final CommandHandlerRegistry registry = createRegistry();
+        final FakeCommandHandler handler = new FakeCommandHandler();
+        registry.registerHandler(FakeCommandHandler.class, handler);
+        Assert.assertSame(handler, registry.getHandlerFor(FakeCommand.class));
+    }
+
+    @Test
+    public void testRegisteredHandlerIsFoundByCommandName() {
+        final CommandHandlerRegistry registry = createRegistry();
+        final FakeCommandHandler handler = new FakeCommandHandler();
+        registry.registerHandler(FakeCommandHandler.class, handler);
+        Assert.assertSame(handler, registry.getHandlerFor(FakeCommand.class.getName()));
+    }
+
+    @Test
+    public void testHandlerWithMultipleMappingsIsFoundForEveryCommandType() {
+        final CommandHandlerRegistry registry = createRegistry();
+        final MultiCommandHandler handler = new MultiCommandHandler();
+        registry.registerHandler(MultiCommandHandler.class, handler);
+        Assert.assertSame(handler, registry.getHandlerFor(FakeCommand.class));
+        Assert.assertSame(handler, registry.getHandlerFor(AnotherFakeCommand.class));
+    }
+
+    @Test
+    public void testUnmappedCommandReturnsNullHandler() {
+        final CommandHandlerRegistry registry = createRegistry();
+        registry.registerHandler(FakeCommandHandler.class, new FakeCommandHandler());
+        Assert.assertNull(registry.getHandlerFor(UnmappedCommand.class));
+        Assert.assertNull(registry.getHandlerFor(UnmappedCommand.class.getName()));
+    }
+
+    @Test
+    public void testSubclassCommandIsDispatchedToTheHandlerOfItsSuperclass() {
+        final CommandHandlerRegistry registry = createRegistry();
+        final FakeCommandHandler handler = new FakeCommandHandler();
+        registry.registerHandler(FakeCommandHandler.class, handler);
+        Assert.assertSame(handler, registry.getHandlerFor(FakeSubCommand.class));
+        Assert.assertNull(registry.getHandlerFor(FakeSubCommand.class.getName()));
+    }
+
+    @Test
+    public void testCommandIsDispatchedToTheHandlerOfItsInterface() {
+        final CommandHandlerRegistry registry = createRegistry();
+        final AuditCommandHandler handler = new AuditCommandHandler();
+        registry.registerHandler(AuditCommandHandler.class, handler);
+        Assert.assertSame(handler, registry.getHandlerFor(AuditedFakeCommand.class));
+        Assert.assertSame(handler, registry.getHandlerFor(FakeSubCommand.class));
+    }
+
+    @Test
+    public void testSuperclassHandlerIsPreferredOverInterfaceHandler() {
+        final CommandHandlerRegistry registry = createRegistry();
+        final FakeCommandHandler handler = new FakeCommandHandler();
+        registry.registerHandler(AuditCommandHandler.class, new AuditCommandHandler());
+        registry.registerHandler(FakeCommandHandler.class, handler);
+        Assert.assertSame(handler, registry.getHandlerFor(FakeSubCommand.class));
+    }
+
+    @Test
+    public void testHandlerResolvedThroughASupertypeIsDecoratedForTheCommandType() {
+        final CommandHandlerRegistry registry = createRegistry((commandType, handler) -> command -> commandType.getSimpleName());
+        registry.registerHandler(FakeCommandHandler.class, new FakeCommandHandler());
+        Assert.assertEquals("FakeCommand", registry.getHandlerFor(FakeCommand.class).handle(new FakeCommand()));
+        Assert.assertEquals("FakeSubCommand", registry.getHandlerFor(FakeSubCommand.class).handle(new FakeSubCommand()));
+    }
+
+    @Test
+    public void testResolvedSupertypeHandlerFollowsRegistryChanges() {
+        final CommandHandlerRegistry registry = createRegistry();
+        Assert.assertNull(registry.getHandlerFor(FakeSubCommand.class));
+        final FakeCommandHandler handler = new FakeCommandHandler();
+        registry.registerHandler(FakeCommandHandler.class, handler);
+        Assert.assertSame(handler, registry.getHandlerFor(FakeSubCommand.class));
+        registry.unregisterHandler(FakeCommandHandler.class);
+        Assert.assertNull(registry.getHandlerFor(FakeSubCommand.class));
+        registry.registerHandler(FakeCommandHandler.class, handler);
+        registry.clearRegistry();
+        Assert.assertNull(registry.getHandlerFor(FakeSubCommand.class));
+    }
+
+    @Test
+    public void testReRegisteringHandlerReplacesDispatchedInstance() {
+        final CommandHandlerRegistry registry = createRegistry();
+        final FakeCommandHandler oldHandler = new FakeCommandHandler();
+        final FakeCommandHandler newHandler = new FakeCommandHandler();
+        registry.registerHandler(FakeCommandHandler.class, oldHandler);
+        final FakeCommandHandler previous = registry.registerHandler(FakeCommandHandler.class, newHandler);
+        Assert.assertSame(oldHandler, previous);
+        Assert.assertSame(newHandler, registry.getHandlerFor(FakeCommand.class));
+    }
+
+    @Test
+    public void testUnregisteredHandlerIsNoLongerFound() {
+        final CommandHandlerRegistry registry = createRegistry();
+        final FakeCommandHandler handler = new FakeCommandHandler();
+        registry.registerHandler(FakeCommandHandler.class, handler);
+        Assert.assertSame(handler, registry.unregisterHandler(FakeCommandHandler.class));
+        Assert.assertNull(registry.getHandlerFor(FakeCommand.class));
+        Assert.assertNull(registry.getHandlerFor(FakeCommand.class.getName()));
+        Assert.assertTrue(registry.isRegistryEmpty());
+    }
+
+    @Test
+    public void testUnregisteringOverriddenHandlerKeepsTheNewerMapping() {
+        final CommandHandlerRegistry registry = createRegistry();
+        final MultiCommandHandler multiHandler = new MultiCommandHandler();
+        registry.registerHandler(FakeCommandHandler.class, new FakeCommandHandler());
+        registry.registerHandler(MultiCommandHandler.class, multiHandler);
+        registry.unregisterHandler(FakeCommandHandler.class);
+        Assert.assertSame(multiHandler, registry.getHandlerFor(FakeCommand.class));
+    }
+
+    @Test
+    public void testClearedRegistryDoesNotDispatch() {
+        final CommandHandlerRegistry registry = createRegistry();
+        registry.registerHandler(FakeCommandHandler.class, new FakeCommandHandler());
+        registry.clearRegistry();
+        Assert.assertNull(registry.getHandlerFor(FakeCommand.class));
+        Assert.assertTrue(registry.isRegistryEmpty());
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testGettingHandlerForNullCommandTypeThrowsException() {
+        final CommandHandlerRegistry registry = createRegistry();
+        registry.getHandlerFor((Class<? extends Command>) null);
+    }
+
+    public CommandHandlerRegistry createRegistry() {
+        return createRegistry(CommandHandlerDecorator.NONE);
+    }
+
+    public abstract CommandHandlerRegistry createRegistry(CommandHandlerDecorator decorator);
+
+}
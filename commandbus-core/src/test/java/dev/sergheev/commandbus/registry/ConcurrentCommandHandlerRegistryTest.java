@@ -0,0 +1,71 @@
+package dev.sergheev.commandbus.registry;
+
+import dev.sergheev.commandbus.CommandHandler;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class ConcurrentCommandHandlerRegistryTest extends AbstractCommandHandlerRegistryTest {
+
+    @Override
+    public CommandHandlerRegistry createRegistry(CommandHandlerDecorator decorator) {
+        return CommandHandlerRegistryFactory.newConcurrentRegistry(decorator);
+    }
+
+    @Test
+    public void testHandlersAreRegisteredInBulk() {
+        final CommandHandlerRegistry registry = createRegistry();
+        final FakeCommandHandler handler = new FakeCommandHandler();
+        final Map<Class<? extends CommandHandler>, Object> typeToInstance = new HashMap<>();
+        typeToInstance.put(FakeCommandHandler.class, handler);
+        registry.registerHandlers(typeToInstance);
+        Assert.assertSame(handler, registry.getHandlerFor(FakeCommand.class));
+        Assert.assertSame(handler, registry.getHandler(FakeCommandHandler.class));
+        Assert.assertEquals(1, registry.registrySize());
+    }
+
+    @Test
+    public void testReadersObserveEitherNoHandlerOrTheRegisteredOneWhileWriterMutates() throws Exception {
+        final CommandHandlerRegistry registry = createRegistry();
+        final FakeCommandHandler handler = new FakeCommandHandler();
+        final AtomicBoolean running = new AtomicBoolean(true);
+        final CountDownLatch started = new CountDownLatch(1);
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final Future<?> writer = executor.submit(() -> {
+                started.countDown();
+                for(int i = 0; i < 10_000; i++) {
+                    registry.registerHandler(FakeCommandHandler.class, handler);
+                    registry.unregisterHandler(FakeCommandHandler.class);
+                }
+                running.set(false);
+            });
+            final Future<?>[] readers = new Future<?>[3];
+            for(int i = 0; i < readers.length; i++) {
+                readers[i] = executor.submit(() -> {
+                    started.await();
+                    while(running.get()) {
+                        final CommandHandler<FakeCommand, String> found = registry.getHandlerFor(FakeCommand.class);
+                        if(found != null && found != handler) throw new AssertionError("Unexpected handler " + found);
+                    }
+                    return null;
+                });
+            }
+            writer.get(30, TimeUnit.SECONDS);
+            for(Future<?> reader : readers) reader.get(30, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+        Assert.assertNull(registry.getHandlerFor(FakeCommand.class));
+        Assert.assertTrue(registry.isRegistryEmpty());
+    }
+
+}
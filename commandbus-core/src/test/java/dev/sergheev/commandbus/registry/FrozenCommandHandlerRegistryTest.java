@@ -0,0 +1,117 @@
+package dev.sergheev.commandbus.registry;
+
+import dev.sergheev.commandbus.CommandHandler;
+import dev.sergheev.commandbus.registry.AbstractCommandHandlerRegistryTest.AnotherFakeCommand;
+import dev.sergheev.commandbus.registry.AbstractCommandHandlerRegistryTest.AuditCommandHandler;
+import dev.sergheev.commandbus.registry.AbstractCommandHandlerRegistryTest.AuditedFakeCommand;
+import dev.sergheev.commandbus.registry.AbstractCommandHandlerRegistryTest.FakeCommand;
+import dev.sergheev.commandbus.registry.AbstractCommandHandlerRegistryTest.FakeCommandHandler;
+import dev.sergheev.commandbus.registry.AbstractCommandHandlerRegistryTest.FakeSubCommand;
+import dev.sergheev.commandbus.registry.AbstractCommandHandlerRegistryTest.MultiCommandHandler;
+import dev.sergheev.commandbus.registry.AbstractCommandHandlerRegistryTest.UnmappedCommand;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+@SuppressWarnings({ "rawtypes" })
+public class FrozenCommandHandlerRegistryTest {
+
+    @Test
+    public void testFrozenHandlersAreFoundByCommandTypeAndName() {
+        final MultiCommandHandler handler = new MultiCommandHandler();
+        final CommandHandlerRegistry registry = CommandHandlerRegistryFactory.newFrozenRegistry(
+                Collections.<Class<? extends CommandHandler>, Object>singletonMap(MultiCommandHandler.class, handler));
+        Assert.assertSame(handler, registry.getHandlerFor(FakeCommand.class));
+        Assert.assertSame(handler, registry.getHandlerFor(AnotherFakeCommand.class));
+        Assert.assertSame(handler, registry.getHandlerFor(FakeCommand.class.getName()));
+        Assert.assertSame(handler, registry.getHandler(MultiCommandHandler.class));
+        Assert.assertTrue(registry.containsHandler(MultiCommandHandler.class));
+        Assert.assertEquals(1, registry.registrySize());
+    }
+
+    @Test
+    public void testUnmappedCommandReturnsNullHandler() {
+        final CommandHandlerRegistry registry = CommandHandlerRegistryFactory.newFrozenRegistry(
+                Collections.<Class<? extends CommandHandler>, Object>singletonMap(FakeCommandHandler.class, new FakeCommandHandler()));
+        Assert.assertNull(registry.getHandlerFor(UnmappedCommand.class));
+        Assert.assertNull(registry.getHandlerFor(UnmappedCommand.class.getName()));
+        Assert.assertNull(registry.getHandler(MultiCommandHandler.class));
+    }
+
+    @Test
+    public void testCommandsAreDispatchedToTheHandlerOfTheirClosestSupertype() {
+        final FakeCommandHandler handler = new FakeCommandHandler();
+        final AuditCommandHandler auditHandler = new AuditCommandHandler();
+        final Map<Class<? extends CommandHandler>, Object> classToInstance = new HashMap<>();
+        classToInstance.put(FakeCommandHandler.class, handler);
+        classToInstance.put(AuditCommandHandler.class, auditHandler);
+        final CommandHandlerRegistry registry = CommandHandlerRegistryFactory.newFrozenRegistry(classToInstance);
+        Assert.assertSame(handler, registry.getHandlerFor(FakeSubCommand.class));
+        Assert.assertSame(auditHandler, registry.getHandlerFor(AuditedFakeCommand.class));
+        Assert.assertNull(registry.getHandlerFor(UnmappedCommand.class));
+    }
+
+    @Test
+    public void testEmptyFrozenRegistryDoesNotDispatch() {
+        final CommandHandlerRegistry registry = CommandHandlerRegistryFactory.newFrozenRegistry(Collections.emptyMap());
+        Assert.assertTrue(registry.isRegistryEmpty());
+        Assert.assertNull(registry.getHandlerFor(FakeCommand.class));
+    }
+
+    @Test
+    public void testFrozenHandlersAreDecorated() {
+        final FakeCommandHandler handler = new FakeCommandHandler();
+        final CommandHandler decorated = command -> "decorated";
+        final CommandHandlerRegistry registry = CommandHandlerRegistryFactory.newFrozenRegistry(
+                Collections.<Class<? extends CommandHandler>, Object>singletonMap(FakeCommandHandler.class, handler),
+                (commandType, given) -> decorated);
+        Assert.assertSame(decorated, registry.getHandlerFor(FakeCommand.class));
+        Assert.assertSame(handler, registry.getHandler(FakeCommandHandler.class));
+    }
+
+    @Test
+    public void testHandlerResolvedThroughASupertypeIsDecoratedForTheCommandType() {
+        final CommandHandlerRegistry registry = CommandHandlerRegistryFactory.newFrozenRegistry(
+                Collections.<Class<? extends CommandHandler>, Object>singletonMap(FakeCommandHandler.class, new FakeCommandHandler()),
+                (commandType, given) -> command -> commandType.getSimpleName());
+        Assert.assertEquals("FakeCommand", registry.getHandlerFor(FakeCommand.class).handle(new FakeCommand()));
+        Assert.assertEquals("FakeSubCommand", registry.getHandlerFor(FakeSubCommand.class).handle(new FakeSubCommand()));
+    }
+
+    @Test
+    public void testFrozenRegistryIsNotAffectedByTheGivenMap() {
+        final Map<Class<? extends CommandHandler>, Object> classToInstance = new HashMap<>();
+        classToInstance.put(FakeCommandHandler.class, new FakeCommandHandler());
+        final CommandHandlerRegistry registry = CommandHandlerRegistryFactory.newFrozenRegistry(classToInstance);
+        classToInstance.clear();
+        Assert.assertNotNull(registry.getHandlerFor(FakeCommand.class));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testRegisteringIntoFrozenRegistryThrowsException() {
+        final CommandHandlerRegistry registry = CommandHandlerRegistryFactory.newFrozenRegistry(Collections.emptyMap());
+        registry.registerHandler(FakeCommandHandler.class, new FakeCommandHandler());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testUnregisteringFromFrozenRegistryThrowsException() {
+        final CommandHandlerRegistry registry = CommandHandlerRegistryFactory.newFrozenRegistry(
+                Collections.<Class<? extends CommandHandler>, Object>singletonMap(FakeCommandHandler.class, new FakeCommandHandler()));
+        registry.unregisterHandler(FakeCommandHandler.class);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testClearingFrozenRegistryThrowsException() {
+        CommandHandlerRegistryFactory.newFrozenRegistry(Collections.emptyMap()).clearRegistry();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInstanceOfAnotherTypeIsRejected() {
+        CommandHandlerRegistryFactory.newFrozenRegistry(
+                Collections.<Class<? extends CommandHandler>, Object>singletonMap(FakeCommandHandler.class, new MultiCommandHandler()));
+    }
+
+}
@@ -0,0 +1,10 @@
+package dev.sergheev.commandbus.registry;
+
+public class SimpleCommandHandlerRegistryTest extends AbstractCommandHandlerRegistryTest {
+
+    @Override
+    public CommandHandlerRegistry createRegistry(CommandHandlerDecorator decorator) {
+        return CommandHandlerRegistryFactory.newRegistry(decorator);
+    }
+
+}
@@ -0,0 +1,71 @@
+package dev.sergheev.commandbus.registry;
+
+import dev.sergheev.commandbus.Command;
+import dev.sergheev.commandbus.CommandHandler;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class StaticCommandHandlerRegistryTest extends AbstractCommandHandlerRegistryTest {
+
+    /**
+     * The registry the annotation processor generates for the fixtures of {@link AbstractCommandHandlerRegistryTest}.
+     */
+    @SuppressWarnings({ "unchecked" })
+    public static class FixtureCommandHandlerRegistry extends StaticCommandHandlerRegistry {
+
+        private static final Class<? extends Command>[] COMMAND_TYPES = new Class[] {
+            FakeCommand.class,
+            AnotherFakeCommand.class,
+            AuditedCommand.class
+        };
+
+        public FixtureCommandHandlerRegistry(CommandHandlerDecorator decorator) {
+            super(COMMAND_TYPES, decorator);
+        }
+
+        @Override
+        protected int slotOf(String commandName) {
+            switch(commandName) {
+                case "dev.sergheev.commandbus.registry.AbstractCommandHandlerRegistryTest$FakeCommand": return 0;
+                case "dev.sergheev.commandbus.registry.AbstractCommandHandlerRegistryTest$AnotherFakeCommand": return 1;
+                case "dev.sergheev.commandbus.registry.AbstractCommandHandlerRegistryTest$AuditedCommand": return 2;
+                default: return -1;
+            }
+        }
+
+        @Override
+        protected int[] slotsOf(String handlerName) {
+            switch(handlerName) {
+                case "dev.sergheev.commandbus.registry.AbstractCommandHandlerRegistryTest$FakeCommandHandler": return new int[] { 0 };
+                case "dev.sergheev.commandbus.registry.AbstractCommandHandlerRegistryTest$MultiCommandHandler": return new int[] { 0, 1 };
+                case "dev.sergheev.commandbus.registry.AbstractCommandHandlerRegistryTest$AuditCommandHandler": return new int[] { 2 };
+                default: return null;
+            }
+        }
+
+    }
+
+    public static class UnknownCommandHandler implements CommandHandler<FakeCommand, String> {
+        public String handle(FakeCommand command) {
+            return "unknown";
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRegisteringUnknownHandlerThrowsException() {
+        final CommandHandlerRegistry registry = createRegistry();
+        registry.registerHandler(UnknownCommandHandler.class, new UnknownCommandHandler());
+    }
+
+    @Test
+    public void testUnregisteringUnknownHandlerReturnsNull() {
+        final CommandHandlerRegistry registry = createRegistry();
+        Assert.assertNull(registry.unregisterHandler(UnknownCommandHandler.class));
+    }
+
+    @Override
+    public CommandHandlerRegistry createRegistry(CommandHandlerDecorator decorator) {
+        return new FixtureCommandHandlerRegistry(decorator);
+    }
+
+}
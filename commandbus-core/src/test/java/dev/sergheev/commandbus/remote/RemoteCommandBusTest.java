@@ -0,0 +1,198 @@
+package dev.sergheev.commandbus.remote;
+
+import dev.sergheev.commandbus.Command;
+import dev.sergheev.commandbus.CommandBus;
+import dev.sergheev.commandbus.CommandHandler;
+import dev.sergheev.commandbus.SimpleCommandBusBuilder;
+import dev.sergheev.commandbus.codec.BinaryCommandCodecBuilder;
+import dev.sergheev.commandbus.codec.CommandCodec;
+import dev.sergheev.commandbus.mapping.CommandMapping;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+public class RemoteCommandBusTest {
+
+    public static class SumCommand implements Command {
+        private final int firstNumber;
+        private final int secondNumber;
+        private SumCommand() {
+            this(0, 0);
+        }
+        public SumCommand(int firstNumber, int secondNumber) {
+            this.firstNumber = firstNumber;
+            this.secondNumber = secondNumber;
+        }
+    }
+
+    public static class EchoCommand implements Command {
+        private final String text;
+        private final int delayMillis;
+        private EchoCommand() {
+            this(null, 0);
+        }
+        public EchoCommand(String text, int delayMillis) {
+            this.text = text;
+            this.delayMillis = delayMillis;
+        }
+    }
+
+    public static class FailingCommand implements Command {}
+
+    public static class BlockingCommand implements Command {}
+
+    public static class UnhandledCommand implements Command {}
+
+    public static class UnregisteredCommand implements Command {}
+
+    @CommandMapping(SumCommand.class)
+    public static class SumCommandHandler implements CommandHandler<SumCommand, Integer> {
+        public Integer handle(SumCommand command) {
+            return command.firstNumber + command.secondNumber;
+        }
+    }
+
+    @CommandMapping(EchoCommand.class)
+    public static class EchoCommandHandler implements CommandHandler<EchoCommand, String> {
+        public String handle(EchoCommand command) {
+            try {
+                Thread.sleep(command.delayMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return command.text;
+        }
+    }
+
+    @CommandMapping(FailingCommand.class)
+    public static class FailingCommandHandler implements CommandHandler<FailingCommand, Void> {
+        public Void handle(FailingCommand command) {
+            throw new UnsupportedOperationException("failing");
+        }
+    }
+
+    @CommandMapping(BlockingCommand.class)
+    public static class BlockingCommandHandler implements CommandHandler<BlockingCommand, Void> {
+        private final CountDownLatch latch = new CountDownLatch(1);
+        public Void handle(BlockingCommand command) {
+            try {
+                latch.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        }
+    }
+
+    private final CommandCodec codec = BinaryCommandCodecBuilder.create()
+            .register(SumCommand.class)
+            .register(EchoCommand.class)
+            .register(FailingCommand.class)
+            .register(BlockingCommand.class)
+            .register(UnhandledCommand.class)
+        .build();
+
+    private final BlockingCommandHandler blockingHandler = new BlockingCommandHandler();
+
+    private ExecutorService executor;
+
+    private RemoteCommandBusServer server;
+
+    private RemoteCommandBus bus;
+
+    @Before
+    public void setUp() throws Exception {
+        executor = Executors.newFixedThreadPool(8);
+        final CommandBus localBus = SimpleCommandBusBuilder.create()
+                .registerHandler(SumCommandHandler.class, new SumCommandHandler())
+                .registerHandler(EchoCommandHandler.class, new EchoCommandHandler())
+                .registerHandler(FailingCommandHandler.class, new FailingCommandHandler())
+                .registerHandler(BlockingCommandHandler.class, blockingHandler)
+            .build();
+        server = RemoteCommandBusServer.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), localBus, codec, executor);
+        bus = RemoteCommandBus.connect(server.localAddress(), codec);
+    }
+
+    @After
+    public void tearDown() {
+        blockingHandler.latch.countDown();
+        bus.close();
+        server.close();
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testCommandsAreProcessedByTheRemoteBus() {
+        Assert.assertEquals(Integer.valueOf(7), bus.execute(new SumCommand(3, 4)));
+        Assert.assertEquals("hello", bus.<String>executeAsync(new EchoCommand("hello", 0)).join());
+    }
+
+    @Test
+    public void testPipelinedCommandsAreMatchedToTheirResults() {
+        final List<CompletableFuture<String>> futures = new ArrayList<>();
+        for(int i = 0; i < 2000; i++) futures.add(bus.executeAsync(new EchoCommand("echo-" + i, i % 5 == 0 ? 2 : 0)));
+        for(int i = 0; i < futures.size(); i++) Assert.assertEquals("echo-" + i, futures.get(i).join());
+        Assert.assertEquals(0, bus.inFlightCount());
+    }
+
+    @Test
+    public void testLargeResultsSpanSeveralReads() {
+        final StringBuilder text = new StringBuilder();
+        for(int i = 0; i < 100_000; i++) text.append((char) ('a' + i % 26));
+        Assert.assertEquals(text.toString(), bus.execute(new EchoCommand(text.toString(), 0)));
+    }
+
+    @Test
+    public void testFailuresAreReportedWithoutClosingTheConnection() {
+        try {
+            bus.execute(new FailingCommand());
+            Assert.fail();
+        } catch (RemoteCommandException e) {
+            Assert.assertEquals(UnsupportedOperationException.class.getName(), e.remoteType());
+            Assert.assertTrue(e.getMessage().contains("failing"));
+        }
+        try {
+            bus.execute(new UnhandledCommand());
+            Assert.fail();
+        } catch (IllegalArgumentException expected) {
+        }
+        try {
+            bus.execute(new UnregisteredCommand());
+            Assert.fail();
+        } catch (IllegalArgumentException expected) {
+        }
+        Assert.assertEquals(Integer.valueOf(3), bus.execute(new SumCommand(1, 2)));
+    }
+
+    @Test
+    public void testCommandsInFlightFailWhenTheServerIsClosed() throws Exception {
+        final CompletableFuture<Object> future = bus.executeAsync(new BlockingCommand());
+        server.close();
+        try {
+            future.get(5, TimeUnit.SECONDS);
+            Assert.fail();
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+        try {
+            bus.executeAsync(new SumCommand(1, 2)).join();
+            Assert.fail();
+        } catch (CompletionException e) {
+            Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+    }
+
+}
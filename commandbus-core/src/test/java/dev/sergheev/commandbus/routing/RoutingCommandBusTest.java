@@ -0,0 +1,175 @@
+package dev.sergheev.commandbus.routing;
+
+import dev.sergheev.commandbus.Command;
+import dev.sergheev.commandbus.CommandBus;
+import dev.sergheev.commandbus.CommandHandler;
+import dev.sergheev.commandbus.PartitionedCommand;
+import dev.sergheev.commandbus.SimpleCommandBusBuilder;
+import dev.sergheev.commandbus.codec.BinaryCommandCodecBuilder;
+import dev.sergheev.commandbus.codec.CommandCodec;
+import dev.sergheev.commandbus.mapping.CommandMapping;
+import dev.sergheev.commandbus.remote.RemoteCommandBus;
+import dev.sergheev.commandbus.remote.RemoteCommandBusServer;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+public class RoutingCommandBusTest {
+
+    public static class WhereCommand implements PartitionedCommand {
+        private final String key;
+        private WhereCommand() {
+            this(null);
+        }
+        public WhereCommand(String key) {
+            this.key = key;
+        }
+        public Object partitionKey() {
+            return key;
+        }
+    }
+
+    public static class AnywhereCommand implements Command {}
+
+    public enum Region { EUROPE, ASIA, AMERICA }
+
+    /**
+     * Tells the name of the node it is registered on.
+     */
+    @CommandMapping(WhereCommand.class)
+    @CommandMapping(AnywhereCommand.class)
+    public static class NodeNameHandler implements CommandHandler<Command, String> {
+        private final String name;
+        public NodeNameHandler(String name) {
+            this.name = name;
+        }
+        public String handle(Command command) {
+            return name;
+        }
+    }
+
+    @Test
+    public void testCommandsWithEqualKeysLandOnTheSameNode() {
+        final RoutingCommandBus bus = withNodes("a", "b", "c");
+        final Set<String> usedNodes = new HashSet<>();
+        for(int i = 0; i < 100; i++) {
+            final String node = bus.execute(new WhereCommand("key-" + i));
+            Assert.assertEquals(node, bus.execute(new WhereCommand("key-" + i)));
+            Assert.assertEquals(node, bus.nodeFor("key-" + i));
+            usedNodes.add(node);
+        }
+        Assert.assertEquals(3, usedNodes.size());
+    }
+
+    @Test
+    public void testKeysAreRoutedTheSameWayOnEveryJvm() {
+        final RoutingCommandBus bus = withNodes("a", "b", "c");
+        for(Region region : Region.values()) Assert.assertEquals(bus.nodeFor(region.name()), bus.nodeFor(region));
+        Assert.assertEquals(bus.nodeFor("key-1"), bus.nodeFor(new StringBuilder("key-1")));
+        Assert.assertEquals("b", bus.nodeFor("key-1"));
+        Assert.assertEquals("c", bus.nodeFor("key-2"));
+        Assert.assertEquals("b", bus.nodeFor("key-3"));
+        Assert.assertEquals("a", bus.nodeFor(Region.EUROPE));
+        Assert.assertEquals("c", bus.nodeFor(42L));
+    }
+
+    @Test
+    public void testKeysAreSpreadEvenlyWithVirtualNodes() {
+        final RoutingCommandBus bus = withNodes("a", "b", "c", "d");
+        final Map<String, Integer> counts = new HashMap<>();
+        for(int i = 0; i < 10_000; i++) counts.merge(bus.nodeFor("key-" + i), 1, Integer::sum);
+        counts.values().forEach(count -> Assert.assertTrue(counts.toString(), count > 1_500 && count < 3_500));
+    }
+
+    @Test
+    public void testMembershipChangesOnlyMoveTheKeysOfTheChangedNode() {
+        final RoutingCommandBus bus = withNodes("a", "b", "c", "d");
+        final Map<String, String> before = ownersOf(bus);
+        bus.addNode("e", nodeBus("e"));
+        final Map<String, String> afterAdding = ownersOf(bus);
+        int moved = 0;
+        for(Map.Entry<String, String> owner : before.entrySet()) {
+            if(owner.getValue().equals(afterAdding.get(owner.getKey()))) continue;
+            Assert.assertEquals("e", afterAdding.get(owner.getKey()));
+            moved++;
+        }
+        Assert.assertTrue(String.valueOf(moved), moved > 1_000 && moved < 3_000);
+        Assert.assertNotNull(bus.removeNode("b"));
+        final Map<String, String> afterRemoving = ownersOf(bus);
+        for(Map.Entry<String, String> owner : afterAdding.entrySet()) {
+            if(!owner.getValue().equals("b")) Assert.assertEquals(owner.getValue(), afterRemoving.get(owner.getKey()));
+        }
+        Assert.assertFalse(afterRemoving.containsValue("b"));
+        Assert.assertNull(bus.removeNode("b"));
+    }
+
+    @Test
+    public void testCommandsWithoutKeyAreSpreadInTurn() {
+        final RoutingCommandBus bus = withNodes("a", "b", "c");
+        final Set<String> usedNodes = new HashSet<>();
+        for(int i = 0; i < 3; i++) usedNodes.add(bus.execute(new AnywhereCommand()));
+        Assert.assertEquals(3, usedNodes.size());
+    }
+
+    @Test
+    public void testNodesCanBeRemote() {
+        final CommandCodec codec = BinaryCommandCodecBuilder.create().register(WhereCommand.class).register(AnywhereCommand.class).build();
+        try(RemoteCommandBusServer server = RemoteCommandBusServer.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), nodeBus("remote"), codec);
+            RemoteCommandBus remoteBus = RemoteCommandBus.connect(server.localAddress(), codec)) {
+            final RoutingCommandBus bus = RoutingCommandBus.create().addNode("local", nodeBus("local")).addNode("remote", remoteBus);
+            final Set<String> usedNodes = new HashSet<>();
+            for(int i = 0; i < 50; i++) {
+                final String key = "key-" + i;
+                final String node = bus.<String>executeAsync(new WhereCommand(key)).join();
+                Assert.assertEquals(bus.nodeFor(key), node);
+                usedNodes.add(node);
+            }
+            Assert.assertEquals(2, usedNodes.size());
+        }
+    }
+
+    @Test
+    public void testInvalidMembershipIsRejected() {
+        final RoutingCommandBus bus = RoutingCommandBus.create();
+        try {
+            bus.execute(new AnywhereCommand());
+            Assert.fail();
+        } catch (IllegalStateException expected) {
+        }
+        Assert.assertTrue(bus.executeAsync(new AnywhereCommand()).isCompletedExceptionally());
+        bus.addNode("a", nodeBus("a"));
+        try {
+            bus.addNode("a", nodeBus("a"));
+            Assert.fail();
+        } catch (IllegalArgumentException expected) {
+        }
+        try {
+            bus.withVirtualNodes(10);
+            Assert.fail();
+        } catch (IllegalStateException expected) {
+        }
+    }
+
+    private static RoutingCommandBus withNodes(String... names) {
+        final RoutingCommandBus bus = RoutingCommandBus.create();
+        for(String name : names) bus.addNode(name, nodeBus(name));
+        return bus;
+    }
+
+    private static CommandBus nodeBus(String name) {
+        return SimpleCommandBusBuilder.create().registerHandler(NodeNameHandler.class, new NodeNameHandler(name)).build();
+    }
+
+    private static Map<String, String> ownersOf(RoutingCommandBus bus) {
+        final Map<String, String> owners = new HashMap<>();
+        for(int i = 0; i < 10_000; i++) owners.put("key-" + i, bus.nodeFor("key-" + i));
+        return owners;
+    }
+
+}
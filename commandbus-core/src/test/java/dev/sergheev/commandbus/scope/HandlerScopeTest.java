@@ -0,0 +1,166 @@
+package dev.sergheev.commandbus.scope;
+
+import dev.sergheev.commandbus.BatchCommandHandler;
+import dev.sergheev.commandbus.Command;
+import dev.sergheev.commandbus.CommandBus;
+import dev.sergheev.commandbus.SimpleCommandBusBuilder;
+import dev.sergheev.commandbus.mapping.CommandMapping;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class HandlerScopeTest {
+
+    public static class AppendCommand implements Command {
+        private final String text;
+        public AppendCommand(String text) {
+            this.text = text;
+        }
+    }
+
+    /**
+     * A handler with unsynchronized scratch state, which returns the instance that processed the command.
+     */
+    @CommandMapping(AppendCommand.class)
+    public static class BufferingCommandHandler implements BatchCommandHandler<AppendCommand, Object> {
+        private final StringBuilder buffer = new StringBuilder();
+        public Object handle(AppendCommand command) {
+            if(buffer.length() != 0) throw new IllegalStateException("The buffer was not reset");
+            buffer.append(command.text);
+            return this;
+        }
+        public List<Object> handleAll(List<AppendCommand> commands) {
+            final List<Object> results = new ArrayList<>();
+            for(AppendCommand command : commands) results.add(buffer.append(command.text).toString());
+            return results;
+        }
+    }
+
+    public static class RecordingLifecycle implements HandlerLifecycle<BufferingCommandHandler> {
+        private final List<String> events = Collections.synchronizedList(new ArrayList<>());
+        public void onCreate(BufferingCommandHandler handler) {
+            events.add("create");
+        }
+        public void onRelease(BufferingCommandHandler handler) {
+            handler.buffer.setLength(0);
+            events.add("release");
+        }
+        public void onDestroy(BufferingCommandHandler handler) {
+            events.add("destroy");
+        }
+    }
+
+    @Test
+    public void testThreadConfinedScopeGivesEveryThreadItsOwnInstance() throws Exception {
+        final AtomicInteger creations = new AtomicInteger();
+        final CommandBus bus = busOf(HandlerScope.threadConfined(), creations, new RecordingLifecycle());
+        final Object first = bus.execute(new AppendCommand("a"));
+        Assert.assertSame(first, bus.execute(new AppendCommand("b")));
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final Object other = executor.submit(() -> bus.execute(new AppendCommand("c"))).get();
+            Assert.assertNotSame(first, other);
+        } finally {
+            executor.shutdown();
+        }
+        Assert.assertEquals(2, creations.get());
+    }
+
+    @Test
+    public void testInstancesOfTerminatedThreadsAreDestroyed() throws Exception {
+        final RecordingLifecycle lifecycle = new RecordingLifecycle();
+        final CommandBus bus = busOf(HandlerScope.threadConfined(), new AtomicInteger(), lifecycle);
+        for(int i = 0; i < 3; i++) {
+            final Thread thread = new Thread(() -> bus.execute(new AppendCommand("a")));
+            thread.start();
+            thread.join(5000);
+        }
+        // The instances of the first two threads are destroyed when the next threads create theirs
+        Assert.assertEquals(2, Collections.frequency(lifecycle.events, "destroy"));
+        Assert.assertEquals(4, Collections.frequency(lifecycle.events, "create"));
+    }
+
+    @Test
+    public void testPooledScopeNeverCreatesMoreInstancesThanItsCapacity() throws Exception {
+        final AtomicInteger creations = new AtomicInteger();
+        final CommandBus bus = busOf(HandlerScope.pooled(2), creations, new RecordingLifecycle());
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final CountDownLatch start = new CountDownLatch(1);
+            final List<Future<Object>> results = new ArrayList<>();
+            for(int i = 0; i < 100; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return bus.execute(new AppendCommand("x"));
+                }));
+            }
+            start.countDown();
+            final Set<Object> instances = new HashSet<>();
+            for(Future<Object> result : results) instances.add(result.get(10, TimeUnit.SECONDS));
+            Assert.assertTrue(instances.size() <= 2);
+        } finally {
+            executor.shutdown();
+        }
+        Assert.assertTrue(creations.get() <= 2);
+    }
+
+    @Test
+    public void testLifecycleIsNotifiedOfEveryInstance() {
+        final RecordingLifecycle lifecycle = new RecordingLifecycle();
+        final HandlerScope scope = HandlerScope.pooled(1);
+        final CommandBus bus = busOf(scope, new AtomicInteger(), lifecycle);
+        bus.execute(new AppendCommand("a"));
+        bus.execute(new AppendCommand("b"));
+        scope.close();
+        Assert.assertEquals(Arrays.asList("create", "release", "release", "destroy"), lifecycle.events);
+    }
+
+    @Test
+    public void testBatchesAreProcessedByASingleInstance() {
+        final CommandBus bus = busOf(HandlerScope.threadConfined(), new AtomicInteger(), new RecordingLifecycle());
+        final List<Object> results = bus.executeAll(Arrays.asList(new AppendCommand("a"), new AppendCommand("b")));
+        Assert.assertEquals(Arrays.asList("a", "ab"), results);
+        Assert.assertNotNull(bus.execute(new AppendCommand("c")));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testClosedScopeCannotProcessCommands() {
+        final HandlerScope scope = HandlerScope.threadConfined();
+        final CommandBus bus = busOf(scope, new AtomicInteger(), new RecordingLifecycle());
+        scope.close();
+        bus.execute(new AppendCommand("a"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testPoolWithoutCapacityCannotBeCreated() {
+        HandlerScope.pooled(0);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testSupplierOfAnotherTypeIsRejected() {
+        SimpleCommandBusBuilder.create().registerScopedHandler(BufferingCommandHandler.class, () -> (BufferingCommandHandler) null, HandlerScope.threadConfined());
+    }
+
+    private static CommandBus busOf(HandlerScope scope, AtomicInteger creations, RecordingLifecycle lifecycle) {
+        return SimpleCommandBusBuilder.create()
+                .registerScopedHandler(BufferingCommandHandler.class, () -> {
+                    creations.incrementAndGet();
+                    return new BufferingCommandHandler();
+                }, scope, lifecycle)
+                .concurrent()
+            .build();
+    }
+
+}
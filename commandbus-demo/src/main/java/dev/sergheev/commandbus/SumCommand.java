@@ -8,6 +8,13 @@ public class SumCommand implements Command {
     private final int firstNumber;
     private final int secondNumber;
 
+    /**
+     * Used by the {@link dev.sergheev.commandbus.codec.BinaryCommandCodec} to decode the command.
+     */
+    private SumCommand() {
+        this(0, 0);
+    }
+
     public SumCommand(int firstNumber, int secondNumber) {
         this.firstNumber = firstNumber;
         this.secondNumber = secondNumber;
@@ -0,0 +1,23 @@
+package dev.sergheev.commandbus;
+
+import dev.sergheev.commandbus.codec.BinaryCommandCodecBuilder;
+import dev.sergheev.commandbus.codec.CommandCodec;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+public class SumCommandTest {
+
+    @Test
+    public void testSumCommandIsEncodedAndDecodedByTheBinaryCodec() {
+        final CommandCodec codec = BinaryCommandCodecBuilder.create().register(SumCommand.class).build();
+        final ByteBuffer buffer = ByteBuffer.allocate(64);
+        codec.encode(new SumCommand(15, 5), buffer);
+        buffer.flip();
+        final SumCommand decoded = (SumCommand) codec.decode(buffer);
+        Assert.assertEquals(15, decoded.getFirstNumber());
+        Assert.assertEquals(5, decoded.getSecondNumber());
+    }
+
+}
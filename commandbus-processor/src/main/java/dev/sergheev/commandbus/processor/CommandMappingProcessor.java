@@ -0,0 +1,243 @@
+package dev.sergheev.commandbus.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An annotation processor that reads the {@code CommandMapping} and {@code CommandMappings}
+ * annotations at compile time, and generates a {@code StaticCommandHandlerRegistry} with a
+ * hard-wired command to handler dispatch table, so registering the annotated handlers at
+ * runtime does not require any reflection.
+ *
+ * <p>The generated registry is named {@value #DEFAULT_REGISTRY_NAME} by default, which can
+ * be changed with the {@code -A}{@value #REGISTRY_NAME_OPTION}{@code =<fully qualified name>}
+ * compiler option. Every annotated class must be a public, concrete {@code CommandHandler}.
+ *
+ * <p>The binary names of the annotated handlers are also listed in the {@value #INDEX_LOCATION}
+ * index, from which {@code CommandHandlerDiscovery} discovers them without scanning the classpath.
+ */
+public class CommandMappingProcessor extends AbstractProcessor {
+
+    /**
+     * The compiler option that specifies the fully qualified name of the generated registry.
+     */
+    public static final String REGISTRY_NAME_OPTION = "commandbus.registry";
+
+    /**
+     * The fully qualified name of the generated registry if none is specified.
+     */
+    public static final String DEFAULT_REGISTRY_NAME = "dev.sergheev.commandbus.generated.GeneratedCommandHandlerRegistry";
+
+    /**
+     * The location of the generated handler index, as read by {@code CommandHandlerDiscovery}.
+     */
+    public static final String INDEX_LOCATION = "META-INF/commandbus/handlers";
+
+    private static final String COMMAND = "dev.sergheev.commandbus.Command";
+
+    private static final String COMMAND_HANDLER = "dev.sergheev.commandbus.CommandHandler";
+
+    private static final String COMMAND_MAPPING = "dev.sergheev.commandbus.mapping.CommandMapping";
+
+    private static final String COMMAND_MAPPINGS = "dev.sergheev.commandbus.mapping.CommandMappings";
+
+    private Elements elements;
+
+    private Types types;
+
+    private Messager messager;
+
+    private Filer filer;
+
+    /**
+     * Indicates if the registry has already been generated, as it can only be generated once.
+     */
+    private boolean isGenerated;
+
+    @Override
+    public synchronized void init(ProcessingEnvironment processingEnv) {
+        super.init(processingEnv);
+        this.elements = processingEnv.getElementUtils();
+        this.types = processingEnv.getTypeUtils();
+        this.messager = processingEnv.getMessager();
+        this.filer = processingEnv.getFiler();
+        this.isGenerated = false;
+    }
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return new HashSet<>(Arrays.asList(COMMAND_MAPPING, COMMAND_MAPPINGS));
+    }
+
+    @Override
+    public Set<String> getSupportedOptions() {
+        return new HashSet<>(Arrays.asList(REGISTRY_NAME_OPTION));
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if(annotations.isEmpty() || roundEnv.processingOver()) return false;
+        final Set<Element> annotatedElements = new LinkedHashSet<>();
+        for(TypeElement annotation : annotations) annotatedElements.addAll(roundEnv.getElementsAnnotatedWith(annotation));
+        if(annotatedElements.isEmpty()) return false;
+        if(isGenerated) {
+            for(Element element : annotatedElements) error(element, "Handlers generated by other processors cannot be mapped, the registry has already been generated");
+            return false;
+        }
+        isGenerated = true;
+        final TypeElement commandElement = elements.getTypeElement(COMMAND);
+        final TypeElement handlerElement = elements.getTypeElement(COMMAND_HANDLER);
+        if(commandElement == null || handlerElement == null) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "commandbus-spec must be on the classpath to generate the registry");
+            return false;
+        }
+        final TypeMirror commandType = commandElement.asType();
+        final TypeMirror handlerType = types.erasure(handlerElement.asType());
+        final RegistrySourceWriter sourceWriter = new RegistrySourceWriter(registryName());
+        final List<Element> handlerElements = new ArrayList<>();
+        boolean isValid = true;
+        for(Element element : annotatedElements) {
+            if(!isValidHandler(element, handlerType)) {
+                isValid = false;
+                continue;
+            }
+            final TypeElement handler = (TypeElement) element;
+            final List<RegistrySourceWriter.CommandName> commandNames = new ArrayList<>();
+            for(TypeMirror mappedType : extractMappedTypes(handler)) {
+                if(mappedType.getKind() != TypeKind.DECLARED) {
+                    error(handler, "The mapped command type " + mappedType + " cannot be resolved");
+                    isValid = false;
+                } else if(!types.isSameType(mappedType, commandType)) {
+                    final TypeElement command = (TypeElement) ((DeclaredType) mappedType).asElement();
+                    commandNames.add(new RegistrySourceWriter.CommandName(elements.getBinaryName(command).toString(), command.getQualifiedName().toString()));
+                }
+            }
+            handlerElements.add(handler);
+            sourceWriter.addHandler(elements.getBinaryName(handler).toString(), commandNames);
+        }
+        if(isValid) {
+            writeRegistry(sourceWriter, handlerElements);
+            writeIndex(handlerElements);
+        }
+        return false;
+    }
+
+    /**
+     * Checks that the given annotated element is a public concrete handler class, reporting an error otherwise.
+     */
+    private boolean isValidHandler(Element element, TypeMirror handlerType) {
+        if(element.getKind() != ElementKind.CLASS) {
+            error(element, "Only handler classes can be annotated with command mappings");
+            return false;
+        }
+        if(element.getModifiers().contains(Modifier.ABSTRACT)) {
+            error(element, "An abstract class cannot be a mapped handler");
+            return false;
+        }
+        if(!types.isAssignable(element.asType(), handlerType)) {
+            error(element, "A mapped handler must implement " + COMMAND_HANDLER);
+            return false;
+        }
+        for(Element enclosing = element; enclosing.getKind() != ElementKind.PACKAGE; enclosing = enclosing.getEnclosingElement()) {
+            if(!enclosing.getModifiers().contains(Modifier.PUBLIC)) {
+                error(element, "A mapped handler must be public (as well as its enclosing classes) to be referenced by the generated registry");
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Extracts the command types of all the command mappings present in the given handler, in declaration order.
+     */
+    private List<TypeMirror> extractMappedTypes(TypeElement handler) {
+        final List<TypeMirror> mappedTypes = new ArrayList<>();
+        for(AnnotationMirror mirror : handler.getAnnotationMirrors()) {
+            final String annotationName = ((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().toString();
+            if(COMMAND_MAPPING.equals(annotationName)) {
+                mappedTypes.add((TypeMirror) valueOf(mirror).getValue());
+            } else if(COMMAND_MAPPINGS.equals(annotationName)) {
+                @SuppressWarnings("unchecked")
+                final List<? extends AnnotationValue> mappings = (List<? extends AnnotationValue>) valueOf(mirror).getValue();
+                for(AnnotationValue mapping : mappings) mappedTypes.add((TypeMirror) valueOf((AnnotationMirror) mapping.getValue()).getValue());
+            }
+        }
+        return mappedTypes;
+    }
+
+    /**
+     * Returns the value of the {@code value()} member of the given annotation.
+     */
+    private AnnotationValue valueOf(AnnotationMirror mirror) {
+        for(Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : mirror.getElementValues().entrySet()) {
+            if(entry.getKey().getSimpleName().contentEquals("value")) return entry.getValue();
+        }
+        throw new IllegalStateException("The annotation " + mirror + " has no value");
+    }
+
+    private void writeRegistry(RegistrySourceWriter sourceWriter, List<Element> handlerElements) {
+        try {
+            final JavaFileObject sourceFile = filer.createSourceFile(sourceWriter.getRegistryName(), handlerElements.toArray(new Element[0]));
+            try(Writer writer = sourceFile.openWriter()) {
+                sourceWriter.writeTo(writer);
+            }
+        } catch (IOException e) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "Unable to generate " + sourceWriter.getRegistryName() + ": " + e.getMessage());
+        }
+    }
+
+    private void writeIndex(List<Element> handlerElements) {
+        try {
+            final FileObject index = filer.createResource(StandardLocation.CLASS_OUTPUT, "", INDEX_LOCATION, handlerElements.toArray(new Element[0]));
+            try(Writer writer = index.openWriter()) {
+                for(Element handler : handlerElements) writer.write(elements.getBinaryName((TypeElement) handler) + "\n");
+            }
+        } catch (IOException e) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "Unable to generate " + INDEX_LOCATION + ": " + e.getMessage());
+        }
+    }
+
+    private String registryName() {
+        final String registryName = processingEnv.getOptions().get(REGISTRY_NAME_OPTION);
+        return registryName == null || registryName.isEmpty() ? DEFAULT_REGISTRY_NAME : registryName;
+    }
+
+    private void error(Element element, String message) {
+        messager.printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+
+}
@@ -0,0 +1,131 @@
+package dev.sergheev.commandbus.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes the source code of the generated registry, assigning a slot to every mapped command type.
+ */
+final class RegistrySourceWriter {
+
+    /**
+     * The binary and canonical names of a mapped command type.
+     */
+    static final class CommandName {
+
+        /**
+         * The name returned by {@link Class#getName()}, which is the one the registry is looked up with.
+         */
+        private final String binaryName;
+
+        /**
+         * The name the command type is referenced with in the source code.
+         */
+        private final String canonicalName;
+
+        CommandName(String binaryName, String canonicalName) {
+            this.binaryName = binaryName;
+            this.canonicalName = canonicalName;
+        }
+
+    }
+
+    private final String registryName;
+
+    /**
+     * Associates the binary name of every mapped command type to its slot.
+     */
+    private final Map<String, Integer> commandToSlot;
+
+    /**
+     * The canonical names of the mapped command types, indexed by their slot.
+     */
+    private final List<String> slotToCommand;
+
+    /**
+     * Associates the binary name of every handler type to the slots of the commands it processes.
+     */
+    private final Map<String, List<Integer>> handlerToSlots;
+
+    RegistrySourceWriter(String registryName) {
+        this.registryName = registryName;
+        this.commandToSlot = new LinkedHashMap<>();
+        this.slotToCommand = new ArrayList<>();
+        this.handlerToSlots = new LinkedHashMap<>();
+    }
+
+    String getRegistryName() {
+        return registryName;
+    }
+
+    /**
+     * Adds a handler that processes the given command types.
+     */
+    void addHandler(String handlerName, List<CommandName> commandNames) {
+        final List<Integer> slots = new ArrayList<>();
+        for(CommandName commandName : commandNames) {
+            Integer slot = commandToSlot.get(commandName.binaryName);
+            if(slot == null) {
+                slot = slotToCommand.size();
+                commandToSlot.put(commandName.binaryName, slot);
+                slotToCommand.add(commandName.canonicalName);
+            }
+            if(!slots.contains(slot)) slots.add(slot);
+        }
+        handlerToSlots.put(handlerName, slots);
+    }
+
+    void writeTo(Writer writer) throws IOException {
+        final int packageEnd = registryName.lastIndexOf('.');
+        final String simpleName = registryName.substring(packageEnd + 1);
+        final StringBuilder source = new StringBuilder();
+        if(packageEnd > 0) source.append("package ").append(registryName, 0, packageEnd).append(";\n\n");
+        source.append("/**\n")
+              .append(" * A registry with a hard-wired dispatch table of the handlers annotated with command mappings.\n")
+              .append(" *\n")
+              .append(" * <p>Generated by dev.sergheev.commandbus.processor.CommandMappingProcessor, do not edit.\n")
+              .append(" */\n")
+              .append("@SuppressWarnings({ \"rawtypes\", \"unchecked\" })\n")
+              .append("public final class ").append(simpleName).append(" extends dev.sergheev.commandbus.registry.StaticCommandHandlerRegistry {\n\n")
+              .append("    private static final Class<? extends dev.sergheev.commandbus.Command>[] COMMAND_TYPES = new Class[] {\n");
+        for(int slot = 0; slot < slotToCommand.size(); slot++) {
+            source.append("        ").append(slotToCommand.get(slot)).append(".class");
+            source.append(slot + 1 < slotToCommand.size() ? ",\n" : "\n");
+        }
+        source.append("    };\n\n")
+              .append("    public ").append(simpleName).append("() {\n")
+              .append("        this(dev.sergheev.commandbus.registry.CommandHandlerDecorator.NONE);\n")
+              .append("    }\n\n")
+              .append("    public ").append(simpleName).append("(dev.sergheev.commandbus.registry.CommandHandlerDecorator handlerDecorator) {\n")
+              .append("        super(COMMAND_TYPES, handlerDecorator);\n")
+              .append("    }\n\n")
+              .append("    @Override\n")
+              .append("    protected int slotOf(String commandName) {\n")
+              .append("        switch(commandName) {\n");
+        for(Map.Entry<String, Integer> entry : commandToSlot.entrySet()) {
+            source.append("            case \"").append(entry.getKey()).append("\": return ").append(entry.getValue()).append(";\n");
+        }
+        source.append("            default: return -1;\n")
+              .append("        }\n")
+              .append("    }\n\n")
+              .append("    @Override\n")
+              .append("    protected int[] slotsOf(String handlerName) {\n")
+              .append("        switch(handlerName) {\n");
+        for(Map.Entry<String, List<Integer>> entry : handlerToSlots.entrySet()) {
+            source.append("            case \"").append(entry.getKey()).append("\": return new int[] { ");
+            final List<Integer> slots = entry.getValue();
+            for(int i = 0; i < slots.size(); i++) source.append(i == 0 ? "" : ", ").append(slots.get(i));
+            source.append(slots.isEmpty() ? "};\n" : " };\n");
+        }
+        source.append("            default: return null;\n")
+              .append("        }\n")
+              .append("    }\n\n")
+              .append("}\n");
+        writer.write(source.toString());
+    }
+
+}
@@ -0,0 +1,184 @@
+package dev.sergheev.commandbus.processor;
+
+import dev.sergheev.commandbus.CommandBus;
+import dev.sergheev.commandbus.CommandHandler;
+import dev.sergheev.commandbus.SimpleCommandBusBuilder;
+import dev.sergheev.commandbus.discovery.CommandHandlerDiscovery;
+import dev.sergheev.commandbus.registry.CommandHandlerDecorator;
+import dev.sergheev.commandbus.registry.CommandHandlerRegistry;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+
+@SuppressWarnings({ "rawtypes", "unchecked" })
+public class CommandMappingProcessorTest {
+
+    private static final String COMMANDS =
+            "package app;\n" +
+            "public class Commands {\n" +
+            "    public static class Greet implements dev.sergheev.commandbus.Command {\n" +
+            "        public final String name;\n" +
+            "        public Greet(String name) { this.name = name; }\n" +
+            "    }\n" +
+            "    public static class Wave implements dev.sergheev.commandbus.Command {}\n" +
+            "    public static class Unmapped implements dev.sergheev.commandbus.Command {}\n" +
+            "}\n";
+
+    private static final String GREET_HANDLER =
+            "package app;\n" +
+            "@dev.sergheev.commandbus.mapping.CommandMapping(Commands.Greet.class)\n" +
+            "public class GreetHandler implements dev.sergheev.commandbus.CommandHandler<Commands.Greet, String> {\n" +
+            "    public String handle(Commands.Greet command) { return \"Hello \" + command.name; }\n" +
+            "}\n";
+
+    private static final String MULTI_HANDLER =
+            "package app;\n" +
+            "@dev.sergheev.commandbus.mapping.CommandMapping(dev.sergheev.commandbus.Command.class)\n" +
+            "@dev.sergheev.commandbus.mapping.CommandMapping(Commands.Greet.class)\n" +
+            "@dev.sergheev.commandbus.mapping.CommandMapping(Commands.Wave.class)\n" +
+            "public class MultiHandler implements dev.sergheev.commandbus.CommandHandler<dev.sergheev.commandbus.Command, String> {\n" +
+            "    public String handle(dev.sergheev.commandbus.Command command) { return \"multi\"; }\n" +
+            "}\n";
+
+    private static final String NOT_A_HANDLER =
+            "package app;\n" +
+            "@dev.sergheev.commandbus.mapping.CommandMapping(Commands.Greet.class)\n" +
+            "public class NotAHandler {}\n";
+
+    private static final String PACKAGE_PRIVATE_HANDLER =
+            "package app;\n" +
+            "@dev.sergheev.commandbus.mapping.CommandMapping(Commands.Greet.class)\n" +
+            "class HiddenHandler implements dev.sergheev.commandbus.CommandHandler<Commands.Greet, String> {\n" +
+            "    public String handle(Commands.Greet command) { return \"hidden\"; }\n" +
+            "}\n";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+
+    @Test
+    public void testGeneratedRegistryDispatchesMappedCommands() throws Exception {
+        final ClassLoader loader = compile(new String[0], COMMANDS, GREET_HANDLER, MULTI_HANDLER);
+        final CommandHandlerRegistry registry = newRegistry(loader, CommandMappingProcessor.DEFAULT_REGISTRY_NAME);
+        final Class greetType = loader.loadClass("app.Commands$Greet");
+        final Class waveType = loader.loadClass("app.Commands$Wave");
+        final Class greetHandlerType = loader.loadClass("app.GreetHandler");
+        final Class multiHandlerType = loader.loadClass("app.MultiHandler");
+        final Object multiHandler = multiHandlerType.getDeclaredConstructor().newInstance();
+        final Object greetHandler = greetHandlerType.getDeclaredConstructor().newInstance();
+        registry.registerHandler(multiHandlerType, multiHandler);
+        registry.registerHandler(greetHandlerType, greetHandler);
+        Assert.assertSame(greetHandler, registry.getHandlerFor(greetType));
+        Assert.assertSame(greetHandler, registry.getHandlerFor("app.Commands$Greet"));
+        Assert.assertSame(multiHandler, registry.getHandlerFor(waveType));
+        Assert.assertNull(registry.getHandlerFor((Class) loader.loadClass("app.Commands$Unmapped")));
+        registry.unregisterHandler(greetHandlerType);
+        Assert.assertNull(registry.getHandlerFor(greetType));
+    }
+
+    @Test
+    public void testGeneratedRegistryIsUsableByTheBuilderWithDecorators() throws Exception {
+        final ClassLoader loader = compile(new String[0], COMMANDS, GREET_HANDLER);
+        final Class registryType = loader.loadClass(CommandMappingProcessor.DEFAULT_REGISTRY_NAME);
+        final Function<CommandHandlerDecorator, CommandHandlerRegistry> registryFactory = decorator -> {
+            try {
+                return (CommandHandlerRegistry) registryType.getConstructor(CommandHandlerDecorator.class).newInstance(decorator);
+            } catch (ReflectiveOperationException e) {
+                throw new AssertionError(e);
+            }
+        };
+        final Class greetHandlerType = loader.loadClass("app.GreetHandler");
+        final CommandBus bus = SimpleCommandBusBuilder.create()
+                .registerHandler(greetHandlerType, greetHandlerType.getDeclaredConstructor().newInstance())
+                .withRegistryFactory(registryFactory)
+                .addInterceptor((command, next) -> "<" + next.handle(command) + ">")
+            .build();
+        final Object command = loader.loadClass("app.Commands$Greet").getConstructor(String.class).newInstance("bus");
+        Assert.assertEquals("<Hello bus>", bus.execute((dev.sergheev.commandbus.Command) command));
+    }
+
+    @Test
+    public void testGeneratedIndexListsTheMappedHandlers() throws Exception {
+        final ClassLoader loader = compile(new String[0], COMMANDS, GREET_HANDLER, MULTI_HANDLER);
+        final List<Class<? extends CommandHandler>> handlerTypes = CommandHandlerDiscovery.create().withClassLoader(loader).discover();
+        Assert.assertEquals(Arrays.asList(loader.loadClass("app.GreetHandler"), loader.loadClass("app.MultiHandler")), handlerTypes);
+    }
+
+    @Test
+    public void testRegistryNameCanBeSpecified() throws Exception {
+        final ClassLoader loader = compile(new String[] { "-Acommandbus.registry=app.AppRegistry" }, COMMANDS, GREET_HANDLER);
+        Assert.assertNotNull(newRegistry(loader, "app.AppRegistry"));
+    }
+
+    @Test
+    public void testMappedClassThatIsNotAHandlerIsRejected() throws Exception {
+        Assert.assertFalse(tryCompile(new String[0], COMMANDS, NOT_A_HANDLER));
+        Assert.assertTrue(hasError("must implement"));
+    }
+
+    @Test
+    public void testMappedHandlerThatIsNotPublicIsRejected() throws Exception {
+        Assert.assertFalse(tryCompile(new String[0], COMMANDS, PACKAGE_PRIVATE_HANDLER));
+        Assert.assertTrue(hasError("must be public"));
+    }
+
+    private CommandHandlerRegistry newRegistry(ClassLoader loader, String registryName) throws ReflectiveOperationException {
+        return (CommandHandlerRegistry) loader.loadClass(registryName).getDeclaredConstructor().newInstance();
+    }
+
+    private ClassLoader compile(String[] options, String... sources) throws IOException {
+        Assert.assertTrue(diagnostics.getDiagnostics().toString(), tryCompile(options, sources));
+        return new URLClassLoader(new URL[] { new File(folder.getRoot(), "classes").toURI().toURL() }, CommandHandler.class.getClassLoader());
+    }
+
+    private boolean tryCompile(String[] options, String... sources) throws IOException {
+        final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        final File sourceDirectory = folder.newFolder("sources");
+        final File classDirectory = folder.newFolder("classes");
+        final List<File> sourceFiles = new ArrayList<>();
+        for(String source : sources) {
+            final String className = source.substring(source.indexOf("class ") + 6, source.indexOf(' ', source.indexOf("class ") + 6));
+            final File sourceFile = new File(sourceDirectory, className + ".java");
+            Files.write(sourceFile.toPath(), source.getBytes(StandardCharsets.UTF_8));
+            sourceFiles.add(sourceFile);
+        }
+        final List<String> compilerOptions = new ArrayList<>(Arrays.asList(
+                "-classpath", System.getProperty("java.class.path"),
+                "-d", classDirectory.getPath(),
+                "-s", classDirectory.getPath()));
+        compilerOptions.addAll(Arrays.asList(options));
+        try(StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnostics, null, StandardCharsets.UTF_8)) {
+            final JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, diagnostics, compilerOptions, null,
+                    fileManager.getJavaFileObjectsFromFiles(sourceFiles));
+            task.setProcessors(Arrays.asList(new CommandMappingProcessor()));
+            return task.call();
+        }
+    }
+
+    private boolean hasError(String message) {
+        for(Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+            if(diagnostic.getKind() == Diagnostic.Kind.ERROR && diagnostic.getMessage(null).contains(message)) return true;
+        }
+        return false;
+    }
+
+}
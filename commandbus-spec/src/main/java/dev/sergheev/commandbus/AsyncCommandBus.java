@@ -0,0 +1,24 @@
+package dev.sergheev.commandbus;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A {@link CommandBus} that is also able to deliver commands to their respective
+ * {@link CommandHandler} asynchronously, without holding the calling thread while
+ * the command is being processed.
+ */
+public interface AsyncCommandBus extends CommandBus {
+
+    /**
+     * Returns a future that completes with the resulting object from processing the
+     * given command. If the command processing fails (i.e. there is no handler able
+     * to process the given command, or the handler throws) the returned future will
+     * be completed exceptionally with the failure cause.
+     * @param command the command that is to be processed
+     * @param <R> the type of the returned result
+     * @throws NullPointerException if the given {@code command} is {@code null}
+     * @return a future that completes with the resulting object from processing the given command
+     */
+    <R> CompletableFuture<R> executeAsync(Command command) throws NullPointerException;
+
+}
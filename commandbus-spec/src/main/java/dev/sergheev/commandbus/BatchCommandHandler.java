@@ -0,0 +1,19 @@
+package dev.sergheev.commandbus;
+
+import java.util.List;
+
+/**
+ * A {@link CommandHandler} that is also able to process a group of commands of
+ * the same type at once, amortizing the per-command processing costs.
+ */
+public interface BatchCommandHandler<C extends Command, R> extends CommandHandler<C, R> {
+
+    /**
+     * Receives, processes and returns the execution results of all the given commands.
+     * @param commands the concrete commands that are to be processed
+     * @return the execution results, the result at index {@code i} must be the result of
+     *         the command at index {@code i}, so both lists must have the same size
+     */
+    List<R> handleAll(List<C> commands);
+
+}
@@ -1,5 +1,11 @@
 package dev.sergheev.commandbus;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static java.util.Objects.requireNonNull;
+
 /**
  * An intermediate router that delivers the provided command to its
  * respective {@link CommandHandler}, returning an execution answer.
@@ -11,8 +17,25 @@ public interface CommandBus {
      * @param command the command that is to be processed
      * @param <R> the type of the returned result
      * @throws NullPointerException if the given {@code command} is {@code null}
+     * @throws IllegalArgumentException if there is no handler able to process the given {@code command}
      * @return the resulting object from processing the given command
      */
-    <R> R execute(Command command) throws NullPointerException;
+    <R> R execute(Command command) throws NullPointerException, IllegalArgumentException;
+
+    /**
+     * Returns the resulting objects from processing all the given commands, in the same order.
+     * @param commands the commands that are to be processed
+     * @param <R> the type of the returned results
+     * @throws NullPointerException if the given {@code commands} list or any of its commands is {@code null}
+     * @throws IllegalArgumentException if there is no handler able to process any of the given {@code commands}
+     * @return an unmodifiable list of the resulting objects from processing the given commands,
+     *         the result at index {@code i} is the result of the command at index {@code i}
+     */
+    default <R> List<R> executeAll(List<? extends Command> commands) throws NullPointerException, IllegalArgumentException {
+        requireNonNull(commands, "commands must not be null");
+        final List<R> results = new ArrayList<>(commands.size());
+        for(Command command : commands) results.add(execute(command));
+        return Collections.unmodifiableList(results);
+    }
 
 }
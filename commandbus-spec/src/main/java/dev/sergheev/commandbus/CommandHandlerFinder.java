@@ -1,5 +1,7 @@
 package dev.sergheev.commandbus;
 
+import static java.util.Objects.requireNonNull;
+
 /**
  * The {@code CommandHandlerFinder} responsibility is to map the
  * provided command name to its correspondent command handler.
@@ -17,4 +19,20 @@ public interface CommandHandlerFinder {
      */
     <C extends Command, R> CommandHandler<C, R> findHandlerFor(String commandName) throws NullPointerException, IllegalArgumentException;
 
+    /**
+     * Returns a concrete handler implementation that is able to process the commands of the given type.
+     * The default implementation looks the handler up by the name of the type, implementations are
+     * encouraged to override it with a lookup that does not go through the name.
+     * @param commandType the type of the command whose handler is to be found
+     * @param <C> the type of the concrete command
+     * @param <R> the type of the command computation result
+     * @throws NullPointerException if {@code commandType} is {@code null}
+     * @return a concrete {@link CommandHandler} implementation able to handle the given command,
+     *         or {@code null} if there is no handler associated to {@code commandType}
+     */
+    default <C extends Command, R> CommandHandler<C, R> findHandlerFor(Class<? extends Command> commandType) throws NullPointerException {
+        requireNonNull(commandType, "commandType must not be null");
+        return findHandlerFor(commandType.getName());
+    }
+
 }
@@ -0,0 +1,42 @@
+package dev.sergheev.commandbus;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The {@code CommandInterceptor} responsibility is to perform a cross-cutting
+ * action (i.e. validation, timing, authorization, transactions) around the
+ * processing of a {@link Command} by its {@link CommandHandler}.
+ */
+@FunctionalInterface
+public interface CommandInterceptor<C extends Command, R> {
+
+    /**
+     * Intercepts the processing of the given command, the interceptor decides whether
+     * and when the processing continues by calling {@code next.handle(command)}.
+     * @param command the concrete command that is being processed
+     * @param next the next stage of the processing (the next interceptor, or the handler itself)
+     * @return the command execution result
+     */
+    R intercept(C command, CommandHandler<C, R> next);
+
+    /**
+     * Intercepts the processing of a group of commands by a {@link BatchCommandHandler}.
+     *
+     * <p>By default every command is intercepted on its own by {@link #intercept}, so no
+     * command escapes the interceptor, at the cost of handing the commands over to the
+     * handler one by one. Interceptors whose action applies to the group as a whole (i.e.
+     * timing, transactions) may override this method and call {@code next.handleAll(commands)}
+     * once, keeping the batch processing of the handler.
+     * @param commands the concrete commands that are being processed
+     * @param next the next stage of the processing (the next interceptor, or the handler itself)
+     * @return the execution results, the result at index {@code i} must be the result of
+     *         the command at index {@code i}
+     */
+    default List<R> interceptAll(List<C> commands, BatchCommandHandler<C, R> next) {
+        final List<R> results = new ArrayList<>(commands.size());
+        for(C command : commands) results.add(intercept(command, next));
+        return results;
+    }
+
+}
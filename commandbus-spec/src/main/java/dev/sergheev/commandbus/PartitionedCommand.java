@@ -0,0 +1,16 @@
+package dev.sergheev.commandbus;
+
+/**
+ * A {@link Command} that belongs to a partition (i.e., the aggregate it modifies), so the
+ * commands of the same partition can be processed in order, one at a time, while the
+ * commands of different partitions are processed in parallel.
+ */
+public interface PartitionedCommand extends Command {
+
+    /**
+     * Returns the key of the partition of this command. Commands with equal keys are in the same partition.
+     * @return the key of the partition of this command, never {@code null}
+     */
+    Object partitionKey();
+
+}
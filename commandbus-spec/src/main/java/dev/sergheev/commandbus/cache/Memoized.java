@@ -0,0 +1,29 @@
+package dev.sergheev.commandbus.cache;
+
+import dev.sergheev.commandbus.Command;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a {@link Command} type whose result is a pure function of its fields, so the
+ * result of an equal command can be reused instead of calling the handler again. The
+ * command type must implement {@code equals} and {@code hashCode} accordingly.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Memoized {
+
+    /**
+     * The maximum amount of results kept for the command type.
+     */
+    int maximumSize() default 1024;
+
+    /**
+     * The amount of milliseconds a result is kept for after it is computed, or {@code 0} to keep it until evicted.
+     */
+    long expireAfterWriteMillis() default 0;
+
+}
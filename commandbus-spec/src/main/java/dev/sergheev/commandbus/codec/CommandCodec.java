@@ -0,0 +1,38 @@
+package dev.sergheev.commandbus.codec;
+
+import dev.sergheev.commandbus.Command;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Encodes commands to bytes and decodes them back, so they can be moved off-heap,
+ * to disk or across processes.
+ *
+ * <p>Commands are written to and read from {@link ByteBuffer}s directly (which may be
+ * direct or memory-mapped buffers), starting at their position. Implementations must be
+ * thread-safe.
+ */
+public interface CommandCodec {
+
+    /**
+     * Writes the given command into the given buffer, from its position on, and advances
+     * the position past the written bytes. If the command does not fit in the remaining
+     * bytes of the buffer, the contents of the buffer past its initial position are undefined.
+     * @param command the command that is to be encoded
+     * @param buffer the buffer that is to receive the encoded command
+     * @throws BufferOverflowException if the command does not fit in the remaining bytes of the buffer
+     * @throws IllegalArgumentException if the command cannot be encoded by this codec
+     */
+    void encode(Command command, ByteBuffer buffer) throws BufferOverflowException, IllegalArgumentException;
+
+    /**
+     * Reads a command written by {@link #encode(Command, ByteBuffer)} from the given buffer, from its
+     * position up to its limit, and advances the position past the read bytes.
+     * @param buffer the buffer that holds the encoded command
+     * @throws IllegalArgumentException if the bytes do not hold a command encoded by this codec
+     * @return the decoded command
+     */
+    Command decode(ByteBuffer buffer) throws IllegalArgumentException;
+
+}
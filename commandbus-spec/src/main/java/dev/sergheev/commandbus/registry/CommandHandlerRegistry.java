@@ -3,6 +3,10 @@ package dev.sergheev.commandbus.registry;
 import dev.sergheev.commandbus.Command;
 import dev.sergheev.commandbus.CommandHandler;
 
+import java.util.Map;
+
+import static java.util.Objects.requireNonNull;
+
 /**
  * An interface that represents a registry of {@link CommandHandler} instances.
  *
@@ -23,6 +27,18 @@ public interface CommandHandlerRegistry {
      */
     <T extends CommandHandler> T registerHandler(Class<T> type, Object instance) throws NullPointerException;
 
+    /**
+     * Stores all the specified type-instance relationships in this registry, as {@link #registerHandler(Class, Object)}
+     * does for each of them. Implementations that rebuild their lookup structures on every registration are encouraged
+     * to override it, so they are rebuilt once for all the given handlers.
+     * @param typeToInstance the types and the instances to be associated with them
+     * @throws NullPointerException if {@code typeToInstance}, or any of its types or instances, is {@code null}
+     */
+    default void registerHandlers(Map<Class<? extends CommandHandler>, Object> typeToInstance) throws NullPointerException {
+        requireNonNull(typeToInstance, "typeToInstance must not be null");
+        typeToInstance.forEach(this::registerHandler);
+    }
+
     /**
      * Removes the instance to which the type is associated from this registry.
      * @param type type whose instance of to be removed from this registry
@@ -49,10 +65,27 @@ public interface CommandHandlerRegistry {
      * @param <C> type of the command
      * @param <R> type of the handler's response
      * @throws NullPointerException if {@code commandName} is {@code null}
-     * @return the instance which is able to handle the given command name
+     * @return the instance which is able to handle the given command name, or
+     *         {@code null} if there is no handler associated to {@code commandName}
      */
     <C extends Command, R> CommandHandler<C, R> getHandlerFor(String commandName) throws NullPointerException;
 
+    /**
+     * Returns the instance which is able to handle a given command type. The default implementation
+     * looks the instance up by the name of the type, implementations are encouraged to override it
+     * with a lookup that does not go through the name.
+     * @param commandType command class
+     * @param <C> type of the command
+     * @param <R> type of the handler's response
+     * @throws NullPointerException if {@code commandType} is {@code null}
+     * @return the instance which is able to handle the given command type, or
+     *         {@code null} if there is no handler associated to {@code commandType}
+     */
+    default <C extends Command, R> CommandHandler<C, R> getHandlerFor(Class<? extends Command> commandType) throws NullPointerException {
+        requireNonNull(commandType, "commandType must not be null");
+        return getHandlerFor(commandType.getName());
+    }
+
     /**
      * Returns {@code true} if the type is associated to an instance in this
      * container, false otherwise.